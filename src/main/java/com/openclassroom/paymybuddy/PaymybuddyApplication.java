@@ -2,6 +2,7 @@ package com.openclassroom.paymybuddy;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import io.github.cdimascio.dotenv.Dotenv;
 
 
@@ -9,6 +10,7 @@ import io.github.cdimascio.dotenv.Dotenv;
  * Classe principale pour démarrer l'application Pay My Buddy.
  */
 @SpringBootApplication
+@EnableScheduling
 public class PaymybuddyApplication {
 
 	public static void main(String[] args) {
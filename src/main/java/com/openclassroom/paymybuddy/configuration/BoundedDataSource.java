@@ -0,0 +1,142 @@
+package com.openclassroom.paymybuddy.configuration;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Source de données limitant le nombre de connexions JDBC empruntées simultanément.
+ * Un sémaphore équitable est acquis avant chaque emprunt et libéré à la fermeture de la connexion :
+ * lorsque les requêtes sont exécutées sur des threads virtuels, les demandes excédentaires attendent
+ * ici, dans l'ordre d'arrivée, au lieu de s'accumuler dans le pool de connexions jusqu'à son délai d'expiration.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    /**
+     * Autorisations d'emprunt, une par connexion du pool.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Durée maximale d'attente d'une autorisation, en millisecondes.
+     */
+    private final long acquireTimeoutMillis;
+
+    /**
+     * Constructeur.
+     *
+     * @param targetDataSource Source de données du pool de connexions
+     * @param maxConcurrency Nombre maximal de connexions empruntées simultanément
+     * @param acquireTimeoutMillis Durée maximale d'attente d'une autorisation, en millisecondes
+     */
+    public BoundedDataSource(DataSource targetDataSource, int maxConcurrency, long acquireTimeoutMillis) {
+        super(targetDataSource);
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Le nombre maximal de connexions simultanées doit être positif");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return bound(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return bound(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne le nombre d'autorisations disponibles.
+     *
+     * @return le nombre de connexions pouvant encore être empruntées sans attendre
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Retourne une estimation du nombre de threads en attente d'une connexion.
+     *
+     * @return le nombre de threads en attente
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Attend une autorisation d'emprunt.
+     *
+     * @throws SQLException si aucune autorisation n'est obtenue dans le délai imparti
+     */
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Aucune connexion disponible après " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente d'une connexion interrompue", e);
+        }
+    }
+
+    /**
+     * Enveloppe une connexion afin de libérer son autorisation à sa fermeture, une seule fois.
+     *
+     * @param connection la connexion empruntée
+     * @return la connexion enveloppée
+     */
+    private Connection bound(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                try {
+                    return invoke(connection, method, args);
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            }
+            return invoke(connection, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Invoque une méthode sur la connexion cible en propageant son exception d'origine.
+     */
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
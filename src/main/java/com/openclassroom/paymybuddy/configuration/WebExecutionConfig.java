@@ -0,0 +1,101 @@
+package com.openclassroom.paymybuddy.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration du mode d'exécution des requêtes HTTP et de la limitation des accès JDBC.
+ * <p>En mode {@link WebExecutionMode#VIRTUAL}, Tomcat traite chaque requête sur un thread virtuel :
+ * un appel JDBC bloquant ne monopolise plus un thread du pool plateforme. Le nombre de connexions
+ * empruntées simultanément est alors borné par un sémaphore ({@link BoundedDataSource}) aligné
+ * sur la taille du pool Hikari.</p>
+ * <p>L'application cible Java 17 : l'exécuteur de threads virtuels est obtenu par réflexion
+ * et le pool plateforme est conservé lorsque la JVM ne les prend pas en charge.</p>
+ */
+@Configuration
+public class WebExecutionConfig {
+
+    /**
+     * Logger pour enregistrer les informations de configuration.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(WebExecutionConfig.class);
+
+    /**
+     * Configure Tomcat pour traiter les requêtes sur des threads virtuels.
+     *
+     * @return le personnaliseur du serveur Tomcat
+     */
+    @Bean
+    @ConditionalOnProperty(name = "paymybuddy.web.execution-mode", havingValue = "VIRTUAL")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> {
+            Optional<ExecutorService> executor = newVirtualThreadExecutor();
+            if (executor.isEmpty()) {
+                logger.warn("Threads virtuels indisponibles sur Java {}, utilisation du pool de threads plateforme",
+                        Runtime.version().feature());
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(protocolHandler -> protocolHandler.setExecutor(executor.get()));
+            logger.info("Requêtes HTTP exécutées sur des threads virtuels");
+        };
+    }
+
+    /**
+     * Enveloppe la source de données dans une {@link BoundedDataSource} lorsque la limitation
+     * des accès JDBC est activée (par défaut en mode {@link WebExecutionMode#VIRTUAL}).
+     *
+     * @param environment Environnement Spring donnant accès aux propriétés
+     * @return le post-processeur de la source de données
+     */
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+                WebExecutionMode mode = environment.getProperty("paymybuddy.web.execution-mode",
+                        WebExecutionMode.class, WebExecutionMode.PLATFORM);
+                boolean enabled = environment.getProperty("paymybuddy.jdbc.bulkhead.enabled",
+                        Boolean.class, mode == WebExecutionMode.VIRTUAL);
+                if (!enabled) {
+                    return bean;
+                }
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                int permits = environment.getProperty("paymybuddy.jdbc.bulkhead.permits", Integer.class, poolSize);
+                long timeoutMillis = environment.getProperty("paymybuddy.jdbc.bulkhead.acquire-timeout-ms",
+                        Long.class, 30000L);
+                logger.info("Accès JDBC limités à {} connexions simultanées pour la source de données {}", permits, beanName);
+                return new BoundedDataSource((DataSource) bean, permits, timeoutMillis);
+            }
+        };
+    }
+
+    /**
+     * Crée un exécuteur lançant un thread virtuel par tâche, si la JVM le permet.
+     *
+     * @return l'exécuteur, ou vide si les threads virtuels ne sont pas disponibles
+     */
+    static Optional<ExecutorService> newVirtualThreadExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.openclassroom.paymybuddy.configuration;
+
+/**
+ * Mode d'exécution des requêtes HTTP par Tomcat.
+ * Configurable via la propriété {@code paymybuddy.web.execution-mode}.
+ */
+public enum WebExecutionMode {
+
+    /**
+     * Pool de threads plateforme de Tomcat (comportement par défaut, {@code server.tomcat.threads.max}).
+     */
+    PLATFORM,
+
+    /**
+     * Un thread virtuel par requête. Nécessite une JVM 21 ou plus récente ;
+     * sur une JVM plus ancienne, le pool de threads plateforme est conservé.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,77 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Contrôleur REST exposant les totaux mensuels d'un utilisateur.
+ */
+@RestController
+@RequestMapping("/api/users/{userId}/monthly-stats")
+public class MonthlyStatsRestController {
+
+    /**
+     * Logger pour enregistrer les événements liés aux totaux mensuels.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyStatsRestController.class);
+
+    /**
+     * Service des totaux mensuels.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
+    /**
+     * Service d'authentification pour récupérer l'utilisateur connecté.
+     */
+    private final AuthService authService;
+
+    /**
+     * Constructeur pour injecter les services nécessaires.
+     *
+     * @param monthlyStatsService Service des totaux mensuels.
+     * @param authService Service d'authentification.
+     */
+    public MonthlyStatsRestController(MonthlyStatsService monthlyStatsService, AuthService authService) {
+        this.monthlyStatsService = monthlyStatsService;
+        this.authService = authService;
+    }
+
+    /**
+     * Récupère les totaux d'un utilisateur sur les derniers mois, du plus récent au plus ancien.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @param months Le nombre de mois, mois courant compris (12 par défaut).
+     * @return Les totaux mensuels, ou 400 si le nombre de mois est hors limites.
+     */
+    @GetMapping
+    public ResponseEntity<List<MonthlyStatsDTO>> getMonthlyStats(@PathVariable Long userId,
+                                                                 @RequestParam(defaultValue = "12") int months) {
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            return ResponseEntity.ok(monthlyStatsService.getMonthlyStats(userId, months));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Totaux mensuels refusés - Utilisateur ID: {} : {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
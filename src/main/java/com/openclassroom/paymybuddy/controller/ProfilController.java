@@ -4,6 +4,7 @@ import com.openclassroom.paymybuddy.dto.ChangePasswordDTO;
 import com.openclassroom.paymybuddy.dto.ChangeUsernameDTO;
 import com.openclassroom.paymybuddy.dto.ChangeEmailDTO;
 import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
 import com.openclassroom.paymybuddy.service.UserService;
 import com.openclassroom.paymybuddy.model.User;
 
@@ -32,6 +33,11 @@ public class ProfilController {
      */
     private static final Logger logger = LoggerFactory.getLogger(ProfilController.class);
 
+    /**
+     * Nombre de mois dont les totaux sont affichés sur le profil.
+     */
+    public static final int PROFILE_STATS_MONTHS = 6;
+
     /**
      * Service d'authentification pour récupérer l'utilisateur connecté.
      */
@@ -47,17 +53,25 @@ public class ProfilController {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Service des totaux mensuels.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
     /**
      * Constructeur pour injecter les dépendances nécessaires.
      *
      * @param authService Service d'authentification.
      * @param userService Service utilisateur.
      * @param passwordEncoder Encodeur de mot de passe.
+     * @param monthlyStatsService Service des totaux mensuels.
      */
-    public ProfilController(AuthService authService, UserService userService, PasswordEncoder passwordEncoder) {
+    public ProfilController(AuthService authService, UserService userService, PasswordEncoder passwordEncoder,
+                            MonthlyStatsService monthlyStatsService) {
         this.authService = authService;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
+        this.monthlyStatsService = monthlyStatsService;
     }
 
     /**
@@ -76,6 +90,8 @@ public class ProfilController {
 
         logger.info("Affichage du profil pour l'utilisateur ID: {}", currentUser.getId());
         model.addAttribute("user", currentUser);
+        model.addAttribute("balance", userService.getTotalBalance(currentUser));
+        model.addAttribute("monthlyStats", monthlyStatsService.getMonthlyStats(currentUser.getId(), PROFILE_STATS_MONTHS));
 
         return "profil";
     }
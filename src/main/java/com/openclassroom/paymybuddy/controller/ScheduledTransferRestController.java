@@ -0,0 +1,132 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.dto.ScheduledTransferDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.ScheduledTransferService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Contrôleur REST pour gérer les transferts programmés et récurrents des utilisateurs.
+ */
+@RestController
+@RequestMapping("/api/users/{userId}/scheduled-transfers")
+public class ScheduledTransferRestController {
+
+    /**
+     * Logger pour enregistrer les événements liés aux transferts programmés.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferRestController.class);
+
+    /**
+     * Service pour gérer les transferts programmés.
+     */
+    private final ScheduledTransferService scheduledTransferService;
+
+    /**
+     * Service d'authentification pour récupérer l'utilisateur connecté.
+     */
+    private final AuthService authService;
+
+    /**
+     * Constructeur pour injecter les services nécessaires.
+     *
+     * @param scheduledTransferService Service pour gérer les transferts programmés.
+     * @param authService Service d'authentification.
+     */
+    public ScheduledTransferRestController(ScheduledTransferService scheduledTransferService, AuthService authService) {
+        this.scheduledTransferService = scheduledTransferService;
+        this.authService = authService;
+    }
+
+    /**
+     * Récupère les transferts programmés d'un utilisateur.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @return Les transferts programmés de l'utilisateur.
+     */
+    @GetMapping
+    public ResponseEntity<List<ScheduledTransferDTO>> getScheduledTransfers(@PathVariable Long userId) {
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(scheduledTransferService.getScheduledTransfers(userId));
+    }
+
+    /**
+     * Programme un transfert récurrent depuis le compte de l'utilisateur.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @param scheduledTransferDTO Les détails de la programmation.
+     * @return La programmation créée, ou le motif du refus.
+     */
+    @PostMapping
+    public ResponseEntity<?> createScheduledTransfer(
+            @PathVariable Long userId,
+            @Valid @RequestBody ScheduledTransferDTO scheduledTransferDTO) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            logger.warn("Utilisateur non connecté tentant de programmer un transfert");
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            logger.warn("L'utilisateur {} tente de programmer un transfert depuis le compte {}",
+                       currentUser.getId(), userId);
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            ScheduledTransferDTO created = scheduledTransferService.createScheduledTransfer(userId, scheduledTransferDTO);
+            URI location = URI.create("/api/users/" + userId + "/scheduled-transfers/" + created.getId());
+            return ResponseEntity.created(location).body(created);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Programmation refusée - Utilisateur ID: {}, Motif: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Annule un transfert programmé de l'utilisateur.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @param scheduledTransferId L'ID de la programmation.
+     * @return 204 si la programmation a été annulée, 404 si elle est inconnue.
+     */
+    @DeleteMapping("/{scheduledTransferId}")
+    public ResponseEntity<Void> cancelScheduledTransfer(
+            @PathVariable Long userId,
+            @PathVariable Long scheduledTransferId) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            scheduledTransferService.cancelScheduledTransfer(userId, scheduledTransferId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.openclassroom.paymybuddy.controller;
 
-import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.dto.TransactionView;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.service.TransactionService;
 import com.openclassroom.paymybuddy.service.AuthService;
@@ -11,7 +11,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Contrôleur pour gérer les opérations liées à l'affichage de la page d'accueil.
@@ -24,6 +23,11 @@ public class ThymeleafController {
      */
     private static final Logger logger = LoggerFactory.getLogger(ThymeleafController.class);
 
+    /**
+     * Nombre de transactions récentes affichées sur la page d'accueil.
+     */
+    public static final int HOME_TRANSACTION_COUNT = 10;
+
     /**
      * Service pour gérer les transactions.
      */
@@ -65,10 +69,8 @@ public class ThymeleafController {
         logger.debug("Récupération des données pour l'utilisateur connecté ID: {}", currentUser.getId());
         
         try {
-            List<Transaction> transactions = transactionService.getAllTransactions()
-                    .stream()
-                    .limit(10)
-                    .collect(Collectors.toList());
+            List<TransactionView> transactions =
+                    transactionService.getRecentTransactions(currentUser.getId(), HOME_TRANSACTION_COUNT);
             
             logger.debug("Nombre de transactions récupérées pour l'accueil: {}", transactions.size());
             model.addAttribute("transactions", transactions);
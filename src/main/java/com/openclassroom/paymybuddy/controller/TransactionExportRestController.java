@@ -0,0 +1,116 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.ExportFormat;
+import com.openclassroom.paymybuddy.service.TransactionExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Contrôleur REST pour exporter l'historique complet des transactions d'un utilisateur.
+ * L'export est écrit en flux dans la réponse, sans être construit en mémoire.
+ */
+@RestController
+@RequestMapping("/api/users/{userId}/transactions/export")
+public class TransactionExportRestController {
+
+    /**
+     * Logger pour enregistrer les événements liés aux exports.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportRestController.class);
+
+    /**
+     * Service d'export de l'historique des transactions.
+     */
+    private final TransactionExportService transactionExportService;
+
+    /**
+     * Service d'authentification pour récupérer l'utilisateur connecté.
+     */
+    private final AuthService authService;
+
+    /**
+     * Constructeur pour injecter les services nécessaires.
+     *
+     * @param transactionExportService Service d'export de l'historique des transactions.
+     * @param authService Service d'authentification.
+     */
+    public TransactionExportRestController(TransactionExportService transactionExportService, AuthService authService) {
+        this.transactionExportService = transactionExportService;
+        this.authService = authService;
+    }
+
+    /**
+     * Exporte les transactions d'un utilisateur, de la plus ancienne à la plus récente.
+     * Avec {@code gzip=true}, la réponse est compressée et porte l'en-tête {@code Content-Encoding: gzip}.
+     * Si trop d'exports sont déjà en cours, la requête est refusée avec le statut 429.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @param format Le format de l'export (CSV par défaut).
+     * @param from La date de début, incluse (optionnelle).
+     * @param to La date de fin, incluse (optionnelle).
+     * @param gzip true pour compresser la réponse.
+     * @return Le contenu de l'export, écrit en flux.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        // Vérifier que l'utilisateur exporte ses propres transactions
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        // L'intervalle est vérifié avant l'envoi des en-têtes : une erreur pendant l'écriture ne peut plus changer le statut
+        try {
+            TransactionExportService.checkDateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Export refusé - Utilisateur ID: {} : {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Chaque export occupe une connexion pendant tout le téléchargement : au-delà de la limite, le client réessaie
+        if (!transactionExportService.tryAcquireExportPermit()) {
+            logger.warn("Export refusé - Utilisateur ID: {} : trop d'exports en cours", userId);
+            return ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        logger.info("Export {} des transactions de l'utilisateur ID: {} (du {} au {})", format, userId, from, to);
+        String filename = "transactions-" + userId + "." + format.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> {
+            try {
+                transactionExportService.export(userId, from, to, format, gzip, out);
+            } finally {
+                transactionExportService.releaseExportPermit();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassroom.paymybuddy.controller;
 
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.service.UserService;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.model.User;
@@ -117,17 +118,17 @@ public class UserRelationController {
      * API pour la recherche d'utilisateurs (pour l'autocomplétion).
      *
      * @param term Le terme de recherche.
-     * @return Une liste d'utilisateurs correspondant au terme de recherche.
+     * @return L'identifiant et le nom des utilisateurs correspondant au terme de recherche.
      */
     @GetMapping("/search")
     @ResponseBody
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String term) {
+    public ResponseEntity<List<UserSearchView>> searchUsers(@RequestParam String term) {
         User currentUser = authService.getCurrentUser();
         if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
 
-        List<User> users = userService.searchUsers(term, currentUser.getId());
+        List<UserSearchView> users = userService.searchUsers(term, currentUser.getId());
         return ResponseEntity.ok(users);
     }
 }
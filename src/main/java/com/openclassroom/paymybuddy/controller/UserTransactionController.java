@@ -1,10 +1,15 @@
 package com.openclassroom.paymybuddy.controller;
 
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AsyncTransferService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
 import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
 import com.openclassroom.paymybuddy.service.UserService;
 import com.openclassroom.paymybuddy.service.AuthService;
 import org.slf4j.Logger;
@@ -45,28 +50,55 @@ public class UserTransactionController {
      */
     private final AuthService authService;
 
+    /**
+     * Point d'entrée des transferts unitaires.
+     */
+    private final TransferDispatcher transferDispatcher;
+
+    /**
+     * Service d'exécution asynchrone des transferts.
+     */
+    private final AsyncTransferService asyncTransferService;
+
+    /**
+     * Service des totaux mensuels.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
     /**
      * Constructeur pour injecter les services nécessaires.
      *
      * @param transactionService Service pour gérer les transactions.
      * @param userService Service pour gérer les utilisateurs.
      * @param authService Service d'authentification.
+     * @param transferDispatcher Point d'entrée des transferts unitaires.
+     * @param asyncTransferService Service d'exécution asynchrone des transferts.
+     * @param monthlyStatsService Service des totaux mensuels.
      */
-    public UserTransactionController(TransactionService transactionService, UserService userService, AuthService authService) {
+    public UserTransactionController(TransactionService transactionService, UserService userService,
+                                     AuthService authService, TransferDispatcher transferDispatcher,
+                                     AsyncTransferService asyncTransferService,
+                                     MonthlyStatsService monthlyStatsService) {
         this.transactionService = transactionService;
         this.userService = userService;
         this.authService = authService;
+        this.transferDispatcher = transferDispatcher;
+        this.asyncTransferService = asyncTransferService;
+        this.monthlyStatsService = monthlyStatsService;
     }
 
     /**
-     * Récupère les transactions d'un utilisateur.
+     * Récupère une page des transactions d'un utilisateur, de la plus récente à la plus ancienne.
      *
      * @param userId L'ID de l'utilisateur.
+     * @param cursor Le curseur de la page à afficher (absent pour la première page).
      * @param model Le modèle utilisé pour transmettre des données à la vue.
      * @return Le nom de la vue des transactions ou une redirection vers la page de connexion si l'utilisateur n'est pas connecté.
      */
     @GetMapping("/{userId}")
-    public String getUserTransactions(@PathVariable Long userId, Model model) {
+    public String getUserTransactions(@PathVariable Long userId,
+                                      @RequestParam(required = false) String cursor,
+                                      Model model) {
         User currentUser = authService.getCurrentUser();
         if (currentUser == null) {
             logger.warn("Utilisateur non connecté tentant d'accéder aux transactions");
@@ -82,10 +114,19 @@ public class UserTransactionController {
 
         logger.info("Récupération des transactions pour l'utilisateur ID: {}", userId);
 
-        List<Transaction> transactions = transactionService.getTransactionsByUserId(userId);
+        TransactionPageDTO page;
+        try {
+            page = transactionService.getTransactionPage(userId, cursor, TransactionService.DEFAULT_HISTORY_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Curseur de pagination invalide pour l'utilisateur {}", userId);
+            return "redirect:/user-transactions/" + userId;
+        }
+        List<Transaction> transactions = page.getTransactions();
         logger.debug("Nombre de transactions trouvées: {}", transactions.size());
 
         model.addAttribute("user", currentUser);
+        // Solde total affiché, sous-soldes compris
+        model.addAttribute("balance", userService.getTotalBalance(currentUser));
 
         // Ajouter la liste des relations
         List<RelationDTO> relations = transactionService.getRelations(userId);
@@ -93,6 +134,14 @@ public class UserTransactionController {
         logger.debug("Nombre de relations trouvées: {}", relations.size());
 
         model.addAttribute("transactions", transactions);
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("firstPage", cursor == null || cursor.isEmpty());
+
+        // Totaux du mois courant, lus sur une seule ligne de user_monthly_stats
+        model.addAttribute("monthStats", monthlyStatsService.getCurrentMonthStats(userId));
+
+        // Ajouter l'état des derniers transferts soumis en mode asynchrone
+        model.addAttribute("asyncTransfers", asyncTransferService.getRecentStatuses(userId));
         return "user-transactions";
     }
 
@@ -174,7 +223,7 @@ public class UserTransactionController {
 
         try {
             logger.info("🚀 Appel du service de transfert avec: {}", transferDTO);
-            transactionService.createTransfer(transferDTO);
+            transferDispatcher.dispatch(transferDTO);
             logger.info("✅ Transfert effectué avec succès - Utilisateur ID: {}, Montant: {}, Destinataire ID: {}", 
                        userId, transferDTO.getAmount(), transferDTO.getReceiverId());
             redirectAttributes.addFlashAttribute("successMessage", "Transfert effectué avec succès");
@@ -187,6 +236,64 @@ public class UserTransactionController {
         return "redirect:/user-transactions/" + userId;
     }
 
+    /**
+     * Traite un paiement partagé : le montant total est réparti à parts égales entre les relations
+     * sélectionnées et versé en une seule opération.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le paiement.
+     * @param receiverIds Les identifiants des relations sélectionnées.
+     * @param amount Le montant total à répartir.
+     * @param description La description commune aux versements.
+     * @param redirectAttributes Les attributs pour transmettre des messages à la vue.
+     * @return Une redirection vers la vue des transactions.
+     */
+    @PostMapping("/{userId}/split")
+    public String processSplitPayment(
+            @PathVariable Long userId,
+            @RequestParam(required = false) List<Long> receiverIds,
+            @RequestParam(required = false) BigDecimal amount,
+            @RequestParam(required = false) String description,
+            RedirectAttributes redirectAttributes) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            logger.warn("Utilisateur non connecté tentant d'effectuer un paiement partagé");
+            return "redirect:/login";
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            logger.warn("L'utilisateur {} tente d'effectuer un paiement partagé depuis le compte {}",
+                       currentUser.getId(), userId);
+            return "redirect:/user-transactions/" + currentUser.getId();
+        }
+
+        if (receiverIds == null || receiverIds.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Veuillez sélectionner au moins un destinataire");
+            return "redirect:/user-transactions/" + userId;
+        }
+
+        if (amount == null || amount.compareTo(BigDecimal.valueOf(0.01).multiply(BigDecimal.valueOf(receiverIds.size()))) < 0) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                "Le montant doit être d'au moins 0.01 par destinataire");
+            return "redirect:/user-transactions/" + userId;
+        }
+
+        try {
+            SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(currentUser.getId(), description,
+                    TransactionService.splitEvenly(amount, receiverIds));
+            List<Transaction> transactions = transactionService.createSplitPayment(splitPaymentDTO);
+            logger.info("Paiement partagé effectué - Utilisateur ID: {}, Montant: {}, Destinataires: {}",
+                       userId, amount, transactions.size());
+            redirectAttributes.addFlashAttribute("successMessage",
+                String.format("%.2f€ partagés entre %d destinataires avec succès", amount, transactions.size()));
+        } catch (Exception e) {
+            logger.error("Erreur lors du paiement partagé - Utilisateur ID: {}, Montant: {}", userId, amount, e);
+            redirectAttributes.addFlashAttribute("errorMessage", "Erreur lors du paiement partagé : " + e.getMessage());
+        }
+
+        return "redirect:/user-transactions/" + userId;
+    }
+
     /**
      * Ajoute de l'argent à la balance de l'utilisateur.
      *
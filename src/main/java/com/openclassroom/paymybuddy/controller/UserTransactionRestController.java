@@ -1,12 +1,22 @@
 package com.openclassroom.paymybuddy.controller;
 
+import com.openclassroom.paymybuddy.dto.AsyncTransferStatusDTO;
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.TransactionView;
+import com.openclassroom.paymybuddy.dto.TransactionViewPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AsyncTransferService;
+import com.openclassroom.paymybuddy.service.BatchTransferMode;
+import com.openclassroom.paymybuddy.service.IdempotencyService;
 import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
 import com.openclassroom.paymybuddy.service.UserService;
 import com.openclassroom.paymybuddy.service.AuthService;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +24,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Contrôleur REST pour gérer les transactions des utilisateurs.
@@ -29,6 +42,11 @@ public class UserTransactionRestController {
      */
     private static final Logger logger = LoggerFactory.getLogger(UserTransactionRestController.class);
 
+    /**
+     * En-tête de réponse contenant le curseur de la page suivante de l'historique.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Service pour gérer les transactions.
      */
@@ -44,27 +62,59 @@ public class UserTransactionRestController {
      */
     private final AuthService authService;
 
+    /**
+     * Service garantissant l'exécution unique des requêtes portant une clé d'idempotence.
+     */
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Point d'entrée des transferts unitaires.
+     */
+    private final TransferDispatcher transferDispatcher;
+
+    /**
+     * Service d'exécution asynchrone des transferts.
+     */
+    private final AsyncTransferService asyncTransferService;
+
     /**
      * Constructeur pour injecter les services nécessaires.
      *
      * @param transactionService Service pour gérer les transactions.
      * @param userService Service pour gérer les utilisateurs.
      * @param authService Service d'authentification.
+     * @param idempotencyService Service de gestion des clés d'idempotence.
+     * @param transferDispatcher Point d'entrée des transferts unitaires.
+     * @param asyncTransferService Service d'exécution asynchrone des transferts.
      */
-    public UserTransactionRestController(TransactionService transactionService, UserService userService, AuthService authService) {
+    public UserTransactionRestController(TransactionService transactionService, UserService userService,
+                                         AuthService authService, IdempotencyService idempotencyService,
+                                         TransferDispatcher transferDispatcher,
+                                         AsyncTransferService asyncTransferService) {
         this.transactionService = transactionService;
         this.userService = userService;
         this.authService = authService;
+        this.idempotencyService = idempotencyService;
+        this.transferDispatcher = transferDispatcher;
+        this.asyncTransferService = asyncTransferService;
     }
 
     /**
-     * Récupère les transactions d'un utilisateur.
+     * Récupère une page des transactions d'un utilisateur, de la plus récente à la plus ancienne,
+     * sous forme de projections (identifiant, contrepartie, description, montant, date, sens).
+     * S'il reste des transactions plus anciennes, l'en-tête {@value #NEXT_CURSOR_HEADER} contient
+     * le curseur à passer en paramètre {@code cursor} pour obtenir la page suivante.
      *
      * @param userId L'ID de l'utilisateur.
-     * @return Une liste des transactions de l'utilisateur.
+     * @param cursor Le curseur de la page à récupérer (absent pour la première page).
+     * @param size Le nombre de transactions par page.
+     * @return Une page des transactions de l'utilisateur.
      */
     @GetMapping
-    public ResponseEntity<List<Transaction>> getUserTransactions(@PathVariable Long userId) {
+    public ResponseEntity<List<TransactionView>> getUserTransactions(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionService.DEFAULT_HISTORY_PAGE_SIZE) int size) {
         User currentUser = authService.getCurrentUser();
         if (currentUser == null) {
             return ResponseEntity.status(401).build();
@@ -76,8 +126,19 @@ public class UserTransactionRestController {
         }
 
         logger.info("Récupération des transactions pour l'utilisateur ID: {}", userId);
-        List<Transaction> transactions = transactionService.getTransactionsByUserId(userId);
-        return ResponseEntity.ok(transactions);
+        TransactionViewPageDTO page;
+        try {
+            page = transactionService.getTransactionViewPage(userId, cursor, size);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Page de transactions refusée - Utilisateur ID: {} : {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
     }
 
     /**
@@ -105,18 +166,35 @@ public class UserTransactionRestController {
 
     /**
      * Traite un transfert d'argent entre utilisateurs.
+     * Si l'en-tête Idempotency-Key est fourni, un rejeu de la même requête renvoie la réponse d'origine
+     * sans effectuer un second transfert ; un rejeu récent est servi depuis la mémoire, sans accès à la base.
      *
      * @param userId L'ID de l'utilisateur effectuant le transfert.
+     * @param idempotencyKey La clé d'idempotence fournie par le client (optionnelle).
      * @param transferDTO Les détails du transfert.
      * @return La transaction créée ou une erreur en cas de problème.
      */
     @PostMapping("/transfer")
-    public ResponseEntity<Transaction> processTransfer(
+    public ResponseEntity<?> processTransfer(
             @PathVariable Long userId,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody TransferDTO transferDTO) {
 
         logger.info("🔥 DÉBUT DU TRANSFERT - UserID: {}, TransferDTO reçu: {}", userId, transferDTO);
 
+        // ✅ LE SENDER EST TOUJOURS L'UTILISATEUR DU CHEMIN (VÉRIFIÉ CI-DESSOUS OU LORS DE LA REQUÊTE D'ORIGINE)
+        transferDTO.setSenderId(userId);
+
+        // Un rejeu déjà en cache est servi avant de recharger l'utilisateur connecté depuis la base
+        String principal = authService.getCurrentPrincipalName();
+        if (idempotencyKey != null && principal != null) {
+            Optional<ResponseEntity<?>> cached =
+                    idempotencyService.findCachedResponse(principal, userId, idempotencyKey, transferDTO);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
         User currentUser = authService.getCurrentUser();
         if (currentUser == null) {
             logger.warn("❌ Utilisateur non connecté tentant d'effectuer un transfert");
@@ -132,19 +210,245 @@ public class UserTransactionRestController {
 
         logger.info("✅ Utilisateur connecté vérifié: {}", currentUser.getEmail());
 
-        // ✅ DÉFINIR LE SENDER AVANT LA VALIDATION
-        transferDTO.setSenderId(currentUser.getId());
+        if (idempotencyKey == null) {
+            return executeTransfer(userId, transferDTO);
+        }
+        return idempotencyService.execute(currentUser.getEmail(), userId, idempotencyKey, transferDTO,
+                () -> executeTransfer(userId, transferDTO));
+    }
 
+    /**
+     * Exécute un transfert dont l'expéditeur a déjà été vérifié.
+     * Un refus métier (solde insuffisant, destinataire inconnu...) renvoie 400 ; toute autre erreur
+     * (file pleine, délai dépassé, base indisponible) renvoie 503 afin que la clé d'idempotence soit libérée
+     * et que le client puisse réessayer.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le transfert.
+     * @param transferDTO Les détails du transfert.
+     * @return La transaction créée ou une erreur en cas de problème.
+     */
+    private ResponseEntity<?> executeTransfer(Long userId, TransferDTO transferDTO) {
         try {
             logger.info("🚀 Appel du service de transfert avec: {}", transferDTO);
-            Transaction transaction = transactionService.createTransfer(transferDTO);
+            Transaction transaction = transferDispatcher.dispatch(transferDTO);
             logger.info("✅ Transfert effectué avec succès - Utilisateur ID: {}, Montant: {}, Destinataire ID: {}", 
                        userId, transferDTO.getAmount(), transferDTO.getReceiverId());
             return ResponseEntity.ok(transaction);
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            logger.warn("❌ Transfert refusé - Utilisateur ID: {}, Montant: {}, Destinataire ID: {}, Motif: {}",
+                        userId, transferDTO.getAmount(), transferDTO.getReceiverId(), e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("💥 Erreur lors du transfert - Utilisateur ID: {}, Montant: {}, Destinataire ID: {}", 
                         userId, transferDTO.getAmount(), transferDTO.getReceiverId(), e);
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
+        }
+    }
+
+    /**
+     * Soumet un transfert d'argent pour exécution asynchrone.
+     * Le transfert est placé dans une file bornée et la réponse 202 indique l'URL de suivi de son état.
+     * Si la file est pleine, la requête est refusée avec le statut 429 et peut être renouvelée plus tard.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le transfert.
+     * @param idempotencyKey La clé d'idempotence fournie par le client (optionnelle).
+     * @param transferDTO Les détails du transfert.
+     * @return L'état initial du transfert, ou une erreur si le transfert n'a pas pu être soumis.
+     */
+    @PostMapping("/transfer/async")
+    public ResponseEntity<?> submitAsyncTransfer(
+            @PathVariable Long userId,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody TransferDTO transferDTO) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            logger.warn("Utilisateur non connecté tentant de soumettre un transfert asynchrone");
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            logger.warn("L'utilisateur {} tente de soumettre un transfert asynchrone depuis le compte {}",
+                       currentUser.getId(), userId);
+            return ResponseEntity.status(403).build();
+        }
+
+        transferDTO.setSenderId(currentUser.getId());
+
+        if (idempotencyKey == null) {
+            return executeAsyncSubmission(userId, transferDTO);
+        }
+        return idempotencyService.execute(currentUser.getEmail(), userId, idempotencyKey, List.of("async", transferDTO),
+                () -> executeAsyncSubmission(userId, transferDTO));
+    }
+
+    /**
+     * Soumet un transfert asynchrone dont l'expéditeur a déjà été vérifié.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le transfert.
+     * @param transferDTO Les détails du transfert.
+     * @return L'état initial du transfert, ou 429 si la file est pleine.
+     */
+    private ResponseEntity<?> executeAsyncSubmission(Long userId, TransferDTO transferDTO) {
+        try {
+            AsyncTransferStatusDTO status = asyncTransferService.submit(transferDTO);
+            URI location = URI.create("/api/users/" + userId + "/transactions/transfer/async/" + status.getTransferId());
+            return ResponseEntity.accepted().location(location).body(status);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).header("Retry-After", "1").build();
+        }
+    }
+
+    /**
+     * Récupère l'état d'un transfert soumis en mode asynchrone.
+     *
+     * @param userId L'ID de l'utilisateur ayant soumis le transfert.
+     * @param transferId L'identifiant du transfert.
+     * @return L'état du transfert, ou 404 s'il est inconnu.
+     */
+    @GetMapping("/transfer/async/{transferId}")
+    public ResponseEntity<AsyncTransferStatusDTO> getAsyncTransferStatus(
+            @PathVariable Long userId,
+            @PathVariable String transferId) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return asyncTransferService.getStatus(userId, transferId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Traite un lot de transferts d'argent depuis le compte de l'utilisateur, en une seule transaction.
+     * Comme pour un transfert unique, l'en-tête Idempotency-Key permet de rejouer le lot sans l'exécuter deux fois.
+     *
+     * @param userId L'ID de l'utilisateur effectuant les transferts.
+     * @param mode Le comportement du lot si un transfert est refusé (ALL_OR_NOTHING par défaut).
+     * @param idempotencyKey La clé d'idempotence fournie par le client (optionnelle).
+     * @param transfers Les détails des transferts.
+     * @return Le résultat de chaque transfert, ou une erreur si le lot a été refusé.
+     */
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<?> processBatchTransfer(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "ALL_OR_NOTHING") BatchTransferMode mode,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody List<TransferDTO> transfers) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            logger.warn("Utilisateur non connecté tentant d'effectuer un lot de transferts");
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            logger.warn("L'utilisateur {} tente d'effectuer un lot de transferts depuis le compte {}",
+                       currentUser.getId(), userId);
+            return ResponseEntity.status(403).build();
+        }
+
+        // L'expéditeur est toujours l'utilisateur connecté
+        transfers.stream()
+                .filter(transfer -> transfer != null)
+                .forEach(transfer -> transfer.setSenderId(currentUser.getId()));
+
+        if (idempotencyKey == null) {
+            return executeBatchTransfer(userId, mode, transfers);
+        }
+        return idempotencyService.execute(currentUser.getEmail(), userId, idempotencyKey, List.of(mode, transfers),
+                () -> executeBatchTransfer(userId, mode, transfers));
+    }
+
+    /**
+     * Exécute un lot de transferts dont l'expéditeur a déjà été vérifié.
+     *
+     * @param userId L'ID de l'utilisateur effectuant les transferts.
+     * @param mode Le comportement du lot si un transfert est refusé.
+     * @param transfers Les détails des transferts.
+     * @return Le résultat de chaque transfert, ou une erreur si le lot a été refusé.
+     */
+    private ResponseEntity<?> executeBatchTransfer(Long userId, BatchTransferMode mode, List<TransferDTO> transfers) {
+        try {
+            List<BatchTransferResultDTO> results = transactionService.executeTransfers(transfers, mode);
+            boolean rejected = mode == BatchTransferMode.ALL_OR_NOTHING
+                    && results.stream().anyMatch(result -> !result.isSuccess());
+            logger.info("Lot de {} transferts traité - Utilisateur ID: {}, Mode: {}, Refusé: {}",
+                       transfers.size(), userId, mode, rejected);
+            return rejected ? ResponseEntity.badRequest().body(results) : ResponseEntity.ok(results);
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            logger.warn("Lot de transferts refusé - Utilisateur ID: {} : {}", userId, e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            // Erreur technique : 503 libère la clé d'idempotence pour permettre une nouvelle tentative
+            logger.error("Erreur lors du lot de transferts - Utilisateur ID: {}", userId, e);
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
+        }
+    }
+
+    /**
+     * Traite un paiement partagé : l'utilisateur verse une part à chacun de plusieurs destinataires,
+     * en une seule opération atomique. Comme pour un transfert unique, l'en-tête Idempotency-Key
+     * permet de rejouer la requête sans effectuer un second paiement.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le paiement.
+     * @param idempotencyKey La clé d'idempotence fournie par le client (optionnelle).
+     * @param splitPaymentDTO Les détails du paiement partagé.
+     * @return Les transactions créées ou une erreur en cas de problème.
+     */
+    @PostMapping("/transfer/split")
+    public ResponseEntity<?> processSplitPayment(
+            @PathVariable Long userId,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody SplitPaymentDTO splitPaymentDTO) {
+
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            logger.warn("Utilisateur non connecté tentant d'effectuer un paiement partagé");
+            return ResponseEntity.status(401).build();
+        }
+
+        if (!currentUser.getId().equals(userId)) {
+            logger.warn("L'utilisateur {} tente d'effectuer un paiement partagé depuis le compte {}",
+                       currentUser.getId(), userId);
+            return ResponseEntity.status(403).build();
+        }
+
+        splitPaymentDTO.setSenderId(currentUser.getId());
+
+        if (idempotencyKey == null) {
+            return executeSplitPayment(userId, splitPaymentDTO);
+        }
+        return idempotencyService.execute(currentUser.getEmail(), userId, idempotencyKey, List.of("split", splitPaymentDTO),
+                () -> executeSplitPayment(userId, splitPaymentDTO));
+    }
+
+    /**
+     * Exécute un paiement partagé dont l'expéditeur a déjà été vérifié.
+     *
+     * @param userId L'ID de l'utilisateur effectuant le paiement.
+     * @param splitPaymentDTO Les détails du paiement partagé.
+     * @return Les transactions créées ou une erreur en cas de problème.
+     */
+    private ResponseEntity<?> executeSplitPayment(Long userId, SplitPaymentDTO splitPaymentDTO) {
+        try {
+            List<Transaction> transactions = transactionService.createSplitPayment(splitPaymentDTO);
+            logger.info("Paiement partagé effectué - Utilisateur ID: {}, Destinataires: {}",
+                       userId, transactions.size());
+            return ResponseEntity.ok(transactions);
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            logger.warn("Paiement partagé refusé - Utilisateur ID: {} : {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Erreur technique : 503 libère la clé d'idempotence pour permettre une nouvelle tentative
+            logger.error("Erreur lors du paiement partagé - Utilisateur ID: {}", userId, e);
+            return ResponseEntity.status(503).header("Retry-After", "1").build();
         }
     }
 
@@ -0,0 +1,63 @@
+package com.openclassroom.paymybuddy.dto;
+
+import com.openclassroom.paymybuddy.service.AsyncTransferState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO décrivant l'état d'un transfert soumis en mode asynchrone.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncTransferStatusDTO {
+
+    /**
+     * L'identifiant attribué au transfert lors de sa soumission.
+     */
+    private String transferId;
+
+    /**
+     * L'état du transfert.
+     */
+    private AsyncTransferState state;
+
+    /**
+     * L'identifiant de l'expéditeur.
+     */
+    private Long senderId;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    private Long receiverId;
+
+    /**
+     * Le montant du transfert.
+     */
+    private BigDecimal amount;
+
+    /**
+     * L'identifiant de la transaction créée, une fois le transfert effectué.
+     */
+    private Long transactionId;
+
+    /**
+     * Le motif du refus ou de l'échec, le cas échéant.
+     */
+    private String message;
+
+    /**
+     * La date et l'heure de soumission.
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * La date et l'heure de fin de traitement, le cas échéant.
+     */
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,47 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour représenter le résultat d'un transfert au sein d'un lot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResultDTO {
+
+    /**
+     * La position du transfert dans le lot reçu (à partir de 0).
+     */
+    private int index;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    private Long receiverId;
+
+    /**
+     * Le montant du transfert.
+     */
+    private BigDecimal amount;
+
+    /**
+     * Indique si le transfert a été effectué.
+     */
+    private boolean success;
+
+    /**
+     * L'identifiant de la transaction créée, ou null si le transfert a échoué.
+     */
+    private Long transactionId;
+
+    /**
+     * Le motif de l'échec, ou null si le transfert a été effectué.
+     */
+    private String message;
+
+}
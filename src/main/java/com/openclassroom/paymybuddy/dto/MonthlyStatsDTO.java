@@ -0,0 +1,51 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO représentant les totaux d'un utilisateur sur un mois.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyStatsDTO {
+
+    /**
+     * Le mois, au format yyyy-MM.
+     */
+    private String month;
+
+    /**
+     * Le montant total des transferts envoyés.
+     */
+    private BigDecimal sentTotal;
+
+    /**
+     * Le nombre de transferts envoyés.
+     */
+    private long sentCount;
+
+    /**
+     * Le montant total des transferts reçus.
+     */
+    private BigDecimal receivedTotal;
+
+    /**
+     * Le nombre de transferts reçus.
+     */
+    private long receivedCount;
+
+    /**
+     * Le montant total des dépôts.
+     */
+    private BigDecimal depositedTotal;
+
+    /**
+     * Le montant total des retraits.
+     */
+    private BigDecimal withdrawnTotal;
+}
@@ -0,0 +1,32 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO décrivant un écart entre le solde enregistré d'un utilisateur et celui recalculé
+ * à partir de l'historique.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancyDTO {
+
+    /**
+     * L'identifiant de l'utilisateur.
+     */
+    private Long userId;
+
+    /**
+     * Le solde recalculé : dépôts et retraits, plus les montants reçus, moins les montants envoyés.
+     */
+    private BigDecimal expectedBalance;
+
+    /**
+     * Le solde enregistré dans app_user.
+     */
+    private BigDecimal actualBalance;
+}
@@ -0,0 +1,51 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO résumant une exécution du rapprochement des soldes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+
+    /**
+     * Le nom de l'exécution, utilisé pour la reprise.
+     */
+    private String jobName;
+
+    /**
+     * Le nombre de partitions traitées par cette exécution.
+     */
+    private int processedPartitions;
+
+    /**
+     * Le nombre de partitions déjà terminées lors d'une exécution précédente, et donc ignorées.
+     */
+    private int skippedPartitions;
+
+    /**
+     * Le nombre de partitions en échec, à reprendre lors d'une prochaine exécution du même nom.
+     */
+    private int failedPartitions;
+
+    /**
+     * Le nombre d'utilisateurs vérifiés par cette exécution.
+     */
+    private long checkedUsers;
+
+    /**
+     * Le nombre total d'écarts relevés par cette exécution.
+     */
+    private long discrepancyCount;
+
+    /**
+     * Le détail des écarts, limité aux premiers relevés.
+     */
+    private List<ReconciliationDiscrepancyDTO> discrepancies;
+}
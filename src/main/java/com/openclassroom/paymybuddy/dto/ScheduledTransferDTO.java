@@ -0,0 +1,80 @@
+package com.openclassroom.paymybuddy.dto;
+
+import com.openclassroom.paymybuddy.model.TransferFrequency;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour représenter un transfert programmé : les champs du destinataire à la date de fin
+ * sont fournis à la création, les suivants sont renseignés par le serveur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferDTO {
+
+    /**
+     * L'identifiant de la programmation.
+     */
+    private Long id;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    @NotNull(message = "Le destinataire est obligatoire")
+    private Long receiverId;
+
+    /**
+     * Le montant de chaque transfert.
+     */
+    @NotNull(message = "Le montant est obligatoire")
+    @DecimalMin(value = "0.01", message = "Le montant doit être supérieur à zéro")
+    private BigDecimal amount;
+
+    /**
+     * La description de chaque transfert.
+     */
+    @NotBlank(message = "La description est obligatoire")
+    @Size(max = 255, message = "La description ne peut pas dépasser 255 caractères")
+    private String description;
+
+    /**
+     * La périodicité des transferts.
+     */
+    @NotNull(message = "La périodicité est obligatoire")
+    private TransferFrequency frequency;
+
+    /**
+     * La date de la première exécution.
+     */
+    @NotNull(message = "La date de première exécution est obligatoire")
+    private LocalDateTime startAt;
+
+    /**
+     * La date de la dernière exécution autorisée (optionnelle).
+     */
+    private LocalDateTime endAt;
+
+    /**
+     * La date de la prochaine exécution.
+     */
+    private LocalDateTime nextRunAt;
+
+    /**
+     * Indique si la programmation est active.
+     */
+    private boolean active;
+
+    /**
+     * Le motif du refus de la dernière occurrence, le cas échéant.
+     */
+    private String lastError;
+}
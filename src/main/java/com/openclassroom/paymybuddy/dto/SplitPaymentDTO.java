@@ -0,0 +1,36 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+/**
+ * DTO pour représenter un paiement partagé : un expéditeur verse une part à chacun de plusieurs destinataires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitPaymentDTO {
+
+    /**
+     * L'identifiant de l'expéditeur.
+     */
+    private Long senderId;
+
+    /**
+     * La description commune à tous les versements.
+     */
+    @NotBlank(message = "La description est obligatoire")
+    @Size(max = 255, message = "La description ne peut pas dépasser 255 caractères")
+    private String description;
+
+    /**
+     * Les parts de chaque destinataire.
+     */
+    @NotEmpty(message = "Au moins un destinataire est obligatoire")
+    private List<@Valid SplitShareDTO> shares;
+}
@@ -0,0 +1,30 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.*;
+
+/**
+ * DTO pour représenter la part d'un destinataire dans un paiement partagé.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitShareDTO {
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    @NotNull(message = "Le destinataire est obligatoire")
+    private Long receiverId;
+
+    /**
+     * Le montant versé à ce destinataire.
+     */
+    @NotNull(message = "Le montant est obligatoire")
+    @DecimalMin(value = "0.01", message = "Le montant doit être supérieur à zéro")
+    private BigDecimal amount;
+}
@@ -0,0 +1,49 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO résumant une exécution de la génération des relevés mensuels.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementReportDTO {
+
+    /**
+     * Le nom de l'exécution, utilisé pour la reprise.
+     */
+    private String jobName;
+
+    /**
+     * Le mois couvert par les relevés, au format yyyy-MM.
+     */
+    private String month;
+
+    /**
+     * Le nombre de partitions traitées par cette exécution.
+     */
+    private int processedPartitions;
+
+    /**
+     * Le nombre de partitions déjà terminées lors d'une exécution précédente, et donc ignorées.
+     */
+    private int skippedPartitions;
+
+    /**
+     * Le nombre de partitions en échec, à reprendre lors d'une prochaine exécution du même nom.
+     */
+    private int failedPartitions;
+
+    /**
+     * Le nombre de relevés écrits par cette exécution.
+     */
+    private long statementCount;
+
+    /**
+     * Le nombre de lignes de transactions écrites dans les relevés.
+     */
+    private long transactionCount;
+}
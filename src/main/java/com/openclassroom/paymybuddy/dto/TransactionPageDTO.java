@@ -0,0 +1,27 @@
+package com.openclassroom.paymybuddy.dto;
+
+import com.openclassroom.paymybuddy.model.Transaction;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour représenter une page de l'historique des transactions d'un utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDTO {
+
+    /**
+     * Les transactions de la page, de la plus récente à la plus ancienne.
+     */
+    private List<Transaction> transactions;
+
+    /**
+     * Le curseur à transmettre pour obtenir la page suivante, ou null s'il s'agit de la dernière page.
+     */
+    private String nextCursor;
+}
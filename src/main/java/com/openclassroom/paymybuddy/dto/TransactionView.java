@@ -0,0 +1,49 @@
+package com.openclassroom.paymybuddy.dto;
+
+import com.openclassroom.paymybuddy.model.TransferDirection;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection légère d'une transaction vue par un utilisateur, construite directement
+ * par la requête JPQL sans charger les entités Transaction et User.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView {
+
+    /**
+     * L'identifiant de la transaction.
+     */
+    private Long id;
+
+    /**
+     * Le nom de l'autre partie : le destinataire d'une transaction envoyée, l'expéditeur d'une transaction reçue.
+     */
+    private String counterpartyName;
+
+    /**
+     * La description de la transaction.
+     */
+    private String description;
+
+    /**
+     * Le montant de la transaction.
+     */
+    private BigDecimal amount;
+
+    /**
+     * La date de création de la transaction.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Le sens de la transaction pour l'utilisateur.
+     */
+    private TransferDirection direction;
+}
@@ -0,0 +1,26 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour représenter une page de l'historique des transactions d'un utilisateur sous forme de projections.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionViewPageDTO {
+
+    /**
+     * Les transactions de la page, de la plus récente à la plus ancienne.
+     */
+    private List<TransactionView> transactions;
+
+    /**
+     * Le curseur à transmettre pour obtenir la page suivante, ou null s'il s'agit de la dernière page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,47 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO décrivant l'événement « transfert effectué », diffusé aux consommateurs via la table outbox_event.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferCompletedEventDTO {
+
+    /**
+     * L'identifiant de la transaction créée.
+     */
+    private Long transactionId;
+
+    /**
+     * L'identifiant de l'expéditeur.
+     */
+    private Long senderId;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    private Long receiverId;
+
+    /**
+     * Le montant du transfert.
+     */
+    private BigDecimal amount;
+
+    /**
+     * La description du transfert.
+     */
+    private String description;
+
+    /**
+     * La date et l'heure du transfert.
+     */
+    private LocalDateTime createdAt;
+}
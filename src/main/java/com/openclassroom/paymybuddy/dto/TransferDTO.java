@@ -1,8 +1,8 @@
 package com.openclassroom.paymybuddy.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
 import java.math.BigDecimal;
 
 import jakarta.validation.constraints.*;
@@ -12,7 +12,6 @@ import jakarta.validation.constraints.*;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class TransferDTO {
 
     /**
@@ -41,6 +40,29 @@ public class TransferDTO {
     @DecimalMin(value = "0.01", message = "Le montant doit être supérieur à zéro")
     private BigDecimal amount;
 
+    /**
+     * L'identifiant du transfert asynchrone à l'origine du transfert, ou null.
+     * Renseigné par le serveur uniquement : le transfert asynchrone est marqué effectué
+     * dans la transaction qui enregistre le transfert.
+     */
+    @JsonIgnore
+    private String asyncTransferId;
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param receiverId L'identifiant du destinataire.
+     * @param description La description du transfert.
+     * @param amount Le montant du transfert.
+     */
+    public TransferDTO(Long senderId, Long receiverId, String description, BigDecimal amount) {
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.description = description;
+        this.amount = amount;
+    }
+
     /**
      * Retourne une représentation textuelle de l'objet.
      *
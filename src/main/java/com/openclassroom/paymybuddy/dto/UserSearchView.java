@@ -0,0 +1,26 @@
+package com.openclassroom.paymybuddy.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection d'un utilisateur renvoyée par la recherche (autocomplétion) : seuls l'identifiant
+ * et le nom d'utilisateur sont lus en base et exposés, jamais l'email ni le mot de passe.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchView {
+
+    /**
+     * L'identifiant de l'utilisateur.
+     */
+    private Long id;
+
+    /**
+     * Le nom d'utilisateur.
+     */
+    private String username;
+
+}
@@ -0,0 +1,121 @@
+package com.openclassroom.paymybuddy.model;
+
+import com.openclassroom.paymybuddy.service.AsyncTransferState;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un transfert soumis en mode asynchrone (table async_transfer).
+ * La soumission est enregistrée avant d'être placée dans la file de traitement : son état
+ * reste consultable après un redémarrage, et un transfert non traité avant l'arrêt est marqué en échec.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "async_transfer",
+        uniqueConstraints = @UniqueConstraint(name = "uk_async_transfer_transfer_id", columnNames = "transfer_id"),
+        indexes = {
+                @Index(name = "idx_async_transfer_sender", columnList = "sender_id, id"),
+                @Index(name = "idx_async_transfer_state", columnList = "state, submitted_at")
+        })
+public class AsyncTransfer {
+
+    /**
+     * L'identifiant unique de l'enregistrement.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * L'identifiant attribué au transfert lors de sa soumission.
+     */
+    @Column(name = "transfer_id", nullable = false, length = 36)
+    private String transferId;
+
+    /**
+     * L'identifiant de l'expéditeur.
+     */
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    /**
+     * Le montant du transfert.
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * La description du transfert.
+     */
+    @Column(nullable = false, length = 255)
+    private String description;
+
+    /**
+     * L'état du transfert.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AsyncTransferState state;
+
+    /**
+     * L'identifiant de la transaction créée, une fois le transfert effectué.
+     */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    /**
+     * Le motif du refus ou de l'échec, le cas échéant.
+     */
+    @Column(length = 255)
+    private String message;
+
+    /**
+     * La date et l'heure de soumission.
+     */
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    /**
+     * La date et l'heure de début de traitement, le cas échéant.
+     */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    /**
+     * La date et l'heure de fin de traitement, le cas échéant.
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    /**
+     * Constructeur d'un transfert en attente de traitement.
+     *
+     * @param transferId L'identifiant attribué au transfert.
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param receiverId L'identifiant du destinataire.
+     * @param amount Le montant du transfert.
+     * @param description La description du transfert.
+     */
+    public AsyncTransfer(String transferId, Long senderId, Long receiverId, BigDecimal amount, String description) {
+        this.transferId = transferId;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.amount = amount;
+        this.description = description;
+        this.state = AsyncTransferState.PENDING;
+        this.submittedAt = LocalDateTime.now();
+    }
+}
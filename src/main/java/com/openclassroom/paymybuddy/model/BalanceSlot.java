@@ -0,0 +1,58 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Entité représentant un sous-solde d'un compte en mode « solde éclaté ».
+ * Les crédits reçus par un compte très sollicité sont répartis entre plusieurs sous-soldes
+ * afin de ne pas tous verrouiller la même ligne ; le solde du compte est la somme
+ * de son solde principal et de ses sous-soldes.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "balance_slot")
+@IdClass(BalanceSlotId.class)
+public class BalanceSlot {
+
+    /**
+     * L'identifiant de l'utilisateur propriétaire du sous-solde.
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Le numéro du sous-solde.
+     */
+    @Id
+    @Column(name = "slot_index")
+    private Integer slotIndex;
+
+    /**
+     * Le montant crédité sur le sous-solde et pas encore reversé sur le solde principal.
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public BalanceSlot() {
+    }
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param slotIndex Le numéro du sous-solde.
+     */
+    public BalanceSlot(Long userId, Integer slotIndex) {
+        this.userId = userId;
+        this.slotIndex = slotIndex;
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassroom.paymybuddy.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Classe représentant l'identifiant composite d'un sous-solde.
+ */
+@Setter
+@Getter
+@EqualsAndHashCode
+public class BalanceSlotId implements Serializable {
+
+    /**
+     * L'identifiant de l'utilisateur propriétaire du sous-solde.
+     */
+    private Long userId;
+
+    /**
+     * Le numéro du sous-solde.
+     */
+    private Integer slotIndex;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public BalanceSlotId() {
+    }
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param slotIndex Le numéro du sous-solde.
+     */
+    public BalanceSlotId(Long userId, Integer slotIndex) {
+        this.userId = userId;
+        this.slotIndex = slotIndex;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un instantané du solde d'un compte (table balance_snapshot).
+ * Le solde à un instant donné se calcule à partir du dernier instantané antérieur, augmenté
+ * des écritures du journal postérieures à la dernière écriture qu'il couvre.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "balance_snapshot",
+        indexes = @Index(name = "idx_balance_snapshot_user", columnList = "user_id, last_entry_id"))
+public class BalanceSnapshot {
+
+    /**
+     * L'identifiant unique de l'instantané.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * L'identifiant de l'utilisateur.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * L'identifiant de la dernière écriture du journal prise en compte dans le solde.
+     */
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    /**
+     * La date et l'heure de la dernière écriture prise en compte dans le solde.
+     */
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    /**
+     * Le solde du compte après la dernière écriture prise en compte.
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param lastEntryId L'identifiant de la dernière écriture prise en compte.
+     * @param asOf La date et l'heure de cette écriture.
+     * @param balance Le solde après cette écriture.
+     */
+    public BalanceSnapshot(Long userId, Long lastEntryId, LocalDateTime asOf, BigDecimal balance) {
+        this.userId = userId;
+        this.lastEntryId = lastEntryId;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,98 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant une clé d'idempotence reçue sur un endpoint de transfert,
+ * avec la réponse renvoyée pour la requête d'origine.
+ * Tant que la réponse n'est pas enregistrée, la requête est considérée comme en cours de traitement.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_key",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"user_id", "idempotency_key"}))
+public class IdempotencyRecord {
+
+    /**
+     * L'identifiant unique de l'enregistrement.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * L'identifiant de l'utilisateur ayant envoyé la requête.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * La clé d'idempotence fournie par le client.
+     */
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    /**
+     * L'empreinte (SHA-256) du contenu de la requête d'origine.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Le code HTTP de la réponse d'origine, ou null si la requête est en cours de traitement.
+     */
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    /**
+     * Le corps JSON de la réponse d'origine.
+     */
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    /**
+     * La date et l'heure de réception de la requête d'origine.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructeur d'un enregistrement en cours de traitement.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param idempotencyKey La clé d'idempotence.
+     * @param requestHash L'empreinte du contenu de la requête.
+     */
+    public IdempotencyRecord(Long userId, String idempotencyKey, String requestHash) {
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+    }
+
+    /**
+     * Méthode exécutée avant la persistance pour définir la date de création si elle est absente.
+     */
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Indique si la réponse de la requête d'origine a été enregistrée.
+     *
+     * @return true si la requête est terminée, false si elle est en cours de traitement.
+     */
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+}
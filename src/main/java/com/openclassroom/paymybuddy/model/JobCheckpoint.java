@@ -0,0 +1,98 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant l'avancement d'une partition d'un traitement de masse (table job_checkpoint).
+ * Un traitement interrompu puis relancé sous le même nom reprend à partir des partitions non terminées.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "job_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_checkpoint_range", columnNames = {"job_name", "range_start"}))
+public class JobCheckpoint {
+
+    /**
+     * L'identifiant unique du point de reprise.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Le nom de l'exécution du traitement (par exemple le traitement suivi de sa date).
+     */
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    /**
+     * La borne inférieure (incluse) de la partition.
+     */
+    @Column(name = "range_start", nullable = false)
+    private Long rangeStart;
+
+    /**
+     * La borne supérieure (incluse) de la partition.
+     */
+    @Column(name = "range_end", nullable = false)
+    private Long rangeEnd;
+
+    /**
+     * Le dernier identifiant traité dans la partition, ou null si aucun.
+     */
+    @Column(name = "last_processed_id")
+    private Long lastProcessedId;
+
+    /**
+     * Indique si la partition a été entièrement traitée.
+     */
+    @Column(nullable = false)
+    private boolean completed;
+
+    /**
+     * Le nombre d'éléments traités dans la partition.
+     */
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+
+    /**
+     * Le nombre d'anomalies relevées dans la partition.
+     */
+    @Column(name = "error_count", nullable = false)
+    private long errorCount;
+
+    /**
+     * La date et l'heure de la dernière mise à jour.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Constructeur d'un point de reprise pour une partition non commencée.
+     *
+     * @param jobName Le nom de l'exécution du traitement.
+     * @param rangeStart La borne inférieure de la partition.
+     * @param rangeEnd La borne supérieure de la partition.
+     */
+    public JobCheckpoint(String jobName, Long rangeStart, Long rangeEnd) {
+        this.jobName = jobName;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    /**
+     * Méthode exécutée avant chaque écriture pour dater la mise à jour.
+     */
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
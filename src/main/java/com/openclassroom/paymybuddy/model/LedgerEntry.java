@@ -0,0 +1,109 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant une écriture du journal des mouvements (table ledger_entry).
+ * Le journal est en ajout seul : chaque transfert produit un débit de l'expéditeur et un crédit
+ * du destinataire portant le même identifiant de transaction, chaque ajustement de balance
+ * produit une écriture sans transaction associée.
+ * Les comptes antérieurs au journal reçoivent une écriture d'ouverture, elle aussi sans transaction,
+ * qui porte leur solde non expliqué par l'historique des transferts.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "ledger_entry",
+        indexes = {
+                @Index(name = "idx_ledger_entry_user", columnList = "user_id, id"),
+                @Index(name = "idx_ledger_entry_transaction", columnList = "transaction_id")
+        })
+public class LedgerEntry {
+
+    /**
+     * L'identifiant unique de l'écriture, croissant dans l'ordre d'insertion.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * L'identifiant de l'utilisateur dont le compte est mouvementé.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * L'identifiant de la transaction à l'origine de l'écriture, ou null pour un ajustement de balance.
+     */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    /**
+     * Le sens de l'écriture.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 10)
+    private LedgerEntryType entryType;
+
+    /**
+     * Le montant de l'écriture, toujours positif.
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * Indique une écriture d'ouverture, reprenant le solde d'un compte antérieur au journal.
+     */
+    @Column(nullable = false)
+    private boolean opening;
+
+    /**
+     * La date et l'heure de l'écriture.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param transactionId L'identifiant de la transaction, ou null.
+     * @param entryType Le sens de l'écriture.
+     * @param amount Le montant de l'écriture.
+     * @param createdAt La date et l'heure de l'écriture.
+     */
+    public LedgerEntry(Long userId, Long transactionId, LedgerEntryType entryType, BigDecimal amount, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.transactionId = transactionId;
+        this.entryType = entryType;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Méthode exécutée avant la persistance pour définir la date de l'écriture si elle est absente.
+     */
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Retourne la variation de solde produite par l'écriture.
+     *
+     * @return Le montant, négatif pour un débit.
+     */
+    public BigDecimal getSignedAmount() {
+        return entryType == LedgerEntryType.DEBIT ? amount.negate() : amount;
+    }
+}
@@ -0,0 +1,17 @@
+package com.openclassroom.paymybuddy.model;
+
+/**
+ * Sens d'une écriture du journal des mouvements.
+ */
+public enum LedgerEntryType {
+
+    /**
+     * Sortie d'argent du compte.
+     */
+    DEBIT,
+
+    /**
+     * Entrée d'argent sur le compte.
+     */
+    CREDIT
+}
@@ -0,0 +1,87 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un événement métier en attente de diffusion (table outbox_event).
+ * L'événement est écrit dans la transaction qui produit le changement d'état, puis diffusé
+ * aux consommateurs par une tâche de fond : tant que {@code deliveredAt} est null, il sera de nouveau proposé.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_event",
+        indexes = @Index(name = "idx_outbox_event_pending", columnList = "delivered_at, id"))
+public class OutboxEvent {
+
+    /**
+     * L'identifiant unique de l'événement, croissant dans l'ordre d'écriture.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Le type de l'événement, qui détermine le format de son contenu.
+     */
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    /**
+     * L'identifiant de l'objet métier concerné (par exemple la transaction).
+     */
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    /**
+     * Le contenu JSON de l'événement.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    /**
+     * La date et l'heure d'écriture de l'événement.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * La date et l'heure de diffusion à tous les consommateurs, ou null si l'événement est en attente.
+     */
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    /**
+     * Le nombre de tentatives de diffusion ayant échoué.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Le message de la dernière erreur de diffusion, le cas échéant.
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param eventType Le type de l'événement.
+     * @param aggregateId L'identifiant de l'objet métier concerné.
+     * @param payload Le contenu JSON de l'événement.
+     * @param createdAt La date et l'heure d'écriture de l'événement.
+     */
+    public OutboxEvent(String eventType, Long aggregateId, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un transfert programmé et récurrent (table scheduled_transfer).
+ * La date de la prochaine exécution est indexée : le moteur de planification ne lit que
+ * les programmations dont l'échéance tombe dans la fenêtre de temps qu'il charge.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "scheduled_transfer",
+        indexes = {
+                @Index(name = "idx_scheduled_transfer_due", columnList = "active, next_run_at, id"),
+                @Index(name = "idx_scheduled_transfer_sender", columnList = "sender_id")
+        })
+public class ScheduledTransfer {
+
+    /**
+     * L'identifiant unique de la programmation.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * L'identifiant de l'expéditeur.
+     */
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    /**
+     * L'identifiant du destinataire.
+     */
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    /**
+     * Le montant de chaque transfert.
+     */
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * La description de chaque transfert.
+     */
+    @Column(nullable = false, length = 255)
+    private String description;
+
+    /**
+     * La périodicité des transferts.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TransferFrequency frequency;
+
+    /**
+     * La date de la première exécution, à partir de laquelle les suivantes sont calculées.
+     */
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    /**
+     * La date de la dernière exécution autorisée, ou null pour une programmation sans fin.
+     */
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    /**
+     * La date de la prochaine exécution.
+     */
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    /**
+     * Le nombre d'occurrences déjà traitées, effectuées ou refusées.
+     */
+    @Column(name = "run_count", nullable = false)
+    private long runCount;
+
+    /**
+     * Indique si la programmation est active.
+     */
+    @Column(nullable = false)
+    private boolean active;
+
+    /**
+     * La date de la dernière occurrence traitée, le cas échéant.
+     */
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    /**
+     * Le motif du refus de la dernière occurrence, ou null si elle a été effectuée.
+     */
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    /**
+     * La date et l'heure de création de la programmation.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Méthode exécutée avant la persistance pour définir la date de création si elle est absente.
+     */
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
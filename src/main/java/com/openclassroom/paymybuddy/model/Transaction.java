@@ -11,14 +11,29 @@ import java.time.LocalDateTime;
 
 /**
  * Entité représentant une transaction entre deux utilisateurs.
+ * L'expéditeur et le destinataire sont chargés à la demande ; les requêtes qui affichent les deux
+ * parties les chargent avec la transaction par le graphe {@link #WITH_PARTIES_GRAPH}.
  */
 @Setter
 @Getter
 @Entity
 @Builder
-@Table(name = "transaction")
+@NamedEntityGraph(name = Transaction.WITH_PARTIES_GRAPH, attributeNodes = {
+        @NamedAttributeNode("sender"),
+        @NamedAttributeNode("receiver")
+})
+@Table(name = "transaction",
+        indexes = {
+                @Index(name = "idx_transaction_sender_created", columnList = "sender_id, created_at, id"),
+                @Index(name = "idx_transaction_receiver_created", columnList = "receiver_id, created_at, id")
+        })
 public class Transaction {
 
+    /**
+     * Nom du graphe de chargement incluant l'expéditeur et le destinataire, joints dans la même requête.
+     */
+    public static final String WITH_PARTIES_GRAPH = "Transaction.withParties";
+
     /**
      * L'identifiant unique de la transaction.
      */
@@ -37,7 +52,7 @@ public class Transaction {
     /**
      * L'utilisateur qui reçoit l'argent.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id", nullable = false)
     @JsonIgnore
     private User receiver;
@@ -97,6 +112,7 @@ public class Transaction {
 
     /**
      * Retourne une chaîne représentant la relation entre l'expéditeur et le destinataire.
+     * Sans requête supplémentaire uniquement si la transaction a été chargée avec {@link #WITH_PARTIES_GRAPH}.
      *
      * @return Une chaîne au format "expéditeur -> destinataire".
      */
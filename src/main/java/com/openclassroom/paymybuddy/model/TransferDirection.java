@@ -0,0 +1,17 @@
+package com.openclassroom.paymybuddy.model;
+
+/**
+ * Sens d'une transaction du point de vue d'un utilisateur.
+ */
+public enum TransferDirection {
+
+    /**
+     * Transaction envoyée par l'utilisateur.
+     */
+    SENT,
+
+    /**
+     * Transaction reçue par l'utilisateur.
+     */
+    RECEIVED
+}
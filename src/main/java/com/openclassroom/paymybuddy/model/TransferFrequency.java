@@ -0,0 +1,45 @@
+package com.openclassroom.paymybuddy.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Périodicité d'un transfert programmé.
+ */
+public enum TransferFrequency {
+
+    /**
+     * Une exécution par jour.
+     */
+    DAILY,
+
+    /**
+     * Une exécution par semaine.
+     */
+    WEEKLY,
+
+    /**
+     * Une exécution par mois, au même quantième que la première exécution
+     * (ou au dernier jour du mois lorsque ce quantième n'existe pas).
+     */
+    MONTHLY;
+
+    /**
+     * Calcule la date d'une occurrence à partir de la première exécution.
+     * Le calcul part toujours de la première exécution pour éviter toute dérive
+     * (un transfert mensuel programmé le 31 reste au 31 après un mois de 30 jours).
+     *
+     * @param startAt La date de la première exécution.
+     * @param index Le rang de l'occurrence, 0 pour la première.
+     * @return La date de l'occurrence.
+     */
+    public LocalDateTime occurrence(LocalDateTime startAt, long index) {
+        switch (this) {
+            case DAILY:
+                return startAt.plusDays(index);
+            case WEEKLY:
+                return startAt.plusWeeks(index);
+            default:
+                return startAt.plusMonths(index);
+        }
+    }
+}
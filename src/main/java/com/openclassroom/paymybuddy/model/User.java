@@ -45,7 +45,9 @@ public class User {
     private String password;
 
     /**
-     * Le solde du compte de l'utilisateur.
+     * Le solde principal du compte de l'utilisateur.
+     * Pour un compte en mode « solde éclaté », une partie du solde peut se trouver dans ses sous-soldes :
+     * le solde total affiché est obtenu par {@code UserService.getTotalBalance}.
      */
     @Column(nullable = false)
     @Builder.Default
@@ -58,6 +60,15 @@ public class User {
     @Builder.Default
     private String role = "USER";
 
+    /**
+     * Version de la ligne, incrémentée à chaque modification de l'utilisateur ou de son solde.
+     * Permet de détecter les écritures concurrentes en mode {@code OPTIMISTIC}.
+     * Nulle tant que l'utilisateur n'a pas été enregistré.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Les connexions de l'utilisateur (relations où l'utilisateur est le principal).
      */
@@ -69,4 +80,4 @@ public class User {
      */
     @OneToMany(mappedBy = "connection", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<UserConnection> connectedTo;
-}
\ No newline at end of file
+}
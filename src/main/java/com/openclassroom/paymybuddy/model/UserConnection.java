@@ -1,5 +1,6 @@
 package com.openclassroom.paymybuddy.model;
 
+import com.openclassroom.paymybuddy.service.UserConnectionListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,6 +13,7 @@ import lombok.Setter;
 @Entity
 @Table(name = "user_connections")
 @IdClass(UserConnectionId.class)
+@EntityListeners(UserConnectionListener.class)
 public class UserConnection {
 
     /**
@@ -0,0 +1,89 @@
+package com.openclassroom.paymybuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entité représentant les totaux d'un utilisateur sur un mois (table user_monthly_stats) :
+ * montants et nombres de transferts envoyés et reçus, dépôts et retraits.
+ * Les totaux sont mis à jour dans la transaction de chaque mouvement, si bien qu'un tableau de bord
+ * les lit en une ligne par mois au lieu de parcourir l'historique.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "user_monthly_stats")
+@IdClass(UserMonthlyStatsId.class)
+public class UserMonthlyStats {
+
+    /**
+     * L'identifiant de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Le premier jour du mois.
+     */
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    /**
+     * Le montant total des transferts envoyés.
+     */
+    @Column(name = "sent_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal sentTotal = BigDecimal.ZERO;
+
+    /**
+     * Le nombre de transferts envoyés.
+     */
+    @Column(name = "sent_count", nullable = false)
+    private long sentCount;
+
+    /**
+     * Le montant total des transferts reçus.
+     */
+    @Column(name = "received_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal receivedTotal = BigDecimal.ZERO;
+
+    /**
+     * Le nombre de transferts reçus.
+     */
+    @Column(name = "received_count", nullable = false)
+    private long receivedCount;
+
+    /**
+     * Le montant total des dépôts (ajustements positifs de la balance).
+     */
+    @Column(name = "deposited_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal depositedTotal = BigDecimal.ZERO;
+
+    /**
+     * Le montant total des retraits (ajustements négatifs de la balance).
+     */
+    @Column(name = "withdrawn_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal withdrawnTotal = BigDecimal.ZERO;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public UserMonthlyStats() {
+    }
+
+    /**
+     * Constructeur de statistiques vides pour un utilisateur et un mois.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param monthStart Le premier jour du mois.
+     */
+    public UserMonthlyStats(Long userId, LocalDate monthStart) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+    }
+}
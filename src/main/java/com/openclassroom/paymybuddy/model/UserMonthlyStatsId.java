@@ -0,0 +1,45 @@
+package com.openclassroom.paymybuddy.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Classe représentant l'identifiant composite des statistiques mensuelles d'un utilisateur.
+ */
+@Setter
+@Getter
+@EqualsAndHashCode
+public class UserMonthlyStatsId implements Serializable {
+
+    /**
+     * L'identifiant de l'utilisateur.
+     */
+    private Long userId;
+
+    /**
+     * Le premier jour du mois.
+     */
+    private LocalDate monthStart;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public UserMonthlyStatsId() {
+    }
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param monthStart Le premier jour du mois.
+     */
+    public UserMonthlyStatsId(Long userId, LocalDate monthStart) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.AsyncTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour gérer les opérations de persistance des transferts asynchrones.
+ */
+public interface AsyncTransferRepository extends JpaRepository<AsyncTransfer, Long> {
+
+    /**
+     * Récupère un transfert asynchrone par son identifiant de transfert.
+     *
+     * @param transferId L'identifiant du transfert.
+     * @return Un Optional contenant le transfert s'il existe.
+     */
+    Optional<AsyncTransfer> findByTransferId(String transferId);
+
+    /**
+     * Récupère les derniers transferts asynchrones d'un expéditeur, du plus récent au plus ancien.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @return Les dix derniers transferts de l'expéditeur.
+     */
+    List<AsyncTransfer> findTop10BySenderIdOrderByIdDesc(Long senderId);
+
+    /**
+     * Supprime un transfert asynchrone par son identifiant de transfert.
+     *
+     * @param transferId L'identifiant du transfert.
+     * @return Le nombre de transferts supprimés.
+     */
+    @Modifying
+    @Query("DELETE FROM AsyncTransfer t WHERE t.transferId = :transferId")
+    int deleteByTransferId(@Param("transferId") String transferId);
+
+    /**
+     * Fait passer un transfert de l'état PENDING à l'état RUNNING, uniquement s'il est encore en attente.
+     *
+     * @param transferId L'identifiant du transfert.
+     * @param startedAt La date et l'heure de début de traitement.
+     * @return 1 si le transfert a été pris, 0 s'il n'était plus en attente.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.RUNNING, "
+            + "t.startedAt = :startedAt "
+            + "WHERE t.transferId = :transferId AND t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.PENDING")
+    int start(@Param("transferId") String transferId, @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * Marque effectué un transfert en cours de traitement. Appelée dans la transaction qui enregistre le transfert.
+     *
+     * @param transferId L'identifiant du transfert.
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param transactionId L'identifiant de la transaction créée.
+     * @param completedAt La date et l'heure de fin de traitement.
+     * @return 1 si le transfert a été mis à jour, 0 s'il est inconnu ou n'est plus en cours de traitement.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.COMPLETED, "
+            + "t.transactionId = :transactionId, t.completedAt = :completedAt "
+            + "WHERE t.transferId = :transferId AND t.senderId = :senderId "
+            + "AND t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.RUNNING")
+    int complete(@Param("transferId") String transferId,
+                 @Param("senderId") Long senderId,
+                 @Param("transactionId") Long transactionId,
+                 @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Marque en échec un transfert en cours de traitement.
+     *
+     * @param transferId L'identifiant du transfert.
+     * @param message Le motif du refus ou de l'échec.
+     * @param completedAt La date et l'heure de fin de traitement.
+     * @return 1 si le transfert a été mis à jour, 0 s'il n'est plus en cours de traitement.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.FAILED, "
+            + "t.message = :message, t.completedAt = :completedAt "
+            + "WHERE t.transferId = :transferId AND t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.RUNNING")
+    int failRunning(@Param("transferId") String transferId,
+                    @Param("message") String message,
+                    @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Marque en échec les transferts en cours de traitement depuis une date donnée.
+     * Un transfert effectué étant marqué comme tel dans sa propre transaction, ces transferts n'ont pas été effectués.
+     *
+     * @param before La date limite de début de traitement.
+     * @param message Le motif de l'échec.
+     * @param completedAt La date et l'heure de fin de traitement.
+     * @return Le nombre de transferts mis à jour.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.FAILED, "
+            + "t.message = :message, t.completedAt = :completedAt "
+            + "WHERE t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.RUNNING AND t.startedAt < :before")
+    int failRunningStartedBefore(@Param("before") LocalDateTime before,
+                                 @Param("message") String message,
+                                 @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Marque en échec des transferts encore en attente de traitement.
+     *
+     * @param transferIds Les identifiants des transferts.
+     * @param message Le motif de l'échec.
+     * @param completedAt La date et l'heure de fin de traitement.
+     * @return Le nombre de transferts mis à jour.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.FAILED, "
+            + "t.message = :message, t.completedAt = :completedAt "
+            + "WHERE t.transferId IN :transferIds AND t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.PENDING")
+    int failPending(@Param("transferIds") Collection<String> transferIds,
+                    @Param("message") String message,
+                    @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Marque en échec les transferts en attente de traitement soumis avant une date donnée.
+     *
+     * @param before La date limite.
+     * @param message Le motif de l'échec.
+     * @param completedAt La date et l'heure de fin de traitement.
+     * @return Le nombre de transferts mis à jour.
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer t SET t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.FAILED, "
+            + "t.message = :message, t.completedAt = :completedAt "
+            + "WHERE t.state = com.openclassroom.paymybuddy.service.AsyncTransferState.PENDING AND t.submittedAt < :before")
+    int failPendingSubmittedBefore(@Param("before") LocalDateTime before,
+                                   @Param("message") String message,
+                                   @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Supprime les transferts terminés avant une date donnée.
+     *
+     * @param before La date limite.
+     * @return Le nombre de transferts supprimés.
+     */
+    @Modifying
+    @Query("DELETE FROM AsyncTransfer t WHERE t.completedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
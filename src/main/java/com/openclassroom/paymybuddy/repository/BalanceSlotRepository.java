@@ -0,0 +1,89 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.BalanceSlot;
+import com.openclassroom.paymybuddy.model.BalanceSlotId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository pour gérer les opérations de persistance des sous-soldes.
+ */
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, BalanceSlotId> {
+
+    /**
+     * Récupère les sous-soldes d'un utilisateur.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return Une liste des sous-soldes de l'utilisateur.
+     */
+    List<BalanceSlot> findByUserId(Long userId);
+
+    /**
+     * Récupère tous les sous-soldes d'un utilisateur, nuls compris, en posant un verrou exclusif
+     * sur leurs lignes (SELECT ... FOR UPDATE), dans l'ordre de leur numéro.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return Une liste des sous-soldes de l'utilisateur.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BalanceSlot s WHERE s.userId = :userId ORDER BY s.slotIndex")
+    List<BalanceSlot> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Récupère les sous-soldes non nuls d'un utilisateur en posant un verrou exclusif sur leurs lignes
+     * (SELECT ... FOR UPDATE), dans l'ordre de leur numéro. Les montants lus ne peuvent plus changer
+     * avant la fin de la transaction : un crédit concurrent attend, un reversement concurrent relit
+     * les montants restants après validation.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return Une liste des sous-soldes dont le montant est différent de zéro.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BalanceSlot s WHERE s.userId = :userId AND s.amount <> 0 ORDER BY s.slotIndex")
+    List<BalanceSlot> findNonEmptyByUserIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Calcule la somme des sous-soldes d'un utilisateur.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return La somme des sous-soldes, ou zéro si l'utilisateur n'en a pas.
+     */
+    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM BalanceSlot s WHERE s.userId = :userId")
+    BigDecimal sumByUserId(@Param("userId") Long userId);
+
+    /**
+     * Récupère les identifiants des utilisateurs ayant au moins un sous-solde non nul.
+     *
+     * @return Une liste d'identifiants d'utilisateurs.
+     */
+    @Query("SELECT DISTINCT s.userId FROM BalanceSlot s WHERE s.amount <> 0")
+    List<Long> findUserIdsWithPendingAmounts();
+
+    /**
+     * Ajoute atomiquement un montant à un sous-solde.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param slotIndex Le numéro du sous-solde.
+     * @param amount Le montant à ajouter (négatif pour un retrait).
+     * @return Le nombre de lignes modifiées (0 si le sous-solde n'existe pas).
+     */
+    @Modifying
+    @Query("UPDATE BalanceSlot s SET s.amount = s.amount + :amount WHERE s.userId = :userId AND s.slotIndex = :slotIndex")
+    int addToSlot(@Param("userId") Long userId, @Param("slotIndex") Integer slotIndex, @Param("amount") BigDecimal amount);
+
+    /**
+     * Supprime les sous-soldes d'un utilisateur.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     */
+    @Modifying
+    @Query("DELETE FROM BalanceSlot s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
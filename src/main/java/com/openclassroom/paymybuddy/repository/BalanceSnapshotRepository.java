@@ -0,0 +1,30 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository pour gérer les opérations de persistance des instantanés de solde.
+ */
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Récupère le dernier instantané d'un utilisateur.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return Le dernier instantané, ou un Optional vide si aucun instantané n'a été pris.
+     */
+    Optional<BalanceSnapshot> findFirstByUserIdOrderByLastEntryIdDesc(Long userId);
+
+    /**
+     * Récupère le dernier instantané d'un utilisateur couvrant uniquement des écritures antérieures à l'instant donné.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param at L'instant de référence (inclus).
+     * @return Le dernier instantané antérieur, ou un Optional vide.
+     */
+    Optional<BalanceSnapshot> findFirstByUserIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(Long userId, LocalDateTime at);
+}
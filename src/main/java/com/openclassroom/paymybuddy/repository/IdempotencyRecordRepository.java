@@ -0,0 +1,62 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository pour gérer les opérations de persistance des clés d'idempotence.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Récupère l'enregistrement associé à une clé d'idempotence d'un utilisateur.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param idempotencyKey La clé d'idempotence.
+     * @return Un Optional contenant l'enregistrement s'il existe.
+     */
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Supprime les clés d'idempotence reçues avant une date donnée.
+     *
+     * @param before La date limite.
+     * @return Le nombre de clés supprimées.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Libère la réservation d'une clé d'idempotence restée sans réponse depuis une date donnée.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param idempotencyKey La clé d'idempotence.
+     * @param before La date limite de réservation.
+     * @return 1 si la réservation a été libérée, 0 si elle a été terminée, libérée ou renouvelée entre-temps.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.userId = :userId AND r.idempotencyKey = :idempotencyKey "
+            + "AND r.responseStatus IS NULL AND r.createdAt < :before")
+    int releaseReservationCreatedBefore(@Param("userId") Long userId,
+                                        @Param("idempotencyKey") String idempotencyKey,
+                                        @Param("before") LocalDateTime before);
+
+    /**
+     * Supprime les réservations de clés d'idempotence restées sans réponse depuis une date donnée.
+     *
+     * @param before La date limite de réservation.
+     * @return Le nombre de réservations supprimées.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.responseStatus IS NULL AND r.createdAt < :before")
+    int deleteReservationsCreatedBefore(@Param("before") LocalDateTime before);
+}
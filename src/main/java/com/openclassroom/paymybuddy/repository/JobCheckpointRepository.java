@@ -0,0 +1,30 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour gérer les opérations de persistance des points de reprise des traitements de masse.
+ */
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, Long> {
+
+    /**
+     * Récupère les points de reprise d'une exécution.
+     *
+     * @param jobName Le nom de l'exécution.
+     * @return Une liste des points de reprise de l'exécution.
+     */
+    List<JobCheckpoint> findByJobName(String jobName);
+
+    /**
+     * Récupère le point de reprise d'une partition d'une exécution.
+     *
+     * @param jobName Le nom de l'exécution.
+     * @param rangeStart La borne inférieure de la partition.
+     * @return Le point de reprise, ou un Optional vide si la partition n'a pas été commencée.
+     */
+    Optional<JobCheckpoint> findByJobNameAndRangeStart(String jobName, Long rangeStart);
+}
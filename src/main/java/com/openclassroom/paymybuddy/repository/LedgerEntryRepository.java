@@ -0,0 +1,76 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour gérer les opérations de persistance du journal des mouvements.
+ * Les sommes sont calculées par la base de données sur la plage d'écritures postérieure
+ * à un instantané, grâce à l'index (user_id, id).
+ */
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>, LedgerEntryRepositoryCustom {
+
+    /**
+     * Récupère les écritures d'un utilisateur, de la plus ancienne à la plus récente.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @return Une liste des écritures de l'utilisateur.
+     */
+    List<LedgerEntry> findByUserIdOrderByIdAsc(Long userId);
+
+    /**
+     * Récupère la dernière écriture d'un utilisateur datée au plus tard de l'instant donné.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param at L'instant de référence (inclus).
+     * @return La dernière écriture trouvée, ou un Optional vide.
+     */
+    Optional<LedgerEntry> findFirstByUserIdAndCreatedAtLessThanEqualOrderByIdDesc(Long userId, LocalDateTime at);
+
+    /**
+     * Calcule la variation de solde produite par les écritures d'un utilisateur dans une plage d'identifiants.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param afterEntryId La borne inférieure (exclue) des identifiants d'écriture.
+     * @param maxEntryId La borne supérieure (incluse) des identifiants d'écriture.
+     * @return La somme des crédits moins la somme des débits.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = com.openclassroom.paymybuddy.model.LedgerEntryType.DEBIT " +
+            "THEN -e.amount ELSE e.amount END), 0) " +
+            "FROM LedgerEntry e WHERE e.userId = :userId AND e.id > :afterEntryId AND e.id <= :maxEntryId")
+    BigDecimal sumBetween(@Param("userId") Long userId, @Param("afterEntryId") Long afterEntryId,
+                          @Param("maxEntryId") Long maxEntryId);
+
+    /**
+     * Calcule la variation de solde produite par les écritures d'un utilisateur postérieures à une écriture
+     * donnée et datées au plus tard de l'instant donné.
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param afterEntryId La borne inférieure (exclue) des identifiants d'écriture.
+     * @param at L'instant (inclus) jusqu'auquel les écritures sont prises en compte.
+     * @return La somme des crédits moins la somme des débits.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = com.openclassroom.paymybuddy.model.LedgerEntryType.DEBIT " +
+            "THEN -e.amount ELSE e.amount END), 0) " +
+            "FROM LedgerEntry e WHERE e.userId = :userId AND e.id > :afterEntryId AND e.createdAt <= :at")
+    BigDecimal sumSinceUpTo(@Param("userId") Long userId, @Param("afterEntryId") Long afterEntryId,
+                            @Param("at") LocalDateTime at);
+
+    /**
+     * Récupère les utilisateurs ayant au moins le nombre donné d'écritures postérieures à leur dernier instantané.
+     *
+     * @param minEntries Le nombre minimal d'écritures non couvertes par un instantané.
+     * @return Une liste d'identifiants d'utilisateurs.
+     */
+    @Query("SELECT e.userId FROM LedgerEntry e WHERE e.id > COALESCE(" +
+            "(SELECT MAX(s.lastEntryId) FROM BalanceSnapshot s WHERE s.userId = e.userId), 0) " +
+            "GROUP BY e.userId HAVING COUNT(e) >= :minEntries")
+    List<Long> findUserIdsToSnapshot(@Param("minEntries") long minEntries);
+}
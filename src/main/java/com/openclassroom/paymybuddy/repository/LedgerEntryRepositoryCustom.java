@@ -0,0 +1,18 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+
+import java.util.List;
+
+/**
+ * Opérations de persistance du journal des mouvements implémentées directement en JDBC.
+ */
+public interface LedgerEntryRepositoryCustom {
+
+    /**
+     * Insère un lot d'écritures en une seule requête JDBC batch.
+     *
+     * @param entries Les écritures à insérer.
+     */
+    void insertAll(List<LedgerEntry> entries);
+}
@@ -0,0 +1,55 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implémentation JDBC des opérations de {@link LedgerEntryRepositoryCustom}.
+ */
+public class LedgerEntryRepositoryCustomImpl implements LedgerEntryRepositoryCustom {
+
+    /**
+     * Requête d'insertion d'une écriture.
+     */
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_entry (user_id, transaction_id, entry_type, amount, opening, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Template JDBC partageant la connexion de la transaction JPA courante.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour injecter le template JDBC.
+     *
+     * @param jdbcTemplate Template JDBC
+     */
+    public LedgerEntryRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = entries.stream()
+                .map(entry -> new Object[] {
+                        entry.getUserId(),
+                        entry.getTransactionId(),
+                        entry.getEntryType().name(),
+                        entry.getAmount(),
+                        entry.isOpening(),
+                        Timestamp.valueOf(entry.getCreatedAt() != null ? entry.getCreatedAt() : now)})
+                .collect(Collectors.toList());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+}
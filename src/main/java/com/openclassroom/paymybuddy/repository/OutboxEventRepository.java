@@ -0,0 +1,60 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour gérer les opérations de persistance des événements à diffuser.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    /**
+     * Récupère les plus anciens événements en attente de diffusion, hors événements ayant épuisé leurs tentatives.
+     *
+     * @param maxAttempts Le nombre de tentatives au-delà duquel un événement n'est plus proposé.
+     * @param pageable La taille du lot à récupérer.
+     * @return Les événements en attente, par ordre d'écriture.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.deliveredAt IS NULL AND e.attempts < :maxAttempts ORDER BY e.id")
+    List<OutboxEvent> findPending(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    /**
+     * Marque des événements comme diffusés.
+     *
+     * @param ids Les identifiants des événements.
+     * @param deliveredAt La date et l'heure de diffusion.
+     * @return Le nombre d'événements mis à jour.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.deliveredAt = :deliveredAt WHERE e.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    /**
+     * Enregistre l'échec d'une tentative de diffusion.
+     *
+     * @param id L'identifiant de l'événement.
+     * @param error Le message de l'erreur.
+     * @return Le nombre d'événements mis à jour.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Supprime les événements diffusés avant une date donnée.
+     *
+     * @param before La date limite.
+     * @return Le nombre d'événements supprimés.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,18 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Opérations de persistance de la table outbox_event implémentées directement en JDBC.
+ */
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Insère un lot d'événements en une seule requête JDBC batch.
+     *
+     * @param events Les événements à insérer.
+     */
+    void insertAll(List<OutboxEvent> events);
+}
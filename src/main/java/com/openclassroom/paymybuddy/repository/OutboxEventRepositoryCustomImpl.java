@@ -0,0 +1,52 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implémentation JDBC des opérations de {@link OutboxEventRepositoryCustom}.
+ */
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    /**
+     * Requête d'insertion d'un événement.
+     */
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_event (event_type, aggregate_id, payload, created_at, attempts) VALUES (?, ?, ?, ?, 0)";
+
+    /**
+     * Template JDBC partageant la connexion de la transaction JPA courante.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour injecter le template JDBC.
+     *
+     * @param jdbcTemplate Template JDBC
+     */
+    public OutboxEventRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = events.stream()
+                .map(event -> new Object[] {
+                        event.getEventType(),
+                        event.getAggregateId(),
+                        event.getPayload(),
+                        Timestamp.valueOf(event.getCreatedAt() != null ? event.getCreatedAt() : now)})
+                .collect(Collectors.toList());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour gérer les opérations de persistance des transferts programmés.
+ */
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    /**
+     * Récupère les programmations d'un expéditeur, de la plus récente à la plus ancienne.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @return Les programmations de l'expéditeur.
+     */
+    List<ScheduledTransfer> findBySenderIdOrderByIdDesc(Long senderId);
+
+    /**
+     * Récupère un morceau des programmations actives dont l'échéance précède une date limite,
+     * par pagination sur la clé (échéance, identifiant) : chaque morceau reprend après le dernier
+     * élément du précédent, sans OFFSET, en suivant l'index {@code idx_scheduled_transfer_due}.
+     *
+     * @param afterRunAt L'échéance du dernier élément du morceau précédent.
+     * @param afterId L'identifiant du dernier élément du morceau précédent.
+     * @param until La date limite (exclue).
+     * @param pageable La taille du morceau.
+     * @return Les programmations, par échéance puis identifiant croissants.
+     */
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.active = true AND s.nextRunAt < :until " +
+            "AND (s.nextRunAt > :afterRunAt OR (s.nextRunAt = :afterRunAt AND s.id > :afterId)) " +
+            "ORDER BY s.nextRunAt, s.id")
+    List<ScheduledTransfer> findActiveDueChunk(@Param("afterRunAt") LocalDateTime afterRunAt,
+                                               @Param("afterId") Long afterId,
+                                               @Param("until") LocalDateTime until,
+                                               Pageable pageable);
+
+    /**
+     * Réserve une occurrence et fait avancer la programmation, à condition que l'échéance n'ait pas
+     * déjà été traitée : deux exécutions concurrentes de la même occurrence ne peuvent réussir toutes les deux.
+     *
+     * @param id L'identifiant de la programmation.
+     * @param expectedRunAt L'échéance de l'occurrence à réserver.
+     * @param nextRunAt L'échéance suivante.
+     * @param active false si l'occurrence est la dernière de la programmation.
+     * @param lastError Le motif du refus de l'occurrence, ou null.
+     * @return 1 si l'occurrence a été réservée, 0 sinon.
+     */
+    @Modifying
+    @Query("UPDATE ScheduledTransfer s SET s.nextRunAt = :nextRunAt, s.runCount = s.runCount + 1, " +
+            "s.lastRunAt = :expectedRunAt, s.active = :active, s.lastError = :lastError " +
+            "WHERE s.id = :id AND s.active = true AND s.nextRunAt = :expectedRunAt")
+    int advance(@Param("id") Long id, @Param("expectedRunAt") LocalDateTime expectedRunAt,
+                @Param("nextRunAt") LocalDateTime nextRunAt, @Param("active") boolean active,
+                @Param("lastError") String lastError);
+
+    /**
+     * Désactive une programmation d'un expéditeur.
+     *
+     * @param id L'identifiant de la programmation.
+     * @param senderId L'identifiant de l'expéditeur.
+     * @return 1 si la programmation a été désactivée, 0 si elle n'appartient pas à l'expéditeur.
+     */
+    @Modifying
+    @Query("UPDATE ScheduledTransfer s SET s.active = false WHERE s.id = :id AND s.senderId = :senderId")
+    int deactivate(@Param("id") Long id, @Param("senderId") Long senderId);
+}
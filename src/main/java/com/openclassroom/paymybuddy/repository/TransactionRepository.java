@@ -1,14 +1,51 @@
 package com.openclassroom.paymybuddy.repository;
 
+import com.openclassroom.paymybuddy.dto.TransactionView;
 import com.openclassroom.paymybuddy.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour gérer les opérations de persistance des transactions.
+ * Les requêtes dont le résultat est affiché avec l'expéditeur et le destinataire appliquent le graphe
+ * {@link Transaction#WITH_PARTIES_GRAPH} : une seule requête par liste, quel que soit son nombre de lignes.
  */
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+
+    /**
+     * Nombre de lignes lues par aller-retour avec la base lors d'un export en flux.
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Récupère toutes les transactions, avec leur expéditeur et leur destinataire.
+     *
+     * @return Toutes les transactions.
+     */
+    @Override
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    List<Transaction> findAll();
+
+    /**
+     * Récupère une transaction par son identifiant, avec son expéditeur et son destinataire.
+     *
+     * @param id L'identifiant de la transaction.
+     * @return La transaction si elle existe.
+     */
+    @Override
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    Optional<Transaction> findById(Long id);
 
     /**
      * Récupère les transactions où l'utilisateur est soit l'expéditeur soit le destinataire.
@@ -17,5 +54,173 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @param receiverId L'identifiant du destinataire.
      * @return Une liste de transactions correspondant aux critères.
      */
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
     List<Transaction> findBySenderIdOrReceiverId(Long senderId, Long receiverId);
+
+    /**
+     * Récupère les transactions les plus récentes envoyées par un utilisateur,
+     * en suivant l'index {@code idx_transaction_sender_created}.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    List<Transaction> findBySenderIdOrderByCreatedAtDescIdDesc(Long senderId, Pageable pageable);
+
+    /**
+     * Récupère les transactions les plus récentes reçues par un utilisateur,
+     * en suivant l'index {@code idx_transaction_receiver_created}.
+     *
+     * @param receiverId L'identifiant du destinataire.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    List<Transaction> findByReceiverIdOrderByCreatedAtDescIdDesc(Long receiverId, Pageable pageable);
+
+    /**
+     * Récupère les transactions envoyées par un utilisateur qui précèdent une position (date, identifiant),
+     * par pagination sur la clé : la page reprend après le dernier élément de la précédente, sans OFFSET,
+     * en suivant l'index {@code idx_transaction_sender_created}.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param beforeCreatedAt La date du dernier élément de la page précédente.
+     * @param beforeId L'identifiant du dernier élément de la page précédente.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.sender.id = :senderId " +
+            "AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findSentBefore(@Param("senderId") Long senderId,
+                                     @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    /**
+     * Récupère les transactions reçues par un utilisateur qui précèdent une position (date, identifiant),
+     * par pagination sur la clé, en suivant l'index {@code idx_transaction_receiver_created}.
+     *
+     * @param receiverId L'identifiant du destinataire.
+     * @param beforeCreatedAt La date du dernier élément de la page précédente.
+     * @param beforeId L'identifiant du dernier élément de la page précédente.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @EntityGraph(Transaction.WITH_PARTIES_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.receiver.id = :receiverId " +
+            "AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findReceivedBefore(@Param("receiverId") Long receiverId,
+                                         @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable pageable);
+
+    /**
+     * Récupère les transactions les plus récentes envoyées par un utilisateur sous forme de projections,
+     * en suivant l'index {@code idx_transaction_sender_created} : seules les colonnes affichées sont lues.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.TransactionView(t.id, r.username, t.description, " +
+            "t.amount, t.createdAt, com.openclassroom.paymybuddy.model.TransferDirection.SENT) " +
+            "FROM Transaction t JOIN t.receiver r WHERE t.sender.id = :senderId " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findRecentSentViews(@Param("senderId") Long senderId, Pageable pageable);
+
+    /**
+     * Récupère les transactions les plus récentes reçues par un utilisateur sous forme de projections,
+     * en suivant l'index {@code idx_transaction_receiver_created}.
+     *
+     * @param receiverId L'identifiant du destinataire.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.TransactionView(t.id, s.username, t.description, " +
+            "t.amount, t.createdAt, com.openclassroom.paymybuddy.model.TransferDirection.RECEIVED) " +
+            "FROM Transaction t JOIN t.sender s WHERE t.receiver.id = :receiverId " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findRecentReceivedViews(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    /**
+     * Récupère sous forme de projections les transactions envoyées par un utilisateur qui précèdent
+     * une position (date, identifiant), par pagination sur la clé.
+     *
+     * @param senderId L'identifiant de l'expéditeur.
+     * @param beforeCreatedAt La date du dernier élément de la page précédente.
+     * @param beforeId L'identifiant du dernier élément de la page précédente.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.TransactionView(t.id, r.username, t.description, " +
+            "t.amount, t.createdAt, com.openclassroom.paymybuddy.model.TransferDirection.SENT) " +
+            "FROM Transaction t JOIN t.receiver r WHERE t.sender.id = :senderId " +
+            "AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findSentViewsBefore(@Param("senderId") Long senderId,
+                                              @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              Pageable pageable);
+
+    /**
+     * Récupère sous forme de projections les transactions reçues par un utilisateur qui précèdent
+     * une position (date, identifiant), par pagination sur la clé.
+     *
+     * @param receiverId L'identifiant du destinataire.
+     * @param beforeCreatedAt La date du dernier élément de la page précédente.
+     * @param beforeId L'identifiant du dernier élément de la page précédente.
+     * @param pageable Le nombre de transactions à récupérer.
+     * @return Les transactions, de la plus récente à la plus ancienne.
+     */
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.TransactionView(t.id, s.username, t.description, " +
+            "t.amount, t.createdAt, com.openclassroom.paymybuddy.model.TransferDirection.RECEIVED) " +
+            "FROM Transaction t JOIN t.sender s WHERE t.receiver.id = :receiverId " +
+            "AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findReceivedViewsBefore(@Param("receiverId") Long receiverId,
+                                                  @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+
+    /**
+     * Lit en flux les transactions envoyées par un utilisateur, créées dans un intervalle de dates,
+     * de la plus ancienne à la plus récente. Le filtre sur l'expéditeur seul permet de parcourir l'index
+     * {@code (sender_id, created_at, id)} dans l'ordre demandé, sans tri. L'expéditeur et le destinataire
+     * sont chargés par la même requête et les lignes sont lues par lots de {@value #EXPORT_FETCH_SIZE} :
+     * le flux doit être consommé et fermé dans une transaction.
+     *
+     * @param userId L'identifiant de l'expéditeur.
+     * @param from La date de début (incluse).
+     * @param to La date de fin (exclue).
+     * @return Le flux des transactions envoyées.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.sender JOIN FETCH t.receiver " +
+            "WHERE t.sender.id = :userId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<Transaction> streamSentForExport(@Param("userId") Long userId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    /**
+     * Lit en flux les transactions reçues par un utilisateur, créées dans un intervalle de dates,
+     * de la plus ancienne à la plus récente, en parcourant l'index {@code (receiver_id, created_at, id)}.
+     * Mêmes conditions d'utilisation que {@link #streamSentForExport}.
+     *
+     * @param userId L'identifiant du destinataire.
+     * @param from La date de début (incluse).
+     * @param to La date de fin (exclue).
+     * @return Le flux des transactions reçues.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.sender JOIN FETCH t.receiver " +
+            "WHERE t.receiver.id = :userId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<Transaction> streamReceivedForExport(@Param("userId") Long userId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,20 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Opérations de persistance des transactions implémentées directement en JDBC.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Insère un lot de transactions en une seule requête JDBC batch.
+     * Les identifiants générés sont reportés sur les transactions passées en paramètre.
+     *
+     * @param transactions Les transactions à insérer.
+     * @return Les transactions insérées, dans le même ordre.
+     */
+    List<Transaction> insertAll(List<Transaction> transactions);
+}
@@ -0,0 +1,84 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.Transaction;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation JDBC des opérations de {@link TransactionRepositoryCustom}.
+ * Les identifiants étant générés par la base (IDENTITY), Hibernate ne peut pas regrouper
+ * les insertions : le lot est donc envoyé directement via {@link JdbcTemplate}.
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    /**
+     * Requête d'insertion d'une transaction.
+     */
+    private static final String INSERT_SQL =
+            "INSERT INTO transaction (sender_id, receiver_id, description, amount, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Template JDBC partageant la connexion de la transaction JPA courante.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour injecter le template JDBC.
+     *
+     * @param jdbcTemplate Template JDBC
+     */
+    public TransactionRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Transaction> insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactions.forEach(transaction -> {
+            if (transaction.getCreatedAt() == null) {
+                transaction.setCreatedAt(now);
+            }
+        });
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Transaction transaction = transactions.get(i);
+                        ps.setLong(1, transaction.getSender().getId());
+                        ps.setLong(2, transaction.getReceiver().getId());
+                        ps.setString(3, transaction.getDescription());
+                        ps.setBigDecimal(4, transaction.getAmount());
+                        ps.setTimestamp(5, Timestamp.valueOf(transaction.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return transactions.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < transactions.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            transactions.get(i).setId(((Number) key).longValue());
+        }
+        return transactions;
+    }
+}
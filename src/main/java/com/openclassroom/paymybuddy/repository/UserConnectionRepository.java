@@ -1,9 +1,12 @@
 package com.openclassroom.paymybuddy.repository;
 
+import com.openclassroom.paymybuddy.dto.RelationDTO;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.model.UserConnection;
 import com.openclassroom.paymybuddy.model.UserConnectionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -37,5 +40,25 @@ public interface UserConnectionRepository extends JpaRepository<UserConnection,
      * @return true si la connexion existe, false sinon.
      */
     boolean existsByUserIdAndConnectionId(Long userId, Long connectionId);
-    
+
+    /**
+     * Récupère les identifiants des utilisateurs connectés à un utilisateur donné.
+     *
+     * @param userId L'identifiant de l'utilisateur principal.
+     * @return Une liste des identifiants des utilisateurs connectés.
+     */
+    @Query("SELECT uc.connection.id FROM UserConnection uc WHERE uc.user.id = :userId")
+    List<Long> findConnectionIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Récupère les relations d'un utilisateur (identifiant et nom des utilisateurs connectés) en une seule
+     * requête, par jointure entre les connexions et les utilisateurs, sans charger d'entité.
+     *
+     * @param userId L'identifiant de l'utilisateur principal.
+     * @return Une liste des relations de l'utilisateur.
+     */
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.RelationDTO(c.id, c.username) " +
+            "FROM UserConnection uc JOIN uc.connection c WHERE uc.user.id = :userId")
+    List<RelationDTO> findRelationsByUserId(@Param("userId") Long userId);
+
 }
\ No newline at end of file
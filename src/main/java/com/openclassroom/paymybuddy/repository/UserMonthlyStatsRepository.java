@@ -0,0 +1,25 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.UserMonthlyStats;
+import com.openclassroom.paymybuddy.model.UserMonthlyStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository pour gérer les opérations de persistance des statistiques mensuelles des utilisateurs.
+ */
+public interface UserMonthlyStatsRepository extends JpaRepository<UserMonthlyStats, UserMonthlyStatsId>,
+        UserMonthlyStatsRepositoryCustom {
+
+    /**
+     * Récupère les statistiques d'un utilisateur sur une période, par la clé primaire (user_id, month_start).
+     *
+     * @param userId L'identifiant de l'utilisateur.
+     * @param from Le premier mois de la période (inclus).
+     * @param to Le dernier mois de la période (inclus).
+     * @return Les statistiques des mois ayant connu au moins un mouvement, du plus récent au plus ancien.
+     */
+    List<UserMonthlyStats> findByUserIdAndMonthStartBetweenOrderByMonthStartDesc(Long userId, LocalDate from, LocalDate to);
+}
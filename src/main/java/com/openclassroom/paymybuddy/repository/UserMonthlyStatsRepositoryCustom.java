@@ -0,0 +1,29 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.UserMonthlyStats;
+
+import java.util.Collection;
+
+/**
+ * Opérations de persistance des statistiques mensuelles implémentées directement en JDBC.
+ */
+public interface UserMonthlyStatsRepositoryCustom {
+
+    /**
+     * Ajoute des variations aux statistiques mensuelles, en créant les lignes manquantes.
+     * Chaque élément porte les montants et nombres à ajouter à la ligne (utilisateur, mois) correspondante.
+     * Les lignes sont modifiées par ordre croissant d'utilisateur, en UPDATE relatifs puis INSERT des lignes absentes.
+     *
+     * @param deltas Les variations à appliquer, au plus une par (utilisateur, mois).
+     */
+    void addAll(Collection<UserMonthlyStats> deltas);
+
+    /**
+     * Remplace les statistiques mensuelles des utilisateurs d'une plage d'identifiants.
+     *
+     * @param startUserId La borne inférieure (incluse) de la plage.
+     * @param endUserId La borne supérieure (incluse) de la plage.
+     * @param stats Les nouvelles statistiques des utilisateurs de la plage.
+     */
+    void replaceRange(long startUserId, long endUserId, Collection<UserMonthlyStats> stats);
+}
@@ -0,0 +1,120 @@
+package com.openclassroom.paymybuddy.repository;
+
+import com.openclassroom.paymybuddy.model.UserMonthlyStats;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implémentation JDBC des opérations de {@link UserMonthlyStatsRepositoryCustom}.
+ */
+public class UserMonthlyStatsRepositoryCustomImpl implements UserMonthlyStatsRepositoryCustom {
+
+    /**
+     * Requête d'incrément relatif des statistiques d'un utilisateur sur un mois.
+     */
+    private static final String ADD_SQL = "UPDATE user_monthly_stats SET sent_total = sent_total + ?, "
+            + "sent_count = sent_count + ?, received_total = received_total + ?, received_count = received_count + ?, "
+            + "deposited_total = deposited_total + ?, withdrawn_total = withdrawn_total + ? "
+            + "WHERE user_id = ? AND month_start = ?";
+
+    /**
+     * Requête d'insertion des statistiques d'un utilisateur sur un mois.
+     */
+    private static final String INSERT_SQL = "INSERT INTO user_monthly_stats (user_id, month_start, sent_total, "
+            + "sent_count, received_total, received_count, deposited_total, withdrawn_total) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Requête de suppression des statistiques d'une plage d'utilisateurs.
+     */
+    private static final String DELETE_RANGE_SQL = "DELETE FROM user_monthly_stats WHERE user_id BETWEEN ? AND ?";
+
+    /**
+     * Ordre des lignes modifiées : par utilisateur puis par mois, pour verrouiller toujours dans le même ordre.
+     */
+    private static final Comparator<UserMonthlyStats> BY_USER_AND_MONTH =
+            Comparator.comparing(UserMonthlyStats::getUserId).thenComparing(UserMonthlyStats::getMonthStart);
+
+    /**
+     * Template JDBC partageant la connexion de la transaction JPA courante.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour injecter le template JDBC.
+     *
+     * @param jdbcTemplate Template JDBC
+     */
+    public UserMonthlyStatsRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addAll(Collection<UserMonthlyStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<UserMonthlyStats> sorted = deltas.stream().sorted(BY_USER_AND_MONTH).collect(Collectors.toList());
+        int[] updated = jdbcTemplate.batchUpdate(ADD_SQL, sorted.stream()
+                .map(UserMonthlyStatsRepositoryCustomImpl::addArgs)
+                .collect(Collectors.toList()));
+
+        // Premier mouvement du mois : la ligne n'existe pas encore
+        List<UserMonthlyStats> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(sorted.get(i));
+            }
+        }
+        for (UserMonthlyStats stats : missing) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, insertArgs(stats));
+            } catch (DuplicateKeyException e) {
+                // Ligne créée entre-temps par une transaction concurrente : l'incrément s'applique à celle-ci
+                jdbcTemplate.update(ADD_SQL, addArgs(stats));
+            }
+        }
+    }
+
+    @Override
+    public void replaceRange(long startUserId, long endUserId, Collection<UserMonthlyStats> stats) {
+        jdbcTemplate.update(DELETE_RANGE_SQL, startUserId, endUserId);
+        if (!stats.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, stats.stream()
+                    .sorted(BY_USER_AND_MONTH)
+                    .map(UserMonthlyStatsRepositoryCustomImpl::insertArgs)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Paramètres de la requête d'incrément.
+     *
+     * @param stats Les variations à appliquer
+     * @return Les paramètres de {@link #ADD_SQL}
+     */
+    private static Object[] addArgs(UserMonthlyStats stats) {
+        return new Object[] {stats.getSentTotal(), stats.getSentCount(), stats.getReceivedTotal(),
+                stats.getReceivedCount(), stats.getDepositedTotal(), stats.getWithdrawnTotal(),
+                stats.getUserId(), Date.valueOf(stats.getMonthStart())};
+    }
+
+    /**
+     * Paramètres de la requête d'insertion.
+     *
+     * @param stats Les statistiques à insérer
+     * @return Les paramètres de {@link #INSERT_SQL}
+     */
+    private static Object[] insertArgs(UserMonthlyStats stats) {
+        return new Object[] {stats.getUserId(), Date.valueOf(stats.getMonthStart()), stats.getSentTotal(),
+                stats.getSentCount(), stats.getReceivedTotal(), stats.getReceivedCount(),
+                stats.getDepositedTotal(), stats.getWithdrawnTotal()};
+    }
+}
@@ -1,11 +1,17 @@
 package com.openclassroom.paymybuddy.repository;
 
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +19,7 @@ import java.util.Optional;
  * Repository pour gérer les opérations de persistance des utilisateurs.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     /**
      * Récupère un utilisateur par son email.
@@ -42,11 +48,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Recherche des utilisateurs par email ou nom d'utilisateur, en excluant l'utilisateur actuel.
+     * Seuls l'identifiant et le nom d'utilisateur sont sélectionnés : aucune entité n'est chargée.
      *
      * @param currentUserId L'identifiant de l'utilisateur actuel.
      * @param searchTerm Le terme de recherche.
-     * @return Une liste d'utilisateurs correspondant au terme de recherche, excluant l'utilisateur actuel.
+     * @return Les projections des utilisateurs correspondant au terme de recherche, excluant l'utilisateur actuel.
      */
-    @Query("SELECT u FROM User u WHERE u.id != :currentUserId AND (u.email LIKE %:searchTerm% OR u.username LIKE %:searchTerm%)")
-    List<User> searchUsersExcludingCurrent(@Param("currentUserId") Long currentUserId, @Param("searchTerm") String searchTerm);
-}
\ No newline at end of file
+    @Query("SELECT new com.openclassroom.paymybuddy.dto.UserSearchView(u.id, u.username) FROM User u " +
+            "WHERE u.id != :currentUserId AND (u.email LIKE %:searchTerm% OR u.username LIKE %:searchTerm%)")
+    List<UserSearchView> searchUsersExcludingCurrent(@Param("currentUserId") Long currentUserId, @Param("searchTerm") String searchTerm);
+
+    /**
+     * Récupère les utilisateurs correspondant aux identifiants donnés en posant un verrou
+     * exclusif sur leurs lignes (SELECT ... FOR UPDATE).
+     * Les lignes sont parcourues et verrouillées par ordre croissant d'identifiant : deux
+     * transactions concurrentes acquièrent donc toujours leurs verrous dans le même ordre,
+     * ce qui empêche les interblocages de type A -> B / B -> A.
+     *
+     * @param ids Les identifiants des utilisateurs à verrouiller.
+     * @return La liste des utilisateurs trouvés, triée par identifiant croissant.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Débite le solde d'un utilisateur en une seule requête, uniquement si ce solde est suffisant.
+     * La condition et la modification sont évaluées atomiquement par la base de données.
+     *
+     * @param id L'identifiant de l'utilisateur à débiter.
+     * @param amount Le montant à débiter.
+     * @return Le nombre de lignes modifiées : 0 si l'utilisateur n'existe pas ou si son solde est insuffisant.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance - :amount, u.version = u.version + 1 WHERE u.id = :id AND u.balance >= :amount")
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Crédite le solde d'un utilisateur par incrément atomique.
+     *
+     * @param id L'identifiant de l'utilisateur à créditer.
+     * @param amount Le montant à créditer.
+     * @return Le nombre de lignes modifiées : 0 si l'utilisateur n'existe pas.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance + :amount, u.version = u.version + 1 WHERE u.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Crédite le solde d'un utilisateur par incrément atomique, sans dépasser le plafond donné.
+     *
+     * @param id L'identifiant de l'utilisateur à créditer.
+     * @param amount Le montant à créditer.
+     * @param maxBalance Le solde maximal autorisé après crédit.
+     * @return Le nombre de lignes modifiées : 0 si l'utilisateur n'existe pas ou si le plafond serait dépassé.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance + :amount, u.version = u.version + 1 WHERE u.id = :id AND u.balance + :amount <= :maxBalance")
+    int creditUpTo(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("maxBalance") BigDecimal maxBalance);
+}
@@ -0,0 +1,19 @@
+package com.openclassroom.paymybuddy.repository;
+
+import java.math.BigDecimal;
+import java.util.SortedMap;
+
+/**
+ * Opérations de persistance des utilisateurs implémentées directement en JDBC.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Applique des variations de solde à plusieurs utilisateurs en une seule requête JDBC batch.
+     * Les mises à jour sont envoyées dans l'ordre croissant des identifiants afin de respecter
+     * l'ordre global d'acquisition des verrous.
+     *
+     * @param deltasByUserId Les variations de solde (positives ou négatives), indexées par identifiant.
+     */
+    void applyBalanceDeltas(SortedMap<Long, BigDecimal> deltasByUserId);
+}
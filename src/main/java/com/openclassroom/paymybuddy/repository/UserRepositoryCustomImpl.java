@@ -0,0 +1,45 @@
+package com.openclassroom.paymybuddy.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Implémentation JDBC des opérations de {@link UserRepositoryCustom}.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    /**
+     * Requête d'incrément atomique du solde d'un utilisateur.
+     */
+    private static final String ADD_TO_BALANCE_SQL = "UPDATE app_user SET balance = balance + ?, version = version + 1 WHERE id = ?";
+
+    /**
+     * Template JDBC partageant la connexion de la transaction JPA courante.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour injecter le template JDBC.
+     *
+     * @param jdbcTemplate Template JDBC
+     */
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void applyBalanceDeltas(SortedMap<Long, BigDecimal> deltasByUserId) {
+        List<Object[]> batchArgs = deltasByUserId.entrySet().stream()
+                .filter(entry -> entry.getValue().signum() != 0)
+                .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_TO_BALANCE_SQL, batchArgs);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.AsyncTransferStatusDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.AsyncTransfer;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.repository.AsyncTransferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution asynchrone des transferts : un transfert soumis est placé dans une file bornée
+ * et exécuté par un pool de threads dédié, sans occuper le thread de la requête HTTP.
+ * Lorsque la file est pleine, la soumission est refusée immédiatement ({@link RejectedExecutionException})
+ * au lieu de bloquer un thread du serveur.
+ * Chaque soumission acceptée est enregistrée dans la table {@code async_transfer} avant d'entrer dans la file :
+ * son état reste consultable après un redémarrage. Un thread ne traite un transfert qu'après l'avoir fait passer
+ * de PENDING à RUNNING ; un transfert non traité à l'arrêt, ou resté en attente au-delà du délai configuré
+ * (panne du serveur), est marqué en échec et ne sera jamais exécuté.
+ * Le passage à COMPLETED est écrit par {@link TransactionService} dans la transaction qui enregistre le transfert :
+ * un transfert resté RUNNING au-delà du délai de traitement (panne pendant le traitement) n'a donc pas été effectué
+ * et est marqué en échec ; s'il aboutissait malgré tout plus tard, sa transaction serait annulée.
+ */
+@Service
+public class AsyncTransferService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransferService.class);
+
+    /**
+     * Longueur maximale du motif d'échec enregistré.
+     */
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    /**
+     * Motif enregistré pour un transfert annulé avant d'avoir été traité.
+     */
+    private static final String NOT_PROCESSED_MESSAGE = "Transfert non traité à temps, veuillez le soumettre à nouveau";
+
+    /**
+     * Motif enregistré pour un transfert dont le traitement a été interrompu avant son aboutissement.
+     */
+    private static final String INTERRUPTED_MESSAGE = "Transfert interrompu et non effectué, veuillez le soumettre à nouveau";
+
+    /**
+     * Point d'entrée des transferts unitaires, utilisé par les threads de traitement.
+     */
+    private final TransferDispatcher transferDispatcher;
+
+    /**
+     * Repository des transferts asynchrones.
+     */
+    private final AsyncTransferRepository asyncTransferRepository;
+
+    /**
+     * Modèle de transaction utilisé pour les changements d'état.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Pool de threads exécutant les transferts, alimenté par une file bornée.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Délai au-delà duquel un transfert encore en attente est annulé.
+     */
+    private final Duration pendingTimeout;
+
+    /**
+     * Délai au-delà duquel un transfert encore en cours de traitement est considéré comme interrompu.
+     */
+    private final Duration runningTimeout;
+
+    /**
+     * Durée de conservation des transferts terminés.
+     */
+    private final Duration retention;
+
+    /**
+     * Nombre de transferts refusés faute de place dans la file.
+     */
+    private final Counter rejectedTransfers;
+
+    /**
+     * Nombre de transferts annulés avant d'avoir été traités.
+     */
+    private final Counter expiredTransfers;
+
+    /**
+     * Constructeur pour initialiser le pool de threads et les métriques.
+     *
+     * @param transferDispatcher Point d'entrée des transferts unitaires
+     * @param asyncTransferRepository Repository des transferts asynchrones
+     * @param transactionManager Gestionnaire de transactions
+     * @param meterRegistry Registre des métriques
+     * @param workers Nombre de threads de traitement
+     * @param queueCapacity Nombre maximal de transferts en attente
+     * @param pendingTimeoutMinutes Délai d'attente maximal d'un transfert, en minutes
+     * @param runningTimeoutMinutes Délai de traitement maximal d'un transfert, en minutes
+     * @param retentionHours Durée de conservation des transferts terminés, en heures
+     */
+    public AsyncTransferService(
+            TransferDispatcher transferDispatcher,
+            AsyncTransferRepository asyncTransferRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.transfer.async.workers:8}") int workers,
+            @Value("${paymybuddy.transfer.async.queue-capacity:500}") int queueCapacity,
+            @Value("${paymybuddy.transfer.async.pending-timeout-minutes:10}") long pendingTimeoutMinutes,
+            @Value("${paymybuddy.transfer.async.running-timeout-minutes:5}") long runningTimeoutMinutes,
+            @Value("${paymybuddy.transfer.async.retention-hours:24}") long retentionHours) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Le nombre de threads et la capacité de la file doivent être positifs");
+        }
+        this.transferDispatcher = transferDispatcher;
+        this.asyncTransferRepository = asyncTransferRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pendingTimeout = Duration.ofMinutes(pendingTimeoutMinutes);
+        this.runningTimeout = Duration.ofMinutes(runningTimeoutMinutes);
+        this.retention = Duration.ofHours(retentionHours);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, queue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-transfer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("paymybuddy.transfer.async.queue.depth", queue, BlockingQueue::size)
+                .description("Nombre de transferts asynchrones en attente de traitement")
+                .register(meterRegistry);
+        this.rejectedTransfers = Counter.builder("paymybuddy.transfer.async.rejected")
+                .description("Transferts asynchrones refusés car la file était pleine")
+                .register(meterRegistry);
+        this.expiredTransfers = Counter.builder("paymybuddy.transfer.async.expired")
+                .description("Transferts asynchrones annulés avant d'avoir été traités")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Soumet un transfert pour exécution asynchrone.
+     * La soumission est enregistrée avant d'être placée dans la file.
+     *
+     * @param transferDTO DTO contenant les informations de transfert, expéditeur compris
+     * @return l'état initial du transfert, portant son identifiant
+     * @throws RejectedExecutionException si la file des transferts en attente est pleine
+     */
+    public AsyncTransferStatusDTO submit(TransferDTO transferDTO) {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            // File pleine : refus immédiat, sans écriture en base
+            throw reject(transferDTO, new RejectedExecutionException("File des transferts asynchrones pleine"));
+        }
+
+        String transferId = UUID.randomUUID().toString();
+        AsyncTransfer transfer = asyncTransferRepository.save(new AsyncTransfer(transferId, transferDTO.getSenderId(),
+                transferDTO.getReceiverId(), transferDTO.getAmount(), transferDTO.getDescription()));
+
+        try {
+            executor.execute(new QueuedTransfer(transferId, transferDTO));
+        } catch (RejectedExecutionException e) {
+            transactionTemplate.executeWithoutResult(status -> asyncTransferRepository.deleteByTransferId(transferId));
+            throw reject(transferDTO, e);
+        }
+
+        logger.info("Transfert asynchrone {} soumis par l'utilisateur {}", transferId, transferDTO.getSenderId());
+        return toStatus(transfer);
+    }
+
+    /**
+     * Récupère l'état d'un transfert soumis par un utilisateur.
+     *
+     * @param userId identifiant de l'expéditeur
+     * @param transferId identifiant du transfert
+     * @return l'état du transfert, ou un Optional vide s'il est inconnu ou appartient à un autre utilisateur
+     */
+    public Optional<AsyncTransferStatusDTO> getStatus(Long userId, String transferId) {
+        return asyncTransferRepository.findByTransferId(transferId)
+                .filter(transfer -> transfer.getSenderId().equals(userId))
+                .map(this::toStatus);
+    }
+
+    /**
+     * Récupère l'état des derniers transferts asynchrones d'un utilisateur.
+     *
+     * @param userId identifiant de l'expéditeur
+     * @return les états des transferts, du plus récent au plus ancien
+     */
+    public List<AsyncTransferStatusDTO> getRecentStatuses(Long userId) {
+        return asyncTransferRepository.findTop10BySenderIdOrderByIdDesc(userId).stream()
+                .map(this::toStatus)
+                .toList();
+    }
+
+    /**
+     * Annule périodiquement les transferts restés en attente ou en cours de traitement au-delà des délais configurés,
+     * par exemple ceux d'une instance arrêtée brutalement.
+     */
+    @Scheduled(fixedDelayString = "${paymybuddy.transfer.async.expire-interval-ms:60000}")
+    public void expireStalePending() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer expired = transactionTemplate.execute(status -> asyncTransferRepository
+                    .failPendingSubmittedBefore(now.minus(pendingTimeout), NOT_PROCESSED_MESSAGE, now));
+            if (expired != null && expired > 0) {
+                expiredTransfers.increment(expired);
+                logger.warn("{} transfert(s) asynchrone(s) en attente depuis plus de {} annulé(s)", expired, pendingTimeout);
+            }
+            Integer interrupted = transactionTemplate.execute(status -> asyncTransferRepository
+                    .failRunningStartedBefore(now.minus(runningTimeout), INTERRUPTED_MESSAGE, now));
+            if (interrupted != null && interrupted > 0) {
+                expiredTransfers.increment(interrupted);
+                logger.warn("{} transfert(s) asynchrone(s) en cours de traitement depuis plus de {} marqué(s) en échec",
+                        interrupted, runningTimeout);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de l'annulation des transferts asynchrones en attente", e);
+        }
+    }
+
+    /**
+     * Supprime périodiquement les transferts terminés depuis plus longtemps que la durée de conservation.
+     */
+    @Scheduled(cron = "${paymybuddy.transfer.async.purge-cron:0 30 * * * *}")
+    public void purgeFinished() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    asyncTransferRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention)));
+            if (purged != null && purged > 0) {
+                logger.info("{} transfert(s) asynchrone(s) terminé(s) supprimé(s) de la table async_transfer", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de la purge des transferts asynchrones terminés", e);
+        }
+    }
+
+    /**
+     * Arrête les threads de traitement à l'arrêt de l'application, après les transferts en cours.
+     * Les transferts encore dans la file sont marqués en échec.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                failDropped(executor.shutdownNow());
+            }
+        } catch (InterruptedException e) {
+            failDropped(executor.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marque en échec les transferts retirés de la file sans avoir été traités.
+     *
+     * @param dropped les tâches retirées de la file
+     */
+    private void failDropped(List<Runnable> dropped) {
+        List<String> transferIds = new ArrayList<>(dropped.size());
+        for (Runnable runnable : dropped) {
+            if (runnable instanceof QueuedTransfer) {
+                transferIds.add(((QueuedTransfer) runnable).transferId);
+            }
+        }
+        if (transferIds.isEmpty()) {
+            return;
+        }
+        logger.warn("{} transfert(s) asynchrone(s) non traité(s) à l'arrêt", transferIds.size());
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    asyncTransferRepository.failPending(transferIds, NOT_PROCESSED_MESSAGE, now));
+            expiredTransfers.increment(transferIds.size());
+        } catch (RuntimeException e) {
+            // Les transferts restent en attente et seront annulés après le délai configuré
+            logger.error("Impossible de marquer en échec les transferts asynchrones non traités", e);
+        }
+    }
+
+    /**
+     * Exécute un transfert sur un thread de traitement.
+     * Le transfert n'est exécuté que s'il est encore en attente, c'est-à-dire s'il n'a pas été annulé.
+     * Son aboutissement est enregistré avec le transfert lui-même ; seul un échec est enregistré ici.
+     *
+     * @param transferId identifiant du transfert
+     * @param transferDTO DTO contenant les informations de transfert
+     */
+    private void process(String transferId, TransferDTO transferDTO) {
+        Integer claimed = transactionTemplate.execute(status ->
+                asyncTransferRepository.start(transferId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            logger.warn("Transfert asynchrone {} annulé avant son traitement", transferId);
+            return;
+        }
+
+        String message;
+        try {
+            transferDTO.setAsyncTransferId(transferId);
+            Transaction transaction = transferDispatcher.dispatch(transferDTO);
+            logger.info("Transfert asynchrone {} effectué : transaction {}", transferId, transaction.getId());
+            return;
+        } catch (IllegalArgumentException e) {
+            message = truncate(e.getMessage());
+            logger.warn("Transfert asynchrone {} refusé : {}", transferId, e.getMessage());
+        } catch (RuntimeException e) {
+            message = "Erreur lors du transfert";
+            logger.error("Erreur lors du transfert asynchrone {}", transferId, e);
+        }
+
+        String failureMessage = message;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    asyncTransferRepository.failRunning(transferId, failureMessage, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // Le transfert reste RUNNING et sera marqué en échec après le délai de traitement
+            logger.error("Impossible d'enregistrer l'échec du transfert asynchrone {}", transferId, e);
+        }
+    }
+
+    /**
+     * Comptabilise et journalise le refus d'un transfert faute de place dans la file.
+     */
+    private RejectedExecutionException reject(TransferDTO transferDTO, RejectedExecutionException e) {
+        rejectedTransfers.increment();
+        logger.warn("File des transferts asynchrones pleine : transfert de l'utilisateur {} refusé",
+                transferDTO.getSenderId());
+        return e;
+    }
+
+    /**
+     * Tronque un motif d'échec à la longueur de la colonne.
+     */
+    private String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    /**
+     * Construit l'état publié d'un transfert.
+     */
+    private AsyncTransferStatusDTO toStatus(AsyncTransfer transfer) {
+        return new AsyncTransferStatusDTO(transfer.getTransferId(), transfer.getState(), transfer.getSenderId(),
+                transfer.getReceiverId(), transfer.getAmount(), transfer.getTransactionId(), transfer.getMessage(),
+                transfer.getSubmittedAt(), transfer.getCompletedAt());
+    }
+
+    /**
+     * Tâche de la file de traitement, portant l'identifiant du transfert pour pouvoir l'annuler à l'arrêt.
+     */
+    private final class QueuedTransfer implements Runnable {
+
+        /**
+         * Identifiant du transfert.
+         */
+        private final String transferId;
+
+        /**
+         * DTO contenant les informations de transfert.
+         */
+        private final TransferDTO transferDTO;
+
+        private QueuedTransfer(String transferId, TransferDTO transferDTO) {
+            this.transferId = transferId;
+            this.transferDTO = transferDTO;
+        }
+
+        @Override
+        public void run() {
+            process(transferId, transferDTO);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.openclassroom.paymybuddy.service;
+
+/**
+ * État d'un transfert soumis en mode asynchrone.
+ */
+public enum AsyncTransferState {
+
+    /**
+     * Le transfert attend un thread de traitement.
+     */
+    PENDING,
+
+    /**
+     * Le transfert est en cours d'exécution.
+     */
+    RUNNING,
+
+    /**
+     * Le transfert a été effectué.
+     */
+    COMPLETED,
+
+    /**
+     * Le transfert a été refusé ou a échoué.
+     */
+    FAILED
+}
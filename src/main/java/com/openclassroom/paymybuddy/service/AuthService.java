@@ -33,20 +33,33 @@ public class AuthService {
      * @return L'utilisateur connecté ou null si aucun utilisateur n'est connecté.
      */
     public User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
-            logger.debug("Aucun utilisateur connecté");
+        String email = getCurrentPrincipalName();
+        if (email == null) {
             return null;
         }
 
-        String email = auth.getName();
         logger.debug("Utilisateur connecté: {}", email);
 
         return userRepository.findByEmail(email)
                 .orElse(null);
     }
 
+    /**
+     * Récupère le nom (email) de l'utilisateur connecté depuis le contexte de sécurité, sans accès à la base.
+     *
+     * @return L'email de l'utilisateur connecté ou null si aucun utilisateur n'est connecté.
+     */
+    public String getCurrentPrincipalName() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
+            logger.debug("Aucun utilisateur connecté");
+            return null;
+        }
+
+        return auth.getName();
+    }
+
     /**
      * Récupère l'ID de l'utilisateur actuellement connecté.
      *
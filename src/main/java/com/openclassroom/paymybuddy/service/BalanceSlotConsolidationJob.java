@@ -0,0 +1,93 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.repository.BalanceSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tâches de fond du mode « solde éclaté » : création des sous-soldes des comptes signalés au démarrage,
+ * puis consolidation périodique des sous-soldes sur le solde principal.
+ */
+@Component
+public class BalanceSlotConsolidationJob {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSlotConsolidationJob.class);
+
+    /**
+     * Service gérant les sous-soldes.
+     */
+    private final BalanceSlotService balanceSlotService;
+
+    /**
+     * Repository des sous-soldes, utilisé pour trouver les comptes à consolider.
+     */
+    private final BalanceSlotRepository balanceSlotRepository;
+
+    /**
+     * Identifiants des comptes signalés comme très sollicités.
+     */
+    @Value("${paymybuddy.balance.split.accounts:}")
+    private List<Long> flaggedAccounts = new ArrayList<>();
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param balanceSlotService Service gérant les sous-soldes
+     * @param balanceSlotRepository Repository des sous-soldes
+     */
+    public BalanceSlotConsolidationJob(BalanceSlotService balanceSlotService,
+                                       BalanceSlotRepository balanceSlotRepository) {
+        this.balanceSlotService = balanceSlotService;
+        this.balanceSlotRepository = balanceSlotRepository;
+    }
+
+    /**
+     * Crée au démarrage les sous-soldes des comptes signalés dans la configuration.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeFlaggedAccounts() {
+        if (!balanceSlotService.isEnabled()) {
+            return;
+        }
+        for (Long userId : flaggedAccounts) {
+            try {
+                balanceSlotService.enableSplitBalance(userId);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Impossible d'activer le solde éclaté pour l'utilisateur {} : {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reverse périodiquement les sous-soldes de tous les comptes sur leur solde principal.
+     * Chaque compte est consolidé dans sa propre transaction.
+     */
+    @Scheduled(fixedDelayString = "${paymybuddy.balance.split.consolidation-interval-ms:60000}")
+    public void consolidate() {
+        if (!balanceSlotService.isEnabled()) {
+            return;
+        }
+        List<Long> userIds = balanceSlotRepository.findUserIdsWithPendingAmounts();
+        for (Long userId : userIds) {
+            try {
+                balanceSlotService.sweep(userId);
+            } catch (RuntimeException e) {
+                logger.error("Erreur lors de la consolidation des sous-soldes de l'utilisateur {}", userId, e);
+            }
+        }
+        if (!userIds.isEmpty()) {
+            logger.info("Sous-soldes consolidés pour {} compte(s)", userIds.size());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.BalanceSlot;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.BalanceSlotRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Service gérant le mode « solde éclaté » des comptes très sollicités.
+ * Un compte signalé possède K sous-soldes : chaque crédit reçu par transfert est ajouté à un sous-solde
+ * tiré au hasard, ce qui divise par K la contention sur une même ligne. Avant tout débit, les sous-soldes
+ * sont reversés sur le solde principal ; une consolidation périodique fait de même pour tous les comptes.
+ * Les sous-soldes ne sont modifiés que par des mises à jour relatives ({@code amount = amount + ?}), et
+ * un reversement verrouille les sous-soldes qu'il lit : la somme du solde principal et des sous-soldes
+ * reste exacte même en cas d'accès concurrents.
+ * <p>
+ * L'entité {@link com.openclassroom.paymybuddy.model.User} ne porte que le solde principal : les sous-soldes
+ * ne sont lus que là où le solde total est affiché ({@link #getTotalBalance(User)}). Seuls les transferts en
+ * mode {@code ATOMIC} créditent des sous-soldes, mais tous les débits les reversent au préalable : transferts
+ * dans chaque mode d'écriture, lots, séquenceur, validation groupée, paiements partagés et ajustements de solde.
+ */
+@Service
+public class BalanceSlotService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSlotService.class);
+
+    /**
+     * Repository des sous-soldes.
+     */
+    private final BalanceSlotRepository balanceSlotRepository;
+
+    /**
+     * Repository des utilisateurs.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Active le mode « solde éclaté » pour les transferts et les ajustements de solde.
+     */
+    @Value("${paymybuddy.balance.split.enabled:false}")
+    private boolean enabled = false;
+
+    /**
+     * Nombre de sous-soldes créés pour chaque compte signalé.
+     */
+    @Value("${paymybuddy.balance.split.slots:8}")
+    private int slotCount = 8;
+
+    /**
+     * Constructeur pour injecter les repositories nécessaires.
+     *
+     * @param balanceSlotRepository Repository des sous-soldes
+     * @param userRepository Repository des utilisateurs
+     */
+    public BalanceSlotService(BalanceSlotRepository balanceSlotRepository, UserRepository userRepository) {
+        this.balanceSlotRepository = balanceSlotRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Indique si le mode « solde éclaté » est activé.
+     *
+     * @return true si le mode est activé
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Crédite un sous-solde tiré au hasard si le compte est en mode « solde éclaté ».
+     *
+     * @param userId identifiant du compte à créditer
+     * @param amount montant à créditer
+     * @return true si un sous-solde a été crédité, false si le crédit doit être appliqué au solde principal
+     */
+    @Transactional
+    public boolean creditRandomSlot(Long userId, BigDecimal amount) {
+        if (!enabled) {
+            return false;
+        }
+        int slotIndex = ThreadLocalRandom.current().nextInt(slotCount);
+        return balanceSlotRepository.addToSlot(userId, slotIndex, amount) > 0;
+    }
+
+    /**
+     * Reverse sur le solde principal les montants en attente dans les sous-soldes d'un compte.
+     * Les sous-soldes sont verrouillés jusqu'à la fin de la transaction : deux reversements concurrents
+     * (un débit et la consolidation, par exemple) ne peuvent pas déplacer deux fois le même montant.
+     * Sans effet si le mode est désactivé ou si le compte n'a pas de sous-solde non nul.
+     *
+     * @param userId identifiant du compte
+     * @return le montant reversé sur le solde principal
+     */
+    @Transactional
+    public BigDecimal sweep(Long userId) {
+        if (!enabled) {
+            return BigDecimal.ZERO;
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (BalanceSlot slot : balanceSlotRepository.findNonEmptyByUserIdForUpdate(userId)) {
+            balanceSlotRepository.addToSlot(userId, slot.getSlotIndex(), slot.getAmount().negate());
+            total = total.add(slot.getAmount());
+        }
+
+        if (total.signum() != 0) {
+            userRepository.credit(userId, total);
+            logger.debug("Sous-soldes de l'utilisateur {} reversés sur le solde principal : {}€", userId, total);
+        }
+        return total;
+    }
+
+    /**
+     * Retourne le solde total d'un compte : son solde principal augmenté de la somme de ses sous-soldes.
+     * Les sous-soldes sont lus même si le mode est désactivé, pour afficher un éventuel reliquat.
+     *
+     * @param user le compte
+     * @return le solde total du compte
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalBalance(User user) {
+        BigDecimal pending = balanceSlotRepository.sumByUserId(user.getId());
+        return pending.signum() == 0 ? user.getBalance() : user.getBalance().add(pending);
+    }
+
+    /**
+     * Passe un compte en mode « solde éclaté » en créant ses sous-soldes manquants.
+     *
+     * @param userId identifiant du compte
+     */
+    @Transactional
+    public void enableSplitBalance(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("Utilisateur introuvable");
+        }
+
+        Set<Integer> existingSlots = balanceSlotRepository.findByUserId(userId).stream()
+                .map(BalanceSlot::getSlotIndex)
+                .collect(Collectors.toSet());
+
+        List<BalanceSlot> missingSlots = new ArrayList<>();
+        for (int slotIndex = 0; slotIndex < slotCount; slotIndex++) {
+            if (!existingSlots.contains(slotIndex)) {
+                missingSlots.add(new BalanceSlot(userId, slotIndex));
+            }
+        }
+
+        if (!missingSlots.isEmpty()) {
+            balanceSlotRepository.saveAll(missingSlots);
+            logger.info("Mode solde éclaté activé pour l'utilisateur {} ({} sous-soldes)", userId, slotCount);
+        }
+    }
+
+    /**
+     * Repasse un compte en solde unique : les sous-soldes sont reversés puis supprimés.
+     * Tous les sous-soldes, nuls compris, sont verrouillés avant la lecture : un crédit concurrent
+     * attend la suppression, puis s'applique au solde principal faute de sous-solde.
+     *
+     * @param userId identifiant du compte
+     */
+    @Transactional
+    public void disableSplitBalance(Long userId) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BalanceSlot slot : balanceSlotRepository.findByUserIdForUpdate(userId)) {
+            total = total.add(slot.getAmount());
+        }
+        balanceSlotRepository.deleteByUserId(userId);
+        if (total.signum() != 0) {
+            userRepository.credit(userId, total);
+        }
+        logger.info("Mode solde éclaté désactivé pour l'utilisateur {}", userId);
+    }
+}
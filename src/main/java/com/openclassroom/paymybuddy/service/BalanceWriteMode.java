@@ -0,0 +1,27 @@
+package com.openclassroom.paymybuddy.service;
+
+/**
+ * Stratégie utilisée pour modifier les soldes des utilisateurs.
+ * Configurable via la propriété {@code paymybuddy.balance.write-mode}.
+ */
+public enum BalanceWriteMode {
+
+    /**
+     * Les comptes sont chargés et verrouillés (SELECT ... FOR UPDATE) par ordre croissant
+     * d'identifiant, modifiés en Java puis sauvegardés.
+     */
+    LOCKED,
+
+    /**
+     * Les soldes sont modifiés directement en base par des UPDATE atomiques conditionnels,
+     * sans charger les entités : le débit n'est appliqué que si le solde est suffisant.
+     */
+    ATOMIC,
+
+    /**
+     * Les comptes sont chargés sans verrou, modifiés en Java puis sauvegardés : la colonne
+     * {@code version} détecte les écritures concurrentes et l'opération est rejouée
+     * par {@link OptimisticRetryExecutor}.
+     */
+    OPTIMISTIC
+}
@@ -0,0 +1,17 @@
+package com.openclassroom.paymybuddy.service;
+
+/**
+ * Comportement d'un lot de transferts lorsqu'un des transferts est refusé.
+ */
+public enum BatchTransferMode {
+
+    /**
+     * Le lot est appliqué entièrement ou pas du tout : un seul transfert refusé annule tout le lot.
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * Les transferts valides sont appliqués, les transferts refusés sont ignorés.
+     */
+    BEST_EFFORT
+}
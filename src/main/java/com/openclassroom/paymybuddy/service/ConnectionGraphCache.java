@@ -0,0 +1,122 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.util.LongHashSet;
+import com.openclassroom.paymybuddy.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache mémoire du graphe des connexions entre utilisateurs.
+ * Les identifiants des connexions de chaque utilisateur sont chargés à la première demande,
+ * conservés dans un {@link LongHashSet} et bornés par un cache LRU : les contrôles d'autorisation
+ * des transferts ne font plus d'aller-retour avec la base de données.
+ * Le cache d'un utilisateur est invalidé à chaque ajout ou suppression d'une de ses connexions,
+ * une seconde fois après la fin de la transaction qui l'a modifiée.
+ */
+@Component
+public class ConnectionGraphCache {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionGraphCache.class);
+
+    /**
+     * Repository des connexions entre utilisateurs.
+     */
+    private final UserConnectionRepository userConnectionRepository;
+
+    /**
+     * Identifiants des connexions de chaque utilisateur récemment consulté.
+     */
+    private final LruCache<Long, LongHashSet> connectionsByUser;
+
+    /**
+     * Nombre d'invalidations effectuées. Un chargement commencé avant une invalidation
+     * n'est pas conservé, car il peut ne pas refléter la modification.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructeur pour injecter le repository et dimensionner le cache.
+     *
+     * @param userConnectionRepository Repository des connexions entre utilisateurs
+     * @param cacheSize Nombre maximal d'utilisateurs conservés en cache
+     */
+    public ConnectionGraphCache(
+            UserConnectionRepository userConnectionRepository,
+            @Value("${paymybuddy.connection-cache.size:10000}") int cacheSize) {
+        this.userConnectionRepository = userConnectionRepository;
+        this.connectionsByUser = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Indique si un utilisateur est connecté à un autre.
+     *
+     * @param userId L'identifiant de l'utilisateur principal
+     * @param connectionId L'identifiant de l'utilisateur recherché parmi ses connexions
+     * @return true si la connexion existe
+     */
+    public boolean isConnected(Long userId, Long connectionId) {
+        if (userId == null || connectionId == null) {
+            return false;
+        }
+        return getConnectionIds(userId).contains(connectionId);
+    }
+
+    /**
+     * Retourne les identifiants des connexions d'un utilisateur.
+     * L'ensemble retourné est partagé et ne doit pas être modifié.
+     *
+     * @param userId L'identifiant de l'utilisateur
+     * @return les identifiants de ses connexions
+     */
+    public LongHashSet getConnectionIds(Long userId) {
+        LongHashSet cached = connectionsByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        LongHashSet loaded = LongHashSet.copyOf(userConnectionRepository.findConnectionIdsByUserId(userId));
+        if (invalidations.get() == generation) {
+            connectionsByUser.put(userId, loaded);
+        }
+        logger.debug("Connexions de l'utilisateur {} chargées : {}", userId, loaded.size());
+        return loaded;
+    }
+
+    /**
+     * Invalide les connexions en cache d'un utilisateur.
+     * Si une transaction est active, l'invalidation est répétée après sa fin : un chargement
+     * concurrent effectué avant la validation ne peut pas laisser en cache un état périmé.
+     *
+     * @param userId L'identifiant de l'utilisateur dont les connexions ont changé
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        invalidations.incrementAndGet();
+        connectionsByUser.remove(userId);
+    }
+}
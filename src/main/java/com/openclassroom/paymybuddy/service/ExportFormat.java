@@ -0,0 +1,50 @@
+package com.openclassroom.paymybuddy.service;
+
+/**
+ * Format d'un export de l'historique des transactions.
+ */
+public enum ExportFormat {
+
+    /**
+     * Valeurs séparées par des virgules, avec une ligne d'en-tête.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Un objet JSON par ligne.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    /**
+     * Le type de contenu de la réponse.
+     */
+    private final String contentType;
+
+    /**
+     * L'extension du fichier exporté.
+     */
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Retourne le type de contenu de la réponse.
+     *
+     * @return le type MIME du format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Retourne l'extension du fichier exporté.
+     *
+     * @return l'extension, sans le point
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,307 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.model.IdempotencyRecord;
+import com.openclassroom.paymybuddy.repository.IdempotencyRecordRepository;
+import com.openclassroom.paymybuddy.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Service garantissant qu'une requête de transfert rejouée avec la même clé d'idempotence
+ * (en-tête {@value #IDEMPOTENCY_KEY_HEADER}) n'est exécutée qu'une seule fois.
+ * Les réponses récentes sont conservées dans un cache LRU borné devant la table {@code idempotency_key},
+ * indexé par l'identité authentifiée : {@link #findCachedResponse} permet de servir un rejeu
+ * depuis la mémoire avant tout accès à la base de données.
+ * Les clés plus anciennes que la durée de conservation sont purgées périodiquement.
+ * Une clé réservée dont la réponse n'a jamais été enregistrée (arrêt brutal pendant le traitement)
+ * est libérée après un délai de réservation : un rejeu reçu au-delà de ce délai est de nouveau exécuté.
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * Nom de l'en-tête HTTP portant la clé d'idempotence.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Nom de l'en-tête HTTP ajouté aux réponses rejouées.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Longueur maximale d'une clé d'idempotence.
+     */
+    private static final int MAX_KEY_LENGTH = 100;
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /**
+     * Repository des clés d'idempotence.
+     */
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    /**
+     * Sérialiseur JSON utilisé pour enregistrer les réponses et calculer l'empreinte des requêtes.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Réponses terminées récemment, indexées par identité authentifiée, utilisateur et clé d'idempotence.
+     */
+    private final LruCache<String, IdempotencyRecord> recentResponses;
+
+    /**
+     * Durée de conservation des clés d'idempotence.
+     */
+    private final Duration retention;
+
+    /**
+     * Délai au-delà duquel une clé réservée sans réponse est considérée comme abandonnée.
+     */
+    private final Duration lease;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param idempotencyRecordRepository Repository des clés d'idempotence
+     * @param objectMapper Sérialiseur JSON
+     * @param cacheSize Nombre maximal de réponses conservées en mémoire
+     * @param retentionHours Durée de conservation des clés d'idempotence, en heures
+     * @param leaseSeconds Délai de réservation d'une clé sans réponse, en secondes
+     */
+    public IdempotencyService(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            @Value("${paymybuddy.idempotency.cache-size:10000}") int cacheSize,
+            @Value("${paymybuddy.idempotency.retention-hours:24}") long retentionHours,
+            @Value("${paymybuddy.idempotency.lease-seconds:60}") long leaseSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.recentResponses = new LruCache<>(cacheSize);
+        this.retention = Duration.ofHours(retentionHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    /**
+     * Recherche dans le cache mémoire la réponse d'une requête déjà terminée, sans accès à la base de données.
+     * Une réponse n'est mise en cache qu'après une exécution autorisée pour la même identité authentifiée
+     * et le même utilisateur : elle peut donc être rejouée avant de recharger l'utilisateur connecté.
+     *
+     * @param principal nom de l'identité authentifiée (email)
+     * @param userId identifiant de l'utilisateur ciblé par la requête
+     * @param idempotencyKey clé d'idempotence fournie par le client
+     * @param request contenu de la requête, utilisé pour détecter la réutilisation d'une clé
+     * @return la réponse rejouée, ou un Optional vide si la clé n'est pas en cache
+     */
+    public Optional<ResponseEntity<?>> findCachedResponse(String principal, Long userId, String idempotencyKey,
+                                                          Object request) {
+        IdempotencyRecord cached = recentResponses.get(cacheKey(principal, userId, idempotencyKey));
+        if (cached == null) {
+            return Optional.empty();
+        }
+        logger.debug("Rejeu depuis le cache de la clé d'idempotence {} de l'utilisateur {}", idempotencyKey, userId);
+        return Optional.of(replay(cached, fingerprint(request)));
+    }
+
+    /**
+     * Exécute une requête au plus une fois pour une clé d'idempotence donnée.
+     * Si la clé a déjà été utilisée, la réponse d'origine est rejouée sans exécuter l'action ;
+     * si la requête d'origine est encore en cours, une réponse 409 est renvoyée, jusqu'à l'expiration
+     * du délai de réservation au-delà duquel la clé est reprise.
+     *
+     * @param principal nom de l'identité authentifiée (email)
+     * @param userId identifiant de l'utilisateur à l'origine de la requête
+     * @param idempotencyKey clé d'idempotence fournie par le client
+     * @param request contenu de la requête, utilisé pour détecter la réutilisation d'une clé
+     * @param action traitement de la requête
+     * @return la réponse du traitement, ou la réponse d'origine rejouée
+     */
+    public ResponseEntity<?> execute(String principal, Long userId, String idempotencyKey, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body("La clé d'idempotence doit contenir entre 1 et " + MAX_KEY_LENGTH + " caractères");
+        }
+
+        String requestHash = fingerprint(request);
+        String cacheKey = cacheKey(principal, userId, idempotencyKey);
+
+        IdempotencyRecord cached = recentResponses.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Rejeu depuis le cache de la clé d'idempotence {} de l'utilisateur {}", idempotencyKey, userId);
+            return replay(cached, requestHash);
+        }
+
+        Optional<IdempotencyRecord> existing =
+                idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.isCompleted()) {
+                recentResponses.put(cacheKey, record);
+                return replay(record, requestHash);
+            }
+            LocalDateTime leaseLimit = LocalDateTime.now().minus(lease);
+            if (!record.getCreatedAt().isBefore(leaseLimit)
+                    || idempotencyRecordRepository.releaseReservationCreatedBefore(userId, idempotencyKey, leaseLimit) == 0) {
+                return inProgress(userId, idempotencyKey);
+            }
+            logger.warn("Réservation abandonnée de la clé d'idempotence {} de l'utilisateur {} libérée",
+                    idempotencyKey, userId);
+        }
+
+        IdempotencyRecord record;
+        try {
+            record = idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(userId, idempotencyKey, requestHash));
+        } catch (DataIntegrityViolationException e) {
+            // Une requête concurrente a réservé la même clé entre la lecture et l'insertion
+            return inProgress(userId, idempotencyKey);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.delete(record);
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            // Erreur technique ou surcharge : la clé est libérée pour permettre une nouvelle tentative
+            idempotencyRecordRepository.delete(record);
+            return response;
+        }
+
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(response.hasBody() ? toJson(response.getBody()) : null);
+        try {
+            idempotencyRecordRepository.save(record);
+            recentResponses.put(cacheKey, record);
+        } catch (RuntimeException e) {
+            // L'action a abouti : sa réponse est renvoyée ; la réservation sera libérée après son délai
+            logger.error("Impossible d'enregistrer la réponse de la clé d'idempotence {} de l'utilisateur {}",
+                    idempotencyKey, userId, e);
+        }
+
+        return response;
+    }
+
+    /**
+     * Supprime périodiquement les clés d'idempotence reçues depuis plus longtemps que la durée de conservation,
+     * ainsi que les réservations restées sans réponse au-delà de leur délai.
+     * Le cache mémoire est vidé après une purge pour qu'aucune clé supprimée ne soit encore rejouée.
+     */
+    @Scheduled(cron = "${paymybuddy.idempotency.purge-cron:0 45 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int abandoned = idempotencyRecordRepository.deleteReservationsCreatedBefore(now.minus(lease));
+        if (abandoned > 0) {
+            logger.warn("{} réservation(s) de clé d'idempotence abandonnée(s) supprimée(s)", abandoned);
+        }
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(now.minus(retention));
+        if (purged > 0) {
+            recentResponses.clear();
+            logger.info("{} clé(s) d'idempotence expirée(s) supprimée(s) de la table idempotency_key", purged);
+        }
+    }
+
+    /**
+     * Construit la clé du cache mémoire des réponses.
+     *
+     * @param principal nom de l'identité authentifiée
+     * @param userId identifiant de l'utilisateur
+     * @param idempotencyKey clé d'idempotence
+     * @return la clé du cache
+     */
+    private static String cacheKey(String principal, Long userId, String idempotencyKey) {
+        return principal + ":" + userId + ":" + idempotencyKey;
+    }
+
+    /**
+     * Rejoue la réponse d'origine si la requête est identique à celle d'origine.
+     *
+     * @param record enregistrement de la requête d'origine
+     * @param requestHash empreinte de la requête reçue
+     * @return la réponse d'origine, ou une réponse 422 si la clé a été réutilisée pour une autre requête
+     */
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            logger.warn("Clé d'idempotence {} réutilisée avec une requête différente", record.getIdempotencyKey());
+            return ResponseEntity.unprocessableEntity()
+                    .body("La clé d'idempotence a déjà été utilisée pour une requête différente");
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(record.getResponseBody());
+    }
+
+    /**
+     * Construit la réponse renvoyée lorsque la requête d'origine est encore en cours de traitement.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @param idempotencyKey clé d'idempotence
+     * @return une réponse 409
+     */
+    private ResponseEntity<?> inProgress(Long userId, String idempotencyKey) {
+        logger.warn("Requête déjà en cours pour la clé d'idempotence {} de l'utilisateur {}", idempotencyKey, userId);
+        return ResponseEntity.status(409)
+                .body("Une requête avec cette clé d'idempotence est déjà en cours de traitement");
+    }
+
+    /**
+     * Calcule l'empreinte SHA-256 du contenu JSON d'une requête.
+     *
+     * @param request contenu de la requête
+     * @return l'empreinte en hexadécimal
+     */
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithme SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Sérialise un objet en JSON.
+     *
+     * @param value objet à sérialiser
+     * @return la représentation JSON de l'objet
+     */
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser la réponse en JSON", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassroom.paymybuddy.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tâche d'ouverture du journal, lancée au démarrage.
+ * L'exécution porte toujours le même nom : une fois toutes ses plages terminées, les démarrages suivants
+ * n'ont plus rien à ouvrir, les nouveaux comptes étant journalisés dès leur premier mouvement.
+ */
+@Component
+public class LedgerOpeningJob {
+
+    /**
+     * Service d'ouverture du journal.
+     */
+    private final LedgerOpeningService ledgerOpeningService;
+
+    /**
+     * Indique si l'ouverture est lancée au démarrage.
+     */
+    private final boolean onStartup;
+
+    /**
+     * Constructeur pour injecter le service d'ouverture du journal et la configuration.
+     *
+     * @param ledgerOpeningService Service d'ouverture du journal
+     * @param onStartup true pour lancer l'ouverture au démarrage
+     */
+    public LedgerOpeningJob(
+            LedgerOpeningService ledgerOpeningService,
+            @Value("${paymybuddy.ledger.opening.on-startup:true}") boolean onStartup) {
+        this.ledgerOpeningService = ledgerOpeningService;
+        this.onStartup = onStartup;
+    }
+
+    /**
+     * Ouvre au démarrage le journal des plages d'utilisateurs non encore traitées.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void openOnStartup() {
+        if (onStartup) {
+            ledgerOpeningService.openAll();
+        }
+    }
+}
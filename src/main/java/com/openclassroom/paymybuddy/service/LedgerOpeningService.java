@@ -0,0 +1,247 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+import com.openclassroom.paymybuddy.model.LedgerEntryType;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import com.openclassroom.paymybuddy.util.IdRange;
+import com.openclassroom.paymybuddy.util.LongLongHashMap;
+import com.openclassroom.paymybuddy.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'ouverture du journal pour les comptes antérieurs à son introduction.
+ * <p>
+ * Pour chaque utilisateur, les transferts encore absents du journal y sont repris (un débit de l'expéditeur,
+ * un crédit du destinataire), puis une écriture d'ouverture porte l'écart entre le solde enregistré
+ * (sous-soldes compris) et la somme du journal : les dépôts et retraits antérieurs au journal.
+ * Le solde calculé par {@link LedgerService} et le rapprochement, qui compte l'écriture d'ouverture
+ * comme un ajustement, retrouvent alors le solde enregistré.
+ * Les utilisateurs sont traités par plages d'identifiants enregistrées dans job_checkpoint ;
+ * une plage relancée ne produit aucune écriture, le journal y étant déjà complet.
+ */
+@Service
+public class LedgerOpeningService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LedgerOpeningService.class);
+
+    /**
+     * Nom d'exécution par défaut de l'ouverture.
+     */
+    public static final String OPENING_JOB_NAME = "ledger-opening";
+
+    /**
+     * Bornes des identifiants d'utilisateurs.
+     */
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM app_user";
+
+    /**
+     * Verrouillage des utilisateurs d'une plage : les transferts et ajustements concurrents de ces utilisateurs
+     * attendent la fin de l'ouverture.
+     */
+    private static final String LOCK_USERS_SQL = "SELECT id FROM app_user WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+
+    /**
+     * Verrouillage des sous-soldes d'une plage, crédités sans verrouiller l'utilisateur.
+     */
+    private static final String LOCK_SLOTS_SQL = "SELECT user_id FROM balance_slot WHERE user_id BETWEEN ? AND ? "
+            + "ORDER BY user_id, slot_index FOR UPDATE";
+
+    /**
+     * Reprise dans le journal des transferts envoyés par les utilisateurs d'une plage et encore absents du journal.
+     */
+    private static final String BACKFILL_SENT_SQL =
+            "INSERT INTO ledger_entry (user_id, transaction_id, entry_type, amount, opening, created_at) "
+                    + "SELECT t.sender_id, t.id, 'DEBIT', t.amount, FALSE, t.created_at FROM transaction t "
+                    + "WHERE t.sender_id BETWEEN ? AND ? AND NOT EXISTS (SELECT 1 FROM ledger_entry l "
+                    + "WHERE l.transaction_id = t.id AND l.user_id = t.sender_id AND l.entry_type = 'DEBIT')";
+
+    /**
+     * Reprise dans le journal des transferts reçus par les utilisateurs d'une plage et encore absents du journal.
+     */
+    private static final String BACKFILL_RECEIVED_SQL =
+            "INSERT INTO ledger_entry (user_id, transaction_id, entry_type, amount, opening, created_at) "
+                    + "SELECT t.receiver_id, t.id, 'CREDIT', t.amount, FALSE, t.created_at FROM transaction t "
+                    + "WHERE t.receiver_id BETWEEN ? AND ? AND NOT EXISTS (SELECT 1 FROM ledger_entry l "
+                    + "WHERE l.transaction_id = t.id AND l.user_id = t.receiver_id AND l.entry_type = 'CREDIT')";
+
+    /**
+     * Somme du journal des utilisateurs d'une plage.
+     */
+    private static final String LEDGER_SUMS_SQL =
+            "SELECT user_id, SUM(CASE WHEN entry_type = 'DEBIT' THEN -amount ELSE amount END) FROM ledger_entry "
+                    + "WHERE user_id BETWEEN ? AND ? GROUP BY user_id";
+
+    /**
+     * Montants en attente dans les sous-soldes des utilisateurs d'une plage.
+     */
+    private static final String SLOTS_SQL =
+            "SELECT user_id, SUM(amount) FROM balance_slot WHERE user_id BETWEEN ? AND ? GROUP BY user_id";
+
+    /**
+     * Soldes principaux enregistrés des utilisateurs d'une plage.
+     */
+    private static final String BALANCES_SQL = "SELECT id, balance FROM app_user WHERE id BETWEEN ? AND ? ORDER BY id";
+
+    /**
+     * Repository des écritures du journal.
+     */
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    /**
+     * Repository des points de reprise.
+     */
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * Template JDBC de l'ouverture.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction d'écriture de l'ouverture d'une plage.
+     */
+    private final TransactionTemplate writeTransaction;
+
+    /**
+     * Nombre d'identifiants d'utilisateurs par plage.
+     */
+    private final long partitionSize;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param ledgerEntryRepository Repository des écritures du journal
+     * @param jobCheckpointRepository Repository des points de reprise
+     * @param dataSource Source de données
+     * @param transactionManager Gestionnaire de transactions
+     * @param partitionSize Nombre d'identifiants d'utilisateurs par plage
+     */
+    public LedgerOpeningService(LedgerEntryRepository ledgerEntryRepository,
+                                JobCheckpointRepository jobCheckpointRepository,
+                                DataSource dataSource, PlatformTransactionManager transactionManager,
+                                @Value("${paymybuddy.ledger.opening.partition-size:1000}") long partitionSize) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Ouvre le journal de tous les utilisateurs, sous le nom d'exécution par défaut.
+     *
+     * @return le nombre d'écritures d'ouverture créées
+     */
+    public long openAll() {
+        return openAll(OPENING_JOB_NAME);
+    }
+
+    /**
+     * Ouvre le journal de tous les utilisateurs. Chaque plage est traitée dans sa propre transaction,
+     * ses utilisateurs et sous-soldes verrouillés : aucun mouvement concurrent n'est compté deux fois
+     * ni oublié.
+     *
+     * @param jobName le nom de l'exécution ; une exécution relancée sous le même nom ne traite que les plages restantes
+     * @return le nombre d'écritures d'ouverture créées par cette exécution
+     */
+    public long openAll(String jobName) {
+        Long[] bounds = jdbcTemplate.queryForObject(USER_ID_BOUNDS_SQL,
+                (rs, rowNum) -> new Long[] {rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return 0;
+        }
+
+        Set<Long> completedStarts = jobCheckpointRepository.findByJobName(jobName).stream()
+                .filter(JobCheckpoint::isCompleted)
+                .map(JobCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+        List<IdRange> pending = IdRange.split(bounds[0], bounds[1], partitionSize).stream()
+                .filter(range -> !completedStarts.contains(range.getStart()))
+                .collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        logger.info("Ouverture du journal {} : {} plage(s) à traiter, {} déjà terminée(s)",
+                jobName, pending.size(), completedStarts.size());
+
+        long openings = 0;
+        for (IdRange range : pending) {
+            Long written = writeTransaction.execute(status -> openRange(jobName, range));
+            openings += written != null ? written : 0;
+        }
+        logger.info("Ouverture du journal {} terminée : {} écriture(s) d'ouverture", jobName, openings);
+        return openings;
+    }
+
+    /**
+     * Complète le journal des utilisateurs d'une plage et enregistre son point de reprise, dans la même transaction.
+     *
+     * @param jobName le nom de l'exécution
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le nombre d'écritures d'ouverture créées
+     */
+    private long openRange(String jobName, IdRange range) {
+        long start = range.getStart();
+        long end = range.getEnd();
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, Long.class, start, end);
+        jdbcTemplate.queryForList(LOCK_SLOTS_SQL, Long.class, start, end);
+
+        int transfers = jdbcTemplate.update(BACKFILL_SENT_SQL, start, end)
+                + jdbcTemplate.update(BACKFILL_RECEIVED_SQL, start, end);
+
+        LongLongHashMap ledgerCents = new LongLongHashMap();
+        jdbcTemplate.query(LEDGER_SUMS_SQL, rs -> {
+            ledgerCents.put(rs.getLong(1), Money.toCents(rs.getBigDecimal(2)));
+        }, start, end);
+        LongLongHashMap slotCents = new LongLongHashMap();
+        jdbcTemplate.query(SLOTS_SQL, rs -> {
+            slotCents.put(rs.getLong(1), Money.toCents(rs.getBigDecimal(2)));
+        }, start, end);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> openings = new ArrayList<>();
+        jdbcTemplate.query(BALANCES_SQL, rs -> {
+            long userId = rs.getLong(1);
+            long recorded = Money.toCents(rs.getBigDecimal(2)) + slotCents.getOrDefault(userId, 0L);
+            long gap = recorded - ledgerCents.getOrDefault(userId, 0L);
+            if (gap != 0) {
+                LedgerEntry opening = new LedgerEntry(userId, null,
+                        gap < 0 ? LedgerEntryType.DEBIT : LedgerEntryType.CREDIT, Money.toBigDecimal(Math.abs(gap)), now);
+                opening.setOpening(true);
+                openings.add(opening);
+            }
+        }, start, end);
+        ledgerEntryRepository.insertAll(openings);
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndRangeStart(jobName, start)
+                .orElseGet(() -> new JobCheckpoint(jobName, start, end));
+        checkpoint.setRangeEnd(end);
+        checkpoint.setLastProcessedId(end);
+        checkpoint.setItemCount(openings.size());
+        checkpoint.setErrorCount(0);
+        checkpoint.setCompleted(true);
+        jobCheckpointRepository.save(checkpoint);
+
+        logger.debug("Ouverture du journal de la plage {} : {} écriture(s) de transfert reprise(s), {} ouverture(s)",
+                range, transfers, openings.size());
+        return openings.size();
+    }
+}
@@ -0,0 +1,166 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.BalanceSnapshot;
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+import com.openclassroom.paymybuddy.model.LedgerEntryType;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.repository.BalanceSnapshotRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service gérant le journal des mouvements (écritures en partie double) et les instantanés de solde.
+ * Le solde d'un compte se calcule à partir de son dernier instantané augmenté des écritures postérieures :
+ * le coût d'un calcul ne dépend donc que du nombre d'écritures depuis le dernier instantané,
+ * et non de la taille totale du journal.
+ * Les comptes antérieurs au journal y sont repris par {@link LedgerOpeningService}.
+ */
+@Service
+public class LedgerService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    /**
+     * Repository des écritures du journal.
+     */
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    /**
+     * Repository des instantanés de solde.
+     */
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+
+    /**
+     * Âge minimal, en secondes, des écritures couvertes par un nouvel instantané.
+     * Les identifiants étant attribués à l'insertion, une écriture plus ancienne encore non validée
+     * pourrait sinon se retrouver derrière l'instantané sans y être comptée.
+     */
+    @Value("${paymybuddy.ledger.snapshot.settle-seconds:60}")
+    private long settleSeconds = 60;
+
+    /**
+     * Constructeur pour injecter les repositories nécessaires.
+     *
+     * @param ledgerEntryRepository Repository des écritures du journal
+     * @param balanceSnapshotRepository Repository des instantanés de solde
+     */
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository, BalanceSnapshotRepository balanceSnapshotRepository) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+    }
+
+    /**
+     * Journalise un transfert : un débit de l'expéditeur et un crédit du destinataire.
+     * Doit être appelée dans la transaction qui modifie les soldes.
+     *
+     * @param transaction la transaction enregistrée
+     */
+    public void recordTransfer(Transaction transaction) {
+        recordTransfers(List.of(transaction));
+    }
+
+    /**
+     * Journalise un lot de transferts en une seule insertion JDBC batch.
+     * Doit être appelée dans la transaction qui modifie les soldes.
+     *
+     * @param transactions les transactions enregistrées
+     */
+    public void recordTransfers(List<Transaction> transactions) {
+        List<LedgerEntry> entries = new ArrayList<>(transactions.size() * 2);
+        for (Transaction transaction : transactions) {
+            LocalDateTime createdAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+            entries.add(new LedgerEntry(transaction.getSender().getId(), transaction.getId(),
+                    LedgerEntryType.DEBIT, transaction.getAmount(), createdAt));
+            entries.add(new LedgerEntry(transaction.getReceiver().getId(), transaction.getId(),
+                    LedgerEntryType.CREDIT, transaction.getAmount(), createdAt));
+        }
+        ledgerEntryRepository.insertAll(entries);
+    }
+
+    /**
+     * Journalise un ajustement de balance (dépôt, retrait ou correction).
+     * Doit être appelée dans la transaction qui modifie le solde.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @param delta variation du solde, négative pour un retrait
+     */
+    public void recordAdjustment(Long userId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        LedgerEntryType type = delta.signum() < 0 ? LedgerEntryType.DEBIT : LedgerEntryType.CREDIT;
+        ledgerEntryRepository.insertAll(List.of(new LedgerEntry(userId, null, type, delta.abs(), LocalDateTime.now())));
+    }
+
+    /**
+     * Calcule le solde courant d'un compte à partir du journal.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @return le solde issu du dernier instantané et des écritures postérieures
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Long userId) {
+        Optional<BalanceSnapshot> snapshot = balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(userId);
+        BigDecimal base = snapshot.map(BalanceSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        Long afterEntryId = snapshot.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+        return base.add(ledgerEntryRepository.sumBetween(userId, afterEntryId, Long.MAX_VALUE));
+    }
+
+    /**
+     * Calcule le solde d'un compte à un instant passé à partir du journal.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @param at instant de référence (inclus)
+     * @return le solde issu du dernier instantané antérieur et des écritures jusqu'à cet instant
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Long userId, LocalDateTime at) {
+        Optional<BalanceSnapshot> snapshot =
+                balanceSnapshotRepository.findFirstByUserIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(userId, at);
+        BigDecimal base = snapshot.map(BalanceSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        Long afterEntryId = snapshot.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+        return base.add(ledgerEntryRepository.sumSinceUpTo(userId, afterEntryId, at));
+    }
+
+    /**
+     * Prend un nouvel instantané du solde d'un compte, couvrant les écritures plus anciennes
+     * que le délai de stabilisation configuré.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @return l'instantané créé, ou un Optional vide si aucune nouvelle écriture n'est à couvrir
+     */
+    @Transactional
+    public Optional<BalanceSnapshot> takeSnapshot(Long userId) {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(settleSeconds);
+        Optional<LedgerEntry> lastEntry =
+                ledgerEntryRepository.findFirstByUserIdAndCreatedAtLessThanEqualOrderByIdDesc(userId, cutoff);
+        Optional<BalanceSnapshot> previous = balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(userId);
+        Long afterEntryId = previous.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+
+        if (lastEntry.isEmpty() || lastEntry.get().getId() <= afterEntryId) {
+            return Optional.empty();
+        }
+
+        BigDecimal base = previous.map(BalanceSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        BigDecimal balance = base.add(ledgerEntryRepository.sumBetween(userId, afterEntryId, lastEntry.get().getId()));
+        BalanceSnapshot snapshot = balanceSnapshotRepository.save(
+                new BalanceSnapshot(userId, lastEntry.get().getId(), lastEntry.get().getCreatedAt(), balance));
+
+        logger.debug("Instantané de solde pris pour l'utilisateur {} jusqu'à l'écriture {} : {}€",
+                userId, snapshot.getLastEntryId(), balance);
+        return Optional.of(snapshot);
+    }
+}
@@ -0,0 +1,71 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tâche de fond prenant périodiquement un instantané du solde des comptes
+ * ayant accumulé suffisamment d'écritures depuis leur dernier instantané.
+ */
+@Component
+public class LedgerSnapshotJob {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LedgerSnapshotJob.class);
+
+    /**
+     * Service gérant le journal et les instantanés.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * Repository des écritures, utilisé pour trouver les comptes à traiter.
+     */
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    /**
+     * Nombre minimal d'écritures non couvertes déclenchant un nouvel instantané.
+     */
+    @Value("${paymybuddy.ledger.snapshot.min-entries:100}")
+    private long minEntries = 100;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param ledgerService Service gérant le journal et les instantanés
+     * @param ledgerEntryRepository Repository des écritures du journal
+     */
+    public LedgerSnapshotJob(LedgerService ledgerService, LedgerEntryRepository ledgerEntryRepository) {
+        this.ledgerService = ledgerService;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+    }
+
+    /**
+     * Prend un instantané pour chaque compte concerné, chacun dans sa propre transaction.
+     */
+    @Scheduled(fixedDelayString = "${paymybuddy.ledger.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        List<Long> userIds = ledgerEntryRepository.findUserIdsToSnapshot(minEntries);
+        int taken = 0;
+        for (Long userId : userIds) {
+            try {
+                if (ledgerService.takeSnapshot(userId).isPresent()) {
+                    taken++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Erreur lors de la prise d'instantané du solde de l'utilisateur {}", userId, e);
+            }
+        }
+        if (taken > 0) {
+            logger.info("Instantanés de solde pris pour {} compte(s)", taken);
+        }
+    }
+}
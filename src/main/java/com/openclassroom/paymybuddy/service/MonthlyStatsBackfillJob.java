@@ -0,0 +1,48 @@
+package com.openclassroom.paymybuddy.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tâche de rattrapage des totaux mensuels, lancée au démarrage.
+ * L'exécution porte toujours le même nom : une fois toutes ses plages terminées, les démarrages suivants
+ * n'ont plus rien à recalculer, les totaux étant tenus à jour par les transferts et ajustements.
+ */
+@Component
+public class MonthlyStatsBackfillJob {
+
+    /**
+     * Service des totaux mensuels.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
+    /**
+     * Indique si le rattrapage est lancé au démarrage.
+     */
+    private final boolean onStartup;
+
+    /**
+     * Constructeur pour injecter le service des totaux mensuels et la configuration.
+     *
+     * @param monthlyStatsService Service des totaux mensuels
+     * @param onStartup true pour lancer le rattrapage au démarrage
+     */
+    public MonthlyStatsBackfillJob(
+            MonthlyStatsService monthlyStatsService,
+            @Value("${paymybuddy.monthly-stats.backfill.on-startup:true}") boolean onStartup) {
+        this.monthlyStatsService = monthlyStatsService;
+        this.onStartup = onStartup;
+    }
+
+    /**
+     * Recalcule au démarrage les totaux mensuels des plages d'utilisateurs non encore traitées.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (onStartup) {
+            monthlyStatsService.backfill();
+        }
+    }
+}
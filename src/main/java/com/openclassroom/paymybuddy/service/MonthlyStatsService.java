@@ -0,0 +1,371 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import com.openclassroom.paymybuddy.model.LedgerEntryType;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.UserMonthlyStats;
+import com.openclassroom.paymybuddy.model.UserMonthlyStatsId;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.UserMonthlyStatsRepository;
+import com.openclassroom.paymybuddy.util.IdRange;
+import com.openclassroom.paymybuddy.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service tenant à jour les totaux mensuels de chaque utilisateur (table user_monthly_stats).
+ * <p>
+ * Les totaux sont incrémentés dans la transaction qui modifie les soldes : ils restent cohérents avec
+ * l'historique sans jamais le relire, et la lecture des totaux de n mois ne coûte que n lignes
+ * par clé primaire, quelle que soit la longueur de l'historique.
+ * Le rattrapage recalcule les totaux depuis l'historique, par plages d'identifiants d'utilisateurs
+ * enregistrées dans job_checkpoint ; il sert une fois, à l'introduction de la table.
+ */
+@Service
+public class MonthlyStatsService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyStatsService.class);
+
+    /**
+     * Nombre maximal de mois lus en une fois.
+     */
+    public static final int MAX_MONTHS = 120;
+
+    /**
+     * Nom d'exécution par défaut du rattrapage.
+     */
+    public static final String BACKFILL_JOB_NAME = "monthly-stats-backfill";
+
+    /**
+     * Bornes des identifiants d'utilisateurs.
+     */
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM app_user";
+
+    /**
+     * Verrouillage des utilisateurs d'une plage : les mouvements concurrents de ces utilisateurs,
+     * qui modifient leur solde avant leurs totaux, attendent la fin du recalcul.
+     */
+    private static final String LOCK_USERS_SQL = "SELECT id FROM app_user WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE";
+
+    /**
+     * Verrouillage des totaux d'une plage : le recalcul attend les mouvements non validés qui les ont
+     * déjà modifiés, si bien que l'historique lu ensuite les inclut.
+     */
+    private static final String LOCK_STATS_SQL = "SELECT user_id FROM user_monthly_stats WHERE user_id BETWEEN ? AND ? "
+            + "ORDER BY user_id, month_start FOR UPDATE";
+
+    /**
+     * Mouvements des utilisateurs d'une plage : transferts envoyés, reçus, et ajustements de solde
+     * (écritures du journal sans transaction, hors écritures d'ouverture qui ne sont pas des dépôts).
+     */
+    private static final String RANGE_MOVEMENTS_SQL =
+            "SELECT t.sender_id, t.created_at, t.amount, 'SENT' FROM transaction t WHERE t.sender_id BETWEEN ? AND ? "
+                    + "UNION ALL "
+                    + "SELECT t.receiver_id, t.created_at, t.amount, 'RECEIVED' FROM transaction t "
+                    + "WHERE t.receiver_id BETWEEN ? AND ? "
+                    + "UNION ALL "
+                    + "SELECT l.user_id, l.created_at, l.amount, l.entry_type FROM ledger_entry l "
+                    + "WHERE l.user_id BETWEEN ? AND ? AND l.transaction_id IS NULL AND l.opening = FALSE";
+
+    /**
+     * Repository des totaux mensuels.
+     */
+    private final UserMonthlyStatsRepository userMonthlyStatsRepository;
+
+    /**
+     * Repository des points de reprise.
+     */
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * Template JDBC dédié au rattrapage, configuré avec la taille de lot de lecture.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction d'écriture du recalcul d'une plage.
+     */
+    private final TransactionTemplate writeTransaction;
+
+    /**
+     * Nombre d'identifiants d'utilisateurs par plage du rattrapage.
+     */
+    @Value("${paymybuddy.monthly-stats.backfill.partition-size:1000}")
+    private long partitionSize = 1000;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param userMonthlyStatsRepository Repository des totaux mensuels
+     * @param jobCheckpointRepository Repository des points de reprise
+     * @param dataSource Source de données
+     * @param transactionManager Gestionnaire de transactions
+     * @param fetchSize Nombre de lignes lues par aller-retour avec la base lors du rattrapage
+     */
+    public MonthlyStatsService(UserMonthlyStatsRepository userMonthlyStatsRepository,
+                               JobCheckpointRepository jobCheckpointRepository,
+                               DataSource dataSource, PlatformTransactionManager transactionManager,
+                               @Value("${paymybuddy.monthly-stats.backfill.fetch-size:1000}") int fetchSize) {
+        this.userMonthlyStatsRepository = userMonthlyStatsRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ajoute un transfert aux totaux de son expéditeur et de son destinataire.
+     * Doit être appelée dans la transaction qui modifie les soldes.
+     *
+     * @param transaction la transaction enregistrée
+     */
+    public void recordTransfer(Transaction transaction) {
+        recordTransfers(List.of(transaction));
+    }
+
+    /**
+     * Ajoute un lot de transferts aux totaux de leurs expéditeurs et destinataires.
+     * Doit être appelée dans la transaction qui modifie les soldes.
+     *
+     * @param transactions les transactions enregistrées
+     */
+    public void recordTransfers(List<Transaction> transactions) {
+        Map<UserMonthlyStatsId, Totals> totals = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            LocalDateTime createdAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+            LocalDate month = createdAt.toLocalDate().withDayOfMonth(1);
+            long cents = Money.toCents(transaction.getAmount());
+            totals.computeIfAbsent(new UserMonthlyStatsId(transaction.getSender().getId(), month),
+                    key -> new Totals()).addSent(cents);
+            totals.computeIfAbsent(new UserMonthlyStatsId(transaction.getReceiver().getId(), month),
+                    key -> new Totals()).addReceived(cents);
+        }
+        userMonthlyStatsRepository.addAll(toStats(totals));
+    }
+
+    /**
+     * Ajoute un ajustement de balance aux totaux du mois courant : un dépôt s'il est positif, un retrait sinon.
+     * Doit être appelée dans la transaction qui modifie le solde.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @param delta variation du solde, négative pour un retrait
+     */
+    public void recordAdjustment(Long userId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        Totals totals = new Totals();
+        totals.addAdjustment(Money.toCents(delta));
+        userMonthlyStatsRepository.addAll(
+                toStats(Map.of(new UserMonthlyStatsId(userId, LocalDate.now().withDayOfMonth(1)), totals)));
+    }
+
+    /**
+     * Récupère les totaux d'un utilisateur sur les derniers mois, mois courant compris.
+     * Les mois sans mouvement figurent avec des totaux nuls.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @param months nombre de mois, entre 1 et {@link #MAX_MONTHS}
+     * @return les totaux mensuels, du plus récent au plus ancien
+     * @throws IllegalArgumentException si le nombre de mois est hors limites
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyStatsDTO> getMonthlyStats(Long userId, int months) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("Le nombre de mois doit être compris entre 1 et " + MAX_MONTHS);
+        }
+        YearMonth current = YearMonth.now();
+        LocalDate from = current.minusMonths(months - 1L).atDay(1);
+        Map<LocalDate, UserMonthlyStats> byMonth = userMonthlyStatsRepository
+                .findByUserIdAndMonthStartBetweenOrderByMonthStartDesc(userId, from, current.atDay(1)).stream()
+                .collect(Collectors.toMap(UserMonthlyStats::getMonthStart, stats -> stats));
+
+        List<MonthlyStatsDTO> result = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            YearMonth month = current.minusMonths(i);
+            UserMonthlyStats stats = byMonth.get(month.atDay(1));
+            if (stats == null) {
+                result.add(new MonthlyStatsDTO(month.toString(), Money.ZERO.toBigDecimal(), 0,
+                        Money.ZERO.toBigDecimal(), 0, Money.ZERO.toBigDecimal(), Money.ZERO.toBigDecimal()));
+            } else {
+                result.add(new MonthlyStatsDTO(month.toString(), stats.getSentTotal(), stats.getSentCount(),
+                        stats.getReceivedTotal(), stats.getReceivedCount(), stats.getDepositedTotal(),
+                        stats.getWithdrawnTotal()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Récupère les totaux d'un utilisateur pour le mois courant.
+     *
+     * @param userId identifiant de l'utilisateur
+     * @return les totaux du mois courant, nuls en l'absence de mouvement
+     */
+    @Transactional(readOnly = true)
+    public MonthlyStatsDTO getCurrentMonthStats(Long userId) {
+        return getMonthlyStats(userId, 1).get(0);
+    }
+
+    /**
+     * Recalcule les totaux mensuels de tous les utilisateurs depuis l'historique, sous le nom d'exécution par défaut.
+     *
+     * @return le nombre de lignes de totaux écrites
+     */
+    public long backfill() {
+        return backfill(BACKFILL_JOB_NAME);
+    }
+
+    /**
+     * Recalcule les totaux mensuels de tous les utilisateurs depuis l'historique.
+     * Chaque plage est recalculée dans sa propre transaction, ses utilisateurs verrouillés : les transferts
+     * et ajustements concurrents ne sont ni perdus ni comptés deux fois.
+     *
+     * @param jobName le nom de l'exécution ; une exécution relancée sous le même nom ne traite que les plages restantes
+     * @return le nombre de lignes de totaux écrites par cette exécution
+     */
+    public long backfill(String jobName) {
+        Long[] bounds = jdbcTemplate.queryForObject(USER_ID_BOUNDS_SQL,
+                (rs, rowNum) -> new Long[] {rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return 0;
+        }
+
+        Set<Long> completedStarts = jobCheckpointRepository.findByJobName(jobName).stream()
+                .filter(JobCheckpoint::isCompleted)
+                .map(JobCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+        List<IdRange> pending = IdRange.split(bounds[0], bounds[1], partitionSize).stream()
+                .filter(range -> !completedStarts.contains(range.getStart()))
+                .collect(Collectors.toList());
+        logger.info("Rattrapage des totaux mensuels {} : {} plage(s) à traiter, {} déjà terminée(s)",
+                jobName, pending.size(), completedStarts.size());
+
+        long startNanos = System.nanoTime();
+        long rows = 0;
+        for (IdRange range : pending) {
+            Long written = writeTransaction.execute(status -> backfillRange(jobName, range));
+            rows += written != null ? written : 0;
+        }
+        logger.info("Rattrapage des totaux mensuels {} terminé : {} ligne(s) en {} ms",
+                jobName, rows, (System.nanoTime() - startNanos) / 1_000_000);
+        return rows;
+    }
+
+    /**
+     * Recalcule les totaux des utilisateurs d'une plage et enregistre son point de reprise, dans la même transaction.
+     *
+     * @param jobName le nom de l'exécution
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le nombre de lignes de totaux écrites
+     */
+    private long backfillRange(String jobName, IdRange range) {
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, Long.class, range.getStart(), range.getEnd());
+        jdbcTemplate.queryForList(LOCK_STATS_SQL, Long.class, range.getStart(), range.getEnd());
+
+        Map<UserMonthlyStatsId, Totals> totals = new HashMap<>();
+        jdbcTemplate.query(RANGE_MOVEMENTS_SQL, rs -> {
+            LocalDate month = rs.getTimestamp(2).toLocalDateTime().toLocalDate().withDayOfMonth(1);
+            UserMonthlyStatsId key = new UserMonthlyStatsId(rs.getLong(1), month);
+            long cents = Money.toCents(rs.getBigDecimal(3));
+            Totals monthTotals = totals.computeIfAbsent(key, k -> new Totals());
+            String kind = rs.getString(4);
+            if ("SENT".equals(kind)) {
+                monthTotals.addSent(cents);
+            } else if ("RECEIVED".equals(kind)) {
+                monthTotals.addReceived(cents);
+            } else if (LedgerEntryType.DEBIT.name().equals(kind)) {
+                monthTotals.addAdjustment(-cents);
+            } else {
+                monthTotals.addAdjustment(cents);
+            }
+        }, range.getStart(), range.getEnd(), range.getStart(), range.getEnd(), range.getStart(), range.getEnd());
+
+        List<UserMonthlyStats> stats = toStats(totals);
+        userMonthlyStatsRepository.replaceRange(range.getStart(), range.getEnd(), stats);
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndRangeStart(jobName, range.getStart())
+                .orElseGet(() -> new JobCheckpoint(jobName, range.getStart(), range.getEnd()));
+        checkpoint.setRangeEnd(range.getEnd());
+        checkpoint.setLastProcessedId(range.getEnd());
+        checkpoint.setItemCount(stats.size());
+        checkpoint.setErrorCount(0);
+        checkpoint.setCompleted(true);
+        jobCheckpointRepository.save(checkpoint);
+        return stats.size();
+    }
+
+    /**
+     * Convertit des totaux en centimes en lignes de la table user_monthly_stats.
+     *
+     * @param totals les totaux par utilisateur et par mois
+     * @return les lignes correspondantes
+     */
+    private static List<UserMonthlyStats> toStats(Map<UserMonthlyStatsId, Totals> totals) {
+        List<UserMonthlyStats> stats = new ArrayList<>(totals.size());
+        totals.forEach((key, monthTotals) -> {
+            UserMonthlyStats row = new UserMonthlyStats(key.getUserId(), key.getMonthStart());
+            row.setSentTotal(Money.toBigDecimal(monthTotals.sentCents));
+            row.setSentCount(monthTotals.sentCount);
+            row.setReceivedTotal(Money.toBigDecimal(monthTotals.receivedCents));
+            row.setReceivedCount(monthTotals.receivedCount);
+            row.setDepositedTotal(Money.toBigDecimal(monthTotals.depositedCents));
+            row.setWithdrawnTotal(Money.toBigDecimal(monthTotals.withdrawnCents));
+            stats.add(row);
+        });
+        return stats;
+    }
+
+    /**
+     * Totaux d'un utilisateur sur un mois, en centimes.
+     */
+    private static class Totals {
+
+        private long sentCents;
+        private long sentCount;
+        private long receivedCents;
+        private long receivedCount;
+        private long depositedCents;
+        private long withdrawnCents;
+
+        private void addSent(long cents) {
+            sentCents = Math.addExact(sentCents, cents);
+            sentCount++;
+        }
+
+        private void addReceived(long cents) {
+            receivedCents = Math.addExact(receivedCents, cents);
+            receivedCount++;
+        }
+
+        private void addAdjustment(long cents) {
+            if (cents >= 0) {
+                depositedCents = Math.addExact(depositedCents, cents);
+            } else {
+                withdrawnCents = Math.subtractExact(withdrawnCents, cents);
+            }
+        }
+    }
+}
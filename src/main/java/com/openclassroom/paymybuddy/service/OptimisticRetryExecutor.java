@@ -0,0 +1,164 @@
+package com.openclassroom.paymybuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Exécute une écriture de solde dans sa propre transaction et la rejoue lorsqu'elle échoue
+ * sur un conflit de version ({@code @Version} de {@link com.openclassroom.paymybuddy.model.User}).
+ * Les tentatives sont espacées d'une attente exponentielle aléatoire (« full jitter ») et bornées
+ * par {@code paymybuddy.balance.optimistic.max-attempts}.
+ * <p>Si une transaction est déjà active, l'opération s'y joint et n'est pas rejouée :
+ * le conflit n'est détecté qu'à la validation de la transaction englobante.</p>
+ * <p>Métriques exportées, par opération : tentatives, conflits (le taux de conflit est le rapport
+ * des deux), opérations abandonnées après la dernière tentative et nombre de reprises par opération.</p>
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    /**
+     * Modèle de transaction utilisé pour chaque tentative.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Registre des métriques.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Nombre maximal de tentatives d'une opération.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Attente de base avant la première reprise, en millisecondes.
+     */
+    private final long baseBackoffMillis;
+
+    /**
+     * Attente maximale avant une reprise, en millisecondes.
+     */
+    private final long maxBackoffMillis;
+
+    /**
+     * Constructeur pour injecter le gestionnaire de transactions et la politique de reprise.
+     *
+     * @param transactionManager Gestionnaire de transactions
+     * @param meterRegistry Registre des métriques
+     * @param maxAttempts Nombre maximal de tentatives d'une opération
+     * @param baseBackoffMillis Attente de base avant la première reprise, en millisecondes
+     * @param maxBackoffMillis Attente maximale avant une reprise, en millisecondes
+     */
+    public OptimisticRetryExecutor(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.balance.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${paymybuddy.balance.optimistic.base-backoff-ms:5}") long baseBackoffMillis,
+            @Value("${paymybuddy.balance.optimistic.max-backoff-ms:100}") long maxBackoffMillis) {
+        if (maxAttempts < 1 || baseBackoffMillis < 0 || maxBackoffMillis < baseBackoffMillis) {
+            throw new IllegalArgumentException("Politique de reprise invalide");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Exécute une opération dans une transaction, en la rejouant en cas de conflit de version.
+     *
+     * @param operation nom de l'opération, utilisé comme étiquette des métriques
+     * @param action l'opération à exécuter
+     * @param <T> le type du résultat
+     * @return le résultat de l'opération
+     * @throws OptimisticLockingFailureException si le conflit persiste après la dernière tentative
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        Counter attempts = counter("paymybuddy.balance.optimistic.attempts", operation,
+                "Tentatives d'écriture de solde");
+        Counter conflicts = counter("paymybuddy.balance.optimistic.conflicts", operation,
+                "Tentatives d'écriture de solde en conflit de version");
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            attempts.increment();
+            return action.get();
+        }
+
+        int attempt = 1;
+        while (true) {
+            attempts.increment();
+            try {
+                T result = transactionTemplate.execute(status -> action.get());
+                recordRetries(operation, attempt - 1);
+                return result;
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    recordRetries(operation, attempt - 1);
+                    counter("paymybuddy.balance.optimistic.exhausted", operation,
+                            "Écritures de solde abandonnées après la dernière tentative").increment();
+                    logger.warn("Conflit de version persistant sur l'opération {} après {} tentatives", operation, attempt);
+                    throw e instanceof OptimisticLockingFailureException
+                            ? (OptimisticLockingFailureException) e
+                            : new OptimisticLockingFailureException(e.getMessage(), e);
+                }
+                logger.debug("Conflit de version sur l'opération {} (tentative {}), nouvelle tentative", operation, attempt);
+                pause(attempt);
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Attend avant une reprise : durée aléatoire entre zéro et une borne qui double à chaque tentative.
+     *
+     * @param attempt numéro de la tentative qui vient d'échouer
+     */
+    private void pause(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente avant une nouvelle tentative interrompue", e);
+        }
+    }
+
+    private void recordRetries(String operation, int retries) {
+        DistributionSummary.builder("paymybuddy.balance.optimistic.retries")
+                .description("Nombre de reprises par écriture de solde")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(retries);
+    }
+
+    private Counter counter(String name, String operation, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
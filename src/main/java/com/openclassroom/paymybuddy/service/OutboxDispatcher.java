@@ -0,0 +1,233 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tâche de fond diffusant les événements de la table outbox_event aux consommateurs
+ * ({@link TransferEventListener}) par lots, dans l'ordre d'écriture.
+ * Un événement n'est acquitté qu'après avoir été traité par tous les consommateurs : en cas d'échec,
+ * ou si l'application s'arrête avant l'acquittement, il est de nouveau diffusé (au moins une fois).
+ * Après {@code max-attempts} échecs, l'événement n'est plus proposé et reste en table pour analyse.
+ */
+@Component
+public class OutboxDispatcher {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    /**
+     * Service gérant la table outbox_event.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * Consommateurs des événements de transfert.
+     */
+    private final ObjectProvider<TransferEventListener> transferEventListeners;
+
+    /**
+     * Nombre maximal d'événements lus à chaque lot.
+     */
+    private final int batchSize;
+
+    /**
+     * Nombre d'échecs au-delà duquel un événement n'est plus diffusé.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Durée de conservation des événements diffusés.
+     */
+    private final Duration retention;
+
+    /**
+     * Date d'écriture du plus ancien événement en attente lors du dernier passage, ou null si aucun.
+     */
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    /**
+     * Nombre d'événements diffusés à tous les consommateurs.
+     */
+    private final Counter deliveredEvents;
+
+    /**
+     * Nombre de tentatives de diffusion ayant échoué.
+     */
+    private final Counter failedDeliveries;
+
+    /**
+     * Nombre d'événements abandonnés après avoir épuisé leurs tentatives.
+     */
+    private final Counter abandonedEvents;
+
+    /**
+     * Constructeur pour injecter les dépendances et enregistrer les métriques.
+     *
+     * @param outboxService Service gérant la table outbox_event
+     * @param transferEventListeners Consommateurs des événements de transfert
+     * @param meterRegistry Registre des métriques
+     * @param batchSize Nombre maximal d'événements lus à chaque lot
+     * @param maxAttempts Nombre d'échecs au-delà duquel un événement n'est plus diffusé
+     * @param retentionHours Durée de conservation des événements diffusés, en heures
+     */
+    public OutboxDispatcher(
+            OutboxService outboxService,
+            ObjectProvider<TransferEventListener> transferEventListeners,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.outbox.batch-size:100}") int batchSize,
+            @Value("${paymybuddy.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${paymybuddy.outbox.retention-hours:24}") long retentionHours) {
+        if (batchSize < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("La taille des lots et le nombre de tentatives doivent être strictement positifs");
+        }
+        this.outboxService = outboxService;
+        this.transferEventListeners = transferEventListeners;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+
+        TimeGauge.builder("paymybuddy.outbox.lag", this, TimeUnit.MILLISECONDS, OutboxDispatcher::getLagMillis)
+                .description("Ancienneté du plus ancien événement en attente de diffusion")
+                .register(meterRegistry);
+        this.deliveredEvents = Counter.builder("paymybuddy.outbox.delivered")
+                .description("Événements diffusés à tous les consommateurs")
+                .register(meterRegistry);
+        this.failedDeliveries = Counter.builder("paymybuddy.outbox.failures")
+                .description("Tentatives de diffusion ayant échoué")
+                .register(meterRegistry);
+        this.abandonedEvents = Counter.builder("paymybuddy.outbox.abandoned")
+                .description("Événements abandonnés après avoir épuisé leurs tentatives")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Diffuse les événements en attente, lot après lot, tant que les lots sont complets et sans échec.
+     * Un lot contenant un échec interrompt le passage : l'événement sera rejoué au passage suivant.
+     */
+    @Scheduled(fixedDelayString = "${paymybuddy.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        try {
+            while (dispatchBatch()) {
+                // Lot complet : d'autres événements sont probablement en attente
+            }
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de la lecture des événements à diffuser", e);
+        }
+    }
+
+    /**
+     * Diffuse un lot d'événements en attente puis acquitte ceux traités par tous les consommateurs.
+     *
+     * @return true si le lot était complet et entièrement diffusé
+     */
+    boolean dispatchBatch() {
+        List<OutboxEvent> events = outboxService.findPending(maxAttempts, batchSize);
+        if (events.isEmpty()) {
+            oldestPending.set(null);
+            return false;
+        }
+        oldestPending.set(events.get(0).getCreatedAt());
+
+        List<TransferEventListener> listeners = transferEventListeners.orderedStream().toList();
+        List<Long> deliveredIds = new ArrayList<>(events.size());
+        int failures = 0;
+        for (OutboxEvent event : events) {
+            try {
+                deliver(event, listeners);
+                deliveredIds.add(event.getId());
+            } catch (RuntimeException e) {
+                failures++;
+                handleFailure(event, e);
+            }
+        }
+
+        outboxService.markDelivered(deliveredIds);
+        deliveredEvents.increment(deliveredIds.size());
+
+        boolean more = failures == 0 && events.size() == batchSize;
+        if (failures == 0 && !more) {
+            oldestPending.set(null);
+        }
+        return more;
+    }
+
+    /**
+     * Supprime périodiquement les événements diffusés depuis plus longtemps que la durée de conservation.
+     */
+    @Scheduled(cron = "${paymybuddy.outbox.purge-cron:0 15 * * * *}")
+    public void purgeDelivered() {
+        try {
+            int purged = outboxService.purgeDeliveredBefore(LocalDateTime.now().minus(retention));
+            if (purged > 0) {
+                logger.info("{} événement(s) diffusé(s) supprimé(s) de la table outbox_event", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de la purge des événements diffusés", e);
+        }
+    }
+
+    /**
+     * Retourne l'ancienneté du plus ancien événement en attente, relevé lors du dernier passage.
+     * La valeur continue de croître si la diffusion est bloquée ou si la tâche ne s'exécute plus.
+     *
+     * @return l'ancienneté en millisecondes, 0 si aucun événement n'est en attente
+     */
+    public double getLagMillis() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * Transmet un événement à chacun des consommateurs concernés.
+     *
+     * @param event l'événement à diffuser
+     * @param listeners les consommateurs des événements de transfert
+     */
+    private void deliver(OutboxEvent event, List<TransferEventListener> listeners) {
+        if (!OutboxService.TRANSFER_COMPLETED.equals(event.getEventType())) {
+            throw new IllegalStateException("Type d'événement inconnu : " + event.getEventType());
+        }
+        TransferCompletedEventDTO transfer = outboxService.readTransferCompleted(event);
+        for (TransferEventListener listener : listeners) {
+            listener.onTransferCompleted(transfer);
+        }
+    }
+
+    /**
+     * Enregistre l'échec de la diffusion d'un événement.
+     *
+     * @param event l'événement non diffusé
+     * @param error l'erreur rencontrée
+     */
+    private void handleFailure(OutboxEvent event, RuntimeException error) {
+        failedDeliveries.increment();
+        int attempts = event.getAttempts() + 1;
+        outboxService.recordFailure(event.getId(), error.toString());
+        if (attempts >= maxAttempts) {
+            abandonedEvents.increment();
+            logger.error("Événement {} ({}) abandonné après {} tentatives", event.getId(), event.getEventType(), attempts, error);
+        } else {
+            logger.warn("Échec de la diffusion de l'événement {} (tentative {}/{}) : {}",
+                    event.getId(), attempts, maxAttempts, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.repository.OutboxEventRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service gérant la table outbox_event : les événements métier y sont écrits dans la transaction
+ * qui produit le changement d'état, puis lus et acquittés par {@link OutboxDispatcher}.
+ * La transaction de transfert ne supporte ainsi que le coût d'une insertion, quel que soit
+ * le nombre de consommateurs.
+ */
+@Service
+public class OutboxService {
+
+    /**
+     * Type des événements « transfert effectué ».
+     */
+    public static final String TRANSFER_COMPLETED = "TransferCompleted";
+
+    /**
+     * Longueur maximale du message d'erreur conservé pour un événement.
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * Repository des événements à diffuser.
+     */
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Sérialiseur JSON du contenu des événements.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param outboxEventRepository Repository des événements à diffuser
+     * @param objectMapper Sérialiseur JSON
+     */
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Enregistre l'événement « transfert effectué » d'une transaction.
+     * Doit être appelée dans la transaction qui enregistre le transfert.
+     *
+     * @param transaction la transaction enregistrée
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransferCompleted(Transaction transaction) {
+        recordTransfersCompleted(List.of(transaction));
+    }
+
+    /**
+     * Enregistre les événements « transfert effectué » d'un lot de transactions en une insertion JDBC batch.
+     * Doit être appelée dans la transaction qui enregistre les transferts.
+     *
+     * @param transactions les transactions enregistrées
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfersCompleted(List<Transaction> transactions) {
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            LocalDateTime createdAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+            TransferCompletedEventDTO event = new TransferCompletedEventDTO(transaction.getId(),
+                    transaction.getSender().getId(), transaction.getReceiver().getId(),
+                    transaction.getAmount(), transaction.getDescription(), createdAt);
+            events.add(new OutboxEvent(TRANSFER_COMPLETED, transaction.getId(), toJson(event), LocalDateTime.now()));
+        }
+        outboxEventRepository.insertAll(events);
+    }
+
+    /**
+     * Récupère les plus anciens événements en attente de diffusion.
+     *
+     * @param maxAttempts nombre de tentatives au-delà duquel un événement n'est plus proposé
+     * @param batchSize nombre maximal d'événements à récupérer
+     * @return les événements en attente, par ordre d'écriture
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxEvent> findPending(int maxAttempts, int batchSize) {
+        return outboxEventRepository.findPending(maxAttempts, PageRequest.of(0, batchSize));
+    }
+
+    /**
+     * Lit le contenu d'un événement « transfert effectué ».
+     *
+     * @param event l'événement enregistré
+     * @return le transfert décrit par l'événement
+     */
+    public TransferCompletedEventDTO readTransferCompleted(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), TransferCompletedEventDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Contenu illisible pour l'événement " + event.getId(), e);
+        }
+    }
+
+    /**
+     * Acquitte des événements diffusés à tous les consommateurs.
+     *
+     * @param ids identifiants des événements
+     */
+    @Transactional
+    public void markDelivered(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markDelivered(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Enregistre l'échec d'une tentative de diffusion : l'événement sera de nouveau proposé.
+     *
+     * @param id identifiant de l'événement
+     * @param error message de l'erreur
+     */
+    @Transactional
+    public void recordFailure(Long id, String error) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        outboxEventRepository.recordFailure(id, message);
+    }
+
+    /**
+     * Supprime les événements diffusés avant une date donnée.
+     *
+     * @param before date limite
+     * @return le nombre d'événements supprimés
+     */
+    @Transactional
+    public int purgeDeliveredBefore(LocalDateTime before) {
+        return outboxEventRepository.deleteDeliveredBefore(before);
+    }
+
+    /**
+     * Sérialise le contenu d'un événement.
+     *
+     * @param event le contenu de l'événement
+     * @return le contenu au format JSON
+     */
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser l'événement", e);
+        }
+    }
+}
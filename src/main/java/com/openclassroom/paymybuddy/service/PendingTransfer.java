@@ -0,0 +1,126 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transfert placé dans la file d'un moteur de transferts par lots ({@link TransferSequencer},
+ * {@link TransferGroupCommitter}) et attendu par son demandeur.
+ * Le thread du moteur prend le transfert avant de l'appliquer, le demandeur l'annule s'il est encore en file
+ * à l'expiration du délai d'attente : le premier des deux l'emporte, si bien qu'un transfert annulé
+ * n'est jamais appliqué et qu'un transfert pris donne toujours son résultat réel à son demandeur.
+ */
+final class PendingTransfer {
+
+    /**
+     * Le transfert à appliquer.
+     */
+    private final TransferDTO transfer;
+
+    /**
+     * Le résultat du transfert, complété par le thread du moteur.
+     */
+    private final CompletableFuture<BatchTransferResultDTO> result = new CompletableFuture<>();
+
+    /**
+     * Indique si le transfert a été pris par le thread du moteur ou annulé par son demandeur.
+     */
+    private final AtomicBoolean taken = new AtomicBoolean();
+
+    /**
+     * Constructeur avec paramètres.
+     *
+     * @param transfer le transfert à appliquer
+     */
+    PendingTransfer(TransferDTO transfer) {
+        this.transfer = transfer;
+    }
+
+    /**
+     * Retourne le transfert à appliquer.
+     *
+     * @return le transfert
+     */
+    TransferDTO getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * Réserve le transfert pour son application par le thread du moteur.
+     *
+     * @return true si le transfert doit être appliqué, false s'il a été annulé
+     */
+    boolean start() {
+        return taken.compareAndSet(false, true);
+    }
+
+    /**
+     * Transmet au demandeur le résultat de son transfert.
+     *
+     * @param transferResult le résultat du transfert
+     */
+    void complete(BatchTransferResultDTO transferResult) {
+        result.complete(transferResult);
+    }
+
+    /**
+     * Transmet au demandeur l'erreur survenue lors de l'application de son transfert.
+     *
+     * @param error l'erreur
+     */
+    void fail(Throwable error) {
+        result.completeExceptionally(error);
+    }
+
+    /**
+     * Attend le résultat du transfert. Si le délai expire alors que le transfert est encore en file, il est annulé ;
+     * s'il a déjà été pris par le thread du moteur, la fin de son lot est attendue.
+     *
+     * @param timeoutMillis durée maximale d'attente, en millisecondes
+     * @param cancelledTransfers compteur des transferts annulés
+     * @return le résultat du transfert
+     * @throws IllegalStateException si le transfert a été annulé ou si l'attente a été interrompue ;
+     *                               dans ces deux cas, le transfert n'a pas été effectué
+     */
+    BatchTransferResultDTO await(long timeoutMillis, Counter cancelledTransfers) {
+        try {
+            try {
+                return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (cancel()) {
+                    cancelledTransfers.increment();
+                    throw new IllegalStateException("Le transfert n'a pas pu être traité à temps et a été annulé, veuillez réessayer", e);
+                }
+                // Le thread du moteur a déjà pris le transfert : son lot se termine, avec ou sans succès
+                return result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (cancel()) {
+                cancelledTransfers.increment();
+            }
+            throw new IllegalStateException("Attente du transfert interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Erreur lors de l'application du transfert", e.getCause());
+        }
+    }
+
+    /**
+     * Annule le transfert s'il n'a pas encore été pris par le thread du moteur.
+     *
+     * @return true si le transfert est annulé et ne sera jamais appliqué
+     */
+    private boolean cancel() {
+        return taken.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassroom.paymybuddy.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Tâche de fond lançant chaque nuit le rapprochement des soldes.
+ * L'exécution porte le nom du jour : relancée le même jour, elle reprend les plages non terminées.
+ */
+@Component
+public class ReconciliationJob {
+
+    /**
+     * Service de rapprochement des soldes.
+     */
+    private final ReconciliationService reconciliationService;
+
+    /**
+     * Constructeur pour injecter le service de rapprochement.
+     *
+     * @param reconciliationService Service de rapprochement des soldes
+     */
+    public ReconciliationJob(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    /**
+     * Lance le rapprochement du jour.
+     */
+    @Scheduled(cron = "${paymybuddy.reconciliation.cron:0 30 2 * * *}")
+    public void runNightly() {
+        reconciliationService.reconcile("reconciliation-" + LocalDate.now());
+    }
+}
@@ -0,0 +1,294 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.ReconciliationDiscrepancyDTO;
+import com.openclassroom.paymybuddy.dto.ReconciliationReportDTO;
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.util.IdRange;
+import com.openclassroom.paymybuddy.util.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service de rapprochement des soldes : vérifie que le solde enregistré de chaque utilisateur
+ * (app_user.balance augmenté des sous-soldes balance_slot pas encore consolidés) est égal aux dépôts
+ * et retraits journalisés, augmentés des montants reçus et diminués des montants envoyés dans la table
+ * transaction.
+ * <p>
+ * Les utilisateurs sont découpés en plages d'identifiants traitées en parallèle. Pour chaque plage,
+ * les lignes sont lues en flux (JDBC, taille de lot bornée) dans une transaction en lecture seule,
+ * et les soldes attendus sont agrégés en centimes dans une table de hachage de {@code long} :
+ * la mémoire utilisée dépend de la taille des plages et du parallélisme, pas du volume de l'historique.
+ * Chaque plage terminée est enregistrée dans job_checkpoint ; une exécution relancée sous le même nom
+ * ne traite que les plages restantes.
+ */
+@Service
+public class ReconciliationService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+
+    /**
+     * Bornes des identifiants d'utilisateurs.
+     */
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM app_user";
+
+    /**
+     * Dépôts et retraits journalisés (écritures sans transaction) des utilisateurs d'une plage,
+     * écritures d'ouverture des comptes antérieurs au journal comprises.
+     */
+    private static final String ADJUSTMENTS_SQL =
+            "SELECT user_id, entry_type, amount FROM ledger_entry "
+                    + "WHERE transaction_id IS NULL AND user_id BETWEEN ? AND ? ORDER BY id";
+
+    /**
+     * Transactions envoyées par les utilisateurs d'une plage.
+     */
+    private static final String SENT_SQL =
+            "SELECT sender_id, amount FROM transaction WHERE sender_id BETWEEN ? AND ? ORDER BY id";
+
+    /**
+     * Transactions reçues par les utilisateurs d'une plage.
+     */
+    private static final String RECEIVED_SQL =
+            "SELECT receiver_id, amount FROM transaction WHERE receiver_id BETWEEN ? AND ? ORDER BY id";
+
+    /**
+     * Montants encore en attente dans les sous-soldes des utilisateurs d'une plage.
+     */
+    private static final String SLOTS_SQL =
+            "SELECT user_id, SUM(amount) FROM balance_slot WHERE user_id BETWEEN ? AND ? GROUP BY user_id";
+
+    /**
+     * Soldes principaux enregistrés des utilisateurs d'une plage.
+     */
+    private static final String BALANCES_SQL =
+            "SELECT id, balance FROM app_user WHERE id BETWEEN ? AND ? ORDER BY id";
+
+    /**
+     * Template JDBC dédié, configuré avec la taille de lot de lecture.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction en lecture seule et en lecture répétable : les lectures d'une plage voient un même état de la base.
+     */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Repository des points de reprise.
+     */
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * Nombre d'identifiants d'utilisateurs par plage.
+     */
+    @Value("${paymybuddy.reconciliation.partition-size:100000}")
+    private long partitionSize = 100_000;
+
+    /**
+     * Nombre de plages traitées en parallèle.
+     */
+    @Value("${paymybuddy.reconciliation.parallelism:4}")
+    private int parallelism = 4;
+
+    /**
+     * Nombre maximal d'écarts détaillés dans le rapport.
+     */
+    @Value("${paymybuddy.reconciliation.max-reported-discrepancies:1000}")
+    private int maxReportedDiscrepancies = 1000;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param dataSource Source de données
+     * @param transactionManager Gestionnaire de transactions
+     * @param jobCheckpointRepository Repository des points de reprise
+     * @param fetchSize Nombre de lignes lues par aller-retour avec la base
+     */
+    public ReconciliationService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                 JobCheckpointRepository jobCheckpointRepository,
+                                 @Value("${paymybuddy.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    /**
+     * Rapproche les soldes de tous les utilisateurs.
+     *
+     * @param jobName le nom de l'exécution ; une exécution relancée sous le même nom reprend là où elle s'est arrêtée
+     * @return le rapport de l'exécution
+     */
+    public ReconciliationReportDTO reconcile(String jobName) {
+        List<ReconciliationDiscrepancyDTO> discrepancies = new ArrayList<>();
+        Long[] bounds = jdbcTemplate.queryForObject(USER_ID_BOUNDS_SQL,
+                (rs, rowNum) -> new Long[] {rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return new ReconciliationReportDTO(jobName, 0, 0, 0, 0, 0, discrepancies);
+        }
+
+        Set<Long> completedStarts = jobCheckpointRepository.findByJobName(jobName).stream()
+                .filter(JobCheckpoint::isCompleted)
+                .map(JobCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+        List<IdRange> ranges = IdRange.split(bounds[0], bounds[1], partitionSize);
+        List<IdRange> pending = ranges.stream()
+                .filter(range -> !completedStarts.contains(range.getStart()))
+                .collect(Collectors.toList());
+        int skipped = ranges.size() - pending.size();
+        logger.info("Rapprochement {} : {} plage(s) à traiter, {} déjà terminée(s)", jobName, pending.size(), skipped);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, pending.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reconciliation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        try {
+            for (IdRange range : pending) {
+                futures.add(executor.submit(() -> reconcilePartition(jobName, range)));
+            }
+
+            int processed = 0;
+            int failed = 0;
+            long checkedUsers = 0;
+            long discrepancyCount = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    PartitionResult result = futures.get(i).get();
+                    processed++;
+                    checkedUsers += result.checkedUsers;
+                    discrepancyCount += result.discrepancyCount;
+                    for (ReconciliationDiscrepancyDTO discrepancy : result.discrepancies) {
+                        if (discrepancies.size() < maxReportedDiscrepancies) {
+                            discrepancies.add(discrepancy);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error("Rapprochement {} : échec de la plage {}", jobName, pending.get(i), e.getCause());
+                }
+            }
+
+            logger.info("Rapprochement {} terminé : {} utilisateur(s) vérifié(s), {} écart(s), {} plage(s) en échec",
+                    jobName, checkedUsers, discrepancyCount, failed);
+            return new ReconciliationReportDTO(jobName, processed, skipped, failed, checkedUsers, discrepancyCount,
+                    discrepancies);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rapprochement interrompu", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rapproche les soldes des utilisateurs d'une plage puis enregistre son point de reprise.
+     *
+     * @param jobName le nom de l'exécution
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le résultat de la plage
+     */
+    private PartitionResult reconcilePartition(String jobName, IdRange range) {
+        PartitionResult result = readOnlyTransaction.execute(status -> computePartition(range));
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndRangeStart(jobName, range.getStart())
+                .orElseGet(() -> new JobCheckpoint(jobName, range.getStart(), range.getEnd()));
+        checkpoint.setRangeEnd(range.getEnd());
+        checkpoint.setLastProcessedId(range.getEnd());
+        checkpoint.setItemCount(result.checkedUsers);
+        checkpoint.setErrorCount(result.discrepancyCount);
+        checkpoint.setCompleted(true);
+        jobCheckpointRepository.save(checkpoint);
+        return result;
+    }
+
+    /**
+     * Calcule les soldes attendus des utilisateurs d'une plage et les compare aux soldes enregistrés,
+     * sous-soldes compris. Toutes les lectures partagent l'instantané de la transaction en cours.
+     *
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le résultat de la plage
+     */
+    private PartitionResult computePartition(IdRange range) {
+        LongLongHashMap expectedCents = new LongLongHashMap((int) Math.min(range.size(), 1 << 20));
+        long start = range.getStart();
+        long end = range.getEnd();
+
+        jdbcTemplate.query(ADJUSTMENTS_SQL, rs -> {
+            long cents = toCents(rs.getBigDecimal(3));
+            expectedCents.addTo(rs.getLong(1), "DEBIT".equals(rs.getString(2)) ? -cents : cents);
+        }, start, end);
+        jdbcTemplate.query(SENT_SQL, rs -> {
+            expectedCents.addTo(rs.getLong(1), -toCents(rs.getBigDecimal(2)));
+        }, start, end);
+        jdbcTemplate.query(RECEIVED_SQL, rs -> {
+            expectedCents.addTo(rs.getLong(1), toCents(rs.getBigDecimal(2)));
+        }, start, end);
+
+        LongLongHashMap slotCents = new LongLongHashMap();
+        jdbcTemplate.query(SLOTS_SQL, rs -> {
+            slotCents.put(rs.getLong(1), toCents(rs.getBigDecimal(2)));
+        }, start, end);
+
+        PartitionResult result = new PartitionResult();
+        jdbcTemplate.query(BALANCES_SQL, rs -> {
+            long userId = rs.getLong(1);
+            long actual = toCents(rs.getBigDecimal(2)) + slotCents.getOrDefault(userId, 0L);
+            long expected = expectedCents.getOrDefault(userId, 0L);
+            result.checkedUsers++;
+            if (actual != expected) {
+                result.discrepancyCount++;
+                logger.warn("Écart de solde pour l'utilisateur {} : attendu {}, enregistré {}",
+                        userId, BigDecimal.valueOf(expected, 2), BigDecimal.valueOf(actual, 2));
+                if (result.discrepancies.size() < maxReportedDiscrepancies) {
+                    result.discrepancies.add(new ReconciliationDiscrepancyDTO(userId,
+                            BigDecimal.valueOf(expected, 2), BigDecimal.valueOf(actual, 2)));
+                }
+            }
+        }, start, end);
+        return result;
+    }
+
+    /**
+     * Convertit un montant à deux décimales en centimes.
+     */
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Résultat du rapprochement d'une plage.
+     */
+    private static class PartitionResult {
+        private long checkedUsers;
+        private long discrepancyCount;
+        private final List<ReconciliationDiscrepancyDTO> discrepancies = new ArrayList<>();
+    }
+}
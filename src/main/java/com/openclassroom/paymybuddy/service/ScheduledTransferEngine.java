@@ -0,0 +1,524 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import com.openclassroom.paymybuddy.repository.ScheduledTransferRepository;
+import com.openclassroom.paymybuddy.util.HierarchicalTimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur d'exécution des transferts programmés.
+ * Les échéances sont tenues en mémoire dans une roue temporelle hiérarchique alimentée par fenêtres
+ * de temps : seules les programmations dont l'échéance précède la fin de la fenêtre chargée sont lues,
+ * par morceaux et en suivant l'index sur la date d'échéance. Aucun tick ne parcourt la table.
+ * Le premier chargement part de l'origine des temps : les occurrences manquées pendant un arrêt
+ * de l'application sont donc rattrapées au démarrage, une par une et dans l'ordre.
+ * Les occurrences échues sont exécutées par lots via {@link TransactionService#createTransfer},
+ * dans la transaction qui fait avancer la programmation. Une occurrence refusée est sautée ; si l'un
+ * des comptes n'existe plus, la programmation est en outre désactivée. Une occurrence en erreur technique
+ * est retentée, puis abandonnée comme un refus après un nombre maximal de tentatives.
+ */
+@Component
+public class ScheduledTransferEngine {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferEngine.class);
+
+    /**
+     * Borne inférieure du premier chargement, antérieure à toute échéance.
+     */
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Longueur maximale du motif de refus enregistré.
+     */
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    /**
+     * Repository des transferts programmés.
+     */
+    private final ScheduledTransferRepository scheduledTransferRepository;
+
+    /**
+     * Service exécutant les transferts.
+     */
+    private final TransactionService transactionService;
+
+    /**
+     * Modèle de transaction englobant l'avancement d'une programmation et son transfert.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Durée de la fenêtre de temps chargée en mémoire.
+     */
+    private final Duration window;
+
+    /**
+     * Nombre de programmations lues par requête lors du chargement d'une fenêtre.
+     */
+    private final int chunkSize;
+
+    /**
+     * Nombre d'occurrences exécutées par lot.
+     */
+    private final int batchSize;
+
+    /**
+     * Délai avant une nouvelle tentative après une erreur technique, en millisecondes.
+     */
+    private final long retryDelayMillis;
+
+    /**
+     * Nombre maximal de tentatives d'une occurrence en erreur technique avant son abandon.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Threads exécutant les lots d'occurrences.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Échéances chargées, accédées uniquement sous le verrou de l'instance.
+     */
+    private final HierarchicalTimerWheel<ScheduledRun> wheel;
+
+    /**
+     * Programmations créées depuis le dernier tick, à ajouter à la roue si elles tombent dans la fenêtre chargée.
+     */
+    private final Queue<ScheduledRun> registrations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Fin (exclue) de la fenêtre déjà chargée, ou null avant le premier chargement.
+     */
+    private LocalDateTime loadedUntil;
+
+    /**
+     * Nombre d'occurrences effectuées.
+     */
+    private final Counter executedRuns;
+
+    /**
+     * Nombre d'occurrences refusées (solde insuffisant, connexion supprimée...).
+     */
+    private final Counter refusedRuns;
+
+    /**
+     * Nombre d'occurrences reportées après une erreur technique.
+     */
+    private final Counter retriedRuns;
+
+    /**
+     * Nombre d'occurrences abandonnées après le nombre maximal de tentatives.
+     */
+    private final Counter abandonedRuns;
+
+    /**
+     * Constructeur pour injecter les dépendances, créer la roue et enregistrer les métriques.
+     *
+     * @param scheduledTransferRepository Repository des transferts programmés
+     * @param transactionService Service exécutant les transferts
+     * @param transactionManager Gestionnaire de transactions
+     * @param meterRegistry Registre des métriques
+     * @param tickMillis Durée d'un tick de la roue, en millisecondes
+     * @param windowMinutes Durée de la fenêtre chargée en mémoire, en minutes
+     * @param chunkSize Nombre de programmations lues par requête
+     * @param batchSize Nombre d'occurrences exécutées par lot
+     * @param workers Nombre de threads exécutant les lots
+     * @param retryDelayMillis Délai avant une nouvelle tentative après une erreur technique, en millisecondes
+     * @param maxAttempts Nombre maximal de tentatives d'une occurrence en erreur technique
+     */
+    public ScheduledTransferEngine(
+            ScheduledTransferRepository scheduledTransferRepository,
+            TransactionService transactionService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.scheduled-transfer.tick-ms:1000}") long tickMillis,
+            @Value("${paymybuddy.scheduled-transfer.window-minutes:60}") long windowMinutes,
+            @Value("${paymybuddy.scheduled-transfer.chunk-size:1000}") int chunkSize,
+            @Value("${paymybuddy.scheduled-transfer.batch-size:100}") int batchSize,
+            @Value("${paymybuddy.scheduled-transfer.workers:4}") int workers,
+            @Value("${paymybuddy.scheduled-transfer.retry-delay-ms:60000}") long retryDelayMillis,
+            @Value("${paymybuddy.scheduled-transfer.max-attempts:5}") int maxAttempts) {
+        if (windowMinutes < 1 || chunkSize < 1 || batchSize < 1 || workers < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("La fenêtre, la taille des morceaux, des lots, le nombre de threads "
+                    + "et le nombre de tentatives doivent être positifs");
+        }
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxAttempts = maxAttempts;
+        this.wheel = new HierarchicalTimerWheel<>(tickMillis, 6, 4, System.currentTimeMillis());
+        if (window.toMillis() + retryDelayMillis >= wheel.getHorizonMillis()) {
+            throw new IllegalArgumentException("La fenêtre chargée dépasse l'horizon de la roue temporelle");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-transfer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("paymybuddy.scheduled-transfer.pending", wheel, HierarchicalTimerWheel::size)
+                .description("Occurrences chargées en mémoire en attente de leur échéance")
+                .register(meterRegistry);
+        this.executedRuns = Counter.builder("paymybuddy.scheduled-transfer.executed")
+                .description("Occurrences de transferts programmés effectuées")
+                .register(meterRegistry);
+        this.refusedRuns = Counter.builder("paymybuddy.scheduled-transfer.refused")
+                .description("Occurrences de transferts programmés refusées")
+                .register(meterRegistry);
+        this.retriedRuns = Counter.builder("paymybuddy.scheduled-transfer.retried")
+                .description("Occurrences reportées après une erreur technique")
+                .register(meterRegistry);
+        this.abandonedRuns = Counter.builder("paymybuddy.scheduled-transfer.abandoned")
+                .description("Occurrences abandonnées après le nombre maximal de tentatives")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Signale une programmation créée : si sa première échéance tombe dans la fenêtre déjà chargée,
+     * elle est ajoutée à la roue au prochain tick ; sinon elle sera lue avec sa fenêtre.
+     * Doit être appelée après la validation de la transaction qui l'enregistre.
+     *
+     * @param scheduledTransfer la programmation enregistrée
+     */
+    public void register(ScheduledTransfer scheduledTransfer) {
+        if (scheduledTransfer.isActive()) {
+            registrations.add(new ScheduledRun(scheduledTransfer.getId(), scheduledTransfer.getNextRunAt()));
+        }
+    }
+
+    /**
+     * Charge la fenêtre suivante si nécessaire, fait avancer la roue et exécute les occurrences échues.
+     */
+    @Scheduled(fixedDelayString = "${paymybuddy.scheduled-transfer.tick-ms:1000}")
+    public void tick() {
+        try {
+            tick(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors du traitement des transferts programmés", e);
+        }
+    }
+
+    /**
+     * Traite les échéances jusqu'à l'instant donné.
+     *
+     * @param now l'instant courant
+     */
+    synchronized void tick(LocalDateTime now) {
+        loadWindowIfNeeded(now);
+
+        ScheduledRun registered;
+        while ((registered = registrations.poll()) != null) {
+            if (registered.runAt.isBefore(loadedUntil)) {
+                wheel.schedule(toMillis(registered.runAt), registered);
+            }
+        }
+
+        List<ScheduledRun> due = wheel.advance(toMillis(now));
+        if (!due.isEmpty()) {
+            executeInBatches(due, now);
+        }
+    }
+
+    /**
+     * Charge dans la roue les échéances de la fenêtre suivante lorsque la moitié de la fenêtre courante est écoulée.
+     * Le premier chargement inclut toutes les échéances passées non traitées.
+     *
+     * @param now l'instant courant
+     */
+    private void loadWindowIfNeeded(LocalDateTime now) {
+        if (loadedUntil != null && loadedUntil.isAfter(now.plus(window.dividedBy(2)))) {
+            return;
+        }
+        LocalDateTime until = now.plus(window);
+        LocalDateTime afterRunAt = loadedUntil != null ? loadedUntil : EARLIEST;
+        long afterId = 0;
+        int loaded = 0;
+        List<ScheduledTransfer> chunk;
+        do {
+            chunk = scheduledTransferRepository.findActiveDueChunk(afterRunAt, afterId, until, PageRequest.of(0, chunkSize));
+            for (ScheduledTransfer scheduledTransfer : chunk) {
+                ScheduledRun run = new ScheduledRun(scheduledTransfer.getId(), scheduledTransfer.getNextRunAt());
+                wheel.schedule(toMillis(run.runAt), run);
+            }
+            loaded += chunk.size();
+            if (!chunk.isEmpty()) {
+                ScheduledTransfer last = chunk.get(chunk.size() - 1);
+                afterRunAt = last.getNextRunAt();
+                afterId = last.getId();
+            }
+        } while (chunk.size() == chunkSize);
+
+        loadedUntil = until;
+        if (loaded > 0) {
+            logger.info("{} échéance(s) de transferts programmés chargée(s) jusqu'au {}", loaded, until);
+        }
+    }
+
+    /**
+     * Exécute les occurrences échues par lots en parallèle, puis replace dans la roue les occurrences
+     * suivantes qui tombent dans la fenêtre chargée et les occurrences à retenter.
+     *
+     * @param due les occurrences échues
+     * @param now l'instant courant
+     */
+    private void executeInBatches(List<ScheduledRun> due, LocalDateTime now) {
+        List<Future<List<ScheduledRun>>> futures = new ArrayList<>();
+        for (int start = 0; start < due.size(); start += batchSize) {
+            List<ScheduledRun> batch = due.subList(start, Math.min(start + batchSize, due.size()));
+            futures.add(executor.submit(() -> runBatch(batch)));
+        }
+
+        long retryAt = toMillis(now) + retryDelayMillis;
+        for (Future<List<ScheduledRun>> future : futures) {
+            try {
+                for (ScheduledRun followUp : future.get()) {
+                    if (followUp.attempts > 0) {
+                        wheel.schedule(retryAt, followUp);
+                    } else if (followUp.runAt.isBefore(loadedUntil)) {
+                        wheel.schedule(toMillis(followUp.runAt), followUp);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Exécution des transferts programmés interrompue", e);
+            } catch (ExecutionException e) {
+                logger.error("Erreur inattendue lors de l'exécution d'un lot de transferts programmés", e.getCause());
+            }
+        }
+        logger.info("{} occurrence(s) de transferts programmés traitée(s)", due.size());
+    }
+
+    /**
+     * Exécute un lot d'occurrences, chacune dans sa propre transaction.
+     *
+     * @param batch les occurrences à exécuter
+     * @return les occurrences suivantes et les occurrences à retenter
+     */
+    private List<ScheduledRun> runBatch(List<ScheduledRun> batch) {
+        List<ScheduledRun> followUps = new ArrayList<>();
+        for (ScheduledRun run : batch) {
+            try {
+                ScheduledRun next;
+                try {
+                    next = transactionTemplate.execute(status -> executeOccurrence(run));
+                    executedRuns.increment();
+                } catch (IllegalArgumentException e) {
+                    // Refus métier : l'occurrence est sautée et le motif conservé
+                    logger.warn("Occurrence du {} du transfert programmé {} refusée : {}", run.runAt, run.scheduleId, e.getMessage());
+                    next = transactionTemplate.execute(status -> skipOccurrence(run, e.getMessage(), false));
+                    refusedRuns.increment();
+                } catch (EntityNotFoundException e) {
+                    // Compte disparu : les occurrences suivantes seraient toutes refusées, la programmation est désactivée
+                    logger.warn("Occurrence du {} du transfert programmé {} refusée, programmation désactivée : {}",
+                            run.runAt, run.scheduleId, e.getMessage());
+                    next = transactionTemplate.execute(status -> skipOccurrence(run, e.getMessage(), true));
+                    refusedRuns.increment();
+                }
+                if (next != null) {
+                    followUps.add(next);
+                }
+            } catch (RuntimeException e) {
+                ScheduledRun next = retryOrAbandon(run, e);
+                if (next != null) {
+                    followUps.add(next);
+                }
+            }
+        }
+        return followUps;
+    }
+
+    /**
+     * Reporte une occurrence en erreur technique, ou l'abandonne comme un refus une fois le nombre maximal
+     * de tentatives atteint. Si l'abandon échoue à son tour, l'occurrence est de nouveau reportée.
+     *
+     * @param run l'occurrence en erreur
+     * @param error l'erreur technique
+     * @return l'occurrence à retenter, l'occurrence suivante après un abandon, ou null
+     */
+    private ScheduledRun retryOrAbandon(ScheduledRun run, RuntimeException error) {
+        int attempts = run.attempts + 1;
+        if (attempts < maxAttempts) {
+            logger.error("Erreur lors de l'occurrence du {} du transfert programmé {} (tentative {}/{}), nouvelle tentative dans {} ms",
+                    run.runAt, run.scheduleId, attempts, maxAttempts, retryDelayMillis, error);
+            retriedRuns.increment();
+            return new ScheduledRun(run.scheduleId, run.runAt, attempts);
+        }
+        logger.error("Occurrence du {} du transfert programmé {} abandonnée après {} tentative(s)",
+                run.runAt, run.scheduleId, attempts, error);
+        String reason = "Abandonnée après " + attempts + " tentative(s) : " + error.getMessage();
+        try {
+            ScheduledRun next = transactionTemplate.execute(status -> skipOccurrence(run, reason, false));
+            abandonedRuns.increment();
+            return next;
+        } catch (RuntimeException e) {
+            logger.error("Impossible d'abandonner l'occurrence du {} du transfert programmé {}, nouvelle tentative dans {} ms",
+                    run.runAt, run.scheduleId, retryDelayMillis, e);
+            retriedRuns.increment();
+            return new ScheduledRun(run.scheduleId, run.runAt, attempts);
+        }
+    }
+
+    /**
+     * Réserve une occurrence, fait avancer la programmation et effectue le transfert, dans la transaction courante.
+     *
+     * @param run l'occurrence
+     * @return l'occurrence suivante, ou null si la programmation est terminée ou si l'occurrence avait déjà été traitée
+     */
+    private ScheduledRun executeOccurrence(ScheduledRun run) {
+        ScheduledTransfer scheduledTransfer = claim(run, null, false);
+        if (scheduledTransfer == null) {
+            return null;
+        }
+        transactionService.createTransfer(new TransferDTO(scheduledTransfer.getSenderId(),
+                scheduledTransfer.getReceiverId(), scheduledTransfer.getDescription(), scheduledTransfer.getAmount()));
+        return scheduledTransfer.isActive() ? new ScheduledRun(scheduledTransfer.getId(), scheduledTransfer.getNextRunAt()) : null;
+    }
+
+    /**
+     * Fait avancer la programmation sans effectuer le transfert, en conservant le motif du refus.
+     *
+     * @param run l'occurrence refusée
+     * @param error le motif du refus
+     * @param deactivate true pour désactiver la programmation
+     * @return l'occurrence suivante, ou null si la programmation est terminée ou si l'occurrence avait déjà été traitée
+     */
+    private ScheduledRun skipOccurrence(ScheduledRun run, String error, boolean deactivate) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        ScheduledTransfer scheduledTransfer = claim(run, message, deactivate);
+        return scheduledTransfer != null && scheduledTransfer.isActive()
+                ? new ScheduledRun(scheduledTransfer.getId(), scheduledTransfer.getNextRunAt())
+                : null;
+    }
+
+    /**
+     * Réserve une occurrence si elle est toujours la prochaine échéance d'une programmation active.
+     *
+     * @param run l'occurrence
+     * @param error le motif de refus à enregistrer, ou null
+     * @param deactivate true pour désactiver la programmation
+     * @return la programmation avancée (échéance suivante et état), ou null si l'occurrence n'est plus à traiter
+     */
+    private ScheduledTransfer claim(ScheduledRun run, String error, boolean deactivate) {
+        ScheduledTransfer scheduledTransfer = scheduledTransferRepository.findById(run.scheduleId).orElse(null);
+        if (scheduledTransfer == null || !scheduledTransfer.isActive() || !run.runAt.equals(scheduledTransfer.getNextRunAt())) {
+            return null;
+        }
+        LocalDateTime nextRunAt = scheduledTransfer.getFrequency()
+                .occurrence(scheduledTransfer.getStartAt(), scheduledTransfer.getRunCount() + 1);
+        boolean active = !deactivate
+                && (scheduledTransfer.getEndAt() == null || !nextRunAt.isAfter(scheduledTransfer.getEndAt()));
+        if (scheduledTransferRepository.advance(run.scheduleId, run.runAt, nextRunAt, active, error) == 0) {
+            return null;
+        }
+        scheduledTransfer.setNextRunAt(nextRunAt);
+        scheduledTransfer.setActive(active);
+        return scheduledTransfer;
+    }
+
+    /**
+     * Convertit une date locale en millisecondes depuis l'origine des temps.
+     *
+     * @param dateTime la date
+     * @return le nombre de millisecondes
+     */
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Arrête les threads d'exécution à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Occurrence d'une programmation placée dans la roue.
+     */
+    private static final class ScheduledRun {
+
+        /**
+         * L'identifiant de la programmation.
+         */
+        private final Long scheduleId;
+
+        /**
+         * L'échéance de l'occurrence, telle qu'enregistrée en base.
+         */
+        private final LocalDateTime runAt;
+
+        /**
+         * Nombre de tentatives déjà échouées sur une erreur technique ; une occurrence à retenter en compte au moins une.
+         */
+        private final int attempts;
+
+        /**
+         * Crée une occurrence.
+         *
+         * @param scheduleId l'identifiant de la programmation
+         * @param runAt l'échéance de l'occurrence
+         */
+        private ScheduledRun(Long scheduleId, LocalDateTime runAt) {
+            this(scheduleId, runAt, 0);
+        }
+
+        /**
+         * Crée une occurrence.
+         *
+         * @param scheduleId l'identifiant de la programmation
+         * @param runAt l'échéance de l'occurrence
+         * @param attempts le nombre de tentatives déjà échouées
+         */
+        private ScheduledRun(Long scheduleId, LocalDateTime runAt, int attempts) {
+            this.scheduleId = scheduleId;
+            this.runAt = runAt;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.ScheduledTransferDTO;
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import com.openclassroom.paymybuddy.repository.ScheduledTransferRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service pour gérer les transferts programmés des utilisateurs.
+ * L'exécution des occurrences est assurée par {@link ScheduledTransferEngine}.
+ */
+@Service
+public class ScheduledTransferService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferService.class);
+
+    /**
+     * Repository des transferts programmés.
+     */
+    private final ScheduledTransferRepository scheduledTransferRepository;
+
+    /**
+     * Cache du graphe des connexions, utilisé pour autoriser les programmations.
+     */
+    private final ConnectionGraphCache connectionGraphCache;
+
+    /**
+     * Moteur d'exécution des transferts programmés.
+     */
+    private final ScheduledTransferEngine scheduledTransferEngine;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param scheduledTransferRepository Repository des transferts programmés
+     * @param connectionGraphCache Cache du graphe des connexions
+     * @param scheduledTransferEngine Moteur d'exécution des transferts programmés
+     */
+    public ScheduledTransferService(ScheduledTransferRepository scheduledTransferRepository,
+                                    ConnectionGraphCache connectionGraphCache,
+                                    ScheduledTransferEngine scheduledTransferEngine) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.connectionGraphCache = connectionGraphCache;
+        this.scheduledTransferEngine = scheduledTransferEngine;
+    }
+
+    /**
+     * Programme un transfert récurrent vers une connexion de l'utilisateur.
+     * Les dates sont tronquées à la seconde, précision des colonnes de la base.
+     *
+     * @param senderId identifiant de l'expéditeur
+     * @param scheduledTransferDTO DTO décrivant la programmation
+     * @return la programmation enregistrée
+     */
+    public ScheduledTransferDTO createScheduledTransfer(Long senderId, ScheduledTransferDTO scheduledTransferDTO) {
+        if (scheduledTransferDTO.getReceiverId() == null) {
+            throw new IllegalArgumentException("Le destinataire est obligatoire");
+        }
+        if (senderId.equals(scheduledTransferDTO.getReceiverId())) {
+            throw new IllegalArgumentException("Vous ne pouvez pas effectuer un transfert vers vous-même");
+        }
+        if (scheduledTransferDTO.getAmount() == null
+                || scheduledTransferDTO.getAmount().compareTo(BigDecimal.valueOf(0.01)) < 0) {
+            throw new IllegalArgumentException("Le montant doit être supérieur à zéro");
+        }
+        if (scheduledTransferDTO.getDescription() == null || scheduledTransferDTO.getDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("La description est obligatoire");
+        }
+        if (scheduledTransferDTO.getFrequency() == null) {
+            throw new IllegalArgumentException("La périodicité est obligatoire");
+        }
+        if (scheduledTransferDTO.getStartAt() == null || scheduledTransferDTO.getStartAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("La date de première exécution doit être dans le futur");
+        }
+        if (scheduledTransferDTO.getEndAt() != null && scheduledTransferDTO.getEndAt().isBefore(scheduledTransferDTO.getStartAt())) {
+            throw new IllegalArgumentException("La date de fin doit suivre la date de première exécution");
+        }
+        if (!connectionGraphCache.isConnected(senderId, scheduledTransferDTO.getReceiverId())) {
+            throw new IllegalArgumentException("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+        }
+
+        ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+        scheduledTransfer.setSenderId(senderId);
+        scheduledTransfer.setReceiverId(scheduledTransferDTO.getReceiverId());
+        scheduledTransfer.setAmount(scheduledTransferDTO.getAmount());
+        scheduledTransfer.setDescription(scheduledTransferDTO.getDescription().trim());
+        scheduledTransfer.setFrequency(scheduledTransferDTO.getFrequency());
+        scheduledTransfer.setStartAt(scheduledTransferDTO.getStartAt().truncatedTo(ChronoUnit.SECONDS));
+        scheduledTransfer.setEndAt(scheduledTransferDTO.getEndAt() != null
+                ? scheduledTransferDTO.getEndAt().truncatedTo(ChronoUnit.SECONDS)
+                : null);
+        scheduledTransfer.setNextRunAt(scheduledTransfer.getStartAt());
+        scheduledTransfer.setActive(true);
+
+        // Enregistrement validé avant le signalement au moteur, qui peut relire la table à tout moment
+        ScheduledTransfer saved = scheduledTransferRepository.save(scheduledTransfer);
+        scheduledTransferEngine.register(saved);
+        logger.info("Transfert programmé {} créé : {} envoie {}€ à {} ({}, à partir du {})", saved.getId(),
+                senderId, saved.getAmount(), saved.getReceiverId(), saved.getFrequency(), saved.getStartAt());
+        return toDTO(saved);
+    }
+
+    /**
+     * Récupère les transferts programmés d'un utilisateur.
+     *
+     * @param senderId identifiant de l'expéditeur
+     * @return les programmations, de la plus récente à la plus ancienne
+     */
+    public List<ScheduledTransferDTO> getScheduledTransfers(Long senderId) {
+        return scheduledTransferRepository.findBySenderIdOrderByIdDesc(senderId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Annule un transfert programmé. Les occurrences déjà placées dans la roue du moteur
+     * sont ignorées lors de leur échéance.
+     *
+     * @param senderId identifiant de l'expéditeur
+     * @param scheduledTransferId identifiant de la programmation
+     */
+    @Transactional
+    public void cancelScheduledTransfer(Long senderId, Long scheduledTransferId) {
+        if (scheduledTransferRepository.deactivate(scheduledTransferId, senderId) == 0) {
+            throw new EntityNotFoundException("Transfert programmé non trouvé");
+        }
+        logger.info("Transfert programmé {} annulé par l'utilisateur {}", scheduledTransferId, senderId);
+    }
+
+    /**
+     * Convertit une programmation en DTO.
+     *
+     * @param scheduledTransfer la programmation
+     * @return le DTO correspondant
+     */
+    private ScheduledTransferDTO toDTO(ScheduledTransfer scheduledTransfer) {
+        return new ScheduledTransferDTO(scheduledTransfer.getId(), scheduledTransfer.getReceiverId(),
+                scheduledTransfer.getAmount(), scheduledTransfer.getDescription(), scheduledTransfer.getFrequency(),
+                scheduledTransfer.getStartAt(), scheduledTransfer.getEndAt(), scheduledTransfer.getNextRunAt(),
+                scheduledTransfer.isActive(), scheduledTransfer.getLastError());
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassroom.paymybuddy.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Tâche de fond lançant chaque début de mois la génération des relevés du mois écoulé.
+ * L'exécution porte le nom du mois : relancée, elle reprend les plages non terminées.
+ */
+@Component
+public class StatementJob {
+
+    /**
+     * Service de génération des relevés mensuels.
+     */
+    private final StatementService statementService;
+
+    /**
+     * Constructeur pour injecter le service des relevés.
+     *
+     * @param statementService Service de génération des relevés mensuels
+     */
+    public StatementJob(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    /**
+     * Génère les relevés du mois précédent.
+     */
+    @Scheduled(cron = "${paymybuddy.statement.cron:0 0 3 1 * *}")
+    public void runMonthly() {
+        statementService.generateStatements(YearMonth.now().minusMonths(1));
+    }
+}
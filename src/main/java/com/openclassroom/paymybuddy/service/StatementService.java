@@ -0,0 +1,388 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.StatementReportDTO;
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.util.IdRange;
+import com.openclassroom.paymybuddy.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Service de génération des relevés mensuels : un fichier CSV par utilisateur, listant les transactions
+ * envoyées et reçues pendant le mois, suivies des totaux.
+ * <p>
+ * Les utilisateurs sont découpés en plages d'identifiants traitées en parallèle sur un pool fork-join.
+ * Chaque plage est lue par une seule requête (utilisateurs de la plage et leurs transactions du mois,
+ * triés par utilisateur), en flux et par lots de taille bornée, dans une transaction en lecture seule :
+ * le coût ne dépend pas du nombre d'utilisateurs de la plage en nombre de requêtes, et les plages
+ * ne partagent rien, si bien que le débit croît avec le nombre de cœurs (dans la limite du pool de connexions).
+ * Chaque plage terminée est enregistrée dans job_checkpoint ; une exécution relancée sous le même nom
+ * ne traite que les plages restantes.
+ */
+@Service
+public class StatementService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StatementService.class);
+
+    /**
+     * Bornes des identifiants d'utilisateurs.
+     */
+    private static final String USER_ID_BOUNDS_SQL = "SELECT MIN(id), MAX(id) FROM app_user";
+
+    /**
+     * Utilisateurs d'une plage et leurs transactions envoyées et reçues pendant une période, triés
+     * par utilisateur puis par date. Un utilisateur sans transaction figure sur une ligne sans transaction.
+     */
+    private static final String PARTITION_SQL =
+            "SELECT u.id, u.username, x.id, x.created_at, x.direction, x.counterparty, x.description, x.amount "
+                    + "FROM app_user u LEFT JOIN ("
+                    + "SELECT t.sender_id AS user_id, t.id, t.created_at, 'SENT' AS direction, "
+                    + "r.username AS counterparty, t.description, t.amount "
+                    + "FROM transaction t JOIN app_user r ON r.id = t.receiver_id "
+                    + "WHERE t.sender_id BETWEEN ? AND ? AND t.created_at >= ? AND t.created_at < ? "
+                    + "UNION ALL "
+                    + "SELECT t.receiver_id, t.id, t.created_at, 'RECEIVED', s.username, t.description, t.amount "
+                    + "FROM transaction t JOIN app_user s ON s.id = t.sender_id "
+                    + "WHERE t.receiver_id BETWEEN ? AND ? AND t.created_at >= ? AND t.created_at < ?"
+                    + ") x ON x.user_id = u.id "
+                    + "WHERE u.id BETWEEN ? AND ? "
+                    + "ORDER BY u.id, x.created_at, x.id";
+
+    /**
+     * Préfixe des noms d'exécution de la génération des relevés.
+     */
+    private static final String JOB_NAME_PREFIX = "statements-";
+
+    /**
+     * Template JDBC dédié, configuré avec la taille de lot de lecture.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction en lecture seule et en lecture répétable : la lecture d'une plage voit un même état de la base.
+     */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Repository des points de reprise.
+     */
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * Répertoire racine des relevés ; ceux d'un mois sont écrits dans un sous-répertoire yyyy-MM.
+     */
+    private final String outputDirectory;
+
+    /**
+     * Nombre d'identifiants d'utilisateurs par plage.
+     */
+    private final long partitionSize;
+
+    /**
+     * Nombre de plages traitées en parallèle (0 : nombre de processeurs disponibles).
+     */
+    private final int parallelism;
+
+    /**
+     * Taille du pool de connexions : chaque thread occupe une connexion pendant la lecture de sa plage.
+     */
+    private final int maxPoolSize;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires.
+     *
+     * @param dataSource Source de données
+     * @param transactionManager Gestionnaire de transactions
+     * @param jobCheckpointRepository Repository des points de reprise
+     * @param fetchSize Nombre de lignes lues par aller-retour avec la base
+     * @param outputDirectory Répertoire racine des relevés
+     * @param partitionSize Nombre d'identifiants d'utilisateurs par plage
+     * @param parallelism Nombre de plages traitées en parallèle (0 : nombre de processeurs disponibles)
+     * @param maxPoolSize Taille du pool de connexions, qui borne le nombre de threads
+     */
+    public StatementService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                            JobCheckpointRepository jobCheckpointRepository,
+                            @Value("${paymybuddy.statement.fetch-size:1000}") int fetchSize,
+                            @Value("${paymybuddy.statement.output-dir:statements}") String outputDirectory,
+                            @Value("${paymybuddy.statement.partition-size:1000}") long partitionSize,
+                            @Value("${paymybuddy.statement.parallelism:0}") int parallelism,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize) {
+        if (partitionSize < 1 || parallelism < 0 || maxPoolSize < 1) {
+            throw new IllegalArgumentException("La taille des plages et celle du pool de connexions doivent être positives "
+                    + "et le parallélisme ne peut pas être négatif");
+        }
+        this.outputDirectory = outputDirectory;
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.maxPoolSize = maxPoolSize;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    /**
+     * Génère les relevés d'un mois pour tous les utilisateurs, sous le nom d'exécution associé au mois.
+     *
+     * @param month le mois des relevés
+     * @return le rapport de l'exécution
+     */
+    public StatementReportDTO generateStatements(YearMonth month) {
+        return generateStatements(JOB_NAME_PREFIX + month, month);
+    }
+
+    /**
+     * Génère les relevés d'un mois pour tous les utilisateurs.
+     *
+     * @param jobName le nom de l'exécution ; une exécution relancée sous le même nom reprend là où elle s'est arrêtée
+     * @param month le mois des relevés
+     * @return le rapport de l'exécution
+     */
+    public StatementReportDTO generateStatements(String jobName, YearMonth month) {
+        Long[] bounds = jdbcTemplate.queryForObject(USER_ID_BOUNDS_SQL,
+                (rs, rowNum) -> new Long[] {rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return new StatementReportDTO(jobName, month.toString(), 0, 0, 0, 0, 0);
+        }
+
+        Path directory = Paths.get(outputDirectory, month.toString());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer le répertoire des relevés " + directory, e);
+        }
+
+        Set<Long> completedStarts = jobCheckpointRepository.findByJobName(jobName).stream()
+                .filter(JobCheckpoint::isCompleted)
+                .map(JobCheckpoint::getRangeStart)
+                .collect(Collectors.toSet());
+        List<IdRange> ranges = IdRange.split(bounds[0], bounds[1], partitionSize);
+        List<IdRange> pending = ranges.stream()
+                .filter(range -> !completedStarts.contains(range.getStart()))
+                .collect(Collectors.toList());
+        int skipped = ranges.size() - pending.size();
+        // Au-delà de la taille du pool, les threads supplémentaires attendraient une connexion
+        int threads = Math.min(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), maxPoolSize);
+        logger.info("Relevés {} : {} plage(s) à traiter sur {} thread(s), {} déjà terminée(s)",
+                jobName, pending.size(), threads, skipped);
+
+        long startNanos = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, pending.size())), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("statement-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        try {
+            for (IdRange range : pending) {
+                futures.add(pool.submit(() -> generatePartition(jobName, month, directory, range)));
+            }
+
+            int processed = 0;
+            int failed = 0;
+            long statements = 0;
+            long transactions = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    PartitionResult result = futures.get(i).get();
+                    processed++;
+                    statements += result.statements;
+                    transactions += result.transactions;
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error("Relevés {} : échec de la plage {}", jobName, pending.get(i), e.getCause());
+                }
+            }
+
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            logger.info("Relevés {} terminés : {} relevé(s), {} transaction(s) en {} ms ({} relevés/s), {} plage(s) en échec",
+                    jobName, statements, transactions, elapsedMillis, statements * 1000 / elapsedMillis, failed);
+            return new StatementReportDTO(jobName, month.toString(), processed, skipped, failed, statements, transactions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération des relevés interrompue", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Écrit les relevés des utilisateurs d'une plage puis enregistre son point de reprise.
+     *
+     * @param jobName le nom de l'exécution
+     * @param month le mois des relevés
+     * @param directory le répertoire des relevés du mois
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le résultat de la plage
+     */
+    private PartitionResult generatePartition(String jobName, YearMonth month, Path directory, IdRange range) {
+        PartitionResult result = readOnlyTransaction.execute(status -> writePartition(month, directory, range));
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndRangeStart(jobName, range.getStart())
+                .orElseGet(() -> new JobCheckpoint(jobName, range.getStart(), range.getEnd()));
+        checkpoint.setRangeEnd(range.getEnd());
+        checkpoint.setLastProcessedId(range.getEnd());
+        checkpoint.setItemCount(result.statements);
+        checkpoint.setErrorCount(0);
+        checkpoint.setCompleted(true);
+        jobCheckpointRepository.save(checkpoint);
+        return result;
+    }
+
+    /**
+     * Lit en une requête les utilisateurs d'une plage et leurs transactions du mois, et écrit un relevé par utilisateur.
+     *
+     * @param month le mois des relevés
+     * @param directory le répertoire des relevés du mois
+     * @param range la plage d'identifiants d'utilisateurs
+     * @return le résultat de la plage
+     */
+    private PartitionResult writePartition(YearMonth month, Path directory, IdRange range) {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        PartitionResult result = new PartitionResult();
+        StatementWriter[] current = new StatementWriter[1];
+        try {
+            jdbcTemplate.query(PARTITION_SQL, rs -> {
+                long userId = rs.getLong(1);
+                if (current[0] == null || current[0].userId != userId) {
+                    if (current[0] != null) {
+                        current[0].finish();
+                    }
+                    current[0] = new StatementWriter(directory, userId, rs.getString(2), month);
+                    result.statements++;
+                }
+                if (rs.getObject(3) != null) {
+                    current[0].writeTransaction(rs);
+                    result.transactions++;
+                }
+            }, range.getStart(), range.getEnd(), from, to, range.getStart(), range.getEnd(), from, to,
+                    range.getStart(), range.getEnd());
+            if (current[0] != null) {
+                current[0].finish();
+            }
+        } catch (RuntimeException e) {
+            if (current[0] != null) {
+                current[0].abort();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Écriture du relevé d'un utilisateur : le fichier est écrit sous un nom temporaire puis renommé
+     * une fois complet, si bien qu'un relevé visible est toujours entier, y compris après une reprise.
+     */
+    private static class StatementWriter {
+
+        private final long userId;
+        private final Path target;
+        private final Path temporary;
+        private final Writer writer;
+        private long sentCents;
+        private long receivedCents;
+
+        private StatementWriter(Path directory, long userId, String username, YearMonth month) {
+            this.userId = userId;
+            this.target = directory.resolve("statement-" + userId + ".csv");
+            this.temporary = directory.resolve("statement-" + userId + ".csv.tmp");
+            try {
+                this.writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8);
+                writer.write("# Relevé " + month + " - " + TransactionExportService.csvField(username) + '\n');
+                writer.write(TransactionExportService.CSV_HEADER);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible d'écrire le relevé " + target, e);
+            }
+        }
+
+        private void writeTransaction(ResultSet rs) throws SQLException {
+            long cents = Money.toCents(rs.getBigDecimal(8));
+            String direction = rs.getString(5);
+            if ("SENT".equals(direction)) {
+                sentCents = Math.addExact(sentCents, cents);
+            } else {
+                receivedCents = Math.addExact(receivedCents, cents);
+            }
+            try {
+                writer.write(String.valueOf(rs.getLong(3)));
+                writer.write(',');
+                writer.write(rs.getTimestamp(4).toLocalDateTime().toString());
+                writer.write(',');
+                writer.write(direction);
+                writer.write(',');
+                writer.write(TransactionExportService.csvField(rs.getString(6)));
+                writer.write(',');
+                writer.write(TransactionExportService.csvField(rs.getString(7)));
+                writer.write(',');
+                writer.write(Money.toBigDecimal(cents).toPlainString());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible d'écrire le relevé " + target, e);
+            }
+        }
+
+        private void finish() {
+            try {
+                writer.write("# Total envoyé," + Money.toBigDecimal(sentCents).toPlainString() + '\n');
+                writer.write("# Total reçu," + Money.toBigDecimal(receivedCents).toPlainString() + '\n');
+                writer.close();
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible d'écrire le relevé " + target, e);
+            }
+        }
+
+        private void abort() {
+            try {
+                writer.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                logger.warn("Impossible de supprimer le relevé incomplet {}", temporary, e);
+            }
+        }
+    }
+
+    /**
+     * Résultat de la génération d'une plage.
+     */
+    private static class PartitionResult {
+        private long statements;
+        private long transactions;
+    }
+}
@@ -0,0 +1,365 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.TransferDirection;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service d'export de l'historique complet des transactions d'un utilisateur, en CSV ou en NDJSON.
+ * <p>
+ * Les transactions envoyées et reçues sont lues en deux flux, chacun dans l'ordre d'un index
+ * de la table, puis fusionnées par date et écrites au fil de l'eau dans la réponse :
+ * chaque transaction est détachée du contexte de persistance dès qu'elle a été écrite, si bien que
+ * la mémoire utilisée ne dépend pas de la longueur de l'historique.
+ * <p>
+ * Un export occupe une connexion JDBC pendant toute la durée du téléchargement : le nombre d'exports
+ * simultanés est borné ({@link #tryAcquireExportPermit()}) pour ne pas épuiser le pool de connexions.
+ */
+@Service
+public class TransactionExportService {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    /**
+     * Ligne d'en-tête de l'export CSV.
+     */
+    static final String CSV_HEADER = "id,date,direction,counterparty,description,amount";
+
+    /**
+     * Date de début appliquée lorsqu'aucune n'est précisée.
+     */
+    private static final LocalDateTime EARLIEST_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Ordre de l'export : de la plus ancienne à la plus récente transaction.
+     */
+    private static final Comparator<Transaction> OLDEST_FIRST =
+            Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId);
+
+    /**
+     * Taille du tampon d'écriture, en caractères.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Repository pour accéder aux données des transactions.
+     */
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Contexte de persistance, dont les transactions exportées sont détachées.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Sérialiseur JSON de l'application.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Nombre de transactions exportées.
+     */
+    private final Counter exportedRows;
+
+    /**
+     * Durée des exports.
+     */
+    private final Timer exportDuration;
+
+    /**
+     * Autorisations d'export disponibles, une par export pouvant s'exécuter simultanément.
+     */
+    private final Semaphore exportPermits;
+
+    /**
+     * Nombre d'exports refusés car trop d'exports étaient en cours.
+     */
+    private final Counter rejectedExports;
+
+    /**
+     * Constructeur pour injecter les dépendances et enregistrer les métriques.
+     *
+     * @param transactionRepository Repository des transactions
+     * @param entityManager Contexte de persistance
+     * @param objectMapper Sérialiseur JSON
+     * @param meterRegistry Registre des métriques
+     * @param maxConcurrentExports Nombre maximal d'exports simultanés
+     */
+    public TransactionExportService(TransactionRepository transactionRepository, EntityManager entityManager,
+                                    ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${paymybuddy.export.max-concurrent:4}") int maxConcurrentExports) {
+        if (maxConcurrentExports < 1) {
+            throw new IllegalArgumentException("Le nombre d'exports simultanés doit être strictement positif");
+        }
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        this.rejectedExports = Counter.builder("paymybuddy.export.rejected")
+                .description("Exports d'historique refusés car trop d'exports étaient en cours")
+                .register(meterRegistry);
+        this.exportedRows = Counter.builder("paymybuddy.export.rows")
+                .description("Transactions écrites dans les exports d'historique")
+                .register(meterRegistry);
+        this.exportDuration = Timer.builder("paymybuddy.export.duration")
+                .description("Durée des exports d'historique")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Réserve une autorisation d'export, sans attendre.
+     * Une autorisation obtenue doit être rendue par {@link #releaseExportPermit()} à la fin de l'export.
+     *
+     * @return true si l'export peut démarrer, false si le nombre maximal d'exports en cours est atteint
+     */
+    public boolean tryAcquireExportPermit() {
+        if (exportPermits.tryAcquire()) {
+            return true;
+        }
+        rejectedExports.increment();
+        return false;
+    }
+
+    /**
+     * Rend une autorisation d'export obtenue par {@link #tryAcquireExportPermit()}.
+     */
+    public void releaseExportPermit() {
+        exportPermits.release();
+    }
+
+    /**
+     * Vérifie l'intervalle de dates d'un export.
+     *
+     * @param from la date de début (incluse), ou null
+     * @param to la date de fin (incluse), ou null
+     * @throws IllegalArgumentException si la date de début est postérieure à la date de fin
+     */
+    public static void checkDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+    }
+
+    /**
+     * Écrit les transactions d'un utilisateur, de la plus ancienne à la plus récente, dans un flux de sortie.
+     * Le flux de sortie n'est pas fermé ; en cas de compression, le flux gzip est terminé avant le retour.
+     *
+     * @param userId ID de l'utilisateur
+     * @param from la date de début (incluse), ou null pour exporter depuis la première transaction
+     * @param to la date de fin (incluse), ou null pour exporter jusqu'à la dernière transaction
+     * @param format le format de l'export
+     * @param gzip true pour compresser l'export au format gzip
+     * @param out le flux de sortie
+     * @return le nombre de transactions exportées
+     * @throws IOException si l'écriture échoue, par exemple lorsque le client interrompt le téléchargement
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, LocalDate from, LocalDate to, ExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        checkDateRange(from, to);
+        LocalDateTime start = from != null ? from.atStartOfDay() : EARLIEST_DATE;
+        // Date de fin exclue : le lendemain du dernier jour demandé, ou le lendemain d'aujourd'hui
+        LocalDateTime end = (to != null ? to : LocalDate.now()).plusDays(1).atStartOfDay();
+
+        long startNanos = System.nanoTime();
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipStream != null ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long rows = 0;
+        try (Stream<Transaction> sent = transactionRepository.streamSentForExport(userId, start, end);
+             Stream<Transaction> received = transactionRepository.streamReceivedForExport(userId, start, end)) {
+            Iterator<Transaction> iterator = mergeOldestFirst(sent.iterator(), received.iterator(), OLDEST_FIRST);
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                while (iterator.hasNext()) {
+                    writeCsvRow(writer, userId, iterator.next());
+                    rows++;
+                }
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Les objets sont séparés par un saut de ligne, écrit après chacun d'eux
+                generator.setRootValueSeparator(null);
+                while (iterator.hasNext()) {
+                    writeJsonRow(generator, userId, iterator.next());
+                    rows++;
+                }
+                generator.close();
+            }
+            writer.flush();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+        } finally {
+            long elapsed = System.nanoTime() - startNanos;
+            exportedRows.increment(rows);
+            exportDuration.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Export {} de l'utilisateur ID: {} - {} transaction(s) en {} ms ({} transactions/s)",
+                    format, userId, rows, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    elapsed > 0 ? rows * 1_000_000_000L / elapsed : rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Fusionne au fil de la lecture deux flux triés par (date, identifiant) croissants.
+     * Un transfert vers soi-même étant impossible, une transaction ne figure que dans un des deux flux.
+     *
+     * @param first le premier flux trié
+     * @param second le second flux trié
+     * @param oldestFirst l'ordre des deux flux
+     * @param <T> le type des éléments
+     * @return les éléments des deux flux, triés
+     */
+    static <T> Iterator<T> mergeOldestFirst(Iterator<T> first, Iterator<T> second, Comparator<? super T> oldestFirst) {
+        return new Iterator<T>() {
+            private T nextFirst = first.hasNext() ? first.next() : null;
+            private T nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result;
+                if (nextSecond == null || (nextFirst != null && oldestFirst.compare(nextFirst, nextSecond) <= 0)) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Écrit une transaction sous forme de ligne CSV puis la détache du contexte de persistance.
+     *
+     * @param writer le flux d'écriture
+     * @param userId ID de l'utilisateur qui exporte son historique
+     * @param transaction la transaction
+     * @throws IOException si l'écriture échoue
+     */
+    private void writeCsvRow(Writer writer, Long userId, Transaction transaction) throws IOException {
+        TransferDirection direction = directionOf(userId, transaction);
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(transaction.getCreatedAt().toString());
+        writer.write(',');
+        writer.write(direction.name());
+        writer.write(',');
+        writer.write(csvField(counterpartyOf(direction, transaction)));
+        writer.write(',');
+        writer.write(csvField(transaction.getDescription()));
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write('\n');
+        entityManager.detach(transaction);
+    }
+
+    /**
+     * Écrit une transaction sous forme d'objet JSON sur une ligne puis la détache du contexte de persistance.
+     *
+     * @param generator le générateur JSON
+     * @param userId ID de l'utilisateur qui exporte son historique
+     * @param transaction la transaction
+     * @throws IOException si l'écriture échoue
+     */
+    private void writeJsonRow(JsonGenerator generator, Long userId, Transaction transaction) throws IOException {
+        TransferDirection direction = directionOf(userId, transaction);
+        generator.writeStartObject();
+        generator.writeNumberField("id", transaction.getId());
+        generator.writeStringField("date", transaction.getCreatedAt().toString());
+        generator.writeStringField("direction", direction.name());
+        generator.writeStringField("counterparty", counterpartyOf(direction, transaction));
+        generator.writeStringField("description", transaction.getDescription());
+        generator.writeNumberField("amount", transaction.getAmount());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        entityManager.detach(transaction);
+    }
+
+    /**
+     * Détermine le sens d'une transaction pour l'utilisateur qui exporte son historique.
+     *
+     * @param userId ID de l'utilisateur
+     * @param transaction la transaction
+     * @return SENT si l'utilisateur en est l'expéditeur, RECEIVED sinon
+     */
+    private static TransferDirection directionOf(Long userId, Transaction transaction) {
+        return userId.equals(transaction.getSender().getId()) ? TransferDirection.SENT : TransferDirection.RECEIVED;
+    }
+
+    /**
+     * Retourne le nom de l'autre partie d'une transaction.
+     *
+     * @param direction le sens de la transaction pour l'utilisateur
+     * @param transaction la transaction
+     * @return le nom du destinataire d'une transaction envoyée, de l'expéditeur d'une transaction reçue
+     */
+    private static String counterpartyOf(TransferDirection direction, Transaction transaction) {
+        return direction == TransferDirection.SENT
+                ? transaction.getReceiver().getUsername()
+                : transaction.getSender().getUsername();
+    }
+
+    /**
+     * Met en forme un champ texte CSV : le champ est entouré de guillemets (doublés à l'intérieur)
+     * s'il contient un séparateur, et préfixé d'une apostrophe s'il pourrait être interprété comme
+     * une formule par un tableur.
+     *
+     * @param value la valeur du champ, éventuellement null
+     * @return le champ mis en forme
+     */
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,19 +1,48 @@
 package com.openclassroom.paymybuddy.service;
 
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.SplitShareDTO;
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
+import com.openclassroom.paymybuddy.dto.TransactionView;
+import com.openclassroom.paymybuddy.dto.TransactionViewPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.AsyncTransferRepository;
 import com.openclassroom.paymybuddy.repository.TransactionRepository;
 import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.util.KeysetCursor;
+import com.openclassroom.paymybuddy.util.LongHashSet;
+import com.openclassroom.paymybuddy.util.LongLongHashMap;
+import com.openclassroom.paymybuddy.util.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.openclassroom.paymybuddy.repository.UserRepository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +51,38 @@ import java.util.stream.Collectors;
 @Service
 public class TransactionService {
 
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+
+    /**
+     * Nombre maximal de transferts acceptés dans un même lot.
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * Nombre de transactions par page de l'historique, par défaut.
+     */
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+
+    /**
+     * Nombre maximal de transactions par page de l'historique.
+     */
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    /**
+     * Ordre (date, identifiant) décroissants des transactions.
+     */
+    private static final Comparator<Transaction> NEWEST_TRANSACTION_FIRST =
+            Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed();
+
+    /**
+     * Ordre (date, identifiant) décroissants des projections de transactions.
+     */
+    private static final Comparator<TransactionView> NEWEST_VIEW_FIRST =
+            Comparator.comparing(TransactionView::getCreatedAt).thenComparing(TransactionView::getId).reversed();
+
     /**
      * Repository pour accéder aux données des transactions.
      */
@@ -37,32 +98,93 @@ public class TransactionService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Service gérant les sous-soldes des comptes en mode « solde éclaté ».
+     */
+    private final BalanceSlotService balanceSlotService;
+
+    /**
+     * Service gérant le journal des mouvements.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * Cache du graphe des connexions, utilisé pour autoriser les transferts.
+     */
+    private final ConnectionGraphCache connectionGraphCache;
+
+    /**
+     * Exécuteur des écritures de solde, rejouées en cas de conflit de version.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * Service enregistrant les événements de transfert à diffuser.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * Service tenant à jour les totaux mensuels des utilisateurs.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
+    /**
+     * Repository des transferts asynchrones, marqués effectués dans la transaction du transfert.
+     */
+    private final AsyncTransferRepository asyncTransferRepository;
+
+    /**
+     * Mode d'écriture des soldes utilisé par les transferts.
+     */
+    @Value("${paymybuddy.balance.write-mode:ATOMIC}")
+    private BalanceWriteMode balanceWriteMode = BalanceWriteMode.ATOMIC;
+
     /**
      * Constructeur pour initialiser les repositories nécessaires.
      *
      * @param transactionRepository Repository des transactions
      * @param userConnectionRepository Repository des connexions entre utilisateurs
      * @param userRepository Repository des utilisateurs
+     * @param balanceSlotService Service gérant les sous-soldes
+     * @param ledgerService Service gérant le journal des mouvements
+     * @param connectionGraphCache Cache du graphe des connexions
+     * @param optimisticRetryExecutor Exécuteur des écritures de solde
+     * @param outboxService Service enregistrant les événements de transfert
+     * @param monthlyStatsService Service tenant à jour les totaux mensuels
+     * @param asyncTransferRepository Repository des transferts asynchrones
      */
     public TransactionService(
             TransactionRepository transactionRepository,
             UserConnectionRepository userConnectionRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            BalanceSlotService balanceSlotService,
+            LedgerService ledgerService,
+            ConnectionGraphCache connectionGraphCache,
+            OptimisticRetryExecutor optimisticRetryExecutor,
+            OutboxService outboxService,
+            MonthlyStatsService monthlyStatsService,
+            AsyncTransferRepository asyncTransferRepository) {
         this.transactionRepository = transactionRepository;
         this.userConnectionRepository = userConnectionRepository;
         this.userRepository = userRepository;
+        this.balanceSlotService = balanceSlotService;
+        this.ledgerService = ledgerService;
+        this.connectionGraphCache = connectionGraphCache;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.outboxService = outboxService;
+        this.monthlyStatsService = monthlyStatsService;
+        this.asyncTransferRepository = asyncTransferRepository;
     }
 
     /**
      * Récupère toutes les relations (connexions entre utilisateurs).
+     * Les relations sont lues en une seule requête, quel que soit leur nombre.
      *
      * @param userId ID de l'utilisateur
      * @return une liste des relations sous forme d'objets simplifiés
      */
     public List<RelationDTO> getRelations(Long userId) {
-        return userConnectionRepository.findByUserId(userId).stream()
-                .map(connection -> new RelationDTO(connection.getConnection().getId(), connection.getConnection().getUsername()))
-                .collect(Collectors.toList());
+        return userConnectionRepository.findRelationsByUserId(userId);
     }
 
     /**
@@ -113,61 +235,667 @@ public class TransactionService {
         return transactionRepository.findBySenderIdOrReceiverId(userId, userId);
     }
 
+    /**
+     * Récupère une page de l'historique des transactions d'un utilisateur, de la plus récente
+     * à la plus ancienne, par pagination sur la clé (date de création, identifiant).
+     * Le OR « expéditeur ou destinataire » est remplacé par l'union de deux requêtes, chacune
+     * servie par son propre index et limitée à la taille de la page : le coût d'une page
+     * ne dépend pas de la longueur de l'historique.
+     *
+     * @param userId ID de l'utilisateur
+     * @param cursor le curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param size le nombre de transactions par page
+     * @return la page de transactions et le curseur de la page suivante
+     */
+    public TransactionPageDTO getTransactionPage(Long userId, String cursor, int size) {
+        checkPageSize(size);
+        // Un élément de plus que la page indique s'il reste des transactions plus anciennes
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> sent;
+        List<Transaction> received;
+        if (cursor == null || cursor.isEmpty()) {
+            sent = transactionRepository.findBySenderIdOrderByCreatedAtDescIdDesc(userId, limit);
+            received = transactionRepository.findByReceiverIdOrderByCreatedAtDescIdDesc(userId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            sent = transactionRepository.findSentBefore(userId, position.getCreatedAt(), position.getId(), limit);
+            received = transactionRepository.findReceivedBefore(userId, position.getCreatedAt(), position.getId(), limit);
+        }
+
+        List<Transaction> merged = mergeNewestFirst(sent, received, size + 1, NEWEST_TRANSACTION_FIRST);
+        if (merged.size() <= size) {
+            return new TransactionPageDTO(merged, null);
+        }
+        List<Transaction> page = new ArrayList<>(merged.subList(0, size));
+        Transaction last = page.get(size - 1);
+        return new TransactionPageDTO(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Récupère une page de l'historique des transactions d'un utilisateur sous forme de projections,
+     * de la plus récente à la plus ancienne, par pagination sur la clé (date de création, identifiant).
+     * Seules les colonnes exposées sont lues, sans charger les entités Transaction et User.
+     *
+     * @param userId ID de l'utilisateur
+     * @param cursor le curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param size le nombre de transactions par page
+     * @return la page de transactions et le curseur de la page suivante
+     */
+    public TransactionViewPageDTO getTransactionViewPage(Long userId, String cursor, int size) {
+        checkPageSize(size);
+        // Un élément de plus que la page indique s'il reste des transactions plus anciennes
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TransactionView> sent;
+        List<TransactionView> received;
+        if (cursor == null || cursor.isEmpty()) {
+            sent = transactionRepository.findRecentSentViews(userId, limit);
+            received = transactionRepository.findRecentReceivedViews(userId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            sent = transactionRepository.findSentViewsBefore(userId, position.getCreatedAt(), position.getId(), limit);
+            received = transactionRepository.findReceivedViewsBefore(userId, position.getCreatedAt(), position.getId(), limit);
+        }
+
+        List<TransactionView> merged = mergeNewestFirst(sent, received, size + 1, NEWEST_VIEW_FIRST);
+        if (merged.size() <= size) {
+            return new TransactionViewPageDTO(merged, null);
+        }
+        List<TransactionView> page = new ArrayList<>(merged.subList(0, size));
+        TransactionView last = page.get(size - 1);
+        return new TransactionViewPageDTO(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Vérifie la taille d'une page de l'historique.
+     *
+     * @param size le nombre de transactions par page
+     * @throws IllegalArgumentException si la taille est hors limites
+     */
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + MAX_HISTORY_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Récupère les transactions les plus récentes d'un utilisateur sous forme de projections légères,
+     * pour la page d'accueil. Chaque sens est lu par une requête limitée à {@code limit} lignes sur son
+     * index (utilisateur, date, identifiant) : le coût dépend du nombre demandé, pas de la taille de la table.
+     *
+     * @param userId ID de l'utilisateur
+     * @param limit le nombre de transactions à retourner
+     * @return les transactions, de la plus récente à la plus ancienne
+     */
+    public List<TransactionView> getRecentTransactions(Long userId, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Le nombre de transactions doit être compris entre 1 et " + MAX_HISTORY_PAGE_SIZE);
+        }
+        Pageable top = PageRequest.of(0, limit);
+        List<TransactionView> sent = transactionRepository.findRecentSentViews(userId, top);
+        List<TransactionView> received = transactionRepository.findRecentReceivedViews(userId, top);
+        return mergeNewestFirst(sent, received, limit, NEWEST_VIEW_FIRST);
+    }
+
+    /**
+     * Fusionne deux listes triées par (date, identifiant) décroissants.
+     * Un transfert vers soi-même étant impossible, une transaction ne figure que dans une des deux listes.
+     *
+     * @param first la première liste triée
+     * @param second la seconde liste triée
+     * @param limit le nombre maximal d'éléments à retourner
+     * @param newestFirst l'ordre des deux listes
+     * @param <T> le type des éléments
+     * @return les éléments les plus récents des deux listes, triés
+     */
+    private static <T> List<T> mergeNewestFirst(List<T> first, List<T> second, int limit, Comparator<? super T> newestFirst) {
+        List<T> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && newestFirst.compare(first.get(i), second.get(j)) < 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
     /**
      * Crée une transaction de transfert entre deux utilisateurs.
+     * Selon le mode d'écriture configuré ({@link BalanceWriteMode}), les soldes sont modifiés
+     * par des UPDATE atomiques conditionnels, après verrouillage des deux comptes ou sous contrôle
+     * de version. Le transfert est journalisé et l'événement « transfert effectué » est enregistré
+     * dans la même transaction, ouverte par
+     * {@link OptimisticRetryExecutor} qui la rejoue en cas de conflit de version.
      *
      * @param transferDTO DTO contenant les informations de transfert
      * @return la transaction créée
      */
-    @Transactional
     public Transaction createTransfer(TransferDTO transferDTO) {
-        Logger logger = LoggerFactory.getLogger(TransactionService.class);
+        return optimisticRetryExecutor.execute("transfer", () -> applyTransfer(transferDTO));
+    }
 
+    /**
+     * Applique un transfert dans la transaction courante.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction créée
+     */
+    private Transaction applyTransfer(TransferDTO transferDTO) {
         logger.info("Début de la transaction : {} envoie {}€ à {}",
                 transferDTO.getSenderId(), transferDTO.getAmount(), transferDTO.getReceiverId());
 
+        if (transferDTO.getSenderId().equals(transferDTO.getReceiverId())) {
+            throw new IllegalArgumentException("Vous ne pouvez pas effectuer un transfert vers vous-même");
+        }
+        if (transferDTO.getAmount() == null || Money.toCents(transferDTO.getAmount()) < 1L) {
+            throw new IllegalArgumentException("Le montant doit être supérieur à zéro");
+        }
+
+        Transaction transaction;
+        switch (balanceWriteMode) {
+            case LOCKED:
+                transaction = transferWithRowLocks(transferDTO);
+                break;
+            case OPTIMISTIC:
+                transaction = transferWithVersionCheck(transferDTO);
+                break;
+            default:
+                transaction = transferWithAtomicUpdates(transferDTO);
+        }
+
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerService.recordTransfer(savedTransaction);
+        monthlyStatsService.recordTransfer(savedTransaction);
+        outboxService.recordTransferCompleted(savedTransaction);
+        completeAsyncTransfer(transferDTO, savedTransaction);
+        logger.info("Transaction enregistrée avec l'id {}", savedTransaction.getId());
+
+        return savedTransaction;
+    }
+
+    /**
+     * Marque effectué le transfert asynchrone à l'origine d'un transfert, dans la transaction qui l'enregistre :
+     * l'état du transfert asynchrone ne peut pas diverger du transfert lui-même.
+     *
+     * @param transferDTO DTO du transfert
+     * @param transaction la transaction enregistrée
+     * @throws IllegalStateException si le transfert asynchrone n'est plus en cours de traitement (délai dépassé),
+     *                               afin d'annuler le transfert
+     */
+    private void completeAsyncTransfer(TransferDTO transferDTO, Transaction transaction) {
+        String asyncTransferId = transferDTO.getAsyncTransferId();
+        if (asyncTransferId == null) {
+            return;
+        }
+        int updated = asyncTransferRepository.complete(asyncTransferId, transferDTO.getSenderId(), transaction.getId(),
+                LocalDateTime.now());
+        if (updated == 0) {
+            throw new IllegalStateException("Le transfert asynchrone " + asyncTransferId
+                    + " n'est plus en cours de traitement");
+        }
+    }
+
+    /**
+     * Exécute un lot de transferts dans une seule transaction de base de données.
+     * Tous les comptes concernés sont verrouillés en une requête (par ordre croissant d'identifiant),
+     * les connexions de chaque expéditeur sont chargées une seule fois et les soldes sont contrôlés
+     * en mémoire au fil du lot. Les variations nettes de solde, les transactions, leurs écritures
+     * de journal puis leurs événements sont ensuite écrits par des requêtes JDBC batch.
+     *
+     * @param transfers les transferts à exécuter, dans l'ordre d'application
+     * @param mode le comportement du lot lorsqu'un transfert est refusé
+     * @return le résultat de chaque transfert, dans l'ordre du lot
+     */
+    @Transactional
+    public List<BatchTransferResultDTO> executeTransfers(List<TransferDTO> transfers, BatchTransferMode mode) {
+        if (transfers == null || transfers.isEmpty()) {
+            throw new IllegalArgumentException("Le lot de transferts est vide");
+        }
+        if (transfers.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Un lot ne peut pas contenir plus de " + MAX_BATCH_SIZE + " transferts");
+        }
+        logger.info("Début d'un lot de {} transferts en mode {}", transfers.size(), mode);
+
+        String[] errors = new String[transfers.size()];
+        Set<Long> involvedIds = new HashSet<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDTO transfer = transfers.get(i);
+            errors[i] = checkTransferFields(transfer);
+            if (errors[i] == null) {
+                involvedIds.add(transfer.getSenderId());
+                involvedIds.add(transfer.getReceiverId());
+            }
+        }
+
+        Map<Long, User> lockedUsers = lockUsersInOrder(involvedIds);
+        // Soldes et variations en centimes : aucun BigDecimal alloué par transfert
+        LongLongHashMap balances = new LongLongHashMap(lockedUsers.size());
+        lockedUsers.values().forEach(user -> balances.put(user.getId(), Money.toCents(user.getBalance())));
+        Map<Long, LongHashSet> connectionsBySender = new HashMap<>();
+        LongLongHashMap deltas = new LongLongHashMap(lockedUsers.size());
+
+        for (int i = 0; i < transfers.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            TransferDTO transfer = transfers.get(i);
+            Long senderId = transfer.getSenderId();
+            Long receiverId = transfer.getReceiverId();
+            long amount = Money.toCents(transfer.getAmount());
+
+            if (!lockedUsers.containsKey(senderId)) {
+                errors[i] = "Expéditeur introuvable";
+            } else if (!lockedUsers.containsKey(receiverId)) {
+                errors[i] = "Destinataire introuvable";
+            } else if (!connectionsBySender.computeIfAbsent(senderId, connectionGraphCache::getConnectionIds)
+                    .contains(receiverId)) {
+                errors[i] = "Vous ne pouvez envoyer de l'argent qu'à vos connexions";
+            } else if (balances.getOrDefault(senderId, 0L) < amount) {
+                errors[i] = "Balance insuffisante pour effectuer la transaction";
+            } else {
+                balances.addTo(senderId, -amount);
+                balances.addTo(receiverId, amount);
+                deltas.addTo(senderId, -amount);
+                deltas.addTo(receiverId, amount);
+            }
+        }
+
+        long rejectedCount = Arrays.stream(errors).filter(Objects::nonNull).count();
+        List<BatchTransferResultDTO> results = new ArrayList<>(transfers.size());
+
+        if (mode == BatchTransferMode.ALL_OR_NOTHING && rejectedCount > 0) {
+            logger.warn("Lot de transferts refusé : {} transfert(s) invalide(s) sur {}", rejectedCount, transfers.size());
+            for (int i = 0; i < transfers.size(); i++) {
+                String message = errors[i] != null
+                        ? errors[i]
+                        : "Transfert annulé : un autre transfert du lot a été refusé";
+                results.add(failedResult(i, transfers.get(i), message));
+            }
+            return results;
+        }
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            if (errors[i] == null) {
+                TransferDTO transfer = transfers.get(i);
+                transactions.add(Transaction.builder()
+                        .sender(lockedUsers.get(transfer.getSenderId()))
+                        .receiver(lockedUsers.get(transfer.getReceiverId()))
+                        .amount(transfer.getAmount())
+                        .description(transfer.getDescription())
+                        .createdAt(createdAt)
+                        .build());
+            }
+        }
+
+        if (!transactions.isEmpty()) {
+            SortedMap<Long, BigDecimal> balanceDeltas = new TreeMap<>();
+            deltas.forEach((userId, cents) -> balanceDeltas.put(userId, Money.toBigDecimal(cents)));
+            userRepository.applyBalanceDeltas(balanceDeltas);
+            transactionRepository.insertAll(transactions);
+            ledgerService.recordTransfers(transactions);
+            monthlyStatsService.recordTransfers(transactions);
+            outboxService.recordTransfersCompleted(transactions);
+        }
+
+        int inserted = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDTO transfer = transfers.get(i);
+            if (errors[i] != null) {
+                results.add(failedResult(i, transfer, errors[i]));
+            } else {
+                Transaction transaction = transactions.get(inserted++);
+                completeAsyncTransfer(transfer, transaction);
+                results.add(new BatchTransferResultDTO(i, transfer.getReceiverId(), transfer.getAmount(),
+                        true, transaction.getId(), null));
+            }
+        }
+
+        logger.info("Lot de transferts terminé : {} effectué(s), {} refusé(s)", transactions.size(), rejectedCount);
+        return results;
+    }
+
+    /**
+     * Exécute un paiement partagé : l'expéditeur verse une part à chacun des destinataires en une seule
+     * transaction de base de données. Les connexions de l'expéditeur sont lues une seule fois, le total est
+     * débité par un UPDATE conditionnel unique, les destinataires sont crédités par des requêtes JDBC batch
+     * et les transactions, leurs écritures de journal puis leurs événements sont insérés par lot.
+     * Les crédits des destinataires d'identifiant inférieur à l'expéditeur sont appliqués avant le débit,
+     * les autres après, afin de conserver l'ordre croissant d'acquisition des verrous.
+     *
+     * @param splitPaymentDTO DTO contenant l'expéditeur, la description et la part de chaque destinataire
+     * @return les transactions créées, dans l'ordre des parts
+     */
+    @Transactional
+    public List<Transaction> createSplitPayment(SplitPaymentDTO splitPaymentDTO) {
+        Long senderId = splitPaymentDTO.getSenderId();
+        List<SplitShareDTO> shares = splitPaymentDTO.getShares();
+        String description = splitPaymentDTO.getDescription();
+
+        if (senderId == null) {
+            throw new IllegalArgumentException("L'expéditeur est obligatoire");
+        }
+        if (shares == null || shares.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un destinataire est obligatoire");
+        }
+        if (shares.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Un paiement partagé ne peut pas compter plus de "
+                    + MAX_BATCH_SIZE + " destinataires");
+        }
+        if (description == null || description.trim().isEmpty()) {
+            throw new IllegalArgumentException("La description est obligatoire");
+        }
+        if (description.length() > 255) {
+            throw new IllegalArgumentException("La description ne peut pas dépasser 255 caractères");
+        }
+        logger.info("Début d'un paiement partagé : {} verse à {} destinataire(s)", senderId, shares.size());
+
+        LongHashSet connectionIds = connectionGraphCache.getConnectionIds(senderId);
+        SortedMap<Long, BigDecimal> credits = new TreeMap<>();
+        long totalCents = 0L;
+        for (SplitShareDTO share : shares) {
+            Long receiverId = share == null ? null : share.getReceiverId();
+            if (receiverId == null) {
+                throw new IllegalArgumentException("Le destinataire est obligatoire");
+            }
+            if (receiverId.equals(senderId)) {
+                throw new IllegalArgumentException("Vous ne pouvez pas effectuer un transfert vers vous-même");
+            }
+            if (share.getAmount() == null || Money.toCents(share.getAmount()) < 1L) {
+                throw new IllegalArgumentException("Le montant doit être supérieur à zéro");
+            }
+            if (credits.containsKey(receiverId)) {
+                throw new IllegalArgumentException("Un destinataire ne peut figurer qu'une fois dans un paiement partagé");
+            }
+            if (!connectionIds.contains(receiverId)) {
+                throw new IllegalArgumentException("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+            }
+            credits.put(receiverId, share.getAmount());
+            totalCents = Math.addExact(totalCents, Money.toCents(share.getAmount()));
+        }
+
+        SortedMap<Long, BigDecimal> creditsBeforeSender = credits.headMap(senderId);
+        SortedMap<Long, BigDecimal> creditsAfterSender = credits.tailMap(senderId);
+        if (!creditsBeforeSender.isEmpty()) {
+            userRepository.applyBalanceDeltas(creditsBeforeSender);
+        }
+        BigDecimal total = Money.toBigDecimal(totalCents);
+        debitSender(senderId, total);
+        if (!creditsAfterSender.isEmpty()) {
+            userRepository.applyBalanceDeltas(creditsAfterSender);
+        }
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        User sender = userRepository.getReferenceById(senderId);
+        List<Transaction> transactions = new ArrayList<>(shares.size());
+        for (SplitShareDTO share : shares) {
+            transactions.add(Transaction.builder()
+                    .sender(sender)
+                    .receiver(userRepository.getReferenceById(share.getReceiverId()))
+                    .amount(share.getAmount())
+                    .description(description)
+                    .createdAt(createdAt)
+                    .build());
+        }
+
+        transactionRepository.insertAll(transactions);
+        ledgerService.recordTransfers(transactions);
+        monthlyStatsService.recordTransfers(transactions);
+        outboxService.recordTransfersCompleted(transactions);
+
+        logger.info("Paiement partagé terminé : {}€ versés par {} à {} destinataire(s)", total, senderId, shares.size());
+        return transactions;
+    }
+
+    /**
+     * Répartit un montant total à parts égales entre plusieurs destinataires.
+     * Les centimes restants sont attribués un par un aux premiers destinataires de la liste.
+     *
+     * @param total montant total à répartir
+     * @param receiverIds identifiants des destinataires, dans l'ordre de la répartition
+     * @return la part de chaque destinataire
+     */
+    public static List<SplitShareDTO> splitEvenly(BigDecimal total, List<Long> receiverIds) {
+        if (receiverIds == null || receiverIds.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un destinataire est obligatoire");
+        }
+        long totalCents = total == null ? 0L : Money.toCents(total);
+        if (totalCents < 1L) {
+            throw new IllegalArgumentException("Le montant doit être supérieur à zéro");
+        }
+
+        long baseCents = totalCents / receiverIds.size();
+        long remainder = totalCents % receiverIds.size();
+        List<SplitShareDTO> shares = new ArrayList<>(receiverIds.size());
+        for (int i = 0; i < receiverIds.size(); i++) {
+            long cents = baseCents + (i < remainder ? 1 : 0);
+            shares.add(new SplitShareDTO(receiverIds.get(i), Money.toBigDecimal(cents)));
+        }
+        return shares;
+    }
+
+    /**
+     * Vérifie les champs obligatoires d'un transfert d'un lot.
+     *
+     * @param transfer le transfert à vérifier
+     * @return le motif du refus, ou null si les champs sont valides
+     */
+    private String checkTransferFields(TransferDTO transfer) {
+        if (transfer == null || transfer.getSenderId() == null) {
+            return "L'expéditeur est obligatoire";
+        }
+        if (transfer.getReceiverId() == null) {
+            return "Le destinataire est obligatoire";
+        }
+        if (transfer.getSenderId().equals(transfer.getReceiverId())) {
+            return "Vous ne pouvez pas effectuer un transfert vers vous-même";
+        }
+        if (transfer.getAmount() == null) {
+            return "Le montant doit être supérieur à zéro";
+        }
+        try {
+            if (Money.toCents(transfer.getAmount()) < 1L) {
+                return "Le montant doit être supérieur à zéro";
+            }
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (transfer.getDescription() == null || transfer.getDescription().trim().isEmpty()) {
+            return "La description est obligatoire";
+        }
+        if (transfer.getDescription().length() > 255) {
+            return "La description ne peut pas dépasser 255 caractères";
+        }
+        return null;
+    }
+
+    /**
+     * Construit le résultat d'un transfert refusé.
+     *
+     * @param index position du transfert dans le lot
+     * @param transfer le transfert refusé
+     * @param message motif du refus
+     * @return le résultat du transfert
+     */
+    private BatchTransferResultDTO failedResult(int index, TransferDTO transfer, String message) {
+        return new BatchTransferResultDTO(index,
+                transfer != null ? transfer.getReceiverId() : null,
+                transfer != null ? transfer.getAmount() : null,
+                false, null, message);
+    }
+
+    /**
+     * Applique un transfert après avoir verrouillé (SELECT ... FOR UPDATE) les comptes de l'expéditeur
+     * et du destinataire par ordre croissant d'identifiant : les transferts concurrents sur les mêmes
+     * comptes sont ainsi sérialisés sans mise à jour perdue ni interblocage.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction à enregistrer
+     */
+    private Transaction transferWithRowLocks(TransferDTO transferDTO) {
+        Map<Long, User> lockedUsers = lockUsersInOrder(List.of(transferDTO.getSenderId(), transferDTO.getReceiverId()));
+
+        User sender = Optional.ofNullable(lockedUsers.get(transferDTO.getSenderId()))
+                .orElseThrow(() -> new IllegalArgumentException("Expéditeur introuvable"));
+        User receiver = Optional.ofNullable(lockedUsers.get(transferDTO.getReceiverId()))
+                .orElseThrow(() -> new IllegalArgumentException("Destinataire introuvable"));
+
+        return transferBetweenLoadedUsers(sender, receiver, transferDTO);
+    }
+
+    /**
+     * Applique un transfert sans verrouiller les comptes : l'expéditeur et le destinataire sont chargés,
+     * modifiés en Java puis sauvegardés. Si un autre transfert a modifié l'un des comptes entre-temps,
+     * la colonne {@code version} fait échouer la validation et l'opération est rejouée.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction à enregistrer
+     */
+    private Transaction transferWithVersionCheck(TransferDTO transferDTO) {
+        // Le solde contrôlé est le solde total : les sous-soldes éventuels sont d'abord reversés
+        balanceSlotService.sweep(transferDTO.getSenderId());
         User sender = userRepository.findById(transferDTO.getSenderId())
                 .orElseThrow(() -> new IllegalArgumentException("Expéditeur introuvable"));
         User receiver = userRepository.findById(transferDTO.getReceiverId())
                 .orElseThrow(() -> new IllegalArgumentException("Destinataire introuvable"));
 
-        boolean isConnected = userConnectionRepository.existsByUserIdAndConnectionId(
-        sender.getId(), receiver.getId());
+        return transferBetweenLoadedUsers(sender, receiver, transferDTO);
+    }
+
+    /**
+     * Vérifie et applique un transfert entre deux comptes déjà chargés.
+     * Le contrôle du solde et les nouveaux soldes sont calculés en centimes ({@link Money}).
+     *
+     * @param sender le compte de l'expéditeur
+     * @param receiver le compte du destinataire
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction à enregistrer
+     */
+    private Transaction transferBetweenLoadedUsers(User sender, User receiver, TransferDTO transferDTO) {
+        boolean isConnected = connectionGraphCache.isConnected(sender.getId(), receiver.getId());
 
         if (!isConnected) {
             throw new IllegalArgumentException("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
         }
 
-
-        if (sender.getId().equals(receiver.getId())) {
-            throw new IllegalArgumentException("Vous ne pouvez pas effectuer un transfert vers vous-même");
-        }
-
-        if (sender.getBalance().compareTo(transferDTO.getAmount()) < 0) {
+        Money amount = Money.of(transferDTO.getAmount());
+        Money senderBalance = Money.of(sender.getBalance());
+        if (senderBalance.isLessThan(amount)) {
             logger.warn("Solde insuffisant pour l'utilisateur {}", sender.getUsername());
             throw new IllegalArgumentException("Balance insuffisante pour effectuer la transaction");
         }
 
-        sender.setBalance(sender.getBalance().subtract(transferDTO.getAmount()));
+        sender.setBalance(senderBalance.minus(amount).toBigDecimal());
         logger.info("Nouveau solde de {} : {}€", sender.getUsername(), sender.getBalance());
 
-        receiver.setBalance(receiver.getBalance().add(transferDTO.getAmount()));
+        receiver.setBalance(Money.of(receiver.getBalance()).plus(amount).toBigDecimal());
         logger.info("Nouveau solde de {} : {}€", receiver.getUsername(), receiver.getBalance());
 
         userRepository.save(sender);
         userRepository.save(receiver);
 
-        Transaction transaction = Transaction.builder()
+        return Transaction.builder()
                 .sender(sender)
                 .receiver(receiver)
+                .amount(amount.toBigDecimal())
+                .description(transferDTO.getDescription())
+                .build();
+    }
+
+    /**
+     * Applique un transfert par deux UPDATE atomiques, sans charger les entités utilisateur :
+     * un débit conditionnel ({@code balance >= montant}) et un crédit par incrément.
+     * Les deux UPDATE sont exécutés par ordre croissant d'identifiant de compte, pour conserver
+     * le même ordre d'acquisition des verrous que le mode {@link BalanceWriteMode#LOCKED}.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction à enregistrer
+     */
+    private Transaction transferWithAtomicUpdates(TransferDTO transferDTO) {
+        Long senderId = transferDTO.getSenderId();
+        Long receiverId = transferDTO.getReceiverId();
+
+        if (!connectionGraphCache.isConnected(senderId, receiverId)) {
+            // Chemin d'erreur uniquement : distinguer un compte inexistant d'une absence de connexion
+            if (!userRepository.existsById(senderId)) {
+                throw new IllegalArgumentException("Expéditeur introuvable");
+            }
+            if (!userRepository.existsById(receiverId)) {
+                throw new IllegalArgumentException("Destinataire introuvable");
+            }
+            throw new IllegalArgumentException("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+        }
+
+        if (senderId < receiverId) {
+            debitSender(senderId, transferDTO.getAmount());
+            creditReceiver(receiverId, transferDTO.getAmount());
+        } else {
+            creditReceiver(receiverId, transferDTO.getAmount());
+            debitSender(senderId, transferDTO.getAmount());
+        }
+
+        return Transaction.builder()
+                .sender(userRepository.getReferenceById(senderId))
+                .receiver(userRepository.getReferenceById(receiverId))
                 .amount(transferDTO.getAmount())
                 .description(transferDTO.getDescription())
                 .build();
+    }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        logger.info("Transaction enregistrée avec l'id {}", savedTransaction.getId());
+    /**
+     * Débite atomiquement l'expéditeur si son solde est suffisant.
+     * Les sous-soldes d'un compte en mode « solde éclaté » sont d'abord reversés sur son solde principal.
+     *
+     * @param senderId identifiant de l'expéditeur
+     * @param amount montant à débiter
+     */
+    private void debitSender(Long senderId, BigDecimal amount) {
+        balanceSlotService.sweep(senderId);
+        if (userRepository.debitIfSufficient(senderId, amount) == 0) {
+            logger.warn("Solde insuffisant pour l'utilisateur {}", senderId);
+            throw new IllegalArgumentException("Balance insuffisante pour effectuer la transaction");
+        }
+    }
 
-        return savedTransaction;
+    /**
+     * Crédite atomiquement le destinataire, sur un de ses sous-soldes s'il est en mode « solde éclaté ».
+     *
+     * @param receiverId identifiant du destinataire
+     * @param amount montant à créditer
+     */
+    private void creditReceiver(Long receiverId, BigDecimal amount) {
+        if (balanceSlotService.creditRandomSlot(receiverId, amount)) {
+            return;
+        }
+        if (userRepository.credit(receiverId, amount) == 0) {
+            throw new IllegalArgumentException("Destinataire introuvable");
+        }
+    }
+
+    /**
+     * Verrouille les comptes des utilisateurs donnés par ordre croissant d'identifiant.
+     * Toutes les opérations qui modifient plusieurs soldes doivent passer par cette méthode
+     * afin que l'ordre d'acquisition des verrous soit le même pour toutes les transactions.
+     * Les sous-soldes des comptes en mode « solde éclaté » sont d'abord reversés, dans le même ordre
+     * (sous-soldes puis compte, comme un débit atomique) : les soldes chargés sont les soldes totaux.
+     *
+     * @param userIds identifiants des utilisateurs à verrouiller
+     * @return les utilisateurs verrouillés, indexés par identifiant
+     */
+    private Map<Long, User> lockUsersInOrder(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> orderedIds = new ArrayList<>(new TreeSet<>(userIds));
+        if (balanceSlotService.isEnabled()) {
+            orderedIds.forEach(balanceSlotService::sweep);
+        }
+
+        return userRepository.findAllByIdForUpdate(orderedIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
     }
 
 }
\ No newline at end of file
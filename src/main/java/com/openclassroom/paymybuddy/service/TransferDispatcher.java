@@ -0,0 +1,74 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Point d'entrée des transferts unitaires effectués depuis les contrôleurs.
+ * Selon le moteur configuré ({@link TransferEngineMode}), le transfert est exécuté directement
+ * dans sa propre transaction, confié au {@link TransferSequencer} ou validé avec d'autres transferts
+ * par le {@link TransferGroupCommitter}.
+ */
+@Service
+public class TransferDispatcher {
+
+    /**
+     * Service pour gérer les transactions.
+     */
+    private final TransactionService transactionService;
+
+    /**
+     * Moteur de transfert par shards.
+     */
+    private final TransferSequencer transferSequencer;
+
+    /**
+     * Regroupement des validations de transferts.
+     */
+    private final TransferGroupCommitter transferGroupCommitter;
+
+    /**
+     * Moteur utilisé pour exécuter les transferts.
+     */
+    @Value("${paymybuddy.transfer.engine:DIRECT}")
+    private TransferEngineMode engineMode = TransferEngineMode.DIRECT;
+
+    /**
+     * Constructeur pour injecter les services nécessaires.
+     *
+     * @param transactionService Service pour gérer les transactions
+     * @param transferSequencer Moteur de transfert par shards
+     * @param transferGroupCommitter Regroupement des validations de transferts
+     */
+    public TransferDispatcher(TransactionService transactionService, TransferSequencer transferSequencer,
+                              TransferGroupCommitter transferGroupCommitter) {
+        this.transactionService = transactionService;
+        this.transferSequencer = transferSequencer;
+        this.transferGroupCommitter = transferGroupCommitter;
+    }
+
+    /**
+     * Exécute un transfert entre deux utilisateurs avec le moteur configuré.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return la transaction créée
+     * @throws IllegalArgumentException si le transfert est refusé
+     */
+    public Transaction dispatch(TransferDTO transferDTO) {
+        if (engineMode == TransferEngineMode.DIRECT) {
+            return transactionService.createTransfer(transferDTO);
+        }
+
+        BatchTransferResultDTO result = engineMode == TransferEngineMode.GROUP_COMMIT
+                ? transferGroupCommitter.submit(transferDTO)
+                : transferSequencer.submit(transferDTO);
+        if (!result.isSuccess()) {
+            throw new IllegalArgumentException(result.getMessage());
+        }
+        return transactionService.getTransactionById(result.getTransactionId())
+                .orElseThrow(() -> new IllegalStateException("Transaction introuvable après le transfert"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassroom.paymybuddy.service;
+
+/**
+ * Moteur utilisé pour exécuter les transferts unitaires reçus par les contrôleurs.
+ * Configurable via la propriété {@code paymybuddy.transfer.engine}.
+ */
+public enum TransferEngineMode {
+
+    /**
+     * Chaque transfert est exécuté dans sa propre transaction par {@link TransactionService#createTransfer}.
+     */
+    DIRECT,
+
+    /**
+     * Les transferts sont répartis par destinataire entre plusieurs files mono-écrivain
+     * ({@link TransferSequencer}) qui les appliquent par lots.
+     */
+    SHARDED,
+
+    /**
+     * Les transferts reçus pendant une courte fenêtre sont validés ensemble dans une seule
+     * transaction de base de données ({@link TransferGroupCommitter}).
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,20 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+
+/**
+ * Consommateur des événements de transfert diffusés par {@link OutboxDispatcher}.
+ * Tout bean implémentant cette interface est enregistré automatiquement.
+ * La diffusion est « au moins une fois » : un même événement peut être reçu plusieurs fois
+ * (échec d'un autre consommateur, arrêt de l'application avant l'acquittement), le traitement
+ * doit donc être idempotent, par exemple en s'appuyant sur l'identifiant de transaction.
+ */
+public interface TransferEventListener {
+
+    /**
+     * Traite un transfert effectué. Toute exception provoque une nouvelle diffusion de l'événement.
+     *
+     * @param event l'événement à traiter
+     */
+    void onTransferCompleted(TransferCompletedEventDTO event);
+}
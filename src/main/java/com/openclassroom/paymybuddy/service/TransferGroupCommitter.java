@@ -0,0 +1,329 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Regroupement des validations (group commit) des transferts unitaires.
+ * Les transferts reçus pendant une courte fenêtre (ou jusqu'à un nombre maximal de transferts)
+ * sont appliqués ensemble dans une seule transaction de base de données via
+ * {@link TransactionService#executeTransfers}, ce qui partage un même commit entre plusieurs demandeurs.
+ * Chaque demandeur reçoit le résultat de son propre transfert : un transfert refusé n'affecte pas les autres
+ * et, si le lot échoue dans son ensemble, ses transferts sont rejoués un par un.
+ * Un transfert dont le résultat n'arrive pas dans le délai imparti est annulé s'il est encore en file :
+ * le demandeur est alors assuré qu'il ne sera jamais appliqué. S'il est déjà dans un lot en cours de
+ * validation, le demandeur attend la fin du lot et reçoit son résultat réel.
+ */
+@Component
+public class TransferGroupCommitter {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransferGroupCommitter.class);
+
+    /**
+     * Délai d'attente du thread de validation sur une file vide avant de vérifier l'arrêt.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Service appliquant les lots de transferts.
+     */
+    private final TransactionService transactionService;
+
+    /**
+     * Durée maximale de collecte d'un lot après l'arrivée de son premier transfert, en microsecondes.
+     */
+    private final long windowMicros;
+
+    /**
+     * Nombre maximal de transferts validés dans une même transaction.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Durée maximale d'attente du résultat d'un transfert, en millisecondes.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * File des transferts en attente de validation.
+     */
+    private final BlockingQueue<PendingTransfer> queue;
+
+    /**
+     * Thread de validation, démarré au premier transfert.
+     */
+    private Thread committer;
+
+    /**
+     * Indique si le regroupement accepte et traite des transferts.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Nombre de transactions de base de données validées.
+     */
+    private final Counter commits;
+
+    /**
+     * Nombre de transferts refusés faute de place dans la file.
+     */
+    private final Counter rejectedTransfers;
+
+    /**
+     * Nombre de transferts annulés car encore en file à l'expiration du délai d'attente.
+     */
+    private final Counter cancelledTransfers;
+
+    /**
+     * Nombre de lots rejoués transfert par transfert après un échec global.
+     */
+    private final Counter fallbacks;
+
+    /**
+     * Durée d'application des lots.
+     */
+    private final Timer batchTimer;
+
+    /**
+     * Taille des lots validés.
+     */
+    private final DistributionSummary batchSizes;
+
+    /**
+     * Constructeur pour initialiser la file et les métriques.
+     *
+     * @param transactionService Service appliquant les lots de transferts
+     * @param meterRegistry Registre des métriques
+     * @param windowMicros Durée maximale de collecte d'un lot, en microsecondes
+     * @param maxBatchSize Nombre maximal de transferts par lot
+     * @param queueCapacity Nombre maximal de transferts en attente
+     * @param timeoutMillis Durée maximale d'attente du résultat d'un transfert, en millisecondes
+     */
+    public TransferGroupCommitter(
+            TransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.transfer.group-commit.window-us:2000}") long windowMicros,
+            @Value("${paymybuddy.transfer.group-commit.max-batch-size:50}") int maxBatchSize,
+            @Value("${paymybuddy.transfer.group-commit.queue-capacity:2000}") int queueCapacity,
+            @Value("${paymybuddy.transfer.group-commit.timeout-ms:5000}") long timeoutMillis) {
+        if (windowMicros < 0 || maxBatchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("La fenêtre doit être positive, la taille des lots et la capacité de la file strictement positives");
+        }
+        this.transactionService = transactionService;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = Math.min(maxBatchSize, TransactionService.MAX_BATCH_SIZE);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("paymybuddy.transfer.group-commit.queue.depth", queue, BlockingQueue::size)
+                .description("Nombre de transferts en attente de validation groupée")
+                .register(meterRegistry);
+        this.commits = Counter.builder("paymybuddy.transfer.group-commit.commits")
+                .description("Transactions de base de données validées par le regroupement")
+                .register(meterRegistry);
+        this.rejectedTransfers = Counter.builder("paymybuddy.transfer.group-commit.rejected")
+                .description("Transferts refusés car la file de validation était pleine")
+                .register(meterRegistry);
+        this.cancelledTransfers = Counter.builder("paymybuddy.transfer.group-commit.cancelled")
+                .description("Transferts annulés car toujours en file à l'expiration du délai d'attente")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("paymybuddy.transfer.group-commit.fallbacks")
+                .description("Lots rejoués transfert par transfert après un échec global")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("paymybuddy.transfer.group-commit.batch.duration")
+                .description("Durée d'application d'un lot validé en une transaction")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("paymybuddy.transfer.group-commit.batch.size")
+                .description("Nombre de transferts par transaction validée")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Soumet un transfert au regroupement et attend son résultat.
+     * Si le délai imparti expire alors que le transfert est encore en file, il est annulé ; s'il est
+     * déjà en cours de validation, le résultat du lot est attendu.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return le résultat du transfert
+     * @throws IllegalStateException si la file est pleine, si le regroupement est arrêté
+     *                               ou si le transfert a été annulé faute d'avoir été traité à temps ;
+     *                               dans tous ces cas, le transfert n'a pas été effectué
+     */
+    public BatchTransferResultDTO submit(TransferDTO transferDTO) {
+        if (!running) {
+            throw new IllegalStateException("Le moteur de transferts est arrêté");
+        }
+        startCommitter();
+
+        PendingTransfer pending = new PendingTransfer(transferDTO);
+        if (!queue.offer(pending)) {
+            rejectedTransfers.increment();
+            throw new IllegalStateException("Trop de transferts en attente, veuillez réessayer plus tard");
+        }
+
+        return pending.await(timeoutMillis, cancelledTransfers);
+    }
+
+    /**
+     * Démarre le thread de validation s'il ne l'est pas encore.
+     */
+    private synchronized void startCommitter() {
+        if (committer != null) {
+            return;
+        }
+        committer = new Thread(this::drain, "transfer-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+        logger.info("Validation groupée des transferts démarrée (fenêtre {} µs, {} transferts maximum)",
+                windowMicros, maxBatchSize);
+    }
+
+    /**
+     * Boucle du thread de validation : après l'arrivée d'un transfert, collecte les suivants
+     * jusqu'à la fin de la fenêtre ou jusqu'à la taille maximale, puis valide le lot.
+     */
+    private void drain() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                // Les transferts annulés par leur demandeur ne sont pas validés
+                batch.removeIf(pending -> !pending.start());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (Error e) {
+                // Chaque demandeur reçoit une réponse : certains attendent sans délai la fin de leur lot
+                batch.forEach(pending -> pending.fail(e));
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        PendingTransfer remaining;
+        while ((remaining = queue.poll()) != null) {
+            remaining.fail(new IllegalStateException("Le moteur de transferts est arrêté"));
+        }
+    }
+
+    /**
+     * Complète un lot avec les transferts arrivés pendant la fenêtre de collecte.
+     *
+     * @param batch le lot en cours, contenant déjà son premier transfert
+     * @throws InterruptedException si le thread est interrompu pendant l'attente
+     */
+    private void collect(List<PendingTransfer> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                return;
+            }
+            PendingTransfer next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Valide un lot en une seule transaction et transmet à chaque demandeur son résultat.
+     * Si la transaction du lot échoue, chaque transfert est rejoué dans sa propre transaction
+     * afin qu'une erreur ne soit remontée qu'au demandeur concerné.
+     *
+     * @param batch transferts du lot, dans leur ordre d'arrivée
+     */
+    private void flush(List<PendingTransfer> batch) {
+        List<TransferDTO> transfers = batch.stream()
+                .map(PendingTransfer::getTransfer)
+                .collect(Collectors.toList());
+
+        batchSizes.record(batch.size());
+        Timer.Sample sample = Timer.start();
+        List<BatchTransferResultDTO> results;
+        try {
+            results = transactionService.executeTransfers(transfers, BatchTransferMode.BEST_EFFORT);
+            commits.increment();
+        } catch (RuntimeException e) {
+            sample.stop(batchTimer);
+            logger.warn("Échec de la validation groupée de {} transferts, application un par un", batch.size(), e);
+            fallbacks.increment();
+            batch.forEach(this::flushAlone);
+            return;
+        }
+        sample.stop(batchTimer);
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    /**
+     * Applique un transfert seul dans sa propre transaction.
+     *
+     * @param pending le transfert à appliquer
+     */
+    private void flushAlone(PendingTransfer pending) {
+        try {
+            BatchTransferResultDTO result = transactionService
+                    .executeTransfers(List.of(pending.getTransfer()), BatchTransferMode.BEST_EFFORT).get(0);
+            commits.increment();
+            pending.complete(result);
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de l'application du transfert {}", pending.getTransfer(), e);
+            pending.fail(e);
+        }
+    }
+
+    /**
+     * Arrête le regroupement après avoir validé les transferts déjà en file.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread started;
+        synchronized (this) {
+            started = committer;
+        }
+        if (started == null) {
+            return;
+        }
+        try {
+            started.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Moteur de transfert en mémoire répartissant les comptes entre N shards.
+ * Chaque shard possède une file bornée et un unique thread écrivain qui applique les transferts
+ * dans leur ordre d'arrivée, par lots, via {@link TransactionService#executeTransfers}.
+ * Les transferts sont routés selon le destinataire : les crédits d'un compte très sollicité
+ * sont regroupés en un seul verrou et une seule mise à jour par lot.
+ * Un transfert dont l'expéditeur appartient à un autre shard reste sûr : chaque lot verrouille
+ * en base tous les comptes concernés par ordre croissant d'identifiant.
+ * Un transfert dont le résultat n'arrive pas dans le délai imparti est annulé s'il est encore en file :
+ * le demandeur est alors assuré qu'il ne sera jamais appliqué. S'il est déjà pris en charge par le
+ * thread écrivain, le demandeur attend la fin de son lot et reçoit son résultat réel.
+ */
+@Component
+public class TransferSequencer {
+
+    /**
+     * Logger pour enregistrer les informations de débogage.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TransferSequencer.class);
+
+    /**
+     * Délai d'attente d'un thread écrivain sur une file vide avant de vérifier l'arrêt du moteur.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Service appliquant les lots de transferts.
+     */
+    private final TransactionService transactionService;
+
+    /**
+     * Nombre de shards.
+     */
+    private final int shardCount;
+
+    /**
+     * Nombre maximal de transferts appliqués dans un même lot.
+     */
+    private final int batchSize;
+
+    /**
+     * Durée maximale d'attente du résultat d'un transfert, en millisecondes.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Files des transferts en attente, une par shard.
+     */
+    private final List<BlockingQueue<PendingTransfer>> queues;
+
+    /**
+     * Threads écrivains, un par shard, démarrés au premier transfert.
+     */
+    private final List<Thread> writers = new ArrayList<>();
+
+    /**
+     * Indique si le moteur accepte et traite des transferts.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Nombre de transferts refusés faute de place dans la file de leur shard.
+     */
+    private final Counter rejectedTransfers;
+
+    /**
+     * Nombre de transferts annulés car encore en file à l'expiration du délai d'attente.
+     */
+    private final Counter cancelledTransfers;
+
+    /**
+     * Durée d'application des lots.
+     */
+    private final Timer batchTimer;
+
+    /**
+     * Taille des lots appliqués.
+     */
+    private final DistributionSummary batchSizes;
+
+    /**
+     * Constructeur pour initialiser les files et les métriques du moteur.
+     *
+     * @param transactionService Service appliquant les lots de transferts
+     * @param meterRegistry Registre des métriques
+     * @param shardCount Nombre de shards
+     * @param queueCapacity Nombre maximal de transferts en attente par shard
+     * @param batchSize Nombre maximal de transferts par lot
+     * @param timeoutMillis Durée maximale d'attente du résultat d'un transfert, en millisecondes
+     */
+    public TransferSequencer(
+            TransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${paymybuddy.transfer.sequencer.shards:4}") int shardCount,
+            @Value("${paymybuddy.transfer.sequencer.queue-capacity:1000}") int queueCapacity,
+            @Value("${paymybuddy.transfer.sequencer.batch-size:50}") int batchSize,
+            @Value("${paymybuddy.transfer.sequencer.timeout-ms:5000}") long timeoutMillis) {
+        if (shardCount < 1 || queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Le nombre de shards, la capacité des files et la taille des lots doivent être positifs");
+        }
+        this.transactionService = transactionService;
+        this.shardCount = shardCount;
+        this.batchSize = Math.min(batchSize, TransactionService.MAX_BATCH_SIZE);
+        this.timeoutMillis = timeoutMillis;
+
+        this.queues = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            BlockingQueue<PendingTransfer> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            Gauge.builder("paymybuddy.transfer.sequencer.queue.depth", queue, BlockingQueue::size)
+                    .description("Nombre de transferts en attente dans la file du shard")
+                    .tag("shard", String.valueOf(shard))
+                    .register(meterRegistry);
+        }
+
+        this.rejectedTransfers = Counter.builder("paymybuddy.transfer.sequencer.rejected")
+                .description("Transferts refusés car la file du shard était pleine")
+                .register(meterRegistry);
+        this.cancelledTransfers = Counter.builder("paymybuddy.transfer.sequencer.cancelled")
+                .description("Transferts annulés car toujours en file à l'expiration du délai d'attente")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("paymybuddy.transfer.sequencer.batch.duration")
+                .description("Durée d'application d'un lot de transferts")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("paymybuddy.transfer.sequencer.batch.size")
+                .description("Nombre de transferts par lot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Soumet un transfert au shard de son destinataire et attend son résultat.
+     * Si le délai imparti expire alors que le transfert est encore en file, il est annulé ; s'il est
+     * déjà en cours d'application, le résultat du lot est attendu.
+     *
+     * @param transferDTO DTO contenant les informations de transfert
+     * @return le résultat du transfert
+     * @throws IllegalStateException si la file du shard est pleine, si le moteur est arrêté
+     *                               ou si le transfert a été annulé faute d'avoir été traité à temps ;
+     *                               dans tous ces cas, le transfert n'a pas été effectué
+     */
+    public BatchTransferResultDTO submit(TransferDTO transferDTO) {
+        if (!running) {
+            throw new IllegalStateException("Le moteur de transferts est arrêté");
+        }
+        startWriters();
+
+        PendingTransfer pending = new PendingTransfer(transferDTO);
+        if (!queues.get(shardOf(transferDTO.getReceiverId())).offer(pending)) {
+            rejectedTransfers.increment();
+            throw new IllegalStateException("Trop de transferts en attente, veuillez réessayer plus tard");
+        }
+
+        return pending.await(timeoutMillis, cancelledTransfers);
+    }
+
+    /**
+     * Retourne le shard d'un compte.
+     *
+     * @param accountId identifiant du compte
+     * @return le numéro du shard
+     */
+    int shardOf(Long accountId) {
+        return accountId == null ? 0 : Math.floorMod(accountId, shardCount);
+    }
+
+    /**
+     * Démarre les threads écrivains s'ils ne le sont pas encore.
+     * Tant que le moteur n'est pas utilisé, aucun thread n'est créé.
+     */
+    private synchronized void startWriters() {
+        if (!writers.isEmpty()) {
+            return;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            int currentShard = shard;
+            Thread writer = new Thread(() -> drain(currentShard), "transfer-shard-" + shard);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+        logger.info("Moteur de transferts démarré avec {} shards", shardCount);
+    }
+
+    /**
+     * Boucle d'un thread écrivain : regroupe les transferts en attente de son shard et les applique par lots.
+     *
+     * @param shard numéro du shard
+     */
+    private void drain(int shard) {
+        BlockingQueue<PendingTransfer> queue = queues.get(shard);
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                // Les transferts annulés par leur demandeur ne sont pas appliqués
+                batch.removeIf(pending -> !pending.start());
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        PendingTransfer remaining;
+        while ((remaining = queue.poll()) != null) {
+            remaining.fail(new IllegalStateException("Le moteur de transferts est arrêté"));
+        }
+    }
+
+    /**
+     * Applique un lot de transferts et transmet à chaque demandeur le résultat de son transfert.
+     *
+     * @param batch transferts du lot, dans leur ordre d'arrivée
+     */
+    private void flush(List<PendingTransfer> batch) {
+        List<TransferDTO> transfers = batch.stream()
+                .map(PendingTransfer::getTransfer)
+                .collect(Collectors.toList());
+
+        batchSizes.record(batch.size());
+        Timer.Sample sample = Timer.start();
+        List<BatchTransferResultDTO> results;
+        try {
+            results = transactionService.executeTransfers(transfers, BatchTransferMode.BEST_EFFORT);
+        } catch (RuntimeException | Error e) {
+            sample.stop(batchTimer);
+            logger.error("Erreur lors de l'application d'un lot de {} transferts", batch.size(), e);
+            // Chaque demandeur reçoit une réponse : certains attendent sans délai la fin de leur lot
+            batch.forEach(pending -> pending.fail(e));
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return;
+        }
+        sample.stop(batchTimer);
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    /**
+     * Arrête le moteur après avoir appliqué les transferts déjà en file.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        List<Thread> started;
+        synchronized (this) {
+            started = new ArrayList<>(writers);
+        }
+        for (Thread writer : started) {
+            try {
+                writer.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.UserConnection;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Écouteur JPA des connexions entre utilisateurs : invalide le {@link ConnectionGraphCache}
+ * de l'utilisateur principal lorsqu'une de ses connexions est ajoutée ou supprimée.
+ * Le cache est résolu à la première notification : l'écouteur est instancié par Hibernate pendant
+ * la création de l'EntityManagerFactory, dont dépend le repository utilisé par le cache.
+ */
+@Component
+public class UserConnectionListener {
+
+    /**
+     * Cache du graphe des connexions.
+     */
+    private final ObjectProvider<ConnectionGraphCache> connectionGraphCache;
+
+    /**
+     * Constructeur pour injecter le cache des connexions.
+     *
+     * @param connectionGraphCache Cache du graphe des connexions
+     */
+    public UserConnectionListener(ObjectProvider<ConnectionGraphCache> connectionGraphCache) {
+        this.connectionGraphCache = connectionGraphCache;
+    }
+
+    /**
+     * Invalide le cache de l'utilisateur principal après l'ajout ou la suppression d'une connexion.
+     *
+     * @param connection la connexion ajoutée ou supprimée
+     */
+    @PostPersist
+    @PostRemove
+    public void onConnectionChanged(UserConnection connection) {
+        if (connection.getUser() != null) {
+            connectionGraphCache.getObject().invalidate(connection.getUser().getId());
+        }
+    }
+}
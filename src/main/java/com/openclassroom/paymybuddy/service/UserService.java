@@ -1,15 +1,18 @@
 package com.openclassroom.paymybuddy.service;
 
 import com.openclassroom.paymybuddy.dto.RegisterDTO;
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.model.UserConnection;
 import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
 import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.util.Money;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -44,6 +47,31 @@ public class UserService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Service gérant les sous-soldes des comptes en mode « solde éclaté ».
+     */
+    private final BalanceSlotService balanceSlotService;
+
+    /**
+     * Service gérant le journal des mouvements.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * Cache du graphe des connexions.
+     */
+    private final ConnectionGraphCache connectionGraphCache;
+
+    /**
+     * Exécuteur des écritures de solde, rejouées en cas de conflit de version.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * Service tenant à jour les totaux mensuels des utilisateurs.
+     */
+    private final MonthlyStatsService monthlyStatsService;
+
     /**
      * Pattern pour détecter si un identifiant ressemble à un email.
      */
@@ -51,17 +79,46 @@ public class UserService {
         "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"
     );
 
+    /**
+     * Balance maximale autorisée pour un utilisateur.
+     */
+    private static final BigDecimal MAX_BALANCE = BigDecimal.valueOf(10000);
+
+    /**
+     * Balance maximale autorisée pour un utilisateur, en centimes.
+     */
+    private static final long MAX_BALANCE_CENTS = Money.toCents(MAX_BALANCE);
+
+    /**
+     * Mode d'écriture des soldes utilisé par les ajustements de balance.
+     */
+    @Value("${paymybuddy.balance.write-mode:ATOMIC}")
+    private BalanceWriteMode balanceWriteMode = BalanceWriteMode.ATOMIC;
+
     /**
      * Constructeur pour initialiser les repositories nécessaires.
      *
      * @param userRepository Repository des utilisateurs
      * @param userConnectionRepository Repository des connexions entre utilisateurs
      * @param passwordEncoder Encodeur de mots de passe
+     * @param balanceSlotService Service gérant les sous-soldes
+     * @param ledgerService Service gérant le journal des mouvements
+     * @param connectionGraphCache Cache du graphe des connexions
+     * @param optimisticRetryExecutor Exécuteur des écritures de solde
+     * @param monthlyStatsService Service tenant à jour les totaux mensuels
      */
-    public UserService(UserRepository userRepository, UserConnectionRepository userConnectionRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, UserConnectionRepository userConnectionRepository,
+                       PasswordEncoder passwordEncoder, BalanceSlotService balanceSlotService,
+                       LedgerService ledgerService, ConnectionGraphCache connectionGraphCache,
+                       OptimisticRetryExecutor optimisticRetryExecutor, MonthlyStatsService monthlyStatsService) {
         this.userRepository = userRepository;
         this.userConnectionRepository = userConnectionRepository;
         this.passwordEncoder = passwordEncoder;
+        this.balanceSlotService = balanceSlotService;
+        this.ledgerService = ledgerService;
+        this.connectionGraphCache = connectionGraphCache;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.monthlyStatsService = monthlyStatsService;
     }
 
     /**
@@ -74,6 +131,16 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * Récupère le solde total d'un utilisateur, sous-soldes compris, pour l'affichage.
+     *
+     * @param user L'utilisateur
+     * @return Le solde principal augmenté de la somme des sous-soldes
+     */
+    public BigDecimal getTotalBalance(User user) {
+        return balanceSlotService.getTotalBalance(user);
+    }
+
     /**
      * Ajoute une connexion entre deux utilisateurs.
      *
@@ -94,7 +161,7 @@ public class UserService {
         }
 
         // Vérifier si la connexion existe déjà
-        boolean connectionExists = userConnectionRepository.existsByUserAndConnection(currentUser, targetUser);
+        boolean connectionExists = connectionGraphCache.isConnected(currentUser.getId(), targetUser.getId());
         if (connectionExists) {
             throw new IllegalArgumentException("Cette connexion existe déjà");
         }
@@ -144,16 +211,16 @@ public class UserService {
      *
      * @param searchTerm Terme de recherche
      * @param currentUserId ID de l'utilisateur courant
-     * @return Une liste des utilisateurs correspondant au terme de recherche
+     * @return Les projections (identifiant, nom d'utilisateur) des utilisateurs correspondant au terme de recherche
      */
-    public List<User> searchUsers(String searchTerm, Long currentUserId) {
+    public List<UserSearchView> searchUsers(String searchTerm, Long currentUserId) {
         logger.info("Recherche d'utilisateurs avec le terme: {} pour l'utilisateur ID: {}", searchTerm, currentUserId);
         
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return List.of();
         }
         
-        List<User> users = userRepository.searchUsersExcludingCurrent(currentUserId, searchTerm.trim());
+        List<UserSearchView> users = userRepository.searchUsersExcludingCurrent(currentUserId, searchTerm.trim());
         logger.info("Trouvé {} utilisateurs correspondant au terme: {}", users.size(), searchTerm);
         
         return users;
@@ -215,8 +282,8 @@ public class UserService {
         }
 
         //Vérifier si une connexion existe déjà (dans les deux sens)
-        boolean connectionExists = userConnectionRepository.existsByUserAndConnection(currentUser, targetUser) ||
-                                 userConnectionRepository.existsByUserAndConnection(targetUser, currentUser);
+        boolean connectionExists = connectionGraphCache.isConnected(currentUser.getId(), targetUser.getId()) ||
+                                 connectionGraphCache.isConnected(targetUser.getId(), currentUser.getId());
         
         if (connectionExists) {
             throw new IllegalArgumentException("Cette connexion existe déjà");
@@ -238,11 +305,21 @@ public class UserService {
      * @throws IllegalArgumentException si la balance est invalide
      */
     private void validateBalanceLimits(BigDecimal balance) {
-        if (balance.compareTo(BigDecimal.ZERO) < 0) {
+        validateBalanceLimits(Money.toCents(balance));
+    }
+
+    /**
+     * Valide les limites de balance exprimée en centimes
+     *
+     * @param balanceCents Balance à valider, en centimes
+     * @throws IllegalArgumentException si la balance est invalide
+     */
+    private void validateBalanceLimits(long balanceCents) {
+        if (balanceCents < 0L) {
             throw new IllegalArgumentException("La balance ne peut pas être inférieure à 0€");
         }
         
-        if (balance.compareTo(BigDecimal.valueOf(10000)) > 0) {
+        if (balanceCents > MAX_BALANCE_CENTS) {
             throw new IllegalArgumentException("La balance ne peut pas être supérieure à 10 000€");
         }
     }
@@ -255,7 +332,7 @@ public class UserService {
      * @throws IllegalArgumentException si les paramètres sont invalides
      */
     private void validateAdjustmentParameters(BigDecimal amount, String operation) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || Money.toCents(amount) <= 0L) {
             throw new IllegalArgumentException("Le montant doit être supérieur à 0");
         }
         
@@ -265,7 +342,9 @@ public class UserService {
     }
 
     /**
-     * Modifier la balance d'un utilisateur
+     * Modifier la balance d'un utilisateur.
+     * L'écart avec l'ancienne balance est journalisé comme un ajustement.
+     * L'écriture est contrôlée par la version de l'utilisateur et rejouée en cas de conflit.
      *
      * @param userId ID de l'utilisateur
      * @param newBalance Nouveau montant de la balance
@@ -275,20 +354,40 @@ public class UserService {
         
         // Validation des limites
         validateBalanceLimits(newBalance);
-        
+
+        optimisticRetryExecutor.execute("update-balance", () -> {
+            replaceBalance(userId, newBalance);
+            return null;
+        });
+    }
+
+    /**
+     * Remplace la balance d'un utilisateur dans la transaction courante.
+     *
+     * @param userId ID de l'utilisateur
+     * @param newBalance Nouveau montant de la balance
+     */
+    private void replaceBalance(Long userId, BigDecimal newBalance) {
+        // Le nouveau montant remplace le solde total : les sous-soldes éventuels sont d'abord reversés
+        balanceSlotService.sweep(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
         
         BigDecimal oldBalance = user.getBalance();
         user.setBalance(newBalance);
         userRepository.save(user);
+        BigDecimal delta = newBalance.subtract(oldBalance);
+        ledgerService.recordAdjustment(userId, delta);
+        monthlyStatsService.recordAdjustment(userId, delta);
         
         logger.info("Balance modifiée avec succès - UserId: {}, Ancien montant: {}, Nouveau montant: {}", 
                    userId, oldBalance, newBalance);
     }
     
     /**
-     * Ajouter ou retirer de l'argent à la balance d'un utilisateur
+     * Ajouter ou retirer de l'argent à la balance d'un utilisateur.
+     * L'opération est journalisée dans la même transaction, ouverte par {@link OptimisticRetryExecutor}
+     * qui la rejoue en cas de conflit de version.
      *
      * @param userId ID de l'utilisateur
      * @param amount Montant à ajuster
@@ -300,24 +399,81 @@ public class UserService {
         
         // Validation des paramètres d'entrée
         validateAdjustmentParameters(amount, operation);
-        
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-        
-        BigDecimal currentBalance = user.getBalance();
-        BigDecimal newBalance;
+
+        optimisticRetryExecutor.execute("adjust-balance", () -> {
+            if (balanceWriteMode == BalanceWriteMode.ATOMIC) {
+                adjustUserBalanceAtomically(userId, amount, operation);
+            } else {
+                adjustLoadedUserBalance(userId, amount, operation);
+            }
+            BigDecimal delta = "ADD".equals(operation) ? amount : amount.negate();
+            ledgerService.recordAdjustment(userId, delta);
+            monthlyStatsService.recordAdjustment(userId, delta);
+            return null;
+        });
+        
+        logger.info("Balance ajustée avec succès - UserId: {}, Opération: {}, Montant: {}", 
+                   userId, operation, amount);
+    }
+
+    /**
+     * Ajuste la balance d'un utilisateur chargé puis sauvegardé : après verrouillage de sa ligne
+     * (SELECT ... FOR UPDATE) en mode {@link BalanceWriteMode#LOCKED}, sans verrou mais sous contrôle
+     * de version en mode {@link BalanceWriteMode#OPTIMISTIC}.
+     *
+     * @param userId ID de l'utilisateur
+     * @param amount Montant à ajuster
+     * @param operation Type d'opération ("ADD" ou "SUBTRACT")
+     */
+    private void adjustLoadedUserBalance(Long userId, BigDecimal amount, String operation) {
+        // Les limites portent sur le solde total : les sous-soldes éventuels sont d'abord reversés
+        balanceSlotService.sweep(userId);
+        Optional<User> loaded = balanceWriteMode == BalanceWriteMode.LOCKED
+                ? userRepository.findAllByIdForUpdate(List.of(userId)).stream().findFirst()
+                : userRepository.findById(userId);
+        User user = loaded.orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
+        
+        long currentBalance = Money.toCents(user.getBalance());
+        long amountCents = Money.toCents(amount);
+        long newBalance;
         
         if ("ADD".equals(operation)) {
-            newBalance = currentBalance.add(amount);
+            newBalance = Math.addExact(currentBalance, amountCents);
         } else { // "SUBTRACT" - déjà validé dans validateAdjustmentParameters
-            newBalance = currentBalance.subtract(amount);
+            newBalance = Math.subtractExact(currentBalance, amountCents);
         }
         
         // Utiliser la méthode de validation existante
-        updateUserBalance(userId, newBalance);
+        validateBalanceLimits(newBalance);
         
-        logger.info("Balance ajustée avec succès - UserId: {}, Opération: {}, Montant: {}, Nouvelle balance: {}", 
-                   userId, operation, amount, newBalance);
+        user.setBalance(Money.toBigDecimal(newBalance));
+        userRepository.save(user);
+    }
+
+    /**
+     * Ajuste la balance par un UPDATE atomique conditionnel, sans charger l'entité utilisateur.
+     * Les limites de balance sont vérifiées par la clause WHERE de la requête.
+     *
+     * @param userId ID de l'utilisateur
+     * @param amount Montant à ajuster
+     * @param operation Type d'opération ("ADD" ou "SUBTRACT")
+     */
+    private void adjustUserBalanceAtomically(Long userId, BigDecimal amount, String operation) {
+        boolean isAdd = "ADD".equals(operation);
+        // Les limites portent sur le solde total : les sous-soldes éventuels sont d'abord reversés
+        balanceSlotService.sweep(userId);
+        int updatedRows = isAdd
+                ? userRepository.creditUpTo(userId, amount, MAX_BALANCE)
+                : userRepository.debitIfSufficient(userId, amount);
+        
+        if (updatedRows == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new EntityNotFoundException("Utilisateur non trouvé");
+            }
+            throw new IllegalArgumentException(isAdd
+                    ? "La balance ne peut pas être supérieure à 10 000€"
+                    : "La balance ne peut pas être inférieure à 0€");
+        }
     }
     
     /**
@@ -0,0 +1,236 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roue temporelle hiérarchique : les éléments sont rangés dans des cases selon leur échéance,
+ * la roue du niveau {@code n} couvrant {@code 2^(bits × (n + 1))} ticks. À chaque tick, seule la case
+ * courante du premier niveau est vidée ; les cases des niveaux supérieurs sont redistribuées vers
+ * les niveaux inférieurs lorsque la roue inférieure a fait un tour complet. Ajouter un élément
+ * et faire avancer la roue d'un tick coûtent ainsi un temps constant, quel que soit le nombre d'éléments.
+ * Un élément n'est jamais rendu avant son échéance, au plus un tick après.
+ * Cette classe n'est pas synchronisée.
+ *
+ * @param <T> Le type des éléments planifiés.
+ */
+public class HierarchicalTimerWheel<T> {
+
+    /**
+     * Durée d'un tick, en millisecondes.
+     */
+    private final long tickMillis;
+
+    /**
+     * Nombre de bits d'index par niveau (chaque roue comporte {@code 2^bits} cases).
+     */
+    private final int bitsPerLevel;
+
+    /**
+     * Masque extrayant l'index d'une case dans une roue.
+     */
+    private final long slotMask;
+
+    /**
+     * Cases de chaque niveau, allouées à la première utilisation.
+     */
+    private final List<Entry<T>>[][] wheels;
+
+    /**
+     * Éléments déjà échus, rendus au prochain appel de {@link #advance(long)}.
+     */
+    private List<Entry<T>> expired = new ArrayList<>();
+
+    /**
+     * Dernier tick traité.
+     */
+    private long currentTick;
+
+    /**
+     * Nombre d'éléments planifiés.
+     */
+    private int size;
+
+    /**
+     * Crée une roue temporelle.
+     *
+     * @param tickMillis La durée d'un tick, en millisecondes.
+     * @param bitsPerLevel Le nombre de bits d'index par niveau.
+     * @param levels Le nombre de niveaux.
+     * @param startMillis L'instant de départ de la roue, en millisecondes.
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMillis, int bitsPerLevel, int levels, long startMillis) {
+        if (tickMillis < 1 || bitsPerLevel < 1 || levels < 1 || bitsPerLevel * levels > 40) {
+            throw new IllegalArgumentException("Paramètres de roue temporelle invalides");
+        }
+        this.tickMillis = tickMillis;
+        this.bitsPerLevel = bitsPerLevel;
+        this.slotMask = (1L << bitsPerLevel) - 1;
+        this.wheels = new List[levels][];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Planifie un élément. Un élément dont l'échéance est déjà passée est rendu au prochain appel
+     * de {@link #advance(long)}.
+     *
+     * @param deadlineMillis L'échéance, en millisecondes.
+     * @param item L'élément.
+     * @throws IllegalArgumentException si l'échéance dépasse l'horizon de la roue.
+     */
+    public void schedule(long deadlineMillis, T item) {
+        long deadlineTick = -Math.floorDiv(-deadlineMillis, tickMillis);
+        if (deadlineTick - currentTick >= 1L << (bitsPerLevel * wheels.length)) {
+            throw new IllegalArgumentException("L'échéance dépasse l'horizon de la roue temporelle");
+        }
+        place(new Entry<>(deadlineTick, item));
+        size++;
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à l'instant donné et rend les éléments échus.
+     *
+     * @param nowMillis L'instant courant, en millisecondes.
+     * @return Les éléments échus, par tick croissant.
+     */
+    public List<T> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> due = new ArrayList<>();
+        drain(due);
+        while (currentTick < nowTick) {
+            if (size == 0) {
+                // Roue vide : inutile de parcourir les ticks intermédiaires
+                currentTick = nowTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            List<Entry<T>> slot = slot(0, currentTick & slotMask);
+            if (!slot.isEmpty()) {
+                expired = new ArrayList<>(slot);
+                slot.clear();
+                drain(due);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Retourne le nombre d'éléments planifiés.
+     *
+     * @return Le nombre d'éléments planifiés.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne la durée maximale séparant l'instant courant de l'échéance d'un élément planifiable.
+     *
+     * @return L'horizon de la roue, en millisecondes.
+     */
+    public long getHorizonMillis() {
+        return tickMillis * ((1L << (bitsPerLevel * wheels.length)) - 1);
+    }
+
+    /**
+     * Range un élément dans la case correspondant à son échéance, relativement au tick courant.
+     *
+     * @param entry L'élément à ranger.
+     */
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expired.add(entry);
+            return;
+        }
+        int level = 0;
+        while (level < wheels.length - 1 && delta >= 1L << (bitsPerLevel * (level + 1))) {
+            level++;
+        }
+        slot(level, (entry.deadlineTick >>> (bitsPerLevel * level)) & slotMask).add(entry);
+    }
+
+    /**
+     * Redistribue vers les niveaux inférieurs les cases des niveaux supérieurs atteintes au tick courant.
+     */
+    private void cascade() {
+        for (int level = 1; level < wheels.length; level++) {
+            if ((currentTick & ((1L << (bitsPerLevel * level)) - 1)) != 0) {
+                return;
+            }
+            List<Entry<T>> slot = slot(level, (currentTick >>> (bitsPerLevel * level)) & slotMask);
+            if (!slot.isEmpty()) {
+                List<Entry<T>> entries = new ArrayList<>(slot);
+                slot.clear();
+                entries.forEach(this::place);
+            }
+        }
+    }
+
+    /**
+     * Transfère les éléments échus vers la liste à rendre.
+     *
+     * @param due La liste des éléments à rendre.
+     */
+    private void drain(List<T> due) {
+        if (expired.isEmpty()) {
+            return;
+        }
+        for (Entry<T> entry : expired) {
+            due.add(entry.item);
+        }
+        size -= expired.size();
+        expired = new ArrayList<>();
+    }
+
+    /**
+     * Retourne une case, en allouant sa roue si nécessaire.
+     *
+     * @param level Le niveau.
+     * @param index L'index de la case.
+     * @return La case.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Entry<T>> slot(int level, long index) {
+        if (wheels[level] == null) {
+            wheels[level] = new List[1 << bitsPerLevel];
+        }
+        List<Entry<T>> slot = wheels[level][(int) index];
+        if (slot == null) {
+            slot = new ArrayList<>();
+            wheels[level][(int) index] = slot;
+        }
+        return slot;
+    }
+
+    /**
+     * Élément planifié, avec son échéance exprimée en ticks.
+     *
+     * @param <T> Le type de l'élément.
+     */
+    private static final class Entry<T> {
+
+        /**
+         * L'échéance, en ticks.
+         */
+        private final long deadlineTick;
+
+        /**
+         * L'élément.
+         */
+        private final T item;
+
+        /**
+         * Crée un élément planifié.
+         *
+         * @param deadlineTick L'échéance, en ticks.
+         * @param item L'élément.
+         */
+        private Entry(long deadlineTick, T item) {
+            this.deadlineTick = deadlineTick;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Plage d'identifiants, bornes incluses, utilisée pour découper un traitement de masse en partitions indépendantes.
+ */
+public final class IdRange {
+
+    /**
+     * Borne inférieure (incluse).
+     */
+    private final long start;
+
+    /**
+     * Borne supérieure (incluse).
+     */
+    private final long end;
+
+    /**
+     * Crée une plage d'identifiants.
+     *
+     * @param start La borne inférieure (incluse).
+     * @param end La borne supérieure (incluse).
+     */
+    public IdRange(long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("La borne supérieure doit être supérieure ou égale à la borne inférieure");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Découpe l'intervalle [min, max] en plages consécutives d'au plus {@code rangeSize} identifiants.
+     *
+     * @param min Le plus petit identifiant.
+     * @param max Le plus grand identifiant.
+     * @param rangeSize Le nombre maximal d'identifiants par plage.
+     * @return Les plages, par ordre croissant.
+     */
+    public static List<IdRange> split(long min, long max, long rangeSize) {
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("La taille d'une plage doit être au moins égale à 1");
+        }
+        List<IdRange> ranges = new ArrayList<>();
+        if (max < min) {
+            return ranges;
+        }
+        long start = min;
+        while (true) {
+            long end = max - start < rangeSize ? max : start + rangeSize - 1;
+            ranges.add(new IdRange(start, end));
+            if (end == max) {
+                return ranges;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Retourne la borne inférieure.
+     *
+     * @return La borne inférieure (incluse).
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Retourne la borne supérieure.
+     *
+     * @return La borne supérieure (incluse).
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Retourne le nombre d'identifiants de la plage.
+     *
+     * @return Le nombre d'identifiants.
+     */
+    public long size() {
+        return end - start + 1;
+    }
+
+    /**
+     * Indique si un identifiant appartient à la plage.
+     *
+     * @param id L'identifiant.
+     * @return true si l'identifiant est compris entre les bornes.
+     */
+    public boolean contains(long id) {
+        return id >= start && id <= end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdRange)) {
+            return false;
+        }
+        IdRange other = (IdRange) o;
+        return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + "]";
+    }
+}
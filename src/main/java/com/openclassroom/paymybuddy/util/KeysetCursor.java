@@ -0,0 +1,114 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans une liste triée par (date, identifiant) décroissants, transmise au client sous forme
+ * d'une chaîne opaque pour demander la page suivante d'une pagination sur la clé.
+ * Les instances sont immuables.
+ */
+public final class KeysetCursor {
+
+    /**
+     * Séparateur entre la date et l'identifiant dans la forme décodée du curseur.
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * La date du dernier élément de la page.
+     */
+    private final LocalDateTime createdAt;
+
+    /**
+     * L'identifiant du dernier élément de la page.
+     */
+    private final long id;
+
+    /**
+     * Crée un curseur positionné sur un élément.
+     *
+     * @param createdAt La date de l'élément.
+     * @param id L'identifiant de l'élément.
+     */
+    public KeysetCursor(LocalDateTime createdAt, long id) {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("La date du curseur est obligatoire");
+        }
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Retourne la date du dernier élément de la page.
+     *
+     * @return La date.
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Retourne l'identifiant du dernier élément de la page.
+     *
+     * @return L'identifiant.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Encode le curseur en une chaîne opaque utilisable dans une URL.
+     *
+     * @return Le curseur encodé.
+     */
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur produit par {@link #encode()}.
+     *
+     * @param encoded Le curseur encodé.
+     * @return Le curseur.
+     * @throws IllegalArgumentException si la chaîne n'est pas un curseur valide.
+     */
+    public static KeysetCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor cursor = (KeysetCursor) other;
+        return id == cursor.id && createdAt.equals(cursor.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * createdAt.hashCode() + Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{createdAt=" + createdAt + ", id=" + id + "}";
+    }
+}
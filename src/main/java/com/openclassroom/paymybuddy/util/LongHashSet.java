@@ -0,0 +1,194 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.util.Collection;
+
+/**
+ * Ensemble de valeurs {@code long} à adressage ouvert, sans objet par élément (ni boxing ni nœud chaîné).
+ * Destiné aux ensembles d'identifiants conservés en mémoire, par exemple les connexions d'un utilisateur.
+ * Cette classe n'est pas synchronisée : un ensemble partagé entre plusieurs threads ne doit plus être
+ * modifié après sa publication.
+ */
+public class LongHashSet {
+
+    /**
+     * Taux de remplissage au-delà duquel la table est agrandie.
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * Ensemble vide partagé.
+     */
+    private static final LongHashSet EMPTY = new LongHashSet(0);
+
+    /**
+     * Valeurs des éléments.
+     */
+    private long[] values;
+
+    /**
+     * Indique pour chaque indice si l'emplacement est occupé.
+     */
+    private boolean[] used;
+
+    /**
+     * Nombre d'éléments.
+     */
+    private int size;
+
+    /**
+     * Nombre d'éléments au-delà duquel la table est agrandie.
+     */
+    private int resizeThreshold;
+
+    /**
+     * Crée un ensemble pouvant contenir le nombre d'éléments donné sans être agrandi.
+     *
+     * @param expectedSize Le nombre d'éléments attendu.
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("La taille attendue ne peut pas être négative");
+        }
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * Crée un ensemble vide de petite capacité.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Crée un ensemble contenant les valeurs données.
+     *
+     * @param values Les valeurs.
+     * @return Un nouvel ensemble.
+     */
+    public static LongHashSet of(long... values) {
+        LongHashSet set = new LongHashSet(values.length);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * Crée un ensemble contenant les identifiants donnés, en ignorant les valeurs nulles.
+     *
+     * @param values Les identifiants.
+     * @return Un nouvel ensemble.
+     */
+    public static LongHashSet copyOf(Collection<Long> values) {
+        LongHashSet set = new LongHashSet(values.size());
+        for (Long value : values) {
+            if (value != null) {
+                set.add(value);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Retourne un ensemble vide partagé, qui ne doit pas être modifié.
+     *
+     * @return L'ensemble vide.
+     */
+    public static LongHashSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Ajoute une valeur.
+     *
+     * @param value La valeur.
+     * @return true si la valeur était absente.
+     */
+    public boolean add(long value) {
+        int index = indexOf(value);
+        if (used[index]) {
+            return false;
+        }
+        values[index] = value;
+        used[index] = true;
+        if (++size > resizeThreshold) {
+            rehash(values.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Indique si une valeur est présente.
+     *
+     * @param value La valeur.
+     * @return true si la valeur appartient à l'ensemble.
+     */
+    public boolean contains(long value) {
+        return used[indexOf(value)];
+    }
+
+    /**
+     * Retourne le nombre d'éléments.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indique si l'ensemble est vide.
+     *
+     * @return true si l'ensemble ne contient aucun élément.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retourne l'indice de la valeur, ou celui de l'emplacement libre où l'insérer (sondage linéaire).
+     */
+    private int indexOf(long value) {
+        int mask = values.length - 1;
+        int index = hash(value) & mask;
+        while (used[index] && values[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldValues[i]);
+                values[index] = oldValues[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        values = new long[capacity];
+        used = new boolean[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Mélange les bits de la valeur : des identifiants consécutifs ne doivent pas occuper des emplacements consécutifs.
+     */
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        if (size <= 0) {
+            throw new IllegalArgumentException("Capacité trop grande");
+        }
+        return size;
+    }
+}
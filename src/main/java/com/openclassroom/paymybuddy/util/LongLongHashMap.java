@@ -0,0 +1,228 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage à adressage ouvert associant des valeurs {@code long} à des clés {@code long},
+ * sans objet par entrée (ni boxing ni nœud chaîné). Destinée aux agrégations volumineuses,
+ * par exemple un montant en centimes par identifiant d'utilisateur.
+ * Cette classe n'est pas synchronisée.
+ */
+public class LongLongHashMap {
+
+    /**
+     * Taux de remplissage au-delà duquel la table est agrandie.
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * Clés des entrées.
+     */
+    private long[] keys;
+
+    /**
+     * Valeurs des entrées, au même indice que leur clé.
+     */
+    private long[] values;
+
+    /**
+     * Indique pour chaque indice si l'emplacement est occupé.
+     */
+    private boolean[] used;
+
+    /**
+     * Nombre d'entrées.
+     */
+    private int size;
+
+    /**
+     * Nombre d'entrées au-delà duquel la table est agrandie.
+     */
+    private int resizeThreshold;
+
+    /**
+     * Crée une table pouvant contenir le nombre d'entrées donné sans être agrandie.
+     *
+     * @param expectedSize Le nombre d'entrées attendu.
+     */
+    public LongLongHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("La taille attendue ne peut pas être négative");
+        }
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * Crée une table vide de petite capacité.
+     */
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    /**
+     * Ajoute un montant à la valeur associée à une clé, en créant l'entrée à zéro si elle est absente.
+     *
+     * @param key La clé.
+     * @param delta Le montant à ajouter.
+     * @return La nouvelle valeur associée à la clé.
+     */
+    public long addTo(long key, long delta) {
+        int index = indexOf(key);
+        if (used[index]) {
+            values[index] += delta;
+            return values[index];
+        }
+        insertAt(index, key, delta);
+        return delta;
+    }
+
+    /**
+     * Associe une valeur à une clé, en remplaçant la valeur précédente.
+     *
+     * @param key La clé.
+     * @param value La valeur.
+     */
+    public void put(long key, long value) {
+        int index = indexOf(key);
+        if (used[index]) {
+            values[index] = value;
+        } else {
+            insertAt(index, key, value);
+        }
+    }
+
+    /**
+     * Récupère la valeur associée à une clé.
+     *
+     * @param key La clé.
+     * @param defaultValue La valeur retournée si la clé est absente.
+     * @return La valeur associée, ou la valeur par défaut.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : defaultValue;
+    }
+
+    /**
+     * Indique si une clé est présente.
+     *
+     * @param key La clé.
+     * @return true si une valeur est associée à la clé.
+     */
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    /**
+     * Retourne le nombre d'entrées.
+     *
+     * @return Le nombre d'entrées.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indique si la table est vide.
+     *
+     * @return true si la table ne contient aucune entrée.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Supprime toutes les entrées, sans réduire la capacité.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Parcourt les entrées, dans un ordre non spécifié.
+     *
+     * @param consumer L'action appliquée à chaque entrée.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Action appliquée à une entrée de la table.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Traite une entrée.
+         *
+         * @param key La clé.
+         * @param value La valeur.
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * Retourne l'indice de la clé, ou celui de l'emplacement libre où l'insérer (sondage linéaire).
+     */
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void insertAt(int index, long key, long value) {
+        keys[index] = key;
+        values[index] = value;
+        used[index] = true;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Mélange les bits de la clé : des identifiants consécutifs ne doivent pas occuper des emplacements consécutifs.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        if (size <= 0) {
+            throw new IllegalArgumentException("Capacité trop grande");
+        }
+        return size;
+    }
+}
@@ -0,0 +1,96 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache mémoire borné à éviction LRU (l'entrée la moins récemment utilisée est retirée en premier).
+ * Les accès sont synchronisés : le cache peut être partagé entre les threads des requêtes.
+ *
+ * @param <K> Le type des clés.
+ * @param <V> Le type des valeurs.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Nombre maximal d'entrées conservées.
+     */
+    private final int capacity;
+
+    /**
+     * Entrées du cache, triées par ordre d'accès.
+     */
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * Crée un cache LRU de capacité donnée.
+     *
+     * @param capacity Le nombre maximal d'entrées conservées (au moins 1).
+     */
+    public LruCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacité du cache doit être au moins égale à 1");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Récupère une valeur et la marque comme récemment utilisée.
+     *
+     * @param key La clé recherchée.
+     * @return La valeur associée, ou null si elle est absente du cache.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Ajoute ou remplace une valeur, en retirant l'entrée la plus ancienne si la capacité est dépassée.
+     *
+     * @param key La clé.
+     * @param value La valeur.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Retire une valeur du cache.
+     *
+     * @param key La clé à retirer.
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retourne le nombre d'entrées présentes dans le cache.
+     *
+     * @return Le nombre d'entrées.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retourne la capacité maximale du cache.
+     *
+     * @return La capacité.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
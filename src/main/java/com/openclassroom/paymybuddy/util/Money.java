@@ -0,0 +1,221 @@
+package com.openclassroom.paymybuddy.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Montant en euros représenté par un nombre entier de centimes ({@code long}).
+ * Les calculs et comparaisons se font sur des entiers primitifs, sans allocation de {@link BigDecimal} :
+ * la conversion n'a lieu qu'à la frontière avec les entités, les DTO et les requêtes.
+ * Les opérations arithmétiques détectent les dépassements de capacité au lieu de boucler.
+ * Les instances sont immuables.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Montant nul.
+     */
+    public static final Money ZERO = new Money(0L);
+
+    /**
+     * Nombre de décimales d'un montant (centimes).
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Le montant en centimes.
+     */
+    private final long cents;
+
+    /**
+     * Crée un montant à partir d'un nombre de centimes.
+     *
+     * @param cents Le montant en centimes.
+     */
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Retourne le montant correspondant à un nombre de centimes.
+     *
+     * @param cents Le montant en centimes.
+     * @return Le montant.
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0L ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Retourne le montant correspondant à une valeur décimale en euros.
+     *
+     * @param amount La valeur en euros, au plus deux décimales.
+     * @return Le montant.
+     * @throws IllegalArgumentException si la valeur est nulle, comporte plus de deux décimales
+     *                                  ou dépasse la capacité d'un {@code long} en centimes.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Convertit une valeur décimale en euros en nombre de centimes.
+     *
+     * @param amount La valeur en euros, au plus deux décimales.
+     * @return Le nombre de centimes.
+     * @throws IllegalArgumentException si la valeur est nulle, comporte plus de deux décimales
+     *                                  ou dépasse la capacité d'un {@code long} en centimes.
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Le montant est obligatoire");
+        }
+        // Cas courant (échelle 0 à 2, mantisse sur un long) : pas de BigDecimal intermédiaire
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= SCALE && amount.precision() <= 16) {
+            long unscaled = amount.unscaledValue().longValue();
+            return scale == SCALE ? unscaled : unscaled * (scale == 1 ? 10L : 100L);
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            if (amount.stripTrailingZeros().scale() > SCALE) {
+                throw new IllegalArgumentException("Le montant ne peut pas comporter plus de deux décimales");
+            }
+            throw new IllegalArgumentException("Le montant dépasse la capacité autorisée");
+        }
+    }
+
+    /**
+     * Convertit un nombre de centimes en valeur décimale en euros, à deux décimales.
+     *
+     * @param cents Le nombre de centimes.
+     * @return La valeur en euros.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Retourne le montant en centimes.
+     *
+     * @return Le nombre de centimes.
+     */
+    public long cents() {
+        return cents;
+    }
+
+    /**
+     * Retourne le montant en euros, à deux décimales.
+     *
+     * @return La valeur décimale du montant.
+     */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    /**
+     * Additionne deux montants.
+     *
+     * @param other Le montant à ajouter.
+     * @return La somme.
+     * @throws ArithmeticException en cas de dépassement de capacité.
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Soustrait un montant.
+     *
+     * @param other Le montant à soustraire.
+     * @return La différence.
+     * @throws ArithmeticException en cas de dépassement de capacité.
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplie le montant par un entier.
+     *
+     * @param factor Le facteur.
+     * @return Le produit.
+     * @throws ArithmeticException en cas de dépassement de capacité.
+     */
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    /**
+     * Retourne l'opposé du montant.
+     *
+     * @return L'opposé.
+     * @throws ArithmeticException en cas de dépassement de capacité.
+     */
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    /**
+     * Indique si le montant est strictement positif.
+     *
+     * @return true si le montant est supérieur à zéro.
+     */
+    public boolean isPositive() {
+        return cents > 0L;
+    }
+
+    /**
+     * Indique si le montant est strictement négatif.
+     *
+     * @return true si le montant est inférieur à zéro.
+     */
+    public boolean isNegative() {
+        return cents < 0L;
+    }
+
+    /**
+     * Indique si le montant est strictement supérieur à un autre.
+     *
+     * @param other Le montant de comparaison.
+     * @return true si ce montant est le plus grand.
+     */
+    public boolean isGreaterThan(Money other) {
+        return cents > other.cents;
+    }
+
+    /**
+     * Indique si le montant est strictement inférieur à un autre.
+     *
+     * @param other Le montant de comparaison.
+     * @return true si ce montant est le plus petit.
+     */
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof Money && ((Money) other).cents == cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Retourne le montant en euros, à deux décimales (par exemple {@code 12.50}).
+     *
+     * @return La représentation textuelle du montant.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
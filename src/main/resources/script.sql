@@ -1,3 +1,12 @@
+DROP TABLE IF EXISTS user_monthly_stats;
+DROP TABLE IF EXISTS scheduled_transfer;
+DROP TABLE IF EXISTS outbox_event;
+DROP TABLE IF EXISTS job_checkpoint;
+DROP TABLE IF EXISTS balance_snapshot;
+DROP TABLE IF EXISTS ledger_entry;
+DROP TABLE IF EXISTS balance_slot;
+DROP TABLE IF EXISTS async_transfer;
+DROP TABLE IF EXISTS idempotency_key;
 DROP TABLE IF EXISTS transaction;
 DROP TABLE IF EXISTS user_connections;
 DROP TABLE IF EXISTS app_user;
@@ -8,7 +17,8 @@ CREATE TABLE app_user (
                           email VARCHAR(255) UNIQUE NOT NULL,
                           password VARCHAR(255) NOT NULL,
                           balance DECIMAL(10,2) NOT NULL DEFAULT 0.00,
-                          role VARCHAR(50) NOT NULL DEFAULT 'USER'
+                          role VARCHAR(50) NOT NULL DEFAULT 'USER',
+                          version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE user_connections (
@@ -26,10 +36,133 @@ CREATE TABLE transaction (
                              description VARCHAR(255),
                              amount DECIMAL(10,2) NOT NULL,
                              created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                             INDEX idx_transaction_sender_created (sender_id, created_at, id),
+                             INDEX idx_transaction_receiver_created (receiver_id, created_at, id),
                              FOREIGN KEY (sender_id) REFERENCES app_user(id),
                              FOREIGN KEY (receiver_id) REFERENCES app_user(id)
 );
 
+CREATE TABLE balance_slot (
+                              user_id BIGINT NOT NULL,
+                              slot_index INT NOT NULL,
+                              amount DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+                              PRIMARY KEY (user_id, slot_index),
+                              FOREIGN KEY (user_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
+CREATE TABLE ledger_entry (
+                              id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                              user_id BIGINT NOT NULL,
+                              transaction_id BIGINT,
+                              entry_type VARCHAR(10) NOT NULL,
+                              amount DECIMAL(10,2) NOT NULL,
+                              opening BOOLEAN NOT NULL DEFAULT FALSE,
+                              created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                              INDEX idx_ledger_entry_user (user_id, id),
+                              INDEX idx_ledger_entry_transaction (transaction_id)
+);
+
+CREATE TABLE balance_snapshot (
+                                  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                  user_id BIGINT NOT NULL,
+                                  last_entry_id BIGINT NOT NULL,
+                                  as_of TIMESTAMP NOT NULL,
+                                  balance DECIMAL(10,2) NOT NULL,
+                                  INDEX idx_balance_snapshot_user (user_id, last_entry_id)
+);
+
+CREATE TABLE user_monthly_stats (
+                                    user_id BIGINT NOT NULL,
+                                    month_start DATE NOT NULL,
+                                    sent_total DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                                    sent_count BIGINT NOT NULL DEFAULT 0,
+                                    received_total DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                                    received_count BIGINT NOT NULL DEFAULT 0,
+                                    deposited_total DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                                    withdrawn_total DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                                    PRIMARY KEY (user_id, month_start),
+                                    FOREIGN KEY (user_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
+CREATE TABLE job_checkpoint (
+                                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                job_name VARCHAR(100) NOT NULL,
+                                range_start BIGINT NOT NULL,
+                                range_end BIGINT NOT NULL,
+                                last_processed_id BIGINT,
+                                completed BOOLEAN NOT NULL DEFAULT FALSE,
+                                item_count BIGINT NOT NULL DEFAULT 0,
+                                error_count BIGINT NOT NULL DEFAULT 0,
+                                updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                CONSTRAINT uk_job_checkpoint_range UNIQUE (job_name, range_start)
+);
+
+CREATE TABLE outbox_event (
+                              id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                              event_type VARCHAR(50) NOT NULL,
+                              aggregate_id BIGINT NOT NULL,
+                              payload LONGTEXT NOT NULL,
+                              created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                              delivered_at TIMESTAMP NULL,
+                              attempts INT NOT NULL DEFAULT 0,
+                              last_error VARCHAR(500),
+                              INDEX idx_outbox_event_pending (delivered_at, id)
+);
+
+CREATE TABLE scheduled_transfer (
+                                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                    sender_id BIGINT NOT NULL,
+                                    receiver_id BIGINT NOT NULL,
+                                    amount DECIMAL(10,2) NOT NULL,
+                                    description VARCHAR(255) NOT NULL,
+                                    frequency VARCHAR(10) NOT NULL,
+                                    start_at TIMESTAMP NOT NULL,
+                                    end_at TIMESTAMP NULL,
+                                    next_run_at TIMESTAMP NOT NULL,
+                                    run_count BIGINT NOT NULL DEFAULT 0,
+                                    active BOOLEAN NOT NULL DEFAULT TRUE,
+                                    last_run_at TIMESTAMP NULL,
+                                    last_error VARCHAR(255),
+                                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                    INDEX idx_scheduled_transfer_due (active, next_run_at, id),
+                                    INDEX idx_scheduled_transfer_sender (sender_id),
+                                    FOREIGN KEY (sender_id) REFERENCES app_user(id) ON DELETE CASCADE,
+                                    FOREIGN KEY (receiver_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
+CREATE TABLE idempotency_key (
+                                 id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                 user_id BIGINT NOT NULL,
+                                 idempotency_key VARCHAR(100) NOT NULL,
+                                 request_hash VARCHAR(64) NOT NULL,
+                                 response_status INT,
+                                 response_body LONGTEXT,
+                                 created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                 CONSTRAINT uk_idempotency_user_key UNIQUE (user_id, idempotency_key),
+                                 INDEX idx_idempotency_created (created_at),
+                                 FOREIGN KEY (user_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
+CREATE TABLE async_transfer (
+                                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                transfer_id VARCHAR(36) NOT NULL,
+                                sender_id BIGINT NOT NULL,
+                                receiver_id BIGINT NOT NULL,
+                                amount DECIMAL(10,2) NOT NULL,
+                                description VARCHAR(255) NOT NULL,
+                                state VARCHAR(10) NOT NULL,
+                                transaction_id BIGINT,
+                                message VARCHAR(255),
+                                submitted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                started_at TIMESTAMP NULL,
+                                completed_at TIMESTAMP NULL,
+                                CONSTRAINT uk_async_transfer_transfer_id UNIQUE (transfer_id),
+                                INDEX idx_async_transfer_sender (sender_id, id),
+                                INDEX idx_async_transfer_state (state, submitted_at),
+                                FOREIGN KEY (sender_id) REFERENCES app_user(id) ON DELETE CASCADE,
+                                FOREIGN KEY (receiver_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
 INSERT INTO app_user (username, email, password) VALUES
                                                      ('alice', 'alice@mail.com', '$2y$10$6/8fJJjHtymEsk7OuFpCXu6KLLrblimqXb8bpdKZ3x2z2nKwNiDR2'), -- alice1234
                                                      ('bob', 'bob@mail.com', '$2y$10$RoZjefFKwdikbbNmvRpahunv.GMBz.OygrqPWLK0oXiNA.cm3FZVK'),     -- bob12345
@@ -0,0 +1,141 @@
+package com.openclassroom.paymybuddy.benchmark;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.BalanceWriteMode;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai comparant les deux modes d'écriture des soldes de TransactionService.createTransfer :
+ * verrouillage des entités (LOCKED) et UPDATE atomiques conditionnels (ATOMIC).
+ * Mesure le nombre de requêtes SQL et le temps moyen par transfert.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmarkdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class BalanceWriteModeBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceWriteModeBenchmarkIT.class);
+
+    private static final int WARMUP_TRANSFERS = 200;
+    private static final int MEASURED_TRANSFERS = 2000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(new BigDecimal("5000.00")).build());
+        bob = userRepository.save(User.builder().username("bob").email("bob@example.com")
+                .password("password").balance(new BigDecimal("5000.00")).build());
+        userConnectionRepository.save(new UserConnection(alice, bob));
+        userConnectionRepository.save(new UserConnection(bob, alice));
+    }
+
+    @AfterEach
+    void tearDown() {
+        setMode(BalanceWriteMode.ATOMIC);
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void atomicMode_ShouldIssueFewerStatementsThanLockedMode() {
+        Result locked = run(BalanceWriteMode.LOCKED);
+        Result atomic = run(BalanceWriteMode.ATOMIC);
+
+        logger.info("LOCKED : {} requêtes/transfert, {} µs/transfert", locked.statementsPerTransfer, locked.microsPerTransfer);
+        logger.info("ATOMIC : {} requêtes/transfert, {} µs/transfert", atomic.statementsPerTransfer, atomic.microsPerTransfer);
+
+        assertThat(atomic.statementsPerTransfer).isLessThan(locked.statementsPerTransfer);
+
+        // Les allers-retours s'annulent : les soldes doivent être revenus à leur valeur initiale
+        assertThat(userRepository.findById(alice.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("5000.00");
+        assertThat(userRepository.findById(bob.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("5000.00");
+    }
+
+    private Result run(BalanceWriteMode mode) {
+        setMode(mode);
+        transferBackAndForth(WARMUP_TRANSFERS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        transferBackAndForth(MEASURED_TRANSFERS);
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(
+                (double) statistics.getPrepareStatementCount() / MEASURED_TRANSFERS,
+                elapsed / 1_000L / MEASURED_TRANSFERS);
+    }
+
+    private void transferBackAndForth(int count) {
+        for (int i = 0; i < count; i++) {
+            boolean even = i % 2 == 0;
+            transactionService.createTransfer(new TransferDTO(
+                    even ? alice.getId() : bob.getId(),
+                    even ? bob.getId() : alice.getId(),
+                    "Benchmark",
+                    new BigDecimal("1.00")));
+        }
+    }
+
+    private void setMode(BalanceWriteMode mode) {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(transactionService), "balanceWriteMode", mode);
+    }
+
+    /**
+     * Résultat d'une série de transferts.
+     */
+    private static class Result {
+        private final double statementsPerTransfer;
+        private final long microsPerTransfer;
+
+        private Result(double statementsPerTransfer, long microsPerTransfer) {
+            this.statementsPerTransfer = statementsPerTransfer;
+            this.microsPerTransfer = microsPerTransfer;
+        }
+    }
+}
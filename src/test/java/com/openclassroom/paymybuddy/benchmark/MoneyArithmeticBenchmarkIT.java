@@ -0,0 +1,132 @@
+package com.openclassroom.paymybuddy.benchmark;
+
+import com.openclassroom.paymybuddy.util.LongLongHashMap;
+import com.openclassroom.paymybuddy.util.Money;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai comparant les calculs de solde d'un lot de transferts faits en BigDecimal
+ * (contrôle de solde et cumul des variations dans des HashMap) et en centimes {@code long} via {@link Money}
+ * (mêmes opérations dans des {@link LongLongHashMap}), comme dans TransactionService.executeTransfers.
+ * Mesure le temps moyen et les octets alloués par lot.
+ */
+class MoneyArithmeticBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyArithmeticBenchmarkIT.class);
+
+    private static final int USERS = 50;
+    private static final int TRANSFERS_PER_BATCH = 100;
+    private static final int WARMUP_BATCHES = 20_000;
+    private static final int MEASURED_BATCHES = 50_000;
+
+    private final long[] senders = new long[TRANSFERS_PER_BATCH];
+    private final long[] receivers = new long[TRANSFERS_PER_BATCH];
+    private final BigDecimal[] amounts = new BigDecimal[TRANSFERS_PER_BATCH];
+
+    /**
+     * Accumulateur empêchant le JIT d'éliminer les calculs mesurés.
+     */
+    private long blackhole;
+
+    @Test
+    void centsArithmetic_ShouldAllocateLessAndRunFasterThanBigDecimal() {
+        for (int i = 0; i < TRANSFERS_PER_BATCH; i++) {
+            senders[i] = i % USERS;
+            receivers[i] = (i * 7 + 3) % USERS;
+            amounts[i] = BigDecimal.valueOf(100 + i * 37L, 2);
+        }
+
+        Result bigDecimal = run(this::bigDecimalBatch);
+        Result cents = run(this::centsBatch);
+
+        logger.info("BigDecimal : {} ns/lot, {} octets alloués/lot", bigDecimal.nanosPerBatch, bigDecimal.bytesPerBatch);
+        logger.info("Centimes   : {} ns/lot, {} octets alloués/lot", cents.nanosPerBatch, cents.bytesPerBatch);
+
+        assertThat(cents.bytesPerBatch).isLessThan(bigDecimal.bytesPerBatch);
+        assertThat(blackhole).isNotZero();
+    }
+
+    private long bigDecimalBatch() {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        for (long user = 0; user < USERS; user++) {
+            balances.put(user, new BigDecimal("1000.00"));
+        }
+        for (int i = 0; i < TRANSFERS_PER_BATCH; i++) {
+            BigDecimal amount = amounts[i];
+            if (balances.get(senders[i]).compareTo(amount) >= 0) {
+                balances.merge(senders[i], amount.negate(), BigDecimal::add);
+                balances.merge(receivers[i], amount, BigDecimal::add);
+                deltas.merge(senders[i], amount.negate(), BigDecimal::add);
+                deltas.merge(receivers[i], amount, BigDecimal::add);
+            }
+        }
+        return deltas.size();
+    }
+
+    private long centsBatch() {
+        LongLongHashMap balances = new LongLongHashMap(USERS);
+        LongLongHashMap deltas = new LongLongHashMap(USERS);
+        for (long user = 0; user < USERS; user++) {
+            balances.put(user, 100_000L);
+        }
+        for (int i = 0; i < TRANSFERS_PER_BATCH; i++) {
+            long amount = Money.toCents(amounts[i]);
+            if (balances.getOrDefault(senders[i], 0L) >= amount) {
+                balances.addTo(senders[i], -amount);
+                balances.addTo(receivers[i], amount);
+                deltas.addTo(senders[i], -amount);
+                deltas.addTo(receivers[i], amount);
+            }
+        }
+        return deltas.size();
+    }
+
+    private Result run(Batch batch) {
+        for (int i = 0; i < WARMUP_BATCHES; i++) {
+            blackhole += batch.run();
+        }
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_BATCHES; i++) {
+            blackhole += batch.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Result(elapsed / MEASURED_BATCHES, allocated / MEASURED_BATCHES);
+    }
+
+    /**
+     * Calcul d'un lot de transferts.
+     */
+    private interface Batch {
+        long run();
+    }
+
+    /**
+     * Résultat d'une série de lots.
+     */
+    private static class Result {
+        private final long nanosPerBatch;
+        private final long bytesPerBatch;
+
+        private Result(long nanosPerBatch, long bytesPerBatch) {
+            this.nanosPerBatch = nanosPerBatch;
+            this.bytesPerBatch = bytesPerBatch;
+        }
+    }
+}
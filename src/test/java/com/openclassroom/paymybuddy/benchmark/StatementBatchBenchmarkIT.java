@@ -0,0 +1,116 @@
+package com.openclassroom.paymybuddy.benchmark;
+
+import com.openclassroom.paymybuddy.dto.StatementReportDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.StatementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai de la génération des relevés mensuels : mesure le débit (relevés par seconde) avec un seul
+ * thread puis avec un thread par processeur (au plus {@value #MAX_THREADS}, dans la limite du pool de connexions).
+ * Les plages ne partageant ni données ni verrous, l'accélération doit se rapprocher du nombre de threads.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statementbenchmarkdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.statement.cron=-"
+})
+@ActiveProfiles("test")
+class StatementBatchBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBatchBenchmarkIT.class);
+
+    private static final int USERS = 2_000;
+    private static final int TRANSACTIONS_PER_USER = 50;
+    private static final int MAX_THREADS = 8;
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    void parallelPartitions_ShouldScaleWithCores() {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().username("bench" + i).email("bench" + i + "@example.com")
+                    .password("password").balance(BigDecimal.ZERO).build());
+        }
+        users = userRepository.saveAll(users);
+        LocalDateTime start = MONTH.atDay(1).atStartOfDay();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            for (int j = 0; j < TRANSACTIONS_PER_USER; j++) {
+                batch.add(Transaction.builder()
+                        .sender(users.get(i))
+                        .receiver(users.get((i + j + 1) % USERS))
+                        .amount(new BigDecimal("2.50"))
+                        .description("Relevé " + j)
+                        .createdAt(start.plusSeconds(i * TRANSACTIONS_PER_USER + j))
+                        .build());
+            }
+            if (batch.size() >= 5_000) {
+                transactionRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        transactionRepository.insertAll(batch);
+
+        int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        run("warmup", 1);
+        double single = run("single", 1);
+        double parallel = run("parallel", threads);
+        double speedup = parallel / single;
+        logger.info("Relevés : {} relevés/s sur 1 thread, {} relevés/s sur {} threads (accélération x{})",
+                Math.round(single), Math.round(parallel), threads, String.format("%.2f", speedup));
+
+        if (threads >= 4) {
+            assertThat(speedup).isGreaterThan(1.5);
+        }
+    }
+
+    private double run(String name, int threads) {
+        StatementService statementService = new StatementService(dataSource, transactionManager, jobCheckpointRepository,
+                1000, outputDirectory.toString(), 100, threads, MAX_THREADS);
+        long start = System.nanoTime();
+        StatementReportDTO report = statementService.generateStatements("bench-" + name, MONTH);
+        long elapsed = System.nanoTime() - start;
+        assertThat(report.getStatementCount()).isEqualTo(USERS);
+        assertThat(report.getTransactionCount()).isEqualTo(2L * USERS * TRANSACTIONS_PER_USER);
+        return report.getStatementCount() * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,130 @@
+package com.openclassroom.paymybuddy.benchmark;
+
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.ExportFormat;
+import com.openclassroom.paymybuddy.service.TransactionExportService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai de l'export en flux d'un long historique : mesure le débit de l'export par tranches
+ * de lignes écrites. Si les transactions lues s'accumulaient en mémoire (contexte de persistance, liste),
+ * le débit s'effondrerait au fil de l'export ; il doit au contraire rester stable jusqu'à la dernière ligne.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportbenchmarkdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@ActiveProfiles("test")
+class TransactionExportBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportBenchmarkIT.class);
+
+    private static final int TRANSACTIONS = 100_000;
+    private static final int INSERT_BATCH_SIZE = 5_000;
+    private static final int LINES_PER_SEGMENT = 10_000;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void exportLargeHistory_ShouldKeepSteadyRate() throws Exception {
+        User alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        User bob = userRepository.save(User.builder().username("bob").email("bob@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Transaction> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            boolean sent = i % 2 == 0;
+            batch.add(Transaction.builder()
+                    .sender(sent ? alice : bob)
+                    .receiver(sent ? bob : alice)
+                    .amount(new BigDecimal("1.00"))
+                    .description("Export " + i)
+                    .createdAt(start.plusNanos(i * 1_000L))
+                    .build());
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                transactionRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+
+        SegmentTimingOutputStream out = new SegmentTimingOutputStream();
+        long rows = transactionExportService.export(alice.getId(), null, null, ExportFormat.CSV, false, out);
+
+        long[] rates = out.segmentRates();
+        for (int i = 0; i < rates.length; i++) {
+            logger.info("Tranche {} : {} lignes/s", i + 1, rates[i]);
+        }
+        int half = rates.length / 2;
+        long firstHalf = average(rates, 0, half);
+        long secondHalf = average(rates, half, rates.length);
+        logger.info("Export de {} transactions : première moitié {} lignes/s, seconde moitié {} lignes/s",
+                rows, firstHalf, secondHalf);
+
+        assertThat(rows).isEqualTo(TRANSACTIONS);
+        assertThat(out.lines).isEqualTo(TRANSACTIONS + 1L);
+        assertThat(secondHalf).isGreaterThanOrEqualTo(firstHalf / 2);
+    }
+
+    private static long average(long[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / Math.max(1, to - from);
+    }
+
+    /**
+     * Flux de sortie qui compte les lignes écrites et mesure la durée de chaque tranche de lignes.
+     */
+    private static class SegmentTimingOutputStream extends OutputStream {
+
+        private final List<Long> segmentNanos = new ArrayList<>();
+        private long segmentStart = System.nanoTime();
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % LINES_PER_SEGMENT == 0) {
+                long now = System.nanoTime();
+                segmentNanos.add(now - segmentStart);
+                segmentStart = now;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        private long[] segmentRates() {
+            return segmentNanos.stream()
+                    .mapToLong(nanos -> LINES_PER_SEGMENT * 1_000_000_000L / Math.max(1, nanos))
+                    .toArray();
+        }
+    }
+}
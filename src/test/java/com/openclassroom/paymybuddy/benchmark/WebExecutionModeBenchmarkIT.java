@@ -0,0 +1,183 @@
+package com.openclassroom.paymybuddy.benchmark;
+
+import com.openclassroom.paymybuddy.PaymybuddyApplication;
+import com.openclassroom.paymybuddy.configuration.WebExecutionMode;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Banc d'essai de charge comparant les deux modes d'exécution des requêtes HTTP
+ * ({@link WebExecutionMode#PLATFORM} et {@link WebExecutionMode#VIRTUAL}) face à une base de données lente.
+ * La moitié des requêtes attend la base (via une fonction H2 qui temporise), l'autre moitié ne l'utilise pas :
+ * avec un pool de threads plateforme réduit, ces requêtes légères attendent derrière les requêtes bloquées.
+ * Mesure le débit et le 99e percentile des temps de réponse de chaque mode.
+ * Sur une JVM antérieure à Java 21, le mode VIRTUAL se replie sur le pool plateforme.
+ */
+class WebExecutionModeBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebExecutionModeBenchmarkIT.class);
+
+    private static final int CLIENTS = 48;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int TOMCAT_THREADS = 16;
+    private static final int POOL_SIZE = 8;
+    private static final long DB_LATENCY_MILLIS = 40;
+
+    @Test
+    void compareThroughputAndLatency() throws Exception {
+        Result platform = run(WebExecutionMode.PLATFORM);
+        Result virtual = run(WebExecutionMode.VIRTUAL);
+
+        logger.info("PLATFORM : {} req/s, p99 base {} ms, p99 sans base {} ms",
+                platform.throughput, platform.dbP99Millis, platform.lightP99Millis);
+        logger.info("VIRTUAL (Java {}) : {} req/s, p99 base {} ms, p99 sans base {} ms",
+                Runtime.version().feature(), virtual.throughput, virtual.dbP99Millis, virtual.lightP99Millis);
+
+        // Aucune requête ne doit échouer : en mode VIRTUAL, le sémaphore JDBC absorbe les demandes excédentaires
+        assertThat(platform.errors).isZero();
+        assertThat(virtual.errors).isZero();
+    }
+
+    private Result run(WebExecutionMode mode) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PaymybuddyApplication.class)
+                .profiles("test")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("benchmarkFilter",
+                        FilterRegistrationBean.class, () -> benchmarkFilter(ctx)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:webexec" + mode + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--paymybuddy.web.execution-mode=" + mode);
+        try {
+            context.getBean(JdbcTemplate.class).execute("CREATE ALIAS IF NOT EXISTS BENCHMARK_PAUSE FOR '"
+                    + SlowDatabase.class.getName() + ".pause'");
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            return load("http://localhost:" + port);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static FilterRegistrationBean<Filter> benchmarkFilter(ConfigurableApplicationContext context) {
+        // Filtre placé avant Spring Security : il répond directement sur le thread de requête de Tomcat
+        Filter filter = (request, response, chain) -> {
+            String path = ((HttpServletRequest) request).getRequestURI();
+            if (path.endsWith("/db")) {
+                context.getBean(JdbcTemplate.class).execute("CALL BENCHMARK_PAUSE(" + DB_LATENCY_MILLIS + ")");
+            }
+            ((HttpServletResponse) response).setStatus(200);
+            response.getWriter().write("ok");
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/benchmark/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private Result load(String baseUrl) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<Long> dbLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> lightLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int c = 0; c < CLIENTS; c++) {
+            int clientIndex = c;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    boolean db = (clientIndex + i) % 2 == 0;
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/benchmark/" + (db ? "db" : "ping")))
+                            .build();
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    (db ? dbLatencies : lightLatencies).add(System.nanoTime() - begin);
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+        return new Result(
+                Math.round(CLIENTS * REQUESTS_PER_CLIENT / seconds),
+                p99Millis(dbLatencies),
+                p99Millis(lightLatencies),
+                errors.get());
+    }
+
+    private static long p99Millis(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(sorted.size() * 0.99) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(index, 0)));
+    }
+
+    /**
+     * Fonction appelée par H2 pour simuler une requête lente.
+     */
+    public static final class SlowDatabase {
+
+        private SlowDatabase() {
+        }
+
+        public static void pause(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Résultat d'une série de requêtes.
+     */
+    private static class Result {
+        private final long throughput;
+        private final long dbP99Millis;
+        private final long lightP99Millis;
+        private final int errors;
+
+        private Result(long throughput, long dbP99Millis, long lightP99Millis, int errors) {
+            this.throughput = throughput;
+            this.dbP99Millis = dbP99Millis;
+            this.lightP99Millis = lightP99Millis;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.openclassroom.paymybuddy.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour BoundedDataSource
+ */
+@ExtendWith(MockitoExtension.class)
+class BoundedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private BoundedDataSource boundedDataSource;
+
+    @BeforeEach
+    void setUp() {
+        boundedDataSource = new BoundedDataSource(targetDataSource, 1, 50);
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsTaken_ShouldTimeOut() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        boundedDataSource.getConnection();
+
+        // When & Then
+        assertThatThrownBy(() -> boundedDataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class);
+        verify(targetDataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReleasePermitOnlyOnce() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        Connection borrowed = boundedDataSource.getConnection();
+        assertThat(boundedDataSource.getAvailablePermits()).isZero();
+
+        // When
+        borrowed.close();
+        borrowed.close();
+
+        // Then
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WhenTargetFails_ShouldReleasePermit() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Base indisponible"));
+
+        // When & Then
+        assertThatThrownBy(() -> boundedDataSource.getConnection())
+                .isInstanceOf(SQLException.class)
+                .hasMessage("Base indisponible");
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void connection_ShouldDelegateCallsToTarget() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        // When
+        Connection borrowed = boundedDataSource.getConnection();
+
+        // Then
+        assertThat(borrowed.getAutoCommit()).isTrue();
+        verify(connection).getAutoCommit();
+    }
+
+    @Test
+    void constructor_WithInvalidConcurrency_ShouldThrowException() {
+        assertThatThrownBy(() -> new BoundedDataSource(targetDataSource, 0, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
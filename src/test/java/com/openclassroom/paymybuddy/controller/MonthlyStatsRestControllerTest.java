@@ -0,0 +1,121 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests unitaires pour MonthlyStatsRestController.
+ */
+@ExtendWith(MockitoExtension.class)
+class MonthlyStatsRestControllerTest {
+
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private MonthlyStatsRestController controller;
+
+    private MockMvc mockMvc;
+    private User mockCurrentUser;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockCurrentUser = User.builder()
+                .id(1L)
+                .username("john_doe")
+                .email("john@example.com")
+                .password("hashedPassword")
+                .balance(BigDecimal.valueOf(100.0))
+                .role("USER")
+                .build();
+    }
+
+    @Test
+    void getMonthlyStats_WithAuthenticatedUser_ShouldReturnStatsOfRequestedMonths() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(monthlyStatsService.getMonthlyStats(1L, 2)).thenReturn(List.of(
+                new MonthlyStatsDTO("2024-05", new BigDecimal("30.00"), 2, new BigDecimal("12.50"), 1,
+                        BigDecimal.ZERO, BigDecimal.ZERO),
+                new MonthlyStatsDTO("2024-04", BigDecimal.ZERO, 0, BigDecimal.ZERO, 0,
+                        new BigDecimal("100.00"), BigDecimal.ZERO)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/monthly-stats").param("months", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].month").value("2024-05"))
+                .andExpect(jsonPath("$[0].sentTotal").value(30.00))
+                .andExpect(jsonPath("$[0].sentCount").value(2))
+                .andExpect(jsonPath("$[1].depositedTotal").value(100.00));
+    }
+
+    @Test
+    void getMonthlyStats_WithoutMonths_ShouldDefaultToTwelve() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(monthlyStatsService.getMonthlyStats(1L, 12)).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/monthly-stats"))
+                .andExpect(status().isOk());
+        verify(monthlyStatsService).getMonthlyStats(1L, 12);
+    }
+
+    @Test
+    void getMonthlyStats_WithInvalidMonths_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(monthlyStatsService.getMonthlyStats(1L, 0))
+                .thenThrow(new IllegalArgumentException("Le nombre de mois doit être compris entre 1 et 120"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/monthly-stats").param("months", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getMonthlyStats_WithoutAuthentication_ShouldReturnUnauthorized() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/monthly-stats"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(monthlyStatsService);
+    }
+
+    @Test
+    void getMonthlyStats_OfAnotherUser_ShouldReturnForbidden() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/2/monthly-stats"))
+                .andExpect(status().isForbidden());
+        verify(monthlyStatsService, never()).getMonthlyStats(anyLong(), anyInt());
+    }
+}
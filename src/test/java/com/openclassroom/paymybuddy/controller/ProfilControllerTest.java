@@ -3,6 +3,7 @@ package com.openclassroom.paymybuddy.controller;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.UserService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,6 +41,9 @@ class ProfilControllerTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
     @InjectMocks
     private ProfilController profilController;
 
@@ -1,5 +1,6 @@
 package com.openclassroom.paymybuddy.controller;
 
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.UserService;
@@ -42,6 +43,7 @@ class RelationControllerTest {
     private MockMvc mockMvc;
     private User mockCurrentUser;
     private User mockTargetUser;
+    private UserSearchView mockTargetView;
 
     @BeforeEach
     void setUp() {
@@ -66,6 +68,9 @@ class RelationControllerTest {
                 .balance(BigDecimal.valueOf(50.0))
                 .role("USER")
                 .build();
+
+        // Créer la projection de recherche correspondante
+        mockTargetView = new UserSearchView(2L, "jane_doe");
     }
 
     // ========== TESTS POUR searchUsers() ==========
@@ -74,7 +79,7 @@ class RelationControllerTest {
     void searchUsers_WithValidTermAndAuthenticatedUser_ShouldReturnUsers() throws Exception {
         // Given
         String searchTerm = "jane";
-        List<User> mockUsers = Arrays.asList(mockTargetUser);
+        List<UserSearchView> mockUsers = Arrays.asList(mockTargetView);
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(searchTerm, mockCurrentUser.getId())).thenReturn(mockUsers);
@@ -88,7 +93,9 @@ class RelationControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id").value(2))
                 .andExpect(jsonPath("$[0].username").value("jane_doe"))
-                .andExpect(jsonPath("$[0].email").value("jane@example.com"));
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[0].password").doesNotExist())
+                .andExpect(jsonPath("$[0].balance").doesNotExist());
 
         verify(authService).getCurrentUser();
         verify(userService).searchUsers(searchTerm, mockCurrentUser.getId());
@@ -112,7 +119,7 @@ class RelationControllerTest {
     void searchUsers_WithEmptyTerm_ShouldReturnEmptyList() throws Exception {
         // Given
         String searchTerm = "";
-        List<User> emptyList = Arrays.asList();
+        List<UserSearchView> emptyList = Arrays.asList();
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(searchTerm, mockCurrentUser.getId())).thenReturn(emptyList);
@@ -133,9 +140,9 @@ class RelationControllerTest {
     void searchUsers_WithMultipleResults_ShouldReturnAllUsers() throws Exception {
         // Given
         String searchTerm = "test";
-        User user1 = User.builder().id(2L).username("test1").email("test1@example.com").build();
-        User user2 = User.builder().id(3L).username("test2").email("test2@example.com").build();
-        List<User> mockUsers = Arrays.asList(user1, user2);
+        UserSearchView user1 = new UserSearchView(2L, "test1");
+        UserSearchView user2 = new UserSearchView(3L, "test2");
+        List<UserSearchView> mockUsers = Arrays.asList(user1, user2);
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(searchTerm, mockCurrentUser.getId())).thenReturn(mockUsers);
@@ -162,7 +169,7 @@ class RelationControllerTest {
         String targetEmail = "jane@example.com";
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
-        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
 
         // When & Then
         mockMvc.perform(post("/api/relations")
@@ -171,7 +178,7 @@ class RelationControllerTest {
                 .andExpect(content().string("Contact ajouté avec succès"));
 
         verify(authService).getCurrentUser();
-        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
     }
 
     @Test
@@ -205,7 +212,7 @@ class RelationControllerTest {
                 .andExpect(content().string("Cet utilisateur n'existe pas"));
 
         verify(authService).getCurrentUser();
-        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
     }
 
     @Test
@@ -243,7 +250,7 @@ class RelationControllerTest {
                 .andExpect(content().string("Cette connexion existe déjà"));
 
         verify(authService).getCurrentUser();
-        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
     }
 
     @Test
@@ -299,7 +306,7 @@ class RelationControllerTest {
                 .andExpect(content().string("Une erreur inattendue s'est produite"));
 
         verify(authService).getCurrentUser();
-        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
     }
 
     // ========== TESTS D'INTÉGRATION DES ENDPOINTS ==========
@@ -308,29 +315,29 @@ class RelationControllerTest {
     void relationWorkflow_SearchThenAdd_ShouldWork() throws Exception {
         // Given
         String searchTerm = "jane";
-        String targetEmail = "jane@example.com";
-        List<User> searchResults = Arrays.asList(mockTargetUser);
+        String targetUsername = "jane_doe";
+        List<UserSearchView> searchResults = Arrays.asList(mockTargetView);
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(searchTerm, mockCurrentUser.getId())).thenReturn(searchResults);
-        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
 
         // When & Then - First search
         mockMvc.perform(get("/api/relations/search")
                         .param("term", searchTerm))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].email").value(targetEmail));
+                .andExpect(jsonPath("$[0].username").value(targetUsername));
 
         // When & Then - Then add relation
         mockMvc.perform(post("/api/relations")
-                        .param("email", targetEmail))
+                        .param("email", targetUsername))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Contact ajouté avec succès"));
 
         verify(authService, times(2)).getCurrentUser();
         verify(userService).searchUsers(searchTerm, mockCurrentUser.getId());
-        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        verify(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
     }
 
     @Test
@@ -347,7 +354,7 @@ class RelationControllerTest {
     void searchUsers_WithSpecialCharacters_ShouldWork() throws Exception {
         // Given
         String searchTerm = "jean-françois@test.com";
-        List<User> mockUsers = Arrays.asList();
+        List<UserSearchView> mockUsers = Arrays.asList();
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(searchTerm, mockCurrentUser.getId())).thenReturn(mockUsers);
@@ -368,7 +375,7 @@ class RelationControllerTest {
     void searchUsers_WithLongSearchTerm_ShouldWork() throws Exception {
         // Given
         String longSearchTerm = "a".repeat(100);
-        List<User> mockUsers = Arrays.asList();
+        List<UserSearchView> mockUsers = Arrays.asList();
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         when(userService.searchUsers(longSearchTerm, mockCurrentUser.getId())).thenReturn(mockUsers);
@@ -462,7 +469,7 @@ class RelationControllerTest {
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
         
         // Premier appel réussit
-        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetEmail);
+        doNothing().when(userService).addUserConnectionByIdentifier(mockCurrentUser.getId(), targetUsername);
 
         // When & Then
         mockMvc.perform(post("/api/relations")
@@ -0,0 +1,153 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.dto.ScheduledTransferDTO;
+import com.openclassroom.paymybuddy.model.TransferFrequency;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.ScheduledTransferService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests unitaires pour ScheduledTransferRestController.
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferRestControllerTest {
+
+    private static final String VALID_REQUEST = "{\"receiverId\":2,\"amount\":500.00,\"description\":\"Loyer\","
+            + "\"frequency\":\"MONTHLY\",\"startAt\":\"2030-01-01T10:00:00\"}";
+
+    @Mock
+    private ScheduledTransferService scheduledTransferService;
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private ScheduledTransferRestController controller;
+
+    private MockMvc mockMvc;
+    private User mockCurrentUser;
+    private ScheduledTransferDTO mockSchedule;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockCurrentUser = User.builder()
+                .id(1L)
+                .username("john_doe")
+                .email("john@example.com")
+                .password("hashedPassword")
+                .balance(BigDecimal.valueOf(100.0))
+                .role("USER")
+                .build();
+
+        LocalDateTime startAt = LocalDateTime.of(2030, 1, 1, 10, 0);
+        mockSchedule = new ScheduledTransferDTO(10L, 2L, new BigDecimal("500.00"), "Loyer", TransferFrequency.MONTHLY,
+                startAt, null, startAt, true, null);
+    }
+
+    @Test
+    void getScheduledTransfers_WithAuthenticatedUser_ShouldReturnSchedules() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(scheduledTransferService.getScheduledTransfers(1L)).thenReturn(List.of(mockSchedule));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{userId}/scheduled-transfers", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[0].frequency").value("MONTHLY"));
+    }
+
+    @Test
+    void createScheduledTransfer_WithValidData_ShouldReturn201() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(scheduledTransferService.createScheduledTransfer(eq(1L), any(ScheduledTransferDTO.class)))
+                .thenReturn(mockSchedule);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/scheduled-transfers", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/users/1/scheduled-transfers/10"))
+                .andExpect(jsonPath("$.id").value(10));
+
+        verify(scheduledTransferService).createScheduledTransfer(eq(1L),
+                argThat(request -> request.getReceiverId().equals(2L) && request.getFrequency() == TransferFrequency.MONTHLY));
+    }
+
+    @Test
+    void createScheduledTransfer_WhenRefused_ShouldReturn400WithReason() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(scheduledTransferService.createScheduledTransfer(eq(1L), any(ScheduledTransferDTO.class)))
+                .thenThrow(new IllegalArgumentException("Vous ne pouvez envoyer de l'argent qu'à vos connexions"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/scheduled-transfers", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Vous ne pouvez envoyer de l'argent qu'à vos connexions"));
+    }
+
+    @Test
+    void createScheduledTransfer_ForAnotherUser_ShouldReturn403() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/scheduled-transfers", 999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(scheduledTransferService);
+    }
+
+    @Test
+    void cancelScheduledTransfer_WithUnknownSchedule_ShouldReturn404() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        doThrow(new EntityNotFoundException("Transfert programmé non trouvé"))
+                .when(scheduledTransferService).cancelScheduledTransfer(1L, 99L);
+
+        // When & Then
+        mockMvc.perform(delete("/api/users/{userId}/scheduled-transfers/{id}", 1L, 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancelScheduledTransfer_WithUnauthenticatedUser_ShouldReturn401() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(delete("/api/users/{userId}/scheduled-transfers/{id}", 1L, 10L))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(scheduledTransferService);
+    }
+}
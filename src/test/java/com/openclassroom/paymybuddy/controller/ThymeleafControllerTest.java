@@ -1,7 +1,8 @@
 package com.openclassroom.paymybuddy.controller;
 
 import com.openclassroom.paymybuddy.dto.RelationDTO;
-import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.dto.TransactionView;
+import com.openclassroom.paymybuddy.model.TransferDirection;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.TransactionService;
@@ -46,7 +47,7 @@ class ThymeleafControllerTest {
 
     private MockMvc mockMvc;
     private User mockUser;
-    private List<Transaction> mockTransactions;
+    private List<TransactionView> mockTransactions;
     private List<RelationDTO> mockRelations;
 
     @BeforeEach
@@ -64,23 +65,11 @@ class ThymeleafControllerTest {
                 .build();
 
         // Créer des transactions mock
-        Transaction transaction1 = Transaction.builder()
-                .id(1L)
-                .sender(mockUser)
-                .receiver(mockUser)
-                .amount(BigDecimal.valueOf(25.0))
-                .description("Test transaction 1")
-                .createdAt(LocalDateTime.now())
-                .build();
+        TransactionView transaction1 = new TransactionView(
+                1L, "jane_doe", "Restaurant", BigDecimal.valueOf(25.0), LocalDateTime.now(), TransferDirection.SENT);
 
-        Transaction transaction2 = Transaction.builder()
-                .id(2L)
-                .sender(mockUser)
-                .receiver(mockUser)
-                .amount(BigDecimal.valueOf(50.0))
-                .description("Test transaction 2")
-                .createdAt(LocalDateTime.now())
-                .build();
+        TransactionView transaction2 = new TransactionView(
+                2L, "bob_smith", "Cinéma", BigDecimal.valueOf(50.0), LocalDateTime.now(), TransferDirection.RECEIVED);
 
         mockTransactions = Arrays.asList(transaction1, transaction2);
 
@@ -97,7 +86,7 @@ class ThymeleafControllerTest {
     void index_WithAuthenticatedUserAndValidData_ShouldReturnIndexView() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(mockTransactions);
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(mockTransactions);
         when(transactionService.getRelations(mockUser.getId())).thenReturn(mockRelations);
 
         // When & Then
@@ -110,7 +99,7 @@ class ThymeleafControllerTest {
                 .andExpect(model().attribute("currentUser", mockUser));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
         verify(transactionService).getRelations(mockUser.getId());
     }
 
@@ -125,37 +114,36 @@ class ThymeleafControllerTest {
                 .andExpect(redirectedUrl("/login"));
 
         verify(authService).getCurrentUser();
-        verify(transactionService, never()).getAllTransactions();
+        verify(transactionService, never()).getRecentTransactions(any(), anyInt());
         verify(transactionService, never()).getRelations(any());
     }
 
     // ========== TESTS DE LIMITATION DES TRANSACTIONS ==========
 
     @Test
-    void index_WithMoreThan10Transactions_ShouldLimitTo10() throws Exception {
+    void index_ShouldRequestOnlyTheMostRecentTransactionsOfCurrentUser() throws Exception {
         // Given
-        // Créer 15 transactions pour tester la limitation
-        List<Transaction> manyTransactions = Arrays.asList(
-                // Créer 15 transactions rapidement
+        List<TransactionView> recentTransactions = Arrays.asList(
                 createMockTransaction(1L), createMockTransaction(2L), createMockTransaction(3L),
                 createMockTransaction(4L), createMockTransaction(5L), createMockTransaction(6L),
                 createMockTransaction(7L), createMockTransaction(8L), createMockTransaction(9L),
-                createMockTransaction(10L), createMockTransaction(11L), createMockTransaction(12L),
-                createMockTransaction(13L), createMockTransaction(14L), createMockTransaction(15L)
+                createMockTransaction(10L)
         );
 
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(manyTransactions);
+        when(transactionService.getRecentTransactions(mockUser.getId(), 10)).thenReturn(recentTransactions);
         when(transactionService.getRelations(mockUser.getId())).thenReturn(mockRelations);
 
         // When & Then
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("index"))
-                .andExpect(model().attributeExists("transactions"));
+                .andExpect(model().attribute("transactions", recentTransactions));
 
+        // La limite est appliquée par la requête : la table complète n'est jamais chargée
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(mockUser.getId(), 10);
+        verify(transactionService, never()).getAllTransactions();
         verify(transactionService).getRelations(mockUser.getId());
     }
 
@@ -165,7 +153,7 @@ class ThymeleafControllerTest {
     void index_WithTransactionServiceException_ShouldReturnIndexWithEmptyData() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions())
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT))
                 .thenThrow(new RuntimeException("Erreur base de données"));
 
         // When & Then
@@ -178,15 +166,15 @@ class ThymeleafControllerTest {
                 .andExpect(model().attribute("currentUser", mockUser));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
-        // getRelations n'est pas appelé en cas d'exception dans getAllTransactions
+        verify(transactionService).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
+        // getRelations n'est pas appelé en cas d'exception dans getRecentTransactions
     }
 
     @Test
     void index_WithPartialServiceFailure_ShouldHandleGracefully() throws Exception {
         // Given - Transactions OK, Relations échouent
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(mockTransactions);
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(mockTransactions);
         when(transactionService.getRelations(mockUser.getId()))
                 .thenThrow(new RuntimeException("Erreur relations"));
 
@@ -199,7 +187,7 @@ class ThymeleafControllerTest {
                 .andExpect(model().attributeExists("currentUser"));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
         verify(transactionService).getRelations(mockUser.getId());
     }
 
@@ -209,7 +197,7 @@ class ThymeleafControllerTest {
     void index_WithEmptyTransactionsAndRelations_ShouldReturnIndexView() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(Arrays.asList());
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(Arrays.asList());
         when(transactionService.getRelations(mockUser.getId())).thenReturn(Arrays.asList());
 
         // When & Then
@@ -221,7 +209,7 @@ class ThymeleafControllerTest {
                 .andExpect(model().attributeExists("currentUser"));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
         verify(transactionService).getRelations(mockUser.getId());
     }
 
@@ -242,7 +230,7 @@ class ThymeleafControllerTest {
         );
 
         when(authService.getCurrentUser()).thenReturn(differentUser);
-        when(transactionService.getAllTransactions()).thenReturn(mockTransactions);
+        when(transactionService.getRecentTransactions(differentUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(mockTransactions);
         when(transactionService.getRelations(differentUser.getId())).thenReturn(adminRelations);
 
         // When & Then
@@ -252,7 +240,7 @@ class ThymeleafControllerTest {
                 .andExpect(model().attribute("currentUser", differentUser));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(differentUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
         verify(transactionService).getRelations(differentUser.getId());
     }
 
@@ -281,7 +269,7 @@ class ThymeleafControllerTest {
     void index_WithNullTransactions_ShouldHandleGracefully() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(null);
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(null);
 
         // When & Then
         try {
@@ -294,7 +282,7 @@ class ThymeleafControllerTest {
         }
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getAllTransactions();
+        verify(transactionService).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
     }
 
     // ========== TESTS D'INTÉGRATION ==========
@@ -303,7 +291,7 @@ class ThymeleafControllerTest {
     void index_FullWorkflow_ShouldWorkCorrectly() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getAllTransactions()).thenReturn(mockTransactions);
+        when(transactionService.getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT)).thenReturn(mockTransactions);
         when(transactionService.getRelations(mockUser.getId())).thenReturn(mockRelations);
 
         // When & Then - Premier appel
@@ -318,20 +306,13 @@ class ThymeleafControllerTest {
 
         // Vérifier que les services sont appelés à chaque fois
         verify(authService, times(2)).getCurrentUser();
-        verify(transactionService, times(2)).getAllTransactions();
+        verify(transactionService, times(2)).getRecentTransactions(mockUser.getId(), ThymeleafController.HOME_TRANSACTION_COUNT);
         verify(transactionService, times(2)).getRelations(mockUser.getId());
     }
 
     // ========== MÉTHODES UTILITAIRES ==========
 
-    private Transaction createMockTransaction(Long id) {
-        return Transaction.builder()
-                .id(id)
-                .sender(mockUser)
-                .receiver(mockUser)
-                .amount(BigDecimal.valueOf(10.0))
-                .description("Mock transaction " + id)
-                .createdAt(LocalDateTime.now())
-                .build();
+    private TransactionView createMockTransaction(Long id) {
+        return new TransactionView(id, "jane_doe", "Test", BigDecimal.valueOf(10.0), LocalDateTime.now(), TransferDirection.SENT);
     }
 }
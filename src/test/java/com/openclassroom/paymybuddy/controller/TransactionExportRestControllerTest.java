@@ -0,0 +1,165 @@
+package com.openclassroom.paymybuddy.controller;
+
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.ExportFormat;
+import com.openclassroom.paymybuddy.service.TransactionExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests unitaires pour TransactionExportRestController.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionExportRestControllerTest {
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private TransactionExportRestController controller;
+
+    private MockMvc mockMvc;
+    private User mockCurrentUser;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockCurrentUser = User.builder()
+                .id(1L)
+                .username("john_doe")
+                .email("john@example.com")
+                .password("hashedPassword")
+                .balance(BigDecimal.valueOf(100.0))
+                .role("USER")
+                .build();
+    }
+
+    @Test
+    void exportTransactions_WithAuthenticatedUser_ShouldStreamCsvAttachment() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionExportService.tryAcquireExportPermit()).thenReturn(true);
+        when(transactionExportService.export(eq(1L), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)),
+                eq(ExportFormat.CSV), eq(false), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(5);
+                    out.write("id,date\n1,2024-01-02T10:00\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/users/1/transactions/export")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition", containsString("transactions-1.csv")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("id,date\n1,2024-01-02T10:00\n"));
+        verify(transactionExportService).releaseExportPermit();
+    }
+
+    @Test
+    void exportTransactions_WithNdjsonAndGzip_ShouldSetEncodingHeader() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionExportService.tryAcquireExportPermit()).thenReturn(true);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/users/1/transactions/export")
+                        .param("format", "NDJSON")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andExpect(header().string("Content-Disposition", containsString("transactions-1.ndjson")))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+        verify(transactionExportService).export(eq(1L), isNull(), isNull(), eq(ExportFormat.NDJSON), eq(true),
+                any(OutputStream.class));
+    }
+
+    @Test
+    void exportTransactions_WithUnauthenticatedUser_ShouldReturnUnauthorized() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/transactions/export"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    void exportTransactions_WithDifferentUser_ShouldReturnForbidden() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/2/transactions/export"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    void exportTransactions_WithInvertedDateRange_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/transactions/export")
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    void exportTransactions_WithTooManyExportsInProgress_ShouldReturn429() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionExportService.tryAcquireExportPermit()).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/transactions/export"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(transactionExportService, never()).export(any(), any(), any(), any(), anyBoolean(), any());
+        verify(transactionExportService, never()).releaseExportPermit();
+    }
+}
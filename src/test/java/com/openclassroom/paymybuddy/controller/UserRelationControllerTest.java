@@ -1,5 +1,6 @@
 package com.openclassroom.paymybuddy.controller;
 
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.UserService;
@@ -107,16 +108,16 @@ public class UserRelationControllerTest {
     @Test
     void searchUsers_notAuthenticated_returns401() {
         when(authService.getCurrentUser()).thenReturn(null);
-        ResponseEntity<List<User>> response = controller.searchUsers("bob");
+        ResponseEntity<List<UserSearchView>> response = controller.searchUsers("bob");
         assertEquals(401, response.getStatusCode().value());
     }
 
     @Test
     void searchUsers_authenticated_returnsUserList() {
         when(authService.getCurrentUser()).thenReturn(user);
-        List<User> found = List.of(new User());
+        List<UserSearchView> found = List.of(new UserSearchView(2L, "bob"));
         when(userService.searchUsers("bob", 1L)).thenReturn(found);
-        ResponseEntity<List<User>> response = controller.searchUsers("bob");
+        ResponseEntity<List<UserSearchView>> response = controller.searchUsers("bob");
         assertEquals(200, response.getStatusCode().value());
         assertEquals(found, response.getBody());
     }
@@ -1,12 +1,16 @@
 package com.openclassroom.paymybuddy.controller;
 
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AsyncTransferService;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
 import com.openclassroom.paymybuddy.service.UserService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +49,15 @@ class UserTransactionControllerMvcTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private TransferDispatcher transferDispatcher;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
     @InjectMocks
     private UserTransactionController userTransactionController;
 
@@ -117,7 +130,8 @@ class UserTransactionControllerMvcTest {
     void getUserTransactions_WithValidUser_ShouldDisplayTransactionsPage() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getTransactionsByUserId(1L)).thenReturn(mockTransactions);
+        when(transactionService.getTransactionPage(1L, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE))
+                .thenReturn(new TransactionPageDTO(mockTransactions, null));
         when(transactionService.getRelations(1L)).thenReturn(mockRelations);
 
         // When & Then
@@ -131,7 +145,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(model().attribute("transactions", mockTransactions))
                 .andExpect(model().attribute("relations", mockRelations));
 
-        verify(transactionService).getTransactionsByUserId(1L);
+        verify(transactionService).getTransactionPage(1L, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE);
         verify(transactionService).getRelations(1L);
     }
 
@@ -145,7 +159,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/login"));
 
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionPage(any(), any(), anyInt());
     }
 
     @Test
@@ -158,7 +172,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/user-transactions/1"));
 
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionPage(any(), any(), anyInt());
     }
 
     // ========== TESTS POUR showAddRelationForm() ==========
@@ -193,7 +207,7 @@ class UserTransactionControllerMvcTest {
     void processTransfer_WithValidData_ShouldRedirectWithSuccessMessage() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.createTransfer(any(TransferDTO.class))).thenReturn(new Transaction());
+        when(transferDispatcher.dispatch(any(TransferDTO.class))).thenReturn(new Transaction());
 
         // When & Then
         mockMvc.perform(post("/user-transactions/1/transfer")
@@ -204,7 +218,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(redirectedUrl("/user-transactions/1"))
                 .andExpect(flash().attributeExists("successMessage"));
 
-        verify(transactionService).createTransfer(any(TransferDTO.class));
+        verify(transferDispatcher).dispatch(any(TransferDTO.class));
     }
 
     @Test
@@ -220,7 +234,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/login"));
 
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -237,7 +251,7 @@ class UserTransactionControllerMvcTest {
                 .andExpect(redirectedUrl("/user-transactions/1"))
                 .andExpect(flash().attributeExists("errorMessage"));
 
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -254,14 +268,14 @@ class UserTransactionControllerMvcTest {
                 .andExpect(redirectedUrl("/user-transactions/1"))
                 .andExpect(flash().attributeExists("errorMessage"));
 
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
     void processTransfer_WithServiceException_ShouldRedirectWithError() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.createTransfer(any(TransferDTO.class)))
+        when(transferDispatcher.dispatch(any(TransferDTO.class)))
                 .thenThrow(new RuntimeException("Solde insuffisant"));
 
         // When & Then
@@ -396,14 +410,14 @@ class UserTransactionControllerMvcTest {
                 .andExpect(redirectedUrl("/user-transactions/1"))
                 .andExpect(flash().attributeExists("errorMessage"));
 
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
     void processTransfer_WithExactMinimumAmount_ShouldSucceed() throws Exception {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.createTransfer(any(TransferDTO.class))).thenReturn(new Transaction());
+        when(transferDispatcher.dispatch(any(TransferDTO.class))).thenReturn(new Transaction());
 
         // When & Then
         mockMvc.perform(post("/user-transactions/1/transfer")
@@ -414,6 +428,6 @@ class UserTransactionControllerMvcTest {
                 .andExpect(redirectedUrl("/user-transactions/1"))
                 .andExpect(flash().attributeExists("successMessage"));
 
-        verify(transactionService).createTransfer(any(TransferDTO.class));
+        verify(transferDispatcher).dispatch(any(TransferDTO.class));
     }
 }
@@ -1,12 +1,18 @@
 package com.openclassroom.paymybuddy.controller;
 
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AsyncTransferService;
 import com.openclassroom.paymybuddy.service.AuthService;
 import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
 import com.openclassroom.paymybuddy.service.UserService;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +29,9 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +50,15 @@ class UserTransactionControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private TransferDispatcher transferDispatcher;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
     @Mock
     private Model model;
 
@@ -116,18 +134,26 @@ class UserTransactionControllerTest {
     void getUserTransactions_WithValidUser_ShouldReturnUserTransactionsView() {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.getTransactionsByUserId(1L)).thenReturn(mockTransactions);
+        when(transactionService.getTransactionPage(1L, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE))
+                .thenReturn(new TransactionPageDTO(mockTransactions, null));
         when(transactionService.getRelations(1L)).thenReturn(mockRelations);
+        MonthlyStatsDTO monthStats = new MonthlyStatsDTO("2024-05", new BigDecimal("20.00"), 1,
+                new BigDecimal("5.00"), 1, BigDecimal.ZERO, BigDecimal.ZERO);
+        when(monthlyStatsService.getCurrentMonthStats(1L)).thenReturn(monthStats);
+        when(userService.getTotalBalance(mockUser)).thenReturn(new BigDecimal("112.50"));
 
         // When
-        String viewName = userTransactionController.getUserTransactions(1L, model);
+        String viewName = userTransactionController.getUserTransactions(1L, null, model);
 
         // Then
         assertEquals("user-transactions", viewName);
         verify(model).addAttribute("user", mockUser);
         verify(model).addAttribute("transactions", mockTransactions);
         verify(model).addAttribute("relations", mockRelations);
-        verify(transactionService).getTransactionsByUserId(1L);
+        verify(model).addAttribute("asyncTransfers", List.of());
+        verify(model).addAttribute("monthStats", monthStats);
+        verify(model).addAttribute("balance", new BigDecimal("112.50"));
+        verify(transactionService).getTransactionPage(1L, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE);
         verify(transactionService).getRelations(1L);
     }
 
@@ -137,11 +163,11 @@ class UserTransactionControllerTest {
         when(authService.getCurrentUser()).thenReturn(null);
 
         // When
-        String viewName = userTransactionController.getUserTransactions(1L, model);
+        String viewName = userTransactionController.getUserTransactions(1L, null, model);
 
         // Then
         assertEquals("redirect:/login", viewName);
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionPage(any(), any(), anyInt());
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -151,11 +177,11 @@ class UserTransactionControllerTest {
         when(authService.getCurrentUser()).thenReturn(mockUser);
 
         // When
-        String viewName = userTransactionController.getUserTransactions(999L, model);
+        String viewName = userTransactionController.getUserTransactions(999L, null, model);
 
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionPage(any(), any(), anyInt());
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -193,7 +219,7 @@ class UserTransactionControllerTest {
     void processTransfer_WithValidData_ShouldRedirectWithSuccessMessage() {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.createTransfer(any(TransferDTO.class))).thenReturn(new Transaction());
+        when(transferDispatcher.dispatch(any(TransferDTO.class))).thenReturn(new Transaction());
 
         // When
         String viewName = userTransactionController.processTransfer(1L, validTransferDTO, redirectAttributes);
@@ -201,7 +227,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         assertEquals(1L, validTransferDTO.getSenderId()); // Vérifie que le senderId a été défini
-        verify(transactionService).createTransfer(validTransferDTO);
+        verify(transferDispatcher).dispatch(validTransferDTO);
         verify(redirectAttributes).addFlashAttribute("successMessage", "Transfert effectué avec succès");
     }
 
@@ -215,7 +241,7 @@ class UserTransactionControllerTest {
 
         // Then
         assertEquals("redirect:/login", viewName);
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -228,7 +254,7 @@ class UserTransactionControllerTest {
 
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -243,7 +269,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Veuillez sélectionner un destinataire");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -258,7 +284,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Le montant doit être supérieur à 0.01");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -273,7 +299,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Le montant doit être supérieur à 0.01");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -288,7 +314,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Veuillez saisir une description");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -303,14 +329,14 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Veuillez saisir une description");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
     void processTransfer_WithServiceException_ShouldRedirectWithError() {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
-        when(transactionService.createTransfer(any(TransferDTO.class)))
+        when(transferDispatcher.dispatch(any(TransferDTO.class)))
                 .thenThrow(new RuntimeException("Solde insuffisant"));
 
         // When
@@ -321,6 +347,60 @@ class UserTransactionControllerTest {
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Erreur lors du transfert : Solde insuffisant");
     }
 
+    // ========== TESTS POUR processSplitPayment() ==========
+
+    @Test
+    void processSplitPayment_WithValidData_ShouldSplitEvenlyAndRedirectWithSuccessMessage() {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockUser);
+        when(transactionService.createSplitPayment(any(SplitPaymentDTO.class)))
+                .thenReturn(List.of(new Transaction(), new Transaction()));
+
+        // When
+        String viewName = userTransactionController.processSplitPayment(
+                1L, List.of(2L, 3L), new BigDecimal("30.01"), "Restaurant", redirectAttributes);
+
+        // Then
+        assertEquals("redirect:/user-transactions/1", viewName);
+        verify(transactionService).createSplitPayment(argThat(dto -> dto.getSenderId().equals(1L)
+                && dto.getShares().size() == 2
+                && dto.getShares().get(0).getAmount().equals(new BigDecimal("15.01"))
+                && dto.getShares().get(1).getAmount().equals(new BigDecimal("15.00"))));
+        verify(redirectAttributes).addFlashAttribute(eq("successMessage"), anyString());
+    }
+
+    @Test
+    void processSplitPayment_WithoutReceivers_ShouldRedirectWithError() {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockUser);
+
+        // When
+        String viewName = userTransactionController.processSplitPayment(
+                1L, null, new BigDecimal("30.00"), "Restaurant", redirectAttributes);
+
+        // Then
+        assertEquals("redirect:/user-transactions/1", viewName);
+        verify(redirectAttributes).addFlashAttribute("errorMessage", "Veuillez sélectionner au moins un destinataire");
+        verify(transactionService, never()).createSplitPayment(any());
+    }
+
+    @Test
+    void processSplitPayment_WithServiceException_ShouldRedirectWithError() {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockUser);
+        when(transactionService.createSplitPayment(any(SplitPaymentDTO.class)))
+                .thenThrow(new IllegalArgumentException("Balance insuffisante pour effectuer la transaction"));
+
+        // When
+        String viewName = userTransactionController.processSplitPayment(
+                1L, List.of(2L), new BigDecimal("500.00"), "Restaurant", redirectAttributes);
+
+        // Then
+        assertEquals("redirect:/user-transactions/1", viewName);
+        verify(redirectAttributes).addFlashAttribute("errorMessage",
+                "Erreur lors du paiement partagé : Balance insuffisante pour effectuer la transaction");
+    }
+
     // ========== TESTS POUR addBalance() ==========
 
     @Test
@@ -457,7 +537,7 @@ class UserTransactionControllerTest {
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
         verify(redirectAttributes).addFlashAttribute("errorMessage", "Veuillez saisir une description");
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -465,14 +545,14 @@ class UserTransactionControllerTest {
         // Given
         when(authService.getCurrentUser()).thenReturn(mockUser);
         validTransferDTO.setAmount(BigDecimal.valueOf(0.01)); // Montant minimum exact
-        when(transactionService.createTransfer(any(TransferDTO.class))).thenReturn(new Transaction());
+        when(transferDispatcher.dispatch(any(TransferDTO.class))).thenReturn(new Transaction());
 
         // When
         String viewName = userTransactionController.processTransfer(1L, validTransferDTO, redirectAttributes);
 
         // Then
         assertEquals("redirect:/user-transactions/1", viewName);
-        verify(transactionService).createTransfer(validTransferDTO);
+        verify(transferDispatcher).dispatch(validTransferDTO);
         verify(redirectAttributes).addFlashAttribute("successMessage", "Transfert effectué avec succès");
     }
 }
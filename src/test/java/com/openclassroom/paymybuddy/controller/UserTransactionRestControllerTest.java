@@ -1,12 +1,24 @@
 package com.openclassroom.paymybuddy.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.dto.AsyncTransferStatusDTO;
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.SplitShareDTO;
+import com.openclassroom.paymybuddy.dto.TransactionView;
+import com.openclassroom.paymybuddy.dto.TransactionViewPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.TransferDirection;
 import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.service.AsyncTransferService;
+import com.openclassroom.paymybuddy.service.AsyncTransferState;
 import com.openclassroom.paymybuddy.service.AuthService;
+import com.openclassroom.paymybuddy.service.BatchTransferMode;
+import com.openclassroom.paymybuddy.service.IdempotencyService;
 import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
 import com.openclassroom.paymybuddy.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +27,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -22,6 +35,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +60,15 @@ class UserTransactionRestControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private TransferDispatcher transferDispatcher;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
     @InjectMocks
     private UserTransactionRestController controller;
 
@@ -53,6 +77,7 @@ class UserTransactionRestControllerTest {
     private User mockCurrentUser;
     private User mockReceiver;
     private Transaction mockTransaction;
+    private TransactionView mockTransactionView;
     private RelationDTO mockRelation;
 
     @BeforeEach
@@ -90,6 +115,10 @@ class UserTransactionRestControllerTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        // Créer la projection correspondante, telle que renvoyée par l'historique
+        mockTransactionView = new TransactionView(1L, "jane_doe", "Test transfer",
+                BigDecimal.valueOf(25.0), mockTransaction.getCreatedAt(), TransferDirection.SENT);
+
         // Créer une relation mock
         mockRelation = new RelationDTO(2L, "jane_doe");
     }
@@ -100,20 +129,55 @@ class UserTransactionRestControllerTest {
     void getUserTransactions_WithValidUserIdAndAuthenticatedUser_ShouldReturnTransactions() throws Exception {
         // Given
         Long userId = 1L;
-        List<Transaction> mockTransactions = Arrays.asList(mockTransaction);
+        List<TransactionView> mockTransactions = Arrays.asList(mockTransactionView);
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
-        when(transactionService.getTransactionsByUserId(userId)).thenReturn(mockTransactions);
+        when(transactionService.getTransactionViewPage(userId, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE))
+                .thenReturn(new TransactionViewPageDTO(mockTransactions, null));
 
         // When & Then
         mockMvc.perform(get("/api/users/{userId}/transactions", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].counterpartyName").value("jane_doe"))
+                .andExpect(jsonPath("$[0].description").value("Test transfer"))
+                .andExpect(jsonPath("$[0].direction").value("SENT"))
+                .andExpect(jsonPath("$[0].sender").doesNotExist())
+                .andExpect(jsonPath("$[0].receiver").doesNotExist());
 
         verify(authService).getCurrentUser();
-        verify(transactionService).getTransactionsByUserId(userId);
+        verify(transactionService).getTransactionViewPage(userId, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE);
+    }
+
+    @Test
+    void getUserTransactions_WithMorePages_ShouldReturnNextCursorHeader() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.getTransactionViewPage(1L, "abc", 1))
+                .thenReturn(new TransactionViewPageDTO(List.of(mockTransactionView), "def"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{userId}/transactions", 1L)
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserTransactionRestController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getUserTransactions_WithInvalidCursor_ShouldReturn400() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.getTransactionViewPage(1L, "???", TransactionService.DEFAULT_HISTORY_PAGE_SIZE))
+                .thenThrow(new IllegalArgumentException("Curseur de pagination invalide"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{userId}/transactions", 1L).param("cursor", "???"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -126,7 +190,7 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isUnauthorized());
 
         verify(authService).getCurrentUser();
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionViewPage(any(), any(), anyInt());
     }
 
     @Test
@@ -140,7 +204,7 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(authService).getCurrentUser();
-        verify(transactionService, never()).getTransactionsByUserId(any());
+        verify(transactionService, never()).getTransactionViewPage(any(), any(), anyInt());
     }
 
     // ========== TESTS POUR getUserRelations() ==========
@@ -207,7 +271,7 @@ class UserTransactionRestControllerTest {
         transferDTO.setDescription("Test transfer");
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
-        when(transactionService.createTransfer(any())).thenReturn(mockTransaction);
+        when(transferDispatcher.dispatch(any())).thenReturn(mockTransaction);
 
         // When & Then
         mockMvc.perform(post("/api/users/{userId}/transactions/transfer", userId)
@@ -217,7 +281,7 @@ class UserTransactionRestControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
         verify(authService).getCurrentUser();
-        verify(transactionService).createTransfer(any());
+        verify(transferDispatcher).dispatch(any());
     }
 
     @Test
@@ -238,7 +302,7 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isUnauthorized());
 
         verify(authService).getCurrentUser();
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -260,7 +324,7 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(authService).getCurrentUser();
-        verify(transactionService, never()).createTransfer(any());
+        verify(transferDispatcher, never()).dispatch(any());
     }
 
     @Test
@@ -274,7 +338,7 @@ class UserTransactionRestControllerTest {
         transferDTO.setDescription("Test transfer");
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
-        when(transactionService.createTransfer(any()))
+        when(transferDispatcher.dispatch(any()))
                 .thenThrow(new IllegalArgumentException("Solde insuffisant"));
 
         // When & Then
@@ -284,7 +348,299 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(authService).getCurrentUser();
-        verify(transactionService).createTransfer(any());
+        verify(transferDispatcher).dispatch(any());
+    }
+
+    @Test
+    void processTransfer_WithTransientFailure_ShouldReturn503() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", BigDecimal.valueOf(25.0));
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transferDispatcher.dispatch(any()))
+                .thenThrow(new IllegalStateException("Trop de transferts en attente, veuillez réessayer"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(transferDispatcher).dispatch(any());
+    }
+
+    @Test
+    void processTransfer_WithCachedIdempotencyKey_ShouldReplayWithoutLoadingCurrentUser() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", BigDecimal.valueOf(25.0));
+
+        when(authService.getCurrentPrincipalName()).thenReturn("john@example.com");
+        doReturn(Optional.of(ResponseEntity.ok().header(IdempotencyService.REPLAYED_HEADER, "true").body("{\"id\":1}")))
+                .when(idempotencyService).findCachedResponse(eq("john@example.com"), eq(1L), eq("key-1"), any());
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer", 1L)
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+
+        verify(authService, never()).getCurrentUser();
+        verify(idempotencyService, never()).execute(any(), any(), any(), any(), any());
+        verifyNoInteractions(transferDispatcher);
+    }
+
+    @Test
+    void processTransfer_WithIdempotencyKey_ShouldDelegateToIdempotencyService() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", BigDecimal.valueOf(25.0));
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        doReturn(ResponseEntity.ok().header(IdempotencyService.REPLAYED_HEADER, "true").body("{\"id\":1}"))
+                .when(idempotencyService).execute(eq("john@example.com"), eq(1L), eq("key-1"), any(), any());
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer", 1L)
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+
+        verify(idempotencyService).execute(eq("john@example.com"), eq(1L), eq("key-1"), any(), any());
+        verify(transferDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void processTransfer_WithoutIdempotencyKey_ShouldNotUseIdempotencyService() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", BigDecimal.valueOf(25.0));
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transferDispatcher.dispatch(any())).thenReturn(mockTransaction);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isOk());
+
+        verifyNoInteractions(idempotencyService);
+    }
+
+    // ========== TESTS POUR processBatchTransfer() ==========
+
+    @Test
+    void processBatchTransfer_BestEffort_ShouldReturnResultsAndForceSender() throws Exception {
+        // Given
+        List<TransferDTO> transfers = List.of(
+                new TransferDTO(999L, 2L, "Premier", BigDecimal.valueOf(10.0)),
+                new TransferDTO(null, 2L, "Second", BigDecimal.valueOf(500.0)));
+        List<BatchTransferResultDTO> results = List.of(
+                new BatchTransferResultDTO(0, 2L, BigDecimal.valueOf(10.0), true, 5L, null),
+                new BatchTransferResultDTO(1, 2L, BigDecimal.valueOf(500.0), false, null, "Balance insuffisante pour effectuer la transaction"));
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT))).thenReturn(results);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/batch", 1L)
+                        .param("mode", "BEST_EFFORT")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].transactionId").value(5))
+                .andExpect(jsonPath("$[1].success").value(false));
+
+        verify(transactionService).executeTransfers(
+                argThat(list -> list.size() == 2 && list.stream().allMatch(t -> t.getSenderId().equals(1L))),
+                eq(BatchTransferMode.BEST_EFFORT));
+    }
+
+    @Test
+    void processBatchTransfer_AllOrNothing_WithRejectedTransfer_ShouldReturn400WithResults() throws Exception {
+        // Given
+        List<TransferDTO> transfers = List.of(new TransferDTO(1L, 2L, "Test", BigDecimal.valueOf(500.0)));
+        List<BatchTransferResultDTO> results = List.of(
+                new BatchTransferResultDTO(0, 2L, BigDecimal.valueOf(500.0), false, null, "Balance insuffisante pour effectuer la transaction"));
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.ALL_OR_NOTHING))).thenReturn(results);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/batch", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].message").value("Balance insuffisante pour effectuer la transaction"));
+    }
+
+    @Test
+    void processBatchTransfer_WithTransientFailure_ShouldReturn503() throws Exception {
+        // Given
+        List<TransferDTO> transfers = List.of(new TransferDTO(1L, 2L, "Test", BigDecimal.valueOf(10.0)));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.executeTransfers(anyList(), any()))
+                .thenThrow(new IllegalStateException("Délai d'attente du verrou dépassé"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/batch", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void processBatchTransfer_WithDifferentUserId_ShouldReturn403() throws Exception {
+        // Given
+        List<TransferDTO> transfers = List.of(new TransferDTO(1L, 2L, "Test", BigDecimal.valueOf(10.0)));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/batch", 999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transfers)))
+                .andExpect(status().isForbidden());
+
+        verify(transactionService, never()).executeTransfers(anyList(), any());
+    }
+
+    // ========== TESTS POUR processSplitPayment() ==========
+
+    @Test
+    void processSplitPayment_WithValidData_ShouldReturnTransactionsAndForceSender() throws Exception {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(999L, "Restaurant", List.of(
+                new SplitShareDTO(2L, BigDecimal.valueOf(25.0))));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.createSplitPayment(any(SplitPaymentDTO.class))).thenReturn(List.of(mockTransaction));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/split", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(splitPaymentDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(transactionService).createSplitPayment(argThat(dto -> dto.getSenderId().equals(1L)));
+    }
+
+    @Test
+    void processSplitPayment_WithRejectedPayment_ShouldReturn400WithMessage() throws Exception {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(null, "Restaurant", List.of(
+                new SplitShareDTO(2L, BigDecimal.valueOf(500.0))));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.createSplitPayment(any(SplitPaymentDTO.class)))
+                .thenThrow(new IllegalArgumentException("Balance insuffisante pour effectuer la transaction"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/split", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(splitPaymentDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Balance insuffisante pour effectuer la transaction"));
+    }
+
+    @Test
+    void processSplitPayment_WithTransientFailure_ShouldReturn503() throws Exception {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(null, "Restaurant", List.of(
+                new SplitShareDTO(2L, BigDecimal.valueOf(25.0))));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(transactionService.createSplitPayment(any(SplitPaymentDTO.class)))
+                .thenThrow(new IllegalStateException("Connexion à la base perdue"));
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/split", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(splitPaymentDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void processSplitPayment_WithDifferentUserId_ShouldReturn403() throws Exception {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(null, "Restaurant", List.of(
+                new SplitShareDTO(2L, BigDecimal.valueOf(10.0))));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/split", 999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(splitPaymentDTO)))
+                .andExpect(status().isForbidden());
+
+        verify(transactionService, never()).createSplitPayment(any());
+    }
+
+    @Test
+    void submitAsyncTransfer_WithValidData_ShouldReturn202WithStatusLocation() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(999L, 2L, "Test", BigDecimal.valueOf(10.0));
+        AsyncTransferStatusDTO pending = new AsyncTransferStatusDTO("abc-123", AsyncTransferState.PENDING,
+                1L, 2L, BigDecimal.valueOf(10.0), null, null, null, null);
+
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(asyncTransferService.submit(any(TransferDTO.class))).thenReturn(pending);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/async", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/users/1/transactions/transfer/async/abc-123"))
+                .andExpect(jsonPath("$.transferId").value("abc-123"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+
+        verify(asyncTransferService).submit(argThat(transfer -> transfer.getSenderId().equals(1L)));
+        verifyNoInteractions(transferDispatcher);
+    }
+
+    @Test
+    void submitAsyncTransfer_WithFullQueue_ShouldReturn429() throws Exception {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test", BigDecimal.valueOf(10.0));
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(asyncTransferService.submit(any(TransferDTO.class))).thenThrow(new RejectedExecutionException());
+
+        // When & Then
+        mockMvc.perform(post("/api/users/{userId}/transactions/transfer/async", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void getAsyncTransferStatus_WithUnknownTransfer_ShouldReturn404() throws Exception {
+        // Given
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(asyncTransferService.getStatus(1L, "unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{userId}/transactions/transfer/async/{transferId}", 1L, "unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAsyncTransferStatus_WithCompletedTransfer_ShouldReturnStatus() throws Exception {
+        // Given
+        AsyncTransferStatusDTO completed = new AsyncTransferStatusDTO("abc-123", AsyncTransferState.COMPLETED,
+                1L, 2L, BigDecimal.valueOf(10.0), 42L, null, null, null);
+        when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(asyncTransferService.getStatus(1L, "abc-123")).thenReturn(Optional.of(completed));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/{userId}/transactions/transfer/async/{transferId}", 1L, "abc-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.transactionId").value(42));
     }
 
     @Test
@@ -500,8 +856,9 @@ class UserTransactionRestControllerTest {
         transferDTO.setDescription("Test workflow transfer");
 
         when(authService.getCurrentUser()).thenReturn(mockCurrentUser);
-        when(transactionService.getTransactionsByUserId(userId)).thenReturn(Arrays.asList());
-        when(transactionService.createTransfer(any())).thenReturn(mockTransaction);
+        when(transactionService.getTransactionViewPage(userId, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE))
+                .thenReturn(new TransactionViewPageDTO(Arrays.asList(), null));
+        when(transferDispatcher.dispatch(any())).thenReturn(mockTransaction);
 
         // When & Then - Get initial transactions
         mockMvc.perform(get("/api/users/{userId}/transactions", userId))
@@ -515,8 +872,8 @@ class UserTransactionRestControllerTest {
                 .andExpect(status().isOk());
 
         verify(authService, times(2)).getCurrentUser();
-        verify(transactionService).getTransactionsByUserId(userId);
-        verify(transactionService).createTransfer(any());
+        verify(transactionService).getTransactionViewPage(userId, null, TransactionService.DEFAULT_HISTORY_PAGE_SIZE);
+        verify(transferDispatcher).dispatch(any());
     }
 
     @Test
@@ -0,0 +1,117 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.ConnectionGraphCache;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test d'intégration du cache du graphe des connexions : une connexion ajoutée ou supprimée
+ * est prise en compte immédiatement par les transferts, qui ne consultent plus la table des connexions
+ * une fois le cache chargé.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:connectioncachedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class ConnectionGraphCacheIT {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ConnectionGraphCache connectionGraphCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(new BigDecimal("100.00")).build());
+        bob = userRepository.save(User.builder().username("bob").email("bob@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void addedAndRemovedConnections_ShouldBeSeenByTransfers() {
+        // Given - le cache d'Alice est chargé alors qu'elle n'a aucune connexion
+        TransferDTO transfer = new TransferDTO(alice.getId(), bob.getId(), "Remboursement", new BigDecimal("10.00"));
+        assertThatThrownBy(() -> transactionService.createTransfer(transfer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+
+        // When - la connexion est ajoutée
+        userService.addUserConnectionByIdentifier(alice.getId(), "bob");
+
+        // Then
+        assertThat(transactionService.createTransfer(transfer).getId()).isNotNull();
+
+        // When - la connexion est supprimée
+        userConnectionRepository.deleteAll();
+
+        // Then
+        assertThat(connectionGraphCache.isConnected(alice.getId(), bob.getId())).isFalse();
+    }
+
+    @Test
+    void transfersWithWarmCache_ShouldNotQueryConnections() {
+        // Given
+        userService.addUserConnectionByIdentifier(alice.getId(), "bob");
+        TransferDTO transfer = new TransferDTO(alice.getId(), bob.getId(), "Café", new BigDecimal("1.00"));
+        transactionService.createTransfer(transfer);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            transactionService.createTransfer(transfer);
+        }
+
+        // Then
+        assertThat(statistics.getQueries())
+                .noneMatch(query -> query.contains("UserConnection"));
+    }
+}
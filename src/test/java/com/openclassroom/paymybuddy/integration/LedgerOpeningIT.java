@@ -0,0 +1,140 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.ReconciliationReportDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.LedgerOpeningService;
+import com.openclassroom.paymybuddy.service.LedgerService;
+import com.openclassroom.paymybuddy.service.ReconciliationService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration de l'ouverture du journal : des comptes dont le solde et les transferts sont antérieurs
+ * au journal retrouvent leur solde enregistré dans le journal et au rapprochement, et une ouverture relancée
+ * n'ajoute aucune écriture.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgeropeningdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.ledger.opening.on-startup=false",
+        "paymybuddy.ledger.opening.partition-size=2",
+        "paymybuddy.monthly-stats.backfill.on-startup=false",
+        "paymybuddy.reconciliation.cron=-"
+})
+@ActiveProfiles("test")
+class LedgerOpeningIT {
+
+    @Autowired
+    private LedgerOpeningService ledgerOpeningService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<User> accounts;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new ArrayList<>();
+        String[] balances = {"80.00", "65.00", "0.00", "30.00"};
+        for (int i = 0; i < balances.length; i++) {
+            accounts.add(userRepository.save(User.builder().username("opening" + i).email("opening" + i + "@example.com")
+                    .password("password").balance(new BigDecimal(balances[i])).build()));
+        }
+        // Historique antérieur au journal : un transfert sans écriture et un sous-solde déjà crédité
+        transactionRepository.save(new Transaction(null, accounts.get(0), accounts.get(1), "Ancien",
+                new BigDecimal("20.00"), LocalDateTime.now().minusYears(1)));
+        jdbcTemplate.update("INSERT INTO balance_slot (user_id, slot_index, amount) VALUES (?, 0, 4.00)",
+                accounts.get(3).getId());
+        // Transfert journalisé
+        userConnectionRepository.save(new UserConnection(accounts.get(1), accounts.get(2)));
+        transactionService.createTransfer(new TransferDTO(accounts.get(1).getId(), accounts.get(2).getId(),
+                "Journalisé", new BigDecimal("5.00")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobCheckpointRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM balance_slot");
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void openAll_ShouldMakeLedgerAndReconciliationMatchRecordedBalances() {
+        // When
+        long openings = ledgerOpeningService.openAll("it-opening");
+
+        // Then
+        assertThat(openings).isEqualTo(3);
+        assertThat(ledgerService.getBalance(accounts.get(0).getId())).isEqualByComparingTo("80.00");
+        assertThat(ledgerService.getBalance(accounts.get(1).getId())).isEqualByComparingTo("60.00");
+        assertThat(ledgerService.getBalance(accounts.get(2).getId())).isEqualByComparingTo("5.00");
+        assertThat(ledgerService.getBalance(accounts.get(3).getId())).isEqualByComparingTo("34.00");
+
+        ReconciliationReportDTO report = reconciliationService.reconcile("it-opening-reconciliation");
+        assertThat(report.getCheckedUsers()).isEqualTo(accounts.size());
+        assertThat(report.getDiscrepancyCount()).isZero();
+    }
+
+    @Test
+    void openAll_WhenRerun_ShouldNotAddEntries() {
+        // Given
+        ledgerOpeningService.openAll("it-rerun");
+        long entries = ledgerEntryRepository.count();
+
+        // When
+        long resumed = ledgerOpeningService.openAll("it-rerun");
+        long reopened = ledgerOpeningService.openAll("it-rerun-other-name");
+
+        // Then
+        assertThat(resumed).isZero();
+        assertThat(reopened).isZero();
+        assertThat(ledgerEntryRepository.count()).isEqualTo(entries);
+    }
+}
@@ -0,0 +1,152 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.ReconciliationReportDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.ReconciliationService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du rapprochement des soldes : les soldes issus de dépôts et de transferts
+ * sont cohérents, sous-soldes compris, une altération directe d'un solde est détectée, et une exécution relancée
+ * sous le même nom ne retraite pas les plages terminées.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliationdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.reconciliation.partition-size=3",
+        "paymybuddy.reconciliation.parallelism=2",
+        "paymybuddy.reconciliation.fetch-size=2",
+        "paymybuddy.reconciliation.cron=-"
+})
+@ActiveProfiles("test")
+class LedgerReconciliationIT {
+
+    private static final int ACCOUNTS = 8;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<User> accounts;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = userRepository.save(User.builder().username("recon" + i).email("recon" + i + "@example.com")
+                    .password("password").balance(BigDecimal.ZERO).build());
+            userService.adjustUserBalance(user.getId(), new BigDecimal("100.00"), "ADD");
+            accounts.add(user);
+        }
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User sender = accounts.get(i);
+            User receiver = accounts.get((i + 1) % ACCOUNTS);
+            userConnectionRepository.save(new UserConnection(sender, receiver));
+            transactionService.createTransfer(new TransferDTO(sender.getId(), receiver.getId(), "Rapprochement",
+                    BigDecimal.valueOf(10 + i, 0)));
+        }
+        userService.adjustUserBalance(accounts.get(0).getId(), new BigDecimal("5.50"), "SUBTRACT");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobCheckpointRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM balance_slot");
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void reconcile_WithConsistentBalances_ShouldReportNoDiscrepancy() {
+        // When
+        ReconciliationReportDTO report = reconciliationService.reconcile("it-consistent");
+
+        // Then
+        assertThat(report.getCheckedUsers()).isEqualTo(ACCOUNTS);
+        assertThat(report.getDiscrepancyCount()).isZero();
+        assertThat(report.getFailedPartitions()).isZero();
+        assertThat(report.getProcessedPartitions()).isEqualTo(jobCheckpointRepository.findByJobName("it-consistent").size());
+    }
+
+    @Test
+    void reconcile_WithPendingBalanceSlots_ShouldCountThemInRecordedBalance() {
+        // Given
+        Long slottedId = accounts.get(5).getId();
+        jdbcTemplate.update("UPDATE app_user SET balance = balance - 7.25 WHERE id = ?", slottedId);
+        jdbcTemplate.update("INSERT INTO balance_slot (user_id, slot_index, amount) VALUES (?, 0, 5.00)", slottedId);
+        jdbcTemplate.update("INSERT INTO balance_slot (user_id, slot_index, amount) VALUES (?, 1, 2.25)", slottedId);
+
+        // When
+        ReconciliationReportDTO report = reconciliationService.reconcile("it-slots");
+
+        // Then
+        assertThat(report.getCheckedUsers()).isEqualTo(ACCOUNTS);
+        assertThat(report.getDiscrepancyCount()).isZero();
+    }
+
+    @Test
+    void reconcile_WithAlteredBalance_ShouldReportItAndResumeWithoutReprocessing() {
+        // Given
+        Long alteredId = accounts.get(3).getId();
+        jdbcTemplate.update("UPDATE app_user SET balance = balance + 1.00 WHERE id = ?", alteredId);
+
+        // When
+        ReconciliationReportDTO first = reconciliationService.reconcile("it-altered");
+        ReconciliationReportDTO rerun = reconciliationService.reconcile("it-altered");
+
+        // Then
+        assertThat(first.getDiscrepancyCount()).isEqualTo(1);
+        assertThat(first.getDiscrepancies()).singleElement().satisfies(discrepancy -> {
+            assertThat(discrepancy.getUserId()).isEqualTo(alteredId);
+            assertThat(discrepancy.getActualBalance().subtract(discrepancy.getExpectedBalance()))
+                    .isEqualByComparingTo("1.00");
+        });
+        assertThat(rerun.getProcessedPartitions()).isZero();
+        assertThat(rerun.getSkippedPartitions()).isEqualTo(first.getProcessedPartitions());
+    }
+}
@@ -0,0 +1,155 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.StatementReportDTO;
+import com.openclassroom.paymybuddy.model.JobCheckpoint;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.StatementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration de la génération des relevés mensuels : chaque utilisateur reçoit un relevé
+ * contenant ses seules transactions du mois, et une exécution relancée sous le même nom
+ * ne retraite que les plages non terminées.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statementdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.statement.cron=-"
+})
+@ActiveProfiles("test")
+class MonthlyStatementIT {
+
+    private static final int ACCOUNTS = 7;
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StatementService statementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @TempDir
+    Path outputDirectory;
+
+    private List<User> accounts;
+
+    @BeforeEach
+    void setUp() {
+        // Petites plages et lectures par lots de 2 pour exercer le découpage, répertoire de sortie temporaire
+        statementService = new StatementService(dataSource, transactionManager, jobCheckpointRepository,
+                2, outputDirectory.toString(), 3, 2, 10);
+        accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(userRepository.save(User.builder().username("statement" + i).email("statement" + i + "@example.com")
+                    .password("password").balance(BigDecimal.ZERO).build()));
+        }
+        // Chaque compte envoie 10 + i au suivant en mars ; le dernier compte n'a aucune transaction en mars
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS - 2; i++) {
+            transactions.add(transfer(accounts.get(i), accounts.get(i + 1), BigDecimal.valueOf(10 + i, 0),
+                    LocalDateTime.of(2024, 3, 10 + i, 12, 0)));
+        }
+        // Hors du mois : ignorées par le relevé de mars
+        transactions.add(transfer(accounts.get(0), accounts.get(1), new BigDecimal("99.00"), LocalDateTime.of(2024, 2, 29, 23, 59)));
+        transactions.add(transfer(accounts.get(1), accounts.get(0), new BigDecimal("77.00"), LocalDateTime.of(2024, 4, 1, 0, 0)));
+        transactionRepository.insertAll(transactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobCheckpointRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void generateStatements_ShouldWriteOneStatementPerUserWithTheMonthTransactionsOnly() throws Exception {
+        // When
+        StatementReportDTO report = statementService.generateStatements("it-statements", MONTH);
+
+        // Then
+        assertThat(report.getStatementCount()).isEqualTo(ACCOUNTS);
+        assertThat(report.getTransactionCount()).isEqualTo(2L * (ACCOUNTS - 2));
+        assertThat(report.getFailedPartitions()).isZero();
+        assertThat(report.getProcessedPartitions()).isEqualTo(jobCheckpointRepository.findByJobName("it-statements").size());
+
+        List<String> second = statement(accounts.get(1));
+        assertThat(second).hasSize(6);
+        assertThat(second.get(2)).endsWith(",RECEIVED,statement0,Relevé,10.00");
+        assertThat(second.get(3)).endsWith(",SENT,statement2,Relevé,11.00");
+        assertThat(second).contains("# Total envoyé,11.00", "# Total reçu,10.00");
+
+        List<String> last = statement(accounts.get(ACCOUNTS - 1));
+        assertThat(last).containsExactly("# Relevé 2024-03 - statement6",
+                "id,date,direction,counterparty,description,amount", "# Total envoyé,0.00", "# Total reçu,0.00");
+        try (var files = Files.list(outputDirectory.resolve(MONTH.toString()))) {
+            assertThat(files.filter(file -> file.toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+
+    @Test
+    void generateStatements_Rerun_ShouldOnlyProcessUnfinishedPartitions() {
+        // Given
+        StatementReportDTO first = statementService.generateStatements("it-restart", MONTH);
+        JobCheckpoint interrupted = jobCheckpointRepository.findByJobName("it-restart").get(0);
+        interrupted.setCompleted(false);
+        jobCheckpointRepository.save(interrupted);
+
+        // When
+        StatementReportDTO rerun = statementService.generateStatements("it-restart", MONTH);
+
+        // Then
+        assertThat(first.getProcessedPartitions()).isGreaterThan(1);
+        assertThat(rerun.getProcessedPartitions()).isEqualTo(1);
+        assertThat(rerun.getSkippedPartitions()).isEqualTo(first.getProcessedPartitions() - 1);
+        assertThat(rerun.getStatementCount()).isEqualTo(interrupted.getItemCount());
+    }
+
+    private List<String> statement(User user) throws Exception {
+        return Files.readAllLines(outputDirectory.resolve(MONTH.toString()).resolve("statement-" + user.getId() + ".csv"),
+                StandardCharsets.UTF_8);
+    }
+
+    private static Transaction transfer(User sender, User receiver, BigDecimal amount, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .sender(sender)
+                .receiver(receiver)
+                .amount(amount)
+                .description("Relevé")
+                .createdAt(createdAt)
+                .build();
+    }
+}
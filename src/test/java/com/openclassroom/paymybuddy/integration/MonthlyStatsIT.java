@@ -0,0 +1,181 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.SplitShareDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserMonthlyStatsRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.BatchTransferMode;
+import com.openclassroom.paymybuddy.service.MonthlyStatsService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration des totaux mensuels : les totaux tenus à jour par les transferts (unitaires,
+ * par lot et partagés) et les ajustements de solde sont identiques à ceux recalculés par le rattrapage,
+ * et le rattrapage reprend l'historique antérieur à la table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:monthlystatsdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.monthly-stats.backfill.on-startup=false",
+        "paymybuddy.monthly-stats.backfill.partition-size=2",
+        "paymybuddy.monthly-stats.backfill.fetch-size=2"
+})
+@ActiveProfiles("test")
+class MonthlyStatsIT {
+
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    private MonthlyStatsService monthlyStatsService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private UserMonthlyStatsRepository userMonthlyStatsRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    private List<User> accounts;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = userRepository.save(User.builder().username("stats" + i).email("stats" + i + "@example.com")
+                    .password("password").balance(BigDecimal.ZERO).build());
+            userService.adjustUserBalance(user.getId(), new BigDecimal("200.00"), "ADD");
+            accounts.add(user);
+        }
+        for (User sender : accounts) {
+            for (User receiver : accounts) {
+                if (!sender.getId().equals(receiver.getId())) {
+                    userConnectionRepository.save(new UserConnection(sender, receiver));
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobCheckpointRepository.deleteAll();
+        userMonthlyStatsRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void incrementalStats_ShouldMatchTotalsRecomputedByBackfill() {
+        // Given
+        for (int i = 0; i < ACCOUNTS; i++) {
+            transactionService.createTransfer(new TransferDTO(accounts.get(i).getId(),
+                    accounts.get((i + 1) % ACCOUNTS).getId(), "Mensuel", BigDecimal.valueOf(1000 + i, 2)));
+        }
+        transactionService.executeTransfers(List.of(
+                new TransferDTO(accounts.get(0).getId(), accounts.get(2).getId(), "Lot", new BigDecimal("3.30")),
+                new TransferDTO(accounts.get(3).getId(), accounts.get(0).getId(), "Lot", new BigDecimal("4.40"))),
+                BatchTransferMode.ALL_OR_NOTHING);
+        transactionService.createSplitPayment(new SplitPaymentDTO(accounts.get(4).getId(), "Partage", List.of(
+                new SplitShareDTO(accounts.get(1).getId(), new BigDecimal("6.00")),
+                new SplitShareDTO(accounts.get(2).getId(), new BigDecimal("7.00")))));
+        userService.adjustUserBalance(accounts.get(1).getId(), new BigDecimal("12.25"), "SUBTRACT");
+        userService.updateUserBalance(accounts.get(2).getId(), new BigDecimal("250.00"));
+
+        Map<Long, MonthlyStatsDTO> incremental = currentMonthStats();
+        MonthlyStatsDTO first = incremental.get(accounts.get(0).getId());
+        assertThat(first.getSentTotal()).isEqualByComparingTo("13.30");
+        assertThat(first.getSentCount()).isEqualTo(2);
+        assertThat(first.getReceivedTotal()).isEqualByComparingTo("14.44");
+        assertThat(first.getReceivedCount()).isEqualTo(2);
+        assertThat(first.getDepositedTotal()).isEqualByComparingTo("200.00");
+        assertThat(incremental.get(accounts.get(1).getId()).getWithdrawnTotal()).isEqualByComparingTo("12.25");
+
+        // When
+        userMonthlyStatsRepository.deleteAll();
+        long rows = monthlyStatsService.backfill("it-match");
+
+        // Then
+        assertThat(rows).isEqualTo(ACCOUNTS);
+        assertThat(currentMonthStats()).isEqualTo(incremental);
+    }
+
+    @Test
+    void backfill_ShouldRecoverHistoryOlderThanTheTableAndSkipCompletedRanges() {
+        // Given
+        YearMonth twoMonthsAgo = YearMonth.now().minusMonths(2);
+        Long senderId = accounts.get(0).getId();
+        Long receiverId = accounts.get(1).getId();
+        transactionRepository.save(Transaction.builder()
+                .sender(accounts.get(0))
+                .receiver(accounts.get(1))
+                .description("Ancien")
+                .amount(new BigDecimal("9.99"))
+                .createdAt(twoMonthsAgo.atDay(15).atTime(10, 0))
+                .build());
+
+        // When
+        monthlyStatsService.backfill("it-history");
+        List<MonthlyStatsDTO> senderStats = monthlyStatsService.getMonthlyStats(senderId, 3);
+
+        // Then
+        assertThat(senderStats.get(2).getMonth()).isEqualTo(twoMonthsAgo.toString());
+        assertThat(senderStats.get(2).getSentTotal()).isEqualByComparingTo("9.99");
+        assertThat(senderStats.get(2).getSentCount()).isEqualTo(1);
+        assertThat(senderStats.get(1).getSentCount()).isZero();
+        assertThat(senderStats.get(0).getDepositedTotal()).isEqualByComparingTo("200.00");
+        assertThat(monthlyStatsService.getMonthlyStats(receiverId, 3).get(2).getReceivedTotal())
+                .isEqualByComparingTo("9.99");
+
+        // Une exécution relancée sous le même nom n'a plus rien à recalculer
+        userMonthlyStatsRepository.deleteAll();
+        assertThat(monthlyStatsService.backfill("it-history")).isZero();
+        assertThat(userMonthlyStatsRepository.count()).isZero();
+    }
+
+    private Map<Long, MonthlyStatsDTO> currentMonthStats() {
+        return accounts.stream().collect(Collectors.toMap(User::getId,
+                user -> monthlyStatsService.getCurrentMonthStats(user.getId())));
+    }
+}
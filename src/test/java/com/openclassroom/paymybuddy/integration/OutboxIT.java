@@ -0,0 +1,149 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.OutboxEventRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.BatchTransferMode;
+import com.openclassroom.paymybuddy.service.OutboxDispatcher;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import com.openclassroom.paymybuddy.service.TransferEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test d'intégration de la table outbox_event : chaque transfert validé produit un événement
+ * dans sa transaction, un transfert refusé n'en produit aucun, et un consommateur en échec
+ * reçoit de nouveau l'événement au passage suivant du diffuseur.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.balance.write-mode=ATOMIC",
+        "paymybuddy.outbox.poll-interval-ms=3600000",
+        "paymybuddy.outbox.batch-size=5"
+})
+@ActiveProfiles("test")
+class OutboxIT {
+
+    @TestConfiguration
+    static class ListenerConfiguration {
+
+        @Bean
+        FlakyListener flakyListener() {
+            return new FlakyListener();
+        }
+    }
+
+    /**
+     * Consommateur échouant à la première réception de chaque événement.
+     */
+    static class FlakyListener implements TransferEventListener {
+
+        private final Set<Long> seen = Collections.synchronizedSet(new HashSet<>());
+        private final List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onTransferCompleted(TransferCompletedEventDTO event) {
+            if (seen.add(event.getTransactionId())) {
+                throw new IllegalStateException("Consommateur indisponible");
+            }
+            processed.add(event.getTransactionId());
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private FlakyListener flakyListener;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(new BigDecimal("100.00")).build());
+        bob = userRepository.save(User.builder().username("bob").email("bob@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        userConnectionRepository.save(new UserConnection(alice, bob));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void transfers_ShouldBeDeliveredAtLeastOnceAfterListenerFailure() {
+        // Given
+        List<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction = transactionService.createTransfer(
+                    new TransferDTO(alice.getId(), bob.getId(), "Café " + i, new BigDecimal("1.00")));
+            transactionIds.add(transaction.getId());
+        }
+        transactionService.executeTransfers(List.of(
+                new TransferDTO(alice.getId(), bob.getId(), "Lot 1", new BigDecimal("2.00")),
+                new TransferDTO(alice.getId(), bob.getId(), "Lot 2", new BigDecimal("2.00"))),
+                BatchTransferMode.BEST_EFFORT).forEach(result -> transactionIds.add(result.getTransactionId()));
+        assertThatThrownBy(() -> transactionService.createTransfer(
+                new TransferDTO(alice.getId(), bob.getId(), "Trop cher", new BigDecimal("1000.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // When
+        outboxDispatcher.dispatch();
+        List<OutboxEvent> afterFirstPass = outboxEventRepository.findAll();
+        outboxDispatcher.dispatch();
+
+        // Then
+        assertThat(afterFirstPass).hasSize(5).allMatch(event -> event.getDeliveredAt() == null);
+        assertThat(flakyListener.processed).containsExactlyInAnyOrderElementsOf(transactionIds);
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).allMatch(event -> event.getDeliveredAt() != null && event.getAttempts() == 1);
+        assertThat(events.stream().map(OutboxEvent::getAggregateId).collect(Collectors.toList()))
+                .containsExactlyInAnyOrderElementsOf(transactionIds);
+        assertThat(outboxDispatcher.getLagMillis()).isZero();
+    }
+}
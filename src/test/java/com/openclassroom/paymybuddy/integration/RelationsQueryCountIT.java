@@ -0,0 +1,92 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du chargement des relations : la liste des relations d'un utilisateur,
+ * identifiant et nom compris, est lue en une seule requête, quel que soit le nombre de relations.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:relationsquerycountdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class RelationsQueryCountIT {
+
+    private static final int CONNECTION_COUNT = 500;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+
+        List<UserConnection> connections = new ArrayList<>();
+        for (int i = 0; i < CONNECTION_COUNT; i++) {
+            User friend = userRepository.save(User.builder().username("friend" + i)
+                    .email("friend" + i + "@example.com").password("password").balance(BigDecimal.ZERO).build());
+            connections.add(new UserConnection(alice, friend));
+        }
+        userConnectionRepository.saveAll(connections);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getRelations_ShouldExecuteSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When
+        statistics.clear();
+        List<RelationDTO> relations = transactionTemplate.execute(status -> transactionService.getRelations(alice.getId()));
+
+        // Then
+        assertThat(relations).hasSize(CONNECTION_COUNT);
+        assertThat(relations).extracting(RelationDTO::getName).contains("friend0", "friend" + (CONNECTION_COUNT - 1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,169 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import com.openclassroom.paymybuddy.model.TransferFrequency;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.ScheduledTransferRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.ScheduledTransferEngine;
+import com.openclassroom.paymybuddy.service.ScheduledTransferService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du moteur de transferts programmés : un moteur neuf, comme après un redémarrage,
+ * rattrape toutes les occurrences manquées, lit les échéances par morceaux, respecte la date de fin
+ * et saute les occurrences refusées en conservant leur motif.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scheduledtransferdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "paymybuddy.scheduled-transfer.tick-ms=3600000"
+})
+@ActiveProfiles("test")
+class ScheduledTransferIT {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Autowired
+    private ScheduledTransferService scheduledTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User tenant;
+    private User landlord;
+    private ScheduledTransferEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        tenant = userRepository.save(User.builder().username("tenant").email("tenant@example.com")
+                .password("password").balance(new BigDecimal("100.00")).build());
+        landlord = userRepository.save(User.builder().username("landlord").email("landlord@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        userConnectionRepository.save(new UserConnection(tenant, landlord));
+
+        // Moteur neuf, comme après un redémarrage, avec de petits morceaux pour exercer la pagination
+        engine = new ScheduledTransferEngine(scheduledTransferRepository, transactionService, transactionManager,
+                new SimpleMeterRegistry(), 1000, 60, 2, 10, 2, 60000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        scheduledTransferRepository.deleteAll();
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private ScheduledTransfer schedule(String description, String amount, LocalDateTime startAt, LocalDateTime endAt) {
+        ScheduledTransfer scheduledTransfer = new ScheduledTransfer();
+        scheduledTransfer.setSenderId(tenant.getId());
+        scheduledTransfer.setReceiverId(landlord.getId());
+        scheduledTransfer.setAmount(new BigDecimal(amount));
+        scheduledTransfer.setDescription(description);
+        scheduledTransfer.setFrequency(TransferFrequency.DAILY);
+        scheduledTransfer.setStartAt(startAt);
+        scheduledTransfer.setEndAt(endAt);
+        scheduledTransfer.setNextRunAt(startAt);
+        scheduledTransfer.setActive(true);
+        return scheduledTransferRepository.save(scheduledTransfer);
+    }
+
+    private void runTicks(int count) {
+        for (int i = 0; i < count; i++) {
+            engine.tick();
+        }
+    }
+
+    @Test
+    void restart_ShouldCatchUpMissedRunsAndStopAtEndDate() {
+        // Given : trois occurrences quotidiennes manquées pendant l'arrêt, la quatrième dans une heure
+        LocalDateTime startAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(3).plusHours(1);
+        ScheduledTransfer open = schedule("Abonnement", "5.00", startAt, null);
+        ScheduledTransfer bounded = schedule("Remboursement", "10.00", startAt, startAt.plusDays(1));
+        ScheduledTransfer future = schedule("Loyer", "1.00", startAt.plusDays(30), null);
+
+        // When
+        runTicks(6);
+
+        // Then
+        assertThat(transactionRepository.count()).isEqualTo(5);
+        ScheduledTransfer caughtUp = scheduledTransferRepository.findById(open.getId()).orElseThrow();
+        assertThat(caughtUp.getRunCount()).isEqualTo(3);
+        assertThat(caughtUp.getNextRunAt()).isEqualTo(startAt.plusDays(3));
+        assertThat(caughtUp.isActive()).isTrue();
+
+        ScheduledTransfer finished = scheduledTransferRepository.findById(bounded.getId()).orElseThrow();
+        assertThat(finished.getRunCount()).isEqualTo(2);
+        assertThat(finished.isActive()).isFalse();
+
+        assertThat(scheduledTransferRepository.findById(future.getId()).orElseThrow().getRunCount()).isZero();
+        assertThat(userRepository.findById(landlord.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("35.00");
+    }
+
+    @Test
+    void refusedOccurrence_ShouldBeSkippedWithReasonAndNextOneKept() {
+        // Given : solde insuffisant pour l'occurrence manquée
+        LocalDateTime startAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        ScheduledTransfer tooExpensive = schedule("Trop cher", "1000.00", startAt, null);
+
+        // When
+        runTicks(3);
+
+        // Then
+        assertThat(transactionRepository.count()).isZero();
+        ScheduledTransfer skipped = scheduledTransferRepository.findById(tooExpensive.getId()).orElseThrow();
+        assertThat(skipped.getRunCount()).isEqualTo(1);
+        assertThat(skipped.getLastError()).isEqualTo("Balance insuffisante pour effectuer la transaction");
+        assertThat(skipped.getNextRunAt()).isEqualTo(startAt.plusDays(1));
+        assertThat(skipped.isActive()).isTrue();
+    }
+
+    @Test
+    void cancelledSchedule_AlreadyLoadedInWheel_ShouldNotBeExecuted() throws InterruptedException {
+        // Given : occurrence chargée dans la roue, puis programmation annulée avant son échéance
+        LocalDateTime startAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2);
+        ScheduledTransfer cancelled = schedule("Annulé", "5.00", startAt, null);
+        runTicks(1);
+        scheduledTransferService.cancelScheduledTransfer(tenant.getId(), cancelled.getId());
+        Thread.sleep(3000);
+
+        // When
+        runTicks(2);
+
+        // Then
+        assertThat(transactionRepository.count()).isZero();
+        assertThat(scheduledTransferRepository.findById(cancelled.getId()).orElseThrow().getRunCount()).isZero();
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.TransferDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du moteur de transfert par shards : de nombreux expéditeurs paient
+ * simultanément un même destinataire très sollicité.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardeddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "paymybuddy.transfer.engine=SHARDED",
+        "paymybuddy.transfer.sequencer.shards=4"
+})
+@ActiveProfiles("test")
+class ShardedTransferEngineIT {
+
+    private static final int SENDERS = 8;
+    private static final int TRANSFERS_PER_SENDER = 40;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private TransferDispatcher transferDispatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User merchant;
+    private List<User> senders;
+
+    @BeforeEach
+    void setUp() {
+        merchant = userRepository.save(User.builder().username("merchant").email("merchant@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            User sender = userRepository.save(User.builder().username("payer" + i).email("payer" + i + "@example.com")
+                    .password("password").balance(INITIAL_BALANCE).build());
+            userConnectionRepository.save(new UserConnection(sender, merchant));
+            senders.add(sender);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentPaymentsToHotReceiver_ShouldAllBeApplied() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(SENDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        for (User sender : senders) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_SENDER; i++) {
+                    try {
+                        transferDispatcher.dispatch(new TransferDTO(sender.getId(), merchant.getId(), "Achat", AMOUNT));
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(errors).isEmpty();
+        int total = SENDERS * TRANSFERS_PER_SENDER;
+        assertThat(transactionRepository.count()).isEqualTo(total);
+        assertThat(userRepository.findById(merchant.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(total)));
+        for (User sender : senders) {
+            assertThat(userRepository.findById(sender.getId()).orElseThrow().getBalance())
+                    .isEqualByComparingTo(INITIAL_BALANCE.subtract(AMOUNT.multiply(BigDecimal.valueOf(TRANSFERS_PER_SENDER))));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.BalanceSlot;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.BalanceSlotRepository;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.BalanceSlotConsolidationJob;
+import com.openclassroom.paymybuddy.service.BalanceSlotService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du mode « solde éclaté » : les crédits reçus par un compte signalé sont répartis
+ * entre ses sous-soldes, son solde reste égal à la somme des crédits, et la consolidation
+ * reverse les sous-soldes sur le solde principal.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:splitbalancedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "paymybuddy.balance.split.enabled=true",
+        "paymybuddy.balance.split.slots=4",
+        "paymybuddy.balance.split.consolidation-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class SplitBalanceIT {
+
+    private static final int PAYERS = 8;
+    private static final int TRANSFERS_PER_PAYER = 25;
+    private static final BigDecimal AMOUNT = new BigDecimal("2.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceSlotConsolidationJob balanceSlotConsolidationJob;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User merchant;
+    private User supplier;
+    private List<User> payers;
+
+    @BeforeEach
+    void setUp() {
+        merchant = userRepository.save(User.builder().username("merchant").email("merchant@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        supplier = userRepository.save(User.builder().username("supplier").email("supplier@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        userConnectionRepository.save(new UserConnection(merchant, supplier));
+        payers = new ArrayList<>();
+        for (int i = 0; i < PAYERS; i++) {
+            User payer = userRepository.save(User.builder().username("client" + i).email("client" + i + "@example.com")
+                    .password("password").balance(new BigDecimal("500.00")).build());
+            userConnectionRepository.save(new UserConnection(payer, merchant));
+            payers.add(payer);
+        }
+        balanceSlotService.enableSplitBalance(merchant.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        balanceSlotRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private BigDecimal totalBalance(User user) {
+        return balanceSlotService.getTotalBalance(userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void creditsToSplitAccount_ShouldBeSpreadOverSlotsAndConsolidated() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(PAYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (User payer : payers) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_PAYER; i++) {
+                    try {
+                        transactionService.createTransfer(new TransferDTO(payer.getId(), merchant.getId(), "Achat", AMOUNT));
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then - les crédits sont dans les sous-soldes, le solde total les inclut
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf((long) PAYERS * TRANSFERS_PER_PAYER));
+        assertThat(errors).isEmpty();
+        assertThat(totalBalance(merchant)).isEqualByComparingTo(expected);
+        assertThat(balanceSlotRepository.findByUserId(merchant.getId()).stream()
+                .map(BalanceSlot::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo(expected);
+
+        // When - le marchand paie un fournisseur : ses sous-soldes sont d'abord reversés
+        transactionService.createTransfer(new TransferDTO(merchant.getId(), supplier.getId(), "Stock", new BigDecimal("100.00")));
+
+        // Then
+        assertThat(totalBalance(merchant))
+                .isEqualByComparingTo(expected.subtract(new BigDecimal("100.00")));
+        assertThat(userRepository.findById(supplier.getId()).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+
+        // When - la consolidation reverse tout sur le solde principal
+        transactionService.createTransfer(new TransferDTO(payers.get(0).getId(), merchant.getId(), "Achat", AMOUNT));
+        balanceSlotConsolidationJob.consolidate();
+
+        // Then
+        assertThat(balanceSlotRepository.findUserIdsWithPendingAmounts()).isEmpty();
+        assertThat(totalBalance(merchant))
+                .isEqualByComparingTo(expected.subtract(new BigDecimal("100.00")).add(AMOUNT));
+    }
+
+    @Test
+    void concurrentSweepsAndCredits_ShouldMoveEachSlotAmountExactlyOnce() throws InterruptedException {
+        // Given - des montants en attente dans les sous-soldes du marchand
+        for (int i = 0; i < 20; i++) {
+            balanceSlotService.creditRandomSlot(merchant.getId(), AMOUNT);
+        }
+        int threads = 8;
+        int rounds = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            boolean sweeper = t % 2 == 0;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    try {
+                        // Reversements concurrents (débits, consolidation) mêlés à des crédits
+                        if (sweeper) {
+                            balanceSlotService.sweep(merchant.getId());
+                        } else {
+                            balanceSlotService.creditRandomSlot(merchant.getId(), AMOUNT);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then - aucun montant n'a été reversé deux fois : pas de sous-solde négatif, total inchangé
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf(20L + (long) (threads / 2) * rounds));
+        assertThat(errors).isEmpty();
+        assertThat(balanceSlotRepository.findByUserId(merchant.getId()))
+                .allSatisfy(slot -> assertThat(slot.getAmount()).isNotNegative());
+        assertThat(totalBalance(merchant)).isEqualByComparingTo(expected);
+
+        // When - un dernier reversement vide les sous-soldes
+        balanceSlotService.sweep(merchant.getId());
+
+        // Then
+        assertThat(balanceSlotRepository.findUserIdsWithPendingAmounts()).isEmpty();
+        assertThat(totalBalance(merchant)).isEqualByComparingTo(expected);
+    }
+}
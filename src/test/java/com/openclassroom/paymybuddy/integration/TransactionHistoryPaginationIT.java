@@ -0,0 +1,107 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration de la pagination sur la clé de l'historique des transactions :
+ * le parcours page par page restitue tout l'historique d'un utilisateur, envoyé et reçu,
+ * sans doublon ni trou, y compris lorsque plusieurs transactions partagent la même date.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:historypaginationdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@ActiveProfiles("test")
+class TransactionHistoryPaginationIT {
+
+    private static final int TRANSACTIONS = 250;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        User bob = userRepository.save(User.builder().username("bob").email("bob@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+        User carol = userRepository.save(User.builder().username("carol").email("carol@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+
+        // Un tiers des transactions ne concerne pas Alice ; trois transactions partagent chaque date
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            User sender = i % 3 == 0 ? alice : i % 3 == 1 ? bob : carol;
+            User receiver = i % 3 == 0 ? bob : i % 3 == 1 ? alice : bob;
+            transactions.add(Transaction.builder()
+                    .sender(sender)
+                    .receiver(receiver)
+                    .amount(new BigDecimal("1.00"))
+                    .description("Historique " + i)
+                    .createdAt(start.plusMinutes(i / 3))
+                    .build());
+        }
+        transactionRepository.insertAll(transactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void walkingAllPages_ShouldReturnTheWholeHistoryNewestFirst() {
+        // Given
+        List<Long> expectedIds = transactionRepository.findBySenderIdOrReceiverId(alice.getId(), alice.getId()).stream()
+                .sorted(Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed())
+                .map(Transaction::getId)
+                .collect(Collectors.toList());
+
+        // When
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionPageDTO page = transactionService.getTransactionPage(alice.getId(), cursor, PAGE_SIZE);
+            assertThat(page.getTransactions()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            page.getTransactions().forEach(transaction -> pagedIds.add(transaction.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertThat(expectedIds).hasSizeGreaterThan(PAGE_SIZE * 5);
+        assertThat(pagedIds).containsExactlyElementsOf(expectedIds);
+        assertThat(pages).isEqualTo((expectedIds.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+}
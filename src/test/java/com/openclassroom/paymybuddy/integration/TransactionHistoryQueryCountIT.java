@@ -0,0 +1,141 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test d'intégration du plan de chargement de l'historique : afficher une page de 100 transactions,
+ * expéditeur et destinataire compris, exécute un nombre constant de requêtes, quel que soit le nombre
+ * d'utilisateurs distincts de la page.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:historyquerycountdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class TransactionHistoryQueryCountIT {
+
+    private static final int PAGE_SIZE = TransactionService.MAX_HISTORY_PAGE_SIZE;
+
+    /**
+     * Requêtes d'une page : une pour les transactions envoyées, une pour les transactions reçues.
+     */
+    private static final long STATEMENTS_PER_PAGE = 2;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(User.builder().username("alice").email("alice@example.com")
+                .password("password").balance(BigDecimal.ZERO).build());
+
+        // Chaque transaction a une contrepartie distincte : un chargement à la demande coûterait une requête par ligne
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE * 3 / 2; i++) {
+            User counterparty = userRepository.save(User.builder().username("friend" + i)
+                    .email("friend" + i + "@example.com").password("password").balance(BigDecimal.ZERO).build());
+            boolean sent = i % 2 == 0;
+            transactions.add(Transaction.builder()
+                    .sender(sent ? alice : counterparty)
+                    .receiver(sent ? counterparty : alice)
+                    .amount(new BigDecimal("1.00"))
+                    .description("Historique " + i)
+                    .createdAt(start.plusMinutes(i))
+                    .build());
+        }
+        transactionRepository.insertAll(transactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void renderingHistoryPages_ShouldExecuteConstantNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When - première page, rendue comme par la vue (expéditeur et destinataire de chaque ligne)
+        statistics.clear();
+        String nextCursor = transactionTemplate.execute(status -> {
+            TransactionPageDTO page = transactionService.getTransactionPage(alice.getId(), null, PAGE_SIZE);
+            assertThat(page.getTransactions()).hasSize(PAGE_SIZE);
+            page.getTransactions().forEach(Transaction::getRelationName);
+            return page.getNextCursor();
+        });
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+
+        // When - page suivante, lue à partir du curseur
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionPageDTO page = transactionService.getTransactionPage(alice.getId(), nextCursor, PAGE_SIZE);
+            assertThat(page.getTransactions()).hasSize(PAGE_SIZE / 2);
+            page.getTransactions().forEach(Transaction::getRelationName);
+        });
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    @Test
+    void renderingFullHistory_ShouldExecuteSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transaction> transactions = transactionService.getTransactionsByUserId(alice.getId());
+            assertThat(transactions).hasSize(PAGE_SIZE * 3 / 2);
+            transactions.forEach(Transaction::getRelationName);
+        });
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+}
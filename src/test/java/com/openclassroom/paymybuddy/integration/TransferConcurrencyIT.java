@@ -0,0 +1,163 @@
+package com.openclassroom.paymybuddy.integration;
+
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.service.LedgerService;
+import com.openclassroom.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de charge concurrente pour TransactionService.createTransfer.
+ * Plusieurs dizaines de threads effectuent des transferts croisés (A -> B et B -> A) sur un petit
+ * nombre de comptes : aucun interblocage ni aucune mise à jour perdue ne doit être constaté.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrencydb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=20"
+})
+@ActiveProfiles("test")
+class TransferConcurrencyIT {
+
+    private static final int ACCOUNTS = 6;
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private List<User> accounts;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(userRepository.save(User.builder()
+                    .username("stress" + i)
+                    .email("stress" + i + "@example.com")
+                    .password("password")
+                    .balance(INITIAL_BALANCE)
+                    .build()));
+        }
+
+        // Tous les comptes sont connectés entre eux pour permettre les transferts croisés
+        for (User user : accounts) {
+            for (User other : accounts) {
+                if (!user.getId().equals(other.getId())) {
+                    userConnectionRepository.save(new UserConnection(user, other));
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userConnectionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCrossTransfers_ShouldNotLoseUpdatesNorDeadlock() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpectedErrors = Collections.synchronizedList(new ArrayList<>());
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    User sender = accounts.get(random.nextInt(ACCOUNTS));
+                    User receiver = accounts.get(random.nextInt(ACCOUNTS));
+                    if (sender.getId().equals(receiver.getId())) {
+                        continue;
+                    }
+                    TransferDTO transferDTO = new TransferDTO(sender.getId(), receiver.getId(),
+                            "Stress", BigDecimal.valueOf(random.nextInt(1, 5000), 2));
+                    try {
+                        transactionService.createTransfer(transferDTO);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // Solde insuffisant : refus métier attendu
+                        rejected.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpectedErrors.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(unexpectedErrors).isEmpty();
+        assertThat(succeeded.get()).isPositive();
+
+        List<Transaction> history = transactionRepository.findAll();
+        assertThat(history).hasSize(succeeded.get());
+
+        Map<Long, BigDecimal> expectedBalances = new HashMap<>();
+        accounts.forEach(user -> expectedBalances.put(user.getId(), INITIAL_BALANCE));
+        for (Transaction transaction : history) {
+            expectedBalances.merge(transaction.getSender().getId(), transaction.getAmount().negate(), BigDecimal::add);
+            expectedBalances.merge(transaction.getReceiver().getId(), transaction.getAmount(), BigDecimal::add);
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (User account : accounts) {
+            BigDecimal balance = userRepository.findById(account.getId()).orElseThrow().getBalance();
+            assertThat(balance).isEqualByComparingTo(expectedBalances.get(account.getId()));
+            assertThat(balance.signum()).isGreaterThanOrEqualTo(0);
+            // Le journal ne couvre que les mouvements : il doit retrouver l'écart au solde initial
+            assertThat(ledgerService.getBalance(account.getId()))
+                    .isEqualByComparingTo(balance.subtract(INITIAL_BALANCE));
+            total = total.add(balance);
+        }
+        assertThat(total).isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)));
+    }
+}
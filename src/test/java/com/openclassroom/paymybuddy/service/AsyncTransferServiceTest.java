@@ -0,0 +1,202 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.AsyncTransferStatusDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.AsyncTransfer;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.repository.AsyncTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour AsyncTransferService
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncTransferServiceTest {
+
+    @Mock
+    private TransferDispatcher transferDispatcher;
+
+    @Mock
+    private AsyncTransferRepository asyncTransferRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        asyncTransferService = new AsyncTransferService(transferDispatcher, asyncTransferRepository, transactionManager,
+                meterRegistry, 1, 1, 10, 5, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncTransferService.shutdown();
+    }
+
+    private void stubPersistence() {
+        when(asyncTransferRepository.save(any(AsyncTransfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(asyncTransferRepository.start(anyString(), any(LocalDateTime.class))).thenReturn(1);
+    }
+
+    @Test
+    void submit_ShouldPersistPendingStatusThenDispatchTransferCarryingItsId() {
+        // Given
+        stubPersistence();
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        Transaction transaction = Transaction.builder().id(42L).build();
+        when(transferDispatcher.dispatch(transferDTO)).thenReturn(transaction);
+
+        // When
+        AsyncTransferStatusDTO submitted = asyncTransferService.submit(transferDTO);
+
+        // Then
+        assertThat(submitted.getState()).isEqualTo(AsyncTransferState.PENDING);
+        verify(asyncTransferRepository).save(argThat(transfer -> transfer.getState() == AsyncTransferState.PENDING
+                && transfer.getDescription().equals("Test transfer")));
+        verify(transferDispatcher, timeout(5000)).dispatch(argThat(dispatched ->
+                submitted.getTransferId().equals(dispatched.getAsyncTransferId())));
+        verify(asyncTransferRepository, never()).failRunning(anyString(), any(), any());
+    }
+
+    @Test
+    void submit_WithRefusedTransfer_ShouldRecordFailureMessage() {
+        // Given
+        stubPersistence();
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        when(transferDispatcher.dispatch(transferDTO))
+                .thenThrow(new IllegalArgumentException("Balance insuffisante pour effectuer la transaction"));
+
+        // When
+        AsyncTransferStatusDTO submitted = asyncTransferService.submit(transferDTO);
+
+        // Then
+        verify(asyncTransferRepository, timeout(5000)).failRunning(eq(submitted.getTransferId()),
+                eq("Balance insuffisante pour effectuer la transaction"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void submit_WhenTransferWasCancelled_ShouldNotExecuteIt() {
+        // Given - le transfert a été marqué en échec avant d'être pris par un thread
+        when(asyncTransferRepository.save(any(AsyncTransfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(asyncTransferRepository.start(anyString(), any(LocalDateTime.class))).thenReturn(0);
+
+        // When
+        asyncTransferService.submit(new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00")));
+
+        // Then
+        verify(asyncTransferRepository, timeout(5000)).start(anyString(), any(LocalDateTime.class));
+        verifyNoInteractions(transferDispatcher);
+        verify(asyncTransferRepository, never()).failRunning(anyString(), any(), any());
+    }
+
+    @Test
+    void submit_WithFullQueue_ShouldRejectImmediately() throws InterruptedException {
+        // Given - le seul thread est bloqué et la file (capacité 1) est occupée
+        stubPersistence();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transferDispatcher.dispatch(any(TransferDTO.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Transaction.builder().id(1L).build();
+        });
+        asyncTransferService.submit(new TransferDTO(1L, 2L, "Premier", new BigDecimal("1.00")));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        asyncTransferService.submit(new TransferDTO(1L, 2L, "Deuxième", new BigDecimal("1.00")));
+
+        try {
+            // When & Then
+            assertThatThrownBy(() -> asyncTransferService.submit(new TransferDTO(1L, 2L, "Troisième", new BigDecimal("1.00"))))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(meterRegistry.get("paymybuddy.transfer.async.rejected").counter().count()).isEqualTo(1.0);
+            verify(asyncTransferRepository, times(2)).save(any(AsyncTransfer.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void getStatus_ForAnotherUser_ShouldReturnEmpty() {
+        // Given
+        AsyncTransfer transfer = new AsyncTransfer("transfer-1", 1L, 2L, new BigDecimal("25.00"), "Test transfer");
+        when(asyncTransferRepository.findByTransferId("transfer-1")).thenReturn(Optional.of(transfer));
+
+        // When & Then
+        assertThat(asyncTransferService.getStatus(2L, "transfer-1")).isEmpty();
+        assertThat(asyncTransferService.getStatus(1L, "transfer-1"))
+                .hasValueSatisfying(status -> assertThat(status.getState()).isEqualTo(AsyncTransferState.PENDING));
+    }
+
+    @Test
+    void getRecentStatuses_ShouldListMostRecentFirst() {
+        // Given
+        AsyncTransfer second = new AsyncTransfer("transfer-2", 1L, 2L, new BigDecimal("2.00"), "Deuxième");
+        AsyncTransfer first = new AsyncTransfer("transfer-1", 1L, 2L, new BigDecimal("1.00"), "Premier");
+        when(asyncTransferRepository.findTop10BySenderIdOrderByIdDesc(1L)).thenReturn(List.of(second, first));
+
+        // When
+        List<AsyncTransferStatusDTO> recent = asyncTransferService.getRecentStatuses(1L);
+
+        // Then
+        assertThat(recent).extracting(AsyncTransferStatusDTO::getTransferId)
+                .containsExactly("transfer-2", "transfer-1");
+    }
+
+    @Test
+    void expireStalePending_ShouldFailTransfersPendingBeyondTimeout() {
+        // Given
+        when(asyncTransferRepository.failPendingSubmittedBefore(any(LocalDateTime.class), anyString(),
+                any(LocalDateTime.class))).thenReturn(2);
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(10);
+
+        // When
+        asyncTransferService.expireStalePending();
+
+        // Then
+        verify(asyncTransferRepository).failPendingSubmittedBefore(argThat(before -> !before.isBefore(limit)
+                && before.isBefore(LocalDateTime.now().minusMinutes(9))), anyString(), any(LocalDateTime.class));
+        assertThat(meterRegistry.get("paymybuddy.transfer.async.expired").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void expireStalePending_ShouldFailTransfersRunningBeyondTimeout() {
+        // Given - un transfert effectué serait déjà COMPLETED : ceux encore RUNNING n'ont pas abouti
+        when(asyncTransferRepository.failRunningStartedBefore(any(LocalDateTime.class), anyString(),
+                any(LocalDateTime.class))).thenReturn(1);
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(5);
+
+        // When
+        asyncTransferService.expireStalePending();
+
+        // Then
+        verify(asyncTransferRepository).failRunningStartedBefore(argThat(before -> !before.isBefore(limit)
+                && before.isBefore(LocalDateTime.now().minusMinutes(4))), anyString(), any(LocalDateTime.class));
+        assertThat(meterRegistry.get("paymybuddy.transfer.async.expired").counter().count()).isEqualTo(1.0);
+    }
+}
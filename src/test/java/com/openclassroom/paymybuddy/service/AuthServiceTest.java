@@ -71,6 +71,22 @@ class AuthServiceTest {
         verify(userRepository).findByEmail(userEmail);
     }
 
+    @Test
+    void getCurrentPrincipalName_WithAuthenticatedUser_ShouldReturnEmailWithoutDatabaseAccess() {
+        // Given
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn("alice@mail.com");
+        SecurityContextHolder.setContext(securityContext);
+
+        // When
+        String result = authService.getCurrentPrincipalName();
+
+        // Then
+        assertThat(result).isEqualTo("alice@mail.com");
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getCurrentUser_WithNonAuthenticatedUser_ShouldReturnNull() {
         // Given
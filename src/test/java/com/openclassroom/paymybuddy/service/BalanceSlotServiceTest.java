@@ -0,0 +1,167 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.BalanceSlot;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.BalanceSlotRepository;
+import com.openclassroom.paymybuddy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour BalanceSlotService
+ */
+@ExtendWith(MockitoExtension.class)
+class BalanceSlotServiceTest {
+
+    @Mock
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private BalanceSlotService balanceSlotService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(balanceSlotService, "enabled", true);
+        ReflectionTestUtils.setField(balanceSlotService, "slotCount", 4);
+    }
+
+    private BalanceSlot slot(int slotIndex, String amount) {
+        BalanceSlot slot = new BalanceSlot(1L, slotIndex);
+        slot.setAmount(new BigDecimal(amount));
+        return slot;
+    }
+
+    @Test
+    void creditRandomSlot_WithSplitAccount_ShouldCreditOneSlot() {
+        // Given
+        when(balanceSlotRepository.addToSlot(eq(1L), anyInt(), eq(new BigDecimal("10.00")))).thenReturn(1);
+
+        // When
+        boolean credited = balanceSlotService.creditRandomSlot(1L, new BigDecimal("10.00"));
+
+        // Then
+        assertThat(credited).isTrue();
+        verify(balanceSlotRepository).addToSlot(eq(1L), intThat(index -> index >= 0 && index < 4), eq(new BigDecimal("10.00")));
+    }
+
+    @Test
+    void creditRandomSlot_WithRegularAccount_ShouldReturnFalse() {
+        // Given
+        when(balanceSlotRepository.addToSlot(eq(2L), anyInt(), any())).thenReturn(0);
+
+        // When & Then
+        assertThat(balanceSlotService.creditRandomSlot(2L, new BigDecimal("10.00"))).isFalse();
+    }
+
+    @Test
+    void creditRandomSlot_WhenDisabled_ShouldNotTouchSlots() {
+        // Given
+        ReflectionTestUtils.setField(balanceSlotService, "enabled", false);
+
+        // When & Then
+        assertThat(balanceSlotService.creditRandomSlot(1L, new BigDecimal("10.00"))).isFalse();
+        verifyNoInteractions(balanceSlotRepository);
+    }
+
+    @Test
+    void sweep_ShouldMoveSlotAmountsToMainBalanceWithRelativeUpdates() {
+        // Given
+        when(balanceSlotRepository.findNonEmptyByUserIdForUpdate(1L)).thenReturn(List.of(slot(0, "15.00"), slot(3, "5.50")));
+
+        // When
+        BigDecimal swept = balanceSlotService.sweep(1L);
+
+        // Then
+        assertThat(swept).isEqualByComparingTo("20.50");
+        verify(balanceSlotRepository).addToSlot(1L, 0, new BigDecimal("-15.00"));
+        verify(balanceSlotRepository).addToSlot(1L, 3, new BigDecimal("-5.50"));
+        verify(userRepository).credit(1L, new BigDecimal("20.50"));
+    }
+
+    @Test
+    void sweep_WithoutPendingAmounts_ShouldNotUpdateMainBalance() {
+        // Given
+        when(balanceSlotRepository.findNonEmptyByUserIdForUpdate(2L)).thenReturn(List.of());
+
+        // When
+        BigDecimal swept = balanceSlotService.sweep(2L);
+
+        // Then
+        assertThat(swept).isZero();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getTotalBalance_ShouldAddPendingSlotAmountsToMainBalance() {
+        // Given
+        User user = User.builder().id(1L).balance(new BigDecimal("100.00")).build();
+        when(balanceSlotRepository.sumByUserId(1L)).thenReturn(new BigDecimal("42.00"));
+
+        // When & Then
+        assertThat(balanceSlotService.getTotalBalance(user)).isEqualByComparingTo("142.00");
+    }
+
+    @Test
+    void enableSplitBalance_ShouldCreateMissingSlots() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(balanceSlotRepository.findByUserId(1L)).thenReturn(List.of(slot(0, "0.00"), slot(1, "0.00")));
+
+        // When
+        balanceSlotService.enableSplitBalance(1L);
+
+        // Then
+        verify(balanceSlotRepository).saveAll(argThat(slots -> {
+            List<BalanceSlot> created = (List<BalanceSlot>) slots;
+            return created.size() == 2
+                    && created.get(0).getSlotIndex() == 2
+                    && created.get(1).getSlotIndex() == 3;
+        }));
+    }
+
+    @Test
+    void enableSplitBalance_WithNonExistingUser_ShouldThrowException() {
+        // Given
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> balanceSlotService.enableSplitBalance(99L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Utilisateur introuvable");
+        verifyNoInteractions(balanceSlotRepository);
+    }
+
+    @Test
+    void disableSplitBalance_ShouldMovePendingAmountsAndDeleteSlots() {
+        // Given
+        when(balanceSlotRepository.findByUserIdForUpdate(1L)).thenReturn(List.of(slot(0, "0.00"), slot(2, "12.00")));
+
+        // When
+        balanceSlotService.disableSplitBalance(1L);
+
+        // Then - les sous-soldes sont verrouillés avant d'être lus puis supprimés
+        InOrder inOrder = inOrder(balanceSlotRepository);
+        inOrder.verify(balanceSlotRepository).findByUserIdForUpdate(1L);
+        inOrder.verify(balanceSlotRepository).deleteByUserId(1L);
+        verify(userRepository).credit(1L, new BigDecimal("12.00"));
+    }
+}
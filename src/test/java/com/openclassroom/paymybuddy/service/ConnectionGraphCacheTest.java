@@ -0,0 +1,117 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ConnectionGraphCache
+ */
+@ExtendWith(MockitoExtension.class)
+class ConnectionGraphCacheTest {
+
+    @Mock
+    private UserConnectionRepository userConnectionRepository;
+
+    private ConnectionGraphCache connectionGraphCache;
+
+    @BeforeEach
+    void setUp() {
+        connectionGraphCache = new ConnectionGraphCache(userConnectionRepository, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void isConnected_ShouldLoadConnectionsOnlyOnce() {
+        // Given
+        when(userConnectionRepository.findConnectionIdsByUserId(1L)).thenReturn(List.of(2L, 3L));
+
+        // When
+        boolean connectedToTwo = connectionGraphCache.isConnected(1L, 2L);
+        boolean connectedToThree = connectionGraphCache.isConnected(1L, 3L);
+        boolean connectedToFour = connectionGraphCache.isConnected(1L, 4L);
+
+        // Then
+        assertThat(connectedToTwo).isTrue();
+        assertThat(connectedToThree).isTrue();
+        assertThat(connectedToFour).isFalse();
+        verify(userConnectionRepository, times(1)).findConnectionIdsByUserId(1L);
+    }
+
+    @Test
+    void isConnected_WithNullIdentifier_ShouldReturnFalseWithoutQuery() {
+        assertThat(connectionGraphCache.isConnected(null, 2L)).isFalse();
+        assertThat(connectionGraphCache.isConnected(1L, null)).isFalse();
+        verifyNoInteractions(userConnectionRepository);
+    }
+
+    @Test
+    void invalidate_ShouldReloadConnections() {
+        // Given
+        when(userConnectionRepository.findConnectionIdsByUserId(1L))
+                .thenReturn(List.of())
+                .thenReturn(List.of(2L));
+        assertThat(connectionGraphCache.isConnected(1L, 2L)).isFalse();
+
+        // When
+        connectionGraphCache.invalidate(1L);
+
+        // Then
+        assertThat(connectionGraphCache.isConnected(1L, 2L)).isTrue();
+        verify(userConnectionRepository, times(2)).findConnectionIdsByUserId(1L);
+    }
+
+    @Test
+    void invalidate_InsideTransaction_ShouldEvictAgainAfterCompletion() {
+        // Given - une transaction est active pendant l'ajout de la connexion
+        TransactionSynchronizationManager.initSynchronization();
+        when(userConnectionRepository.findConnectionIdsByUserId(1L))
+                .thenReturn(List.of())
+                .thenReturn(List.of(2L));
+        connectionGraphCache.invalidate(1L);
+
+        // Un chargement concurrent lit l'état antérieur à la validation
+        assertThat(connectionGraphCache.isConnected(1L, 2L)).isFalse();
+
+        // When - la transaction se termine
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        assertThat(connectionGraphCache.isConnected(1L, 2L)).isTrue();
+    }
+
+    @Test
+    void getConnectionIds_ShouldEvictLeastRecentlyUsedUser() {
+        // Given - capacité de 2 utilisateurs
+        when(userConnectionRepository.findConnectionIdsByUserId(anyLong())).thenReturn(List.of());
+        connectionGraphCache.getConnectionIds(1L);
+        connectionGraphCache.getConnectionIds(2L);
+        connectionGraphCache.getConnectionIds(3L);
+
+        // When
+        connectionGraphCache.getConnectionIds(1L);
+
+        // Then
+        verify(userConnectionRepository, times(2)).findConnectionIdsByUserId(1L);
+        verify(userConnectionRepository, times(1)).findConnectionIdsByUserId(3L);
+    }
+}
@@ -0,0 +1,292 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.IdempotencyRecord;
+import com.openclassroom.paymybuddy.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour IdempotencyService
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private TransferDTO transferDTO;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), 100, 24, 60);
+        transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        executions = new AtomicInteger();
+    }
+
+    private ResponseEntity<?> transfer() {
+        executions.incrementAndGet();
+        return ResponseEntity.ok(Map.of("id", 10));
+    }
+
+    @Test
+    void execute_WithNewKey_ShouldRunActionAndStoreResponse() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(executions.get()).isEqualTo(1);
+        verify(idempotencyRecordRepository).save(argThat(record ->
+                record.getResponseStatus() == 200 && record.getResponseBody().equals("{\"id\":10}")));
+    }
+
+    @Test
+    void execute_WithDuplicateKey_ShouldReplayFromMemoryWithoutDatabaseAccess() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+        clearInvocations(idempotencyRecordRepository);
+
+        // When
+        ResponseEntity<?> replayed = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(replayed.getStatusCode().value()).isEqualTo(200);
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":10}");
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void findCachedResponse_AfterCompletedRequest_ShouldReplayWithoutDatabaseAccess() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+        clearInvocations(idempotencyRecordRepository);
+
+        // When
+        Optional<ResponseEntity<?>> replayed =
+                idempotencyService.findCachedResponse("john@example.com", 1L, "key-1", transferDTO);
+        Optional<ResponseEntity<?>> otherPrincipal =
+                idempotencyService.findCachedResponse("mallory@example.com", 1L, "key-1", transferDTO);
+
+        // Then
+        assertThat(replayed).isPresent();
+        assertThat(replayed.get().getStatusCode().value()).isEqualTo(200);
+        assertThat(replayed.get().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(otherPrincipal).isEmpty();
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void execute_WithKeyCompletedInDatabase_ShouldReplayStoredResponse() {
+        // Given - une autre instance (cache vide) a déjà traité la requête
+        IdempotencyService other = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), 100, 24, 60);
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        other.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(captor.capture());
+        IdempotencyRecord stored = captor.getValue();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(stored));
+
+        // When
+        ResponseEntity<?> replayed = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":10}");
+    }
+
+    @Test
+    void execute_WithKeyInProgress_ShouldReturn409() {
+        // Given
+        IdempotencyRecord inProgress = new IdempotencyRecord(1L, "key-1", "hash");
+        inProgress.setCreatedAt(LocalDateTime.now().minusSeconds(10));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(inProgress));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(409);
+        assertThat(executions.get()).isZero();
+        verify(idempotencyRecordRepository, never()).releaseReservationCreatedBefore(any(), any(), any());
+    }
+
+    @Test
+    void execute_WithAbandonedReservation_ShouldReleaseKeyAndRunAction() {
+        // Given - réservation sans réponse plus ancienne que le délai de réservation
+        IdempotencyRecord abandoned = new IdempotencyRecord(1L, "key-1", "hash");
+        abandoned.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(abandoned));
+        when(idempotencyRecordRepository.releaseReservationCreatedBefore(eq(1L), eq("key-1"), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(executions.get()).isEqualTo(1);
+        verify(idempotencyRecordRepository).save(argThat(record -> record.getResponseStatus() == 200));
+    }
+
+    @Test
+    void execute_WithAbandonedReservationReleasedConcurrently_ShouldReturn409() {
+        // Given - un autre rejeu a libéré et repris la clé entre la lecture et la libération
+        IdempotencyRecord abandoned = new IdempotencyRecord(1L, "key-1", "hash");
+        abandoned.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(abandoned));
+        when(idempotencyRecordRepository.releaseReservationCreatedBefore(eq(1L), eq("key-1"), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(409);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    void execute_WhenResponseCannotBeStored_ShouldStillReturnIt() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("Base indisponible"));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(executions.get()).isEqualTo(1);
+        verify(idempotencyRecordRepository, never()).delete(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_WithConcurrentReservation_ShouldReturn409() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(409);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    void execute_WithSameKeyAndDifferentRequest_ShouldReturn422() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+
+        TransferDTO otherTransfer = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("99.00"));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", otherTransfer, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(422);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldReleaseKey() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When & Then
+        assertThatThrownBy(() -> idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, () -> {
+            throw new IllegalStateException("Base indisponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_WhenActionReturns503_ShouldReleaseKey() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO,
+                () -> ResponseEntity.status(503).build());
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(503);
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteOldKeysAndForgetCachedReplays() {
+        // Given
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("john@example.com", 1L, "key-1", transferDTO, this::transfer);
+        when(idempotencyRecordRepository.deleteCreatedBefore(any(LocalDateTime.class))).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now().minusHours(24);
+
+        // When
+        idempotencyService.purgeExpired();
+
+        // Then
+        verify(idempotencyRecordRepository).deleteCreatedBefore(argThat(limit -> !limit.isBefore(before)
+                && limit.isBefore(LocalDateTime.now().minusHours(23))));
+        verify(idempotencyRecordRepository).deleteReservationsCreatedBefore(argThat(limit ->
+                limit.isBefore(LocalDateTime.now().minusSeconds(59))));
+        assertThat(idempotencyService.findCachedResponse("john@example.com", 1L, "key-1", transferDTO)).isEmpty();
+    }
+
+    @Test
+    void execute_WithTooLongKey_ShouldReturn400() {
+        // When
+        ResponseEntity<?> response = idempotencyService.execute("john@example.com", 1L, "k".repeat(101), transferDTO, this::transfer);
+
+        // Then
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+}
@@ -0,0 +1,171 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.BalanceSnapshot;
+import com.openclassroom.paymybuddy.model.LedgerEntry;
+import com.openclassroom.paymybuddy.model.LedgerEntryType;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.BalanceSnapshotRepository;
+import com.openclassroom.paymybuddy.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour LedgerService
+ */
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private LedgerEntry entry(Long id, LedgerEntryType type, String amount, LocalDateTime createdAt) {
+        LedgerEntry entry = new LedgerEntry(1L, null, type, new BigDecimal(amount), createdAt);
+        entry.setId(id);
+        return entry;
+    }
+
+    @Test
+    void recordTransfer_ShouldWriteBalancedDebitAndCreditEntries() {
+        // Given
+        Transaction transaction = Transaction.builder()
+                .id(10L)
+                .sender(User.builder().id(1L).build())
+                .receiver(User.builder().id(2L).build())
+                .amount(new BigDecimal("25.00"))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        // When
+        ledgerService.recordTransfer(transaction);
+
+        // Then
+        verify(ledgerEntryRepository).insertAll(argThat(entries -> entries.size() == 2
+                && entries.get(0).getUserId().equals(1L)
+                && entries.get(0).getEntryType() == LedgerEntryType.DEBIT
+                && entries.get(1).getUserId().equals(2L)
+                && entries.get(1).getEntryType() == LedgerEntryType.CREDIT
+                && entries.stream().allMatch(entry -> entry.getTransactionId().equals(10L))
+                && entries.get(0).getSignedAmount().add(entries.get(1).getSignedAmount()).signum() == 0));
+    }
+
+    @Test
+    void recordAdjustment_WithNegativeDelta_ShouldWriteDebitEntry() {
+        // When
+        ledgerService.recordAdjustment(1L, new BigDecimal("-30.00"));
+
+        // Then
+        verify(ledgerEntryRepository).insertAll(argThat(entries -> entries.size() == 1
+                && entries.get(0).getEntryType() == LedgerEntryType.DEBIT
+                && entries.get(0).getAmount().compareTo(new BigDecimal("30.00")) == 0
+                && entries.get(0).getTransactionId() == null));
+    }
+
+    @Test
+    void recordAdjustment_WithZeroDelta_ShouldNotWriteAnything() {
+        // When
+        ledgerService.recordAdjustment(1L, BigDecimal.ZERO);
+
+        // Then
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    void getBalance_ShouldAddEntriesSinceLastSnapshot() {
+        // Given
+        BalanceSnapshot snapshot = new BalanceSnapshot(1L, 500L, LocalDateTime.now().minusDays(1), new BigDecimal("100.00"));
+        when(balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.of(snapshot));
+        when(ledgerEntryRepository.sumBetween(1L, 500L, Long.MAX_VALUE)).thenReturn(new BigDecimal("-40.00"));
+
+        // When
+        BigDecimal balance = ledgerService.getBalance(1L);
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void getBalance_WithoutSnapshot_ShouldSumWholeJournal() {
+        // Given
+        when(balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(ledgerEntryRepository.sumBetween(1L, 0L, Long.MAX_VALUE)).thenReturn(new BigDecimal("15.00"));
+
+        // When
+        BigDecimal balance = ledgerService.getBalance(1L);
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void getBalanceAt_ShouldStartFromLastSnapshotBeforeInstant() {
+        // Given
+        LocalDateTime at = LocalDateTime.of(2024, 6, 1, 12, 0);
+        BalanceSnapshot snapshot = new BalanceSnapshot(1L, 200L, at.minusHours(3), new BigDecimal("80.00"));
+        when(balanceSnapshotRepository.findFirstByUserIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(1L, at))
+                .thenReturn(Optional.of(snapshot));
+        when(ledgerEntryRepository.sumSinceUpTo(1L, 200L, at)).thenReturn(new BigDecimal("20.00"));
+
+        // When
+        BigDecimal balance = ledgerService.getBalanceAt(1L, at);
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void takeSnapshot_ShouldCoverEntriesUpToLastSettledEntry() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        BalanceSnapshot previous = new BalanceSnapshot(1L, 100L, createdAt.minusDays(1), new BigDecimal("50.00"));
+        when(ledgerEntryRepository.findFirstByUserIdAndCreatedAtLessThanEqualOrderByIdDesc(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(entry(180L, LedgerEntryType.CREDIT, "10.00", createdAt)));
+        when(balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.of(previous));
+        when(ledgerEntryRepository.sumBetween(1L, 100L, 180L)).thenReturn(new BigDecimal("25.00"));
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Optional<BalanceSnapshot> snapshot = ledgerService.takeSnapshot(1L);
+
+        // Then
+        assertThat(snapshot).isPresent();
+        assertThat(snapshot.get().getLastEntryId()).isEqualTo(180L);
+        assertThat(snapshot.get().getAsOf()).isEqualTo(createdAt);
+        assertThat(snapshot.get().getBalance()).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    void takeSnapshot_WithoutNewSettledEntry_ShouldNotCreateSnapshot() {
+        // Given
+        BalanceSnapshot previous = new BalanceSnapshot(1L, 180L, LocalDateTime.now().minusHours(2), new BigDecimal("75.00"));
+        when(ledgerEntryRepository.findFirstByUserIdAndCreatedAtLessThanEqualOrderByIdDesc(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(entry(180L, LedgerEntryType.CREDIT, "10.00", LocalDateTime.now().minusHours(2))));
+        when(balanceSnapshotRepository.findFirstByUserIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.of(previous));
+
+        // When
+        Optional<BalanceSnapshot> snapshot = ledgerService.takeSnapshot(1L);
+
+        // Then
+        assertThat(snapshot).isEmpty();
+        verify(balanceSnapshotRepository, never()).save(any());
+        verify(ledgerEntryRepository, never()).sumBetween(any(), any(), any());
+    }
+}
@@ -0,0 +1,159 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.MonthlyStatsDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.model.UserMonthlyStats;
+import com.openclassroom.paymybuddy.repository.JobCheckpointRepository;
+import com.openclassroom.paymybuddy.repository.UserMonthlyStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour MonthlyStatsService
+ */
+@ExtendWith(MockitoExtension.class)
+class MonthlyStatsServiceTest {
+
+    @Mock
+    private UserMonthlyStatsRepository userMonthlyStatsRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MonthlyStatsService monthlyStatsService;
+
+    @BeforeEach
+    void setUp() {
+        monthlyStatsService = new MonthlyStatsService(userMonthlyStatsRepository, jobCheckpointRepository,
+                dataSource, transactionManager, 1000);
+    }
+
+    private Transaction transfer(Long senderId, Long receiverId, String amount, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .sender(User.builder().id(senderId).build())
+                .receiver(User.builder().id(receiverId).build())
+                .amount(new BigDecimal(amount))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, UserMonthlyStats> captureAddedStats() {
+        ArgumentCaptor<Collection<UserMonthlyStats>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(userMonthlyStatsRepository).addAll(captor.capture());
+        return captor.getValue().stream()
+                .collect(Collectors.toMap(stats -> stats.getUserId() + "@" + stats.getMonthStart(), Function.identity()));
+    }
+
+    @Test
+    void recordTransfers_ShouldAggregateDeltasPerUserAndMonth() {
+        // Given
+        LocalDateTime may = LocalDateTime.of(2024, 5, 10, 12, 0);
+        LocalDateTime june = LocalDateTime.of(2024, 6, 1, 0, 0);
+        List<Transaction> transactions = List.of(
+                transfer(1L, 2L, "10.00", may),
+                transfer(1L, 2L, "5.50", may.plusDays(20)),
+                transfer(2L, 1L, "3.00", may),
+                transfer(1L, 3L, "7.25", june));
+
+        // When
+        monthlyStatsService.recordTransfers(transactions);
+
+        // Then
+        Map<String, UserMonthlyStats> stats = captureAddedStats();
+        assertThat(stats).hasSize(5);
+        UserMonthlyStats aliceMay = stats.get("1@2024-05-01");
+        assertThat(aliceMay.getSentTotal()).isEqualByComparingTo("15.50");
+        assertThat(aliceMay.getSentCount()).isEqualTo(2);
+        assertThat(aliceMay.getReceivedTotal()).isEqualByComparingTo("3.00");
+        assertThat(aliceMay.getReceivedCount()).isEqualTo(1);
+        UserMonthlyStats bobMay = stats.get("2@2024-05-01");
+        assertThat(bobMay.getSentTotal()).isEqualByComparingTo("3.00");
+        assertThat(bobMay.getReceivedTotal()).isEqualByComparingTo("15.50");
+        assertThat(bobMay.getReceivedCount()).isEqualTo(2);
+        assertThat(stats.get("1@2024-06-01").getSentTotal()).isEqualByComparingTo("7.25");
+        assertThat(stats.get("3@2024-06-01").getReceivedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recordAdjustment_WithNegativeDelta_ShouldCountWithdrawalOfCurrentMonth() {
+        // When
+        monthlyStatsService.recordAdjustment(1L, new BigDecimal("-30.00"));
+
+        // Then
+        Map<String, UserMonthlyStats> stats = captureAddedStats();
+        UserMonthlyStats current = stats.get("1@" + YearMonth.now().atDay(1));
+        assertThat(current.getWithdrawnTotal()).isEqualByComparingTo("30.00");
+        assertThat(current.getDepositedTotal()).isEqualByComparingTo("0.00");
+        assertThat(current.getSentCount()).isZero();
+    }
+
+    @Test
+    void recordAdjustment_WithZeroDelta_ShouldNotWrite() {
+        // When
+        monthlyStatsService.recordAdjustment(1L, BigDecimal.ZERO);
+
+        // Then
+        verifyNoInteractions(userMonthlyStatsRepository);
+    }
+
+    @Test
+    void getMonthlyStats_ShouldReturnEveryMonthNewestFirstWithZeroFilledGaps() {
+        // Given
+        YearMonth current = YearMonth.now();
+        UserMonthlyStats lastMonth = new UserMonthlyStats(1L, current.minusMonths(1).atDay(1));
+        lastMonth.setSentTotal(new BigDecimal("42.00"));
+        lastMonth.setSentCount(3);
+        when(userMonthlyStatsRepository.findByUserIdAndMonthStartBetweenOrderByMonthStartDesc(
+                1L, current.minusMonths(2).atDay(1), current.atDay(1))).thenReturn(List.of(lastMonth));
+
+        // When
+        List<MonthlyStatsDTO> result = monthlyStatsService.getMonthlyStats(1L, 3);
+
+        // Then
+        assertThat(result).extracting(MonthlyStatsDTO::getMonth).containsExactly(
+                current.toString(), current.minusMonths(1).toString(), current.minusMonths(2).toString());
+        assertThat(result.get(0).getSentTotal()).isEqualByComparingTo("0.00");
+        assertThat(result.get(1).getSentTotal()).isEqualByComparingTo("42.00");
+        assertThat(result.get(1).getSentCount()).isEqualTo(3);
+        assertThat(result.get(2).getReceivedCount()).isZero();
+    }
+
+    @Test
+    void getMonthlyStats_WithOutOfRangeMonths_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> monthlyStatsService.getMonthlyStats(1L, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> monthlyStatsService.getMonthlyStats(1L, MonthlyStatsService.MAX_MONTHS + 1));
+        verify(userMonthlyStatsRepository, never())
+                .findByUserIdAndMonthStartBetweenOrderByMonthStartDesc(any(), any(LocalDate.class), any(LocalDate.class));
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassroom.paymybuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour OptimisticRetryExecutor
+ */
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticRetryExecutor = new OptimisticRetryExecutor(transactionManager, meterRegistry, 3, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("User", 1L);
+    }
+
+    @Test
+    void execute_WithTransientConflict_ShouldRetryInNewTransaction() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = optimisticRetryExecutor.execute("transfer", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertThat(meterRegistry.get("paymybuddy.balance.optimistic.attempts").tag("operation", "transfer")
+                .counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("paymybuddy.balance.optimistic.conflicts").tag("operation", "transfer")
+                .counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("paymybuddy.balance.optimistic.retries").tag("operation", "transfer")
+                .summary().totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    void execute_WithPersistentConflict_ShouldGiveUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> optimisticRetryExecutor.execute("adjust-balance", () -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("paymybuddy.balance.optimistic.exhausted").tag("operation", "adjust-balance")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_WithBusinessError_ShouldNotRetry() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> optimisticRetryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Balance insuffisante pour effectuer la transaction");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_InsideExistingTransaction_ShouldJoinItWithoutRetry() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> optimisticRetryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(calls.get()).isEqualTo(1);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void constructor_WithInvalidPolicy_ShouldThrowException() {
+        assertThatThrownBy(() -> new OptimisticRetryExecutor(transactionManager, meterRegistry, 0, 1, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour OutboxDispatcher
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ObjectProvider<TransferEventListener> listenerProvider;
+
+    @Mock
+    private TransferEventListener listener;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxDispatcher outboxDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxDispatcher = new OutboxDispatcher(outboxService, listenerProvider, meterRegistry, 2, 3, 24);
+        lenient().when(listenerProvider.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+    }
+
+    private OutboxEvent event(Long id, int attempts) {
+        OutboxEvent event = new OutboxEvent(OutboxService.TRANSFER_COMPLETED, id, "{}", LocalDateTime.now().minusSeconds(30));
+        event.setId(id);
+        event.setAttempts(attempts);
+        return event;
+    }
+
+    private TransferCompletedEventDTO payload(Long transactionId) {
+        return new TransferCompletedEventDTO(transactionId, 1L, 2L, new BigDecimal("10.00"), "Café", LocalDateTime.now());
+    }
+
+    @Test
+    void dispatch_ShouldDeliverEventsBatchAfterBatchAndAcknowledgeThem() {
+        // Given
+        OutboxEvent first = event(1L, 0);
+        OutboxEvent second = event(2L, 0);
+        OutboxEvent third = event(3L, 0);
+        when(outboxService.findPending(3, 2)).thenReturn(List.of(first, second), List.of(third));
+        when(outboxService.readTransferCompleted(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> payload(invocation.<OutboxEvent>getArgument(0).getAggregateId()));
+
+        // When
+        outboxDispatcher.dispatch();
+
+        // Then
+        verify(listener, times(3)).onTransferCompleted(any(TransferCompletedEventDTO.class));
+        verify(outboxService).markDelivered(List.of(1L, 2L));
+        verify(outboxService).markDelivered(List.of(3L));
+        assertThat(meterRegistry.get("paymybuddy.outbox.delivered").counter().count()).isEqualTo(3.0);
+        assertThat(outboxDispatcher.getLagMillis()).isZero();
+    }
+
+    @Test
+    void dispatch_WhenListenerFails_ShouldRecordFailureAndKeepEventPending() {
+        // Given
+        OutboxEvent failing = event(1L, 0);
+        OutboxEvent delivered = event(2L, 0);
+        when(outboxService.findPending(3, 2)).thenReturn(List.of(failing, delivered));
+        when(outboxService.readTransferCompleted(any(OutboxEvent.class)))
+                .thenAnswer(invocation -> payload(invocation.<OutboxEvent>getArgument(0).getAggregateId()));
+        doThrow(new IllegalStateException("Service indisponible"))
+                .when(listener).onTransferCompleted(argThat(event -> event.getTransactionId().equals(1L)));
+
+        // When
+        outboxDispatcher.dispatch();
+
+        // Then
+        verify(outboxService).recordFailure(eq(1L), anyString());
+        verify(outboxService).markDelivered(List.of(2L));
+        verify(outboxService, times(1)).findPending(3, 2);
+        assertThat(meterRegistry.get("paymybuddy.outbox.failures").counter().count()).isEqualTo(1.0);
+        assertThat(outboxDispatcher.getLagMillis()).isGreaterThanOrEqualTo(30_000);
+    }
+
+    @Test
+    void dispatch_WhenLastAttemptFails_ShouldCountAbandonedEvent() {
+        // Given
+        OutboxEvent failing = event(1L, 2);
+        when(outboxService.findPending(3, 2)).thenReturn(List.of(failing));
+        when(outboxService.readTransferCompleted(failing)).thenReturn(payload(1L));
+        doThrow(new IllegalStateException("Service indisponible")).when(listener).onTransferCompleted(any());
+
+        // When
+        outboxDispatcher.dispatch();
+
+        // Then
+        verify(outboxService).recordFailure(eq(1L), anyString());
+        assertThat(meterRegistry.get("paymybuddy.outbox.abandoned").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void dispatch_WithUnknownEventType_ShouldRecordFailureWithoutCallingListeners() {
+        // Given
+        OutboxEvent unknown = new OutboxEvent("UserDeleted", 7L, "{}", LocalDateTime.now());
+        unknown.setId(1L);
+        when(outboxService.findPending(3, 2)).thenReturn(List.of(unknown));
+
+        // When
+        outboxDispatcher.dispatch();
+
+        // Then
+        verify(outboxService).recordFailure(eq(1L), anyString());
+        verifyNoInteractions(listener);
+    }
+
+    @Test
+    void dispatch_WithNoPendingEvent_ShouldNotAcknowledgeAnything() {
+        // Given
+        when(outboxService.findPending(3, 2)).thenReturn(new ArrayList<>());
+
+        // When
+        outboxDispatcher.dispatch();
+
+        // Then
+        verify(outboxService, never()).markDelivered(any());
+        assertThat(outboxDispatcher.getLagMillis()).isZero();
+    }
+}
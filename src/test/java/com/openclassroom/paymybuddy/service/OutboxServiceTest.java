@@ -0,0 +1,106 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.openclassroom.paymybuddy.dto.TransferCompletedEventDTO;
+import com.openclassroom.paymybuddy.model.OutboxEvent;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour OutboxService
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        outboxService = new OutboxService(outboxEventRepository, objectMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void recordTransferCompleted_ShouldWriteReadableEventForTransaction() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+        Transaction transaction = Transaction.builder()
+                .id(10L)
+                .sender(User.builder().id(1L).build())
+                .receiver(User.builder().id(2L).build())
+                .amount(new BigDecimal("25.00"))
+                .description("Déjeuner")
+                .createdAt(createdAt)
+                .build();
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+
+        // When
+        outboxService.recordTransferCompleted(transaction);
+
+        // Then
+        verify(outboxEventRepository).insertAll(captor.capture());
+        List<OutboxEvent> events = captor.getValue();
+        assertThat(events).hasSize(1);
+        OutboxEvent event = events.get(0);
+        assertThat(event.getEventType()).isEqualTo(OutboxService.TRANSFER_COMPLETED);
+        assertThat(event.getAggregateId()).isEqualTo(10L);
+
+        TransferCompletedEventDTO payload = outboxService.readTransferCompleted(event);
+        assertThat(payload).isEqualTo(new TransferCompletedEventDTO(10L, 1L, 2L,
+                new BigDecimal("25.00"), "Déjeuner", createdAt));
+    }
+
+    @Test
+    void readTransferCompleted_WithInvalidPayload_ShouldThrowException() {
+        // Given
+        OutboxEvent event = new OutboxEvent(OutboxService.TRANSFER_COMPLETED, 10L, "{invalide", LocalDateTime.now());
+
+        // When & Then
+        assertThatThrownBy(() -> outboxService.readTransferCompleted(event))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void markDelivered_WithNoEvent_ShouldNotQueryDatabase() {
+        // When
+        outboxService.markDelivered(List.of());
+
+        // Then
+        verify(outboxEventRepository, never()).markDelivered(anyList(), any());
+    }
+
+    @Test
+    void recordFailure_WithLongMessage_ShouldTruncateError() {
+        // When
+        outboxService.recordFailure(5L, "x".repeat(600));
+
+        // Then
+        verify(outboxEventRepository).recordFailure(eq(5L), argThat(message -> message.length() == 500));
+    }
+}
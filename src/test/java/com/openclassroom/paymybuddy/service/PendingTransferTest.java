@@ -0,0 +1,83 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires pour PendingTransfer
+ */
+class PendingTransferTest {
+
+    private Counter cancelledTransfers;
+    private PendingTransfer pending;
+    private BatchTransferResultDTO success;
+
+    @BeforeEach
+    void setUp() {
+        cancelledTransfers = new SimpleMeterRegistry().counter("cancelled");
+        pending = new PendingTransfer(new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00")));
+        success = new BatchTransferResultDTO(0, 2L, new BigDecimal("25.00"), true, 42L, null);
+    }
+
+    @Test
+    void await_WhenCompleted_ShouldReturnResult() {
+        // Given
+        assertThat(pending.start()).isTrue();
+        pending.complete(success);
+
+        // When
+        BatchTransferResultDTO result = pending.await(1000, cancelledTransfers);
+
+        // Then
+        assertThat(result).isSameAs(success);
+        assertThat(cancelledTransfers.count()).isZero();
+    }
+
+    @Test
+    void await_WhenStillQueuedAtTimeout_ShouldCancelTransfer() {
+        // When & Then
+        assertThatThrownBy(() -> pending.await(10, cancelledTransfers))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("annulé");
+        assertThat(cancelledTransfers.count()).isEqualTo(1.0);
+        assertThat(pending.start()).isFalse();
+    }
+
+    @Test
+    void await_WhenTakenBeforeTimeout_ShouldWaitForActualResult() {
+        // Given - le thread du moteur a pris le transfert et le termine après le délai d'attente
+        assertThat(pending.start()).isTrue();
+        CompletableFuture.runAsync(() -> pending.complete(success),
+                CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+
+        // When
+        BatchTransferResultDTO result = pending.await(10, cancelledTransfers);
+
+        // Then
+        assertThat(result).isSameAs(success);
+        assertThat(cancelledTransfers.count()).isZero();
+    }
+
+    @Test
+    void await_WhenFailed_ShouldRethrowCause() {
+        // Given
+        assertThat(pending.start()).isTrue();
+        pending.fail(new IllegalArgumentException("Destinataire introuvable"));
+
+        // When & Then
+        assertThatThrownBy(() -> pending.await(1000, cancelledTransfers))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Destinataire introuvable");
+    }
+}
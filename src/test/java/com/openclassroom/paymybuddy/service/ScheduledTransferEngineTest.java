@@ -0,0 +1,129 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import com.openclassroom.paymybuddy.model.TransferFrequency;
+import com.openclassroom.paymybuddy.repository.ScheduledTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ScheduledTransferEngine
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferEngineTest {
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledTransferEngine engine;
+    private ScheduledTransfer scheduledTransfer;
+    private LocalDateTime now;
+    private LocalDateTime runAt;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new ScheduledTransferEngine(scheduledTransferRepository, transactionService, transactionManager,
+                meterRegistry, 1000, 60, 10, 10, 1, 1000, 3);
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        runAt = now.minusHours(1);
+        scheduledTransfer = new ScheduledTransfer();
+        scheduledTransfer.setId(1L);
+        scheduledTransfer.setSenderId(10L);
+        scheduledTransfer.setReceiverId(20L);
+        scheduledTransfer.setAmount(new BigDecimal("15.00"));
+        scheduledTransfer.setDescription("Loyer");
+        scheduledTransfer.setFrequency(TransferFrequency.DAILY);
+        scheduledTransfer.setStartAt(runAt);
+        scheduledTransfer.setNextRunAt(runAt);
+        scheduledTransfer.setActive(true);
+
+        when(scheduledTransferRepository.findActiveDueChunk(any(), any(), any(), any())).thenReturn(List.of(scheduledTransfer));
+        // Chaque lecture repart de l'état enregistré : l'avancement d'une occurrence en échec est annulé avec sa transaction
+        when(scheduledTransferRepository.findById(1L)).thenAnswer(invocation -> Optional.of(copy(scheduledTransfer)));
+        when(scheduledTransferRepository.advance(eq(1L), eq(runAt), eq(runAt.plusDays(1)), anyBoolean(), any()))
+                .thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    private ScheduledTransfer copy(ScheduledTransfer source) {
+        ScheduledTransfer copy = new ScheduledTransfer();
+        copy.setId(source.getId());
+        copy.setSenderId(source.getSenderId());
+        copy.setReceiverId(source.getReceiverId());
+        copy.setAmount(source.getAmount());
+        copy.setDescription(source.getDescription());
+        copy.setFrequency(source.getFrequency());
+        copy.setStartAt(source.getStartAt());
+        copy.setNextRunAt(source.getNextRunAt());
+        copy.setActive(source.isActive());
+        return copy;
+    }
+
+    @Test
+    void tick_WhenAccountNoLongerExists_ShouldRefuseOccurrenceAndDeactivateSchedule() {
+        // Given
+        when(transactionService.createTransfer(any())).thenThrow(new EntityNotFoundException("Utilisateur non trouvé"));
+
+        // When
+        engine.tick(now);
+        engine.tick(now.plusSeconds(5));
+
+        // Then
+        verify(transactionService, times(1)).createTransfer(any());
+        verify(scheduledTransferRepository).advance(1L, runAt, runAt.plusDays(1), false, "Utilisateur non trouvé");
+        assertThat(meterRegistry.get("paymybuddy.scheduled-transfer.refused").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("paymybuddy.scheduled-transfer.retried").counter().count()).isZero();
+    }
+
+    @Test
+    void tick_WhenTechnicalErrorPersists_ShouldAbandonOccurrenceAfterMaxAttempts() {
+        // Given
+        when(transactionService.createTransfer(any())).thenThrow(new IllegalStateException("Base indisponible"));
+
+        // When
+        engine.tick(now);
+        engine.tick(now.plusSeconds(5));
+        engine.tick(now.plusSeconds(10));
+        engine.tick(now.plusSeconds(15));
+
+        // Then
+        verify(transactionService, times(3)).createTransfer(any());
+        verify(scheduledTransferRepository, times(1)).advance(1L, runAt, runAt.plusDays(1), true,
+                "Abandonnée après 3 tentative(s) : Base indisponible");
+        verify(scheduledTransferRepository, times(3)).advance(1L, runAt, runAt.plusDays(1), true, null);
+        assertThat(meterRegistry.get("paymybuddy.scheduled-transfer.retried").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("paymybuddy.scheduled-transfer.abandoned").counter().count()).isEqualTo(1.0);
+    }
+}
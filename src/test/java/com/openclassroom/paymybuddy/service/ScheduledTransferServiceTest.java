@@ -0,0 +1,124 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.ScheduledTransferDTO;
+import com.openclassroom.paymybuddy.model.ScheduledTransfer;
+import com.openclassroom.paymybuddy.model.TransferFrequency;
+import com.openclassroom.paymybuddy.repository.ScheduledTransferRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour ScheduledTransferService
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferServiceTest {
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private ConnectionGraphCache connectionGraphCache;
+
+    @Mock
+    private ScheduledTransferEngine scheduledTransferEngine;
+
+    @InjectMocks
+    private ScheduledTransferService scheduledTransferService;
+
+    private ScheduledTransferDTO request(LocalDateTime startAt) {
+        return new ScheduledTransferDTO(null, 2L, new BigDecimal("500.00"), "Loyer", TransferFrequency.MONTHLY,
+                startAt, null, null, false, null);
+    }
+
+    @Test
+    void createScheduledTransfer_WithValidData_ShouldSaveAndRegisterSchedule() {
+        // Given
+        LocalDateTime startAt = LocalDateTime.now().plusDays(1).withNano(123_000_000);
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(scheduledTransferRepository.save(any(ScheduledTransfer.class))).thenAnswer(invocation -> {
+            ScheduledTransfer saved = invocation.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        // When
+        ScheduledTransferDTO result = scheduledTransferService.createScheduledTransfer(1L, request(startAt));
+
+        // Then
+        assertThat(result.getId()).isEqualTo(10L);
+        assertThat(result.isActive()).isTrue();
+        assertThat(result.getNextRunAt()).isEqualTo(startAt.truncatedTo(ChronoUnit.SECONDS));
+        verify(scheduledTransferEngine).register(argThat(schedule -> schedule.getId().equals(10L)
+                && schedule.getSenderId().equals(1L)
+                && schedule.getNextRunAt().equals(schedule.getStartAt())));
+    }
+
+    @Test
+    void createScheduledTransfer_ToNonConnection_ShouldThrowException() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> scheduledTransferService.createScheduledTransfer(1L, request(LocalDateTime.now().plusDays(1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+        verify(scheduledTransferRepository, never()).save(any());
+        verifyNoInteractions(scheduledTransferEngine);
+    }
+
+    @Test
+    void createScheduledTransfer_WithPastStartDate_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> scheduledTransferService.createScheduledTransfer(1L, request(LocalDateTime.now().minusDays(1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La date de première exécution doit être dans le futur");
+        verify(scheduledTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void createScheduledTransfer_ToSelf_ShouldThrowException() {
+        // Given
+        ScheduledTransferDTO request = request(LocalDateTime.now().plusDays(1));
+        request.setReceiverId(1L);
+
+        // When & Then
+        assertThatThrownBy(() -> scheduledTransferService.createScheduledTransfer(1L, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez pas effectuer un transfert vers vous-même");
+    }
+
+    @Test
+    void cancelScheduledTransfer_OfAnotherUser_ShouldThrowEntityNotFoundException() {
+        // Given
+        when(scheduledTransferRepository.deactivate(10L, 1L)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> scheduledTransferService.cancelScheduledTransfer(1L, 10L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void cancelScheduledTransfer_OwnSchedule_ShouldDeactivateIt() {
+        // Given
+        when(scheduledTransferRepository.deactivate(10L, 1L)).thenReturn(1);
+
+        // When
+        scheduledTransferService.cancelScheduledTransfer(1L, 10L);
+
+        // Then
+        verify(scheduledTransferRepository).deactivate(10L, 1L);
+    }
+}
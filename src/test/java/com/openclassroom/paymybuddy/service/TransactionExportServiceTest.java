@@ -0,0 +1,185 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.User;
+import com.openclassroom.paymybuddy.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TransactionExportService
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionExportService transactionExportService;
+
+    private Transaction sent;
+    private Transaction received;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        transactionExportService = new TransactionExportService(transactionRepository, entityManager, objectMapper,
+                meterRegistry, 1);
+
+        User alice = User.builder().id(1L).username("alice").build();
+        User bob = User.builder().id(2L).username("bob").build();
+        sent = Transaction.builder().id(10L).sender(alice).receiver(bob).amount(new BigDecimal("12.50"))
+                .description("Dîner, \"chez Léon\"").createdAt(LocalDateTime.of(2024, 3, 1, 20, 15)).build();
+        received = Transaction.builder().id(11L).sender(bob).receiver(alice).amount(new BigDecimal("3.00"))
+                .description("Café").createdAt(LocalDateTime.of(2024, 3, 2, 8, 0)).build();
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndOneEscapedLinePerTransaction() throws Exception {
+        // Given
+        when(transactionRepository.streamSentForExport(eq(1L), any(), any())).thenReturn(Stream.of(sent));
+        when(transactionRepository.streamReceivedForExport(eq(1L), any(), any())).thenReturn(Stream.of(received));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = transactionExportService.export(1L, null, null, ExportFormat.CSV, false, out);
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                TransactionExportService.CSV_HEADER + "\n"
+                        + "10,2024-03-01T20:15,SENT,bob,\"Dîner, \"\"chez Léon\"\"\",12.50\n"
+                        + "11,2024-03-02T08:00,RECEIVED,bob,Café,3.00\n");
+        verify(entityManager).detach(sent);
+        verify(entityManager).detach(received);
+        assertThat(meterRegistry.counter("paymybuddy.export.rows").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void export_NdjsonGzip_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // Given
+        when(transactionRepository.streamSentForExport(eq(1L), any(), any())).thenReturn(Stream.of(sent));
+        when(transactionRepository.streamReceivedForExport(eq(1L), any(), any())).thenReturn(Stream.of(received));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        transactionExportService.export(1L, null, null, ExportFormat.NDJSON, true, out);
+
+        // Then
+        String content;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = content.split("\n");
+        assertThat(content).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(10L);
+        assertThat(first.get("direction").asText()).isEqualTo("SENT");
+        assertThat(first.get("counterparty").asText()).isEqualTo("bob");
+        assertThat(first.get("description").asText()).isEqualTo("Dîner, \"chez Léon\"");
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(objectMapper.readTree(lines[1]).get("direction").asText()).isEqualTo("RECEIVED");
+    }
+
+    @Test
+    void export_WithDateRange_ShouldQueryWholeDaysWithExclusiveEnd() throws Exception {
+        // Given
+        when(transactionRepository.streamSentForExport(any(), any(), any())).thenReturn(Stream.empty());
+        when(transactionRepository.streamReceivedForExport(any(), any(), any())).thenReturn(Stream.empty());
+
+        // When
+        long rows = transactionExportService.export(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31),
+                ExportFormat.CSV, false, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(rows).isZero();
+        verify(transactionRepository).streamSentForExport(1L, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0));
+        verify(transactionRepository).streamReceivedForExport(1L, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0));
+    }
+
+    @Test
+    void mergeOldestFirst_ShouldInterleaveSentAndReceivedByDateThenId() {
+        // Given
+        User alice = sent.getSender();
+        User bob = sent.getReceiver();
+        Transaction earlyReceived = Transaction.builder().id(5L).sender(bob).receiver(alice)
+                .createdAt(LocalDateTime.of(2024, 2, 28, 9, 0)).build();
+        Transaction sameTimeSent = Transaction.builder().id(12L).sender(alice).receiver(bob)
+                .createdAt(LocalDateTime.of(2024, 3, 2, 8, 0)).build();
+
+        // When
+        Iterator<Transaction> merged = TransactionExportService.mergeOldestFirst(
+                List.of(sent, sameTimeSent).iterator(), List.of(earlyReceived, received).iterator(),
+                Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId));
+        List<Long> ids = new ArrayList<>();
+        merged.forEachRemaining(transaction -> ids.add(transaction.getId()));
+
+        // Then
+        assertThat(ids).containsExactly(5L, 10L, 11L, 12L);
+        assertThat(merged.hasNext()).isFalse();
+    }
+
+    @Test
+    void export_WithInvertedDateRange_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> transactionExportService.export(1L, LocalDate.of(2024, 2, 1),
+                LocalDate.of(2024, 1, 1), ExportFormat.CSV, false, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La date de début doit précéder la date de fin");
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void tryAcquireExportPermit_BeyondLimit_ShouldRefuseUntilReleased() {
+        // When & Then
+        assertThat(transactionExportService.tryAcquireExportPermit()).isTrue();
+        assertThat(transactionExportService.tryAcquireExportPermit()).isFalse();
+        assertThat(meterRegistry.get("paymybuddy.export.rejected").counter().count()).isEqualTo(1.0);
+
+        transactionExportService.releaseExportPermit();
+        assertThat(transactionExportService.tryAcquireExportPermit()).isTrue();
+    }
+
+    @Test
+    void csvField_ShouldNeutralizeSpreadsheetFormulas() {
+        assertThat(TransactionExportService.csvField("=SUM(A1:A2)")).isEqualTo("'=SUM(A1:A2)");
+        assertThat(TransactionExportService.csvField("Ligne 1\nLigne 2")).isEqualTo("\"Ligne 1\nLigne 2\"");
+        assertThat(TransactionExportService.csvField(null)).isEmpty();
+    }
+}
@@ -1,29 +1,45 @@
 package com.openclassroom.paymybuddy.service;
 
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
 import com.openclassroom.paymybuddy.dto.RelationDTO;
+import com.openclassroom.paymybuddy.dto.SplitPaymentDTO;
+import com.openclassroom.paymybuddy.dto.SplitShareDTO;
+import com.openclassroom.paymybuddy.dto.TransactionPageDTO;
+import com.openclassroom.paymybuddy.dto.TransactionView;
+import com.openclassroom.paymybuddy.dto.TransactionViewPageDTO;
 import com.openclassroom.paymybuddy.dto.TransferDTO;
 import com.openclassroom.paymybuddy.model.Transaction;
+import com.openclassroom.paymybuddy.model.TransferDirection;
 import com.openclassroom.paymybuddy.model.User;
-import com.openclassroom.paymybuddy.model.UserConnection;
+import com.openclassroom.paymybuddy.repository.AsyncTransferRepository;
 import com.openclassroom.paymybuddy.repository.TransactionRepository;
 import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
 import com.openclassroom.paymybuddy.repository.UserRepository;
+import com.openclassroom.paymybuddy.util.KeysetCursor;
+import com.openclassroom.paymybuddy.util.LongHashSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +57,27 @@ class TransactionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ConnectionGraphCache connectionGraphCache;
+
+    @Mock
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
+    @Mock
+    private AsyncTransferRepository asyncTransferRepository;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -51,6 +88,10 @@ class TransactionServiceTest {
 
     @BeforeEach
     void setUp() {
+        // L'exécuteur applique directement l'opération, sans transaction ni reprise
+        lenient().when(optimisticRetryExecutor.execute(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
         senderUser = User.builder()
                 .id(1L)
                 .username("sender")
@@ -82,11 +123,11 @@ class TransactionServiceTest {
     }
 
     @Test
-    void createTransfer_WithValidData_ShouldSucceed() {
+    void createTransfer_LockedMode_WithValidData_ShouldSucceed() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
-        when(userConnectionRepository.existsByUserIdAndConnectionId(1L, 2L)).thenReturn(true);
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
         when(userRepository.save(any(User.class))).thenReturn(senderUser, receiverUser);
 
@@ -98,8 +139,8 @@ class TransactionServiceTest {
         assertThat(result.getAmount()).isEqualTo(validTransferDTO.getAmount());
         assertThat(result.getDescription()).isEqualTo(validTransferDTO.getDescription());
         
-        verify(userRepository).findById(1L);
-        verify(userRepository).findById(2L);
+        verify(userRepository).findAllByIdForUpdate(List.of(1L, 2L));
+        verify(userRepository, never()).findById(any());
         verify(transactionRepository).save(any(Transaction.class));
         verify(userRepository, times(2)).save(any(User.class));
         
@@ -109,22 +150,138 @@ class TransactionServiceTest {
     }
 
     @Test
-    void createTransfer_WithInsufficientBalance_ShouldThrowException() {
+    void createTransfer_OptimisticMode_ShouldLoadWithoutLockInsideRetryExecutor() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.OPTIMISTIC);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        Transaction result = transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        assertThat(result).isSameAs(sampleTransaction);
+        verify(optimisticRetryExecutor).execute(eq("transfer"), any());
+        verify(userRepository, never()).findAllByIdForUpdate(any());
+        verify(userRepository, never()).debitIfSufficient(any(), any());
+        verify(userRepository, times(2)).save(any(User.class));
+        assertThat(senderUser.getBalance()).isEqualTo(new BigDecimal("75.00"));
+        assertThat(receiverUser.getBalance()).isEqualTo(new BigDecimal("75.00"));
+    }
+
+    @Test
+    void createTransfer_LockedMode_WithSplitBalanceEnabled_ShouldSweepSlotsBeforeLockingInAscendingOrder() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        when(balanceSlotService.isEnabled()).thenReturn(true);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        InOrder inOrder = inOrder(balanceSlotService, userRepository);
+        inOrder.verify(balanceSlotService).sweep(1L);
+        inOrder.verify(balanceSlotService).sweep(2L);
+        inOrder.verify(userRepository).findAllByIdForUpdate(List.of(1L, 2L));
+    }
+
+    @Test
+    void createTransfer_OptimisticMode_ShouldSweepSenderSlotsBeforeLoading() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.OPTIMISTIC);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        InOrder inOrder = inOrder(balanceSlotService, userRepository);
+        inOrder.verify(balanceSlotService).sweep(1L);
+        inOrder.verify(userRepository).findById(1L);
+        verify(balanceSlotService, never()).sweep(2L);
+    }
+
+    @Test
+    void createTransfer_FromAsyncTransfer_ShouldCompleteItInSameTransaction() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.OPTIMISTIC);
+        validTransferDTO.setAsyncTransferId("transfer-1");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+        when(asyncTransferRepository.complete(eq("transfer-1"), eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        Transaction result = transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        assertThat(result).isSameAs(sampleTransaction);
+        verify(asyncTransferRepository).complete(eq("transfer-1"), eq(1L), eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createTransfer_FromExpiredAsyncTransfer_ShouldThrowToRollBack() {
+        // Given - le transfert asynchrone a été marqué en échec pendant le traitement
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.OPTIMISTIC);
+        validTransferDTO.setAsyncTransferId("transfer-1");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+        when(asyncTransferRepository.complete(eq("transfer-1"), eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("transfer-1");
+    }
+
+    @Test
+    void createTransfer_LockedMode_WithReceiverIdLowerThanSenderId_ShouldLockInAscendingOrder() {
         // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        senderUser.setId(5L);
+        validTransferDTO.setSenderId(5L);
+        validTransferDTO.setReceiverId(2L);
+
+        when(userRepository.findAllByIdForUpdate(List.of(2L, 5L))).thenReturn(List.of(receiverUser, senderUser));
+        when(connectionGraphCache.isConnected(5L, 2L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        verify(userRepository).findAllByIdForUpdate(List.of(2L, 5L));
+        assertThat(senderUser.getBalance()).isEqualTo(new BigDecimal("75.00"));
+        assertThat(receiverUser.getBalance()).isEqualTo(new BigDecimal("75.00"));
+    }
+
+    @Test
+    void createTransfer_LockedMode_WithInsufficientBalance_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
         senderUser.setBalance(new BigDecimal("10.00")); // Solde insuffisant
         validTransferDTO.setAmount(new BigDecimal("50.00"));
         
-        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(receiverUser));
-        when(userConnectionRepository.existsByUserIdAndConnectionId(1L, 2L)).thenReturn(true);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Balance insuffisante pour effectuer la transaction");
 
-        verify(userRepository).findById(1L);
-        verify(userRepository).findById(2L);
+        verify(userRepository).findAllByIdForUpdate(List.of(1L, 2L));
         verify(transactionRepository, never()).save(any(Transaction.class));
         verify(userRepository, never()).save(any(User.class));
     }
@@ -134,52 +291,364 @@ class TransactionServiceTest {
         // Given
         validTransferDTO.setReceiverId(1L); // Même utilisateur
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
-        when(userConnectionRepository.existsByUserIdAndConnectionId(1L, 1L)).thenReturn(true);
-
         // When & Then
         assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Vous ne pouvez pas effectuer un transfert vers vous-même");
 
-        verify(userRepository, times(2)).findById(1L);
+        verify(userRepository, never()).findAllByIdForUpdate(any());
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
     @Test
-    void createTransfer_WithNonExistentSender_ShouldThrowException() {
+    void createTransfer_LockedMode_WithNonExistentSender_ShouldThrowException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(receiverUser));
 
         // When & Then
         assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Expéditeur introuvable");
 
-        verify(userRepository).findById(1L);
-        verify(userRepository, never()).findById(2L);
+        verify(userRepository).findAllByIdForUpdate(List.of(1L, 2L));
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
     @Test
-    void createTransfer_WithNonExistentReceiver_ShouldThrowException() {
+    void createTransfer_LockedMode_WithNonExistentReceiver_ShouldThrowException() {
         // Given
-        when(userRepository.findById(1L)).thenReturn(Optional.of(senderUser));
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Destinataire introuvable");
+
+        verify(userRepository).findAllByIdForUpdate(List.of(1L, 2L));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransfer_LockedMode_WithoutConnection_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createTransfer_WithFractionalCents_ShouldThrowException() {
+        // Given
+        validTransferDTO.setAmount(new BigDecimal("10.005"));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Le montant ne peut pas comporter plus de deux décimales");
+
+        verifyNoInteractions(userRepository, transactionRepository);
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithValidData_ShouldUseConditionalUpdates() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(userRepository.debitIfSufficient(1L, new BigDecimal("25.00"))).thenReturn(1);
+        when(userRepository.credit(2L, new BigDecimal("25.00"))).thenReturn(1);
+        when(userRepository.getReferenceById(1L)).thenReturn(senderUser);
+        when(userRepository.getReferenceById(2L)).thenReturn(receiverUser);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        Transaction result = transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        assertThat(result).isEqualTo(sampleTransaction);
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository).debitIfSufficient(1L, new BigDecimal("25.00"));
+        inOrder.verify(userRepository).credit(2L, new BigDecimal("25.00"));
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findAllByIdForUpdate(any());
+        verify(userRepository, never()).save(any(User.class));
+        verify(transactionRepository).save(any(Transaction.class));
+        verify(ledgerService).recordTransfer(any(Transaction.class));
+        verify(outboxService).recordTransferCompleted(any(Transaction.class));
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithSplitBalanceReceiver_ShouldCreditSlotInsteadOfMainBalance() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(userRepository.debitIfSufficient(1L, new BigDecimal("25.00"))).thenReturn(1);
+        when(balanceSlotService.creditRandomSlot(2L, new BigDecimal("25.00"))).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        InOrder inOrder = inOrder(balanceSlotService, userRepository);
+        inOrder.verify(balanceSlotService).sweep(1L);
+        inOrder.verify(userRepository).debitIfSufficient(1L, new BigDecimal("25.00"));
+        inOrder.verify(balanceSlotService).creditRandomSlot(2L, new BigDecimal("25.00"));
+        verify(userRepository, never()).credit(any(), any());
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithReceiverIdLowerThanSenderId_ShouldCreditFirst() {
+        // Given
+        validTransferDTO.setSenderId(5L);
+        validTransferDTO.setReceiverId(2L);
+        when(connectionGraphCache.isConnected(5L, 2L)).thenReturn(true);
+        when(userRepository.credit(2L, new BigDecimal("25.00"))).thenReturn(1);
+        when(userRepository.debitIfSufficient(5L, new BigDecimal("25.00"))).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+
+        // When
+        transactionService.createTransfer(validTransferDTO);
+
+        // Then
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository).credit(2L, new BigDecimal("25.00"));
+        inOrder.verify(userRepository).debitIfSufficient(5L, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithInsufficientBalance_ShouldThrowException() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(true);
+        when(userRepository.debitIfSufficient(1L, new BigDecimal("25.00"))).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Balance insuffisante pour effectuer la transaction");
+
+        verify(userRepository, never()).credit(any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithoutConnection_ShouldThrowException() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+
+        verify(userRepository, never()).debitIfSufficient(any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransfer_AtomicMode_WithNonExistentReceiver_ShouldThrowException() {
+        // Given
+        when(connectionGraphCache.isConnected(1L, 2L)).thenReturn(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> transactionService.createTransfer(validTransferDTO))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Destinataire introuvable");
 
-        verify(userRepository).findById(1L);
-        verify(userRepository).findById(2L);
+        verify(userRepository, never()).debitIfSufficient(any(), any());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void executeTransfers_BestEffort_ShouldApplyValidTransfersAndReportRejectedOnes() {
+        // Given
+        List<TransferDTO> transfers = List.of(
+                new TransferDTO(1L, 2L, "Premier", new BigDecimal("60.00")),
+                new TransferDTO(1L, 2L, "Second", new BigDecimal("60.00")),
+                new TransferDTO(1L, 1L, "Soi-même", new BigDecimal("10.00")));
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.of(2L));
+        when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> inserted = invocation.getArgument(0);
+            inserted.forEach(transaction -> transaction.setId(42L));
+            return inserted;
+        });
+
+        // When
+        List<BatchTransferResultDTO> results = transactionService.executeTransfers(transfers, BatchTransferMode.BEST_EFFORT);
+
+        // Then
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getTransactionId()).isEqualTo(42L);
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getMessage()).isEqualTo("Balance insuffisante pour effectuer la transaction");
+        assertThat(results.get(2).isSuccess()).isFalse();
+        assertThat(results.get(2).getMessage()).isEqualTo("Vous ne pouvez pas effectuer un transfert vers vous-même");
+
+        verify(connectionGraphCache, times(1)).getConnectionIds(1L);
+        verify(userRepository).applyBalanceDeltas(argThat(deltas ->
+                deltas.size() == 2
+                        && deltas.get(1L).compareTo(new BigDecimal("-60.00")) == 0
+                        && deltas.get(2L).compareTo(new BigDecimal("60.00")) == 0));
+        verify(transactionRepository).insertAll(argThat(inserted -> inserted.size() == 1));
+        verify(ledgerService).recordTransfers(argThat(journaled -> journaled.size() == 1));
+        verify(outboxService).recordTransfersCompleted(argThat(published -> published.size() == 1));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void executeTransfers_AllOrNothing_WithOneRejectedTransfer_ShouldNotWriteAnything() {
+        // Given
+        List<TransferDTO> transfers = List.of(
+                new TransferDTO(1L, 2L, "Premier", new BigDecimal("60.00")),
+                new TransferDTO(1L, 2L, "Second", new BigDecimal("60.00")));
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.of(2L));
+
+        // When
+        List<BatchTransferResultDTO> results = transactionService.executeTransfers(transfers, BatchTransferMode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(results).hasSize(2).noneMatch(BatchTransferResultDTO::isSuccess);
+        assertThat(results.get(0).getMessage()).isEqualTo("Transfert annulé : un autre transfert du lot a été refusé");
+        assertThat(results.get(1).getMessage()).isEqualTo("Balance insuffisante pour effectuer la transaction");
+
+        verify(userRepository, never()).applyBalanceDeltas(any());
+        verify(transactionRepository, never()).insertAll(anyList());
+        verify(ledgerService, never()).recordTransfers(anyList());
+        verify(outboxService, never()).recordTransfersCompleted(anyList());
+    }
+
+    @Test
+    void executeTransfers_WithoutConnection_ShouldRejectTransfer() {
+        // Given
+        List<TransferDTO> transfers = List.of(new TransferDTO(1L, 2L, "Test", new BigDecimal("10.00")));
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(senderUser, receiverUser));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.empty());
+
+        // When
+        List<BatchTransferResultDTO> results = transactionService.executeTransfers(transfers, BatchTransferMode.BEST_EFFORT);
+
+        // Then
+        assertThat(results).singleElement()
+                .extracting(BatchTransferResultDTO::getMessage)
+                .isEqualTo("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+        verify(transactionRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void executeTransfers_WithEmptyBatch_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> transactionService.executeTransfers(List.of(), BatchTransferMode.BEST_EFFORT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Le lot de transferts est vide");
+
+        verifyNoInteractions(userRepository, transactionRepository);
+    }
+
+    @Test
+    void createSplitPayment_ShouldDebitTotalOnceAndBatchCreditsAroundSenderLock() {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(3L, "Restaurant", List.of(
+                new SplitShareDTO(2L, new BigDecimal("10.00")),
+                new SplitShareDTO(5L, new BigDecimal("15.50"))));
+        when(connectionGraphCache.getConnectionIds(3L)).thenReturn(LongHashSet.of(2L, 5L));
+        when(userRepository.debitIfSufficient(3L, new BigDecimal("25.50"))).thenReturn(1);
+
+        // When
+        List<Transaction> transactions = transactionService.createSplitPayment(splitPaymentDTO);
+
+        // Then
+        assertThat(transactions).hasSize(2)
+                .extracting(Transaction::getAmount)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("15.50"));
+        assertThat(transactions.get(0).getCreatedAt()).isEqualTo(transactions.get(1).getCreatedAt());
+
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository).applyBalanceDeltas(argThat(deltas -> deltas.keySet().equals(Set.of(2L))));
+        inOrder.verify(userRepository).debitIfSufficient(3L, new BigDecimal("25.50"));
+        inOrder.verify(userRepository).applyBalanceDeltas(argThat(deltas -> deltas.keySet().equals(Set.of(5L))));
+        verify(connectionGraphCache, times(1)).getConnectionIds(3L);
+        verify(userRepository, never()).findAllByIdForUpdate(any());
+        verify(transactionRepository).insertAll(argThat(inserted -> inserted.size() == 2));
+        verify(ledgerService).recordTransfers(argThat(journaled -> journaled.size() == 2));
+        verify(outboxService).recordTransfersCompleted(argThat(published -> published.size() == 2));
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
-    // Test supprimé car la méthode n'existe pas dans le service actuel
-    // @Test
-    // void createTransfer_WithoutConnection_ShouldThrowException() {
+    @Test
+    void createSplitPayment_WithInsufficientBalance_ShouldThrowException() {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(1L, "Restaurant", List.of(
+                new SplitShareDTO(2L, new BigDecimal("80.00")),
+                new SplitShareDTO(3L, new BigDecimal("80.00"))));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.of(2L, 3L));
+        when(userRepository.debitIfSufficient(1L, new BigDecimal("160.00"))).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createSplitPayment(splitPaymentDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Balance insuffisante pour effectuer la transaction");
+
+        verify(userRepository, never()).applyBalanceDeltas(any());
+        verify(transactionRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void createSplitPayment_WithReceiverOutsideConnections_ShouldThrowBeforeAnyWrite() {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(1L, "Restaurant", List.of(
+                new SplitShareDTO(2L, new BigDecimal("10.00")),
+                new SplitShareDTO(9L, new BigDecimal("10.00"))));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.of(2L));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createSplitPayment(splitPaymentDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vous ne pouvez envoyer de l'argent qu'à vos connexions");
+
+        verify(userRepository, never()).debitIfSufficient(any(), any());
+        verify(userRepository, never()).applyBalanceDeltas(any());
+    }
+
+    @Test
+    void createSplitPayment_WithDuplicateReceiver_ShouldThrowException() {
+        // Given
+        SplitPaymentDTO splitPaymentDTO = new SplitPaymentDTO(1L, "Restaurant", List.of(
+                new SplitShareDTO(2L, new BigDecimal("10.00")),
+                new SplitShareDTO(2L, new BigDecimal("5.00"))));
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongHashSet.of(2L));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createSplitPayment(splitPaymentDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Un destinataire ne peut figurer qu'une fois dans un paiement partagé");
+
+        verify(userRepository, never()).debitIfSufficient(any(), any());
+    }
+
+    @Test
+    void splitEvenly_ShouldGiveRemainingCentsToFirstReceivers() {
+        // When
+        List<SplitShareDTO> shares = TransactionService.splitEvenly(new BigDecimal("10.00"), List.of(4L, 7L, 9L));
+
+        // Then
+        assertThat(shares).extracting(SplitShareDTO::getReceiverId).containsExactly(4L, 7L, 9L);
+        assertThat(shares).extracting(SplitShareDTO::getAmount)
+                .containsExactly(new BigDecimal("3.34"), new BigDecimal("3.33"), new BigDecimal("3.33"));
+    }
 
     @Test
     void getAllTransactions_ShouldReturnAllTransactions() {
@@ -237,6 +706,132 @@ class TransactionServiceTest {
         verify(transactionRepository).findBySenderIdOrReceiverId(userId, userId);
     }
 
+    @Test
+    void getTransactionPage_FirstPage_ShouldMergeSentAndReceivedAndReturnCursor() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        Transaction sentNewest = Transaction.builder().id(5L).createdAt(now).build();
+        Transaction sentOldest = Transaction.builder().id(2L).createdAt(now.minusHours(2)).build();
+        Transaction receivedSameTime = Transaction.builder().id(4L).createdAt(now).build();
+        Transaction receivedOldest = Transaction.builder().id(1L).createdAt(now.minusHours(3)).build();
+        when(transactionRepository.findBySenderIdOrderByCreatedAtDescIdDesc(eq(1L), any()))
+                .thenReturn(List.of(sentNewest, sentOldest));
+        when(transactionRepository.findByReceiverIdOrderByCreatedAtDescIdDesc(eq(1L), any()))
+                .thenReturn(List.of(receivedSameTime, receivedOldest));
+
+        // When
+        TransactionPageDTO page = transactionService.getTransactionPage(1L, null, 2);
+
+        // Then
+        assertThat(page.getTransactions()).containsExactly(sentNewest, receivedSameTime);
+        assertThat(page.getNextCursor()).isEqualTo(new KeysetCursor(now, 4L).encode());
+        verify(transactionRepository).findBySenderIdOrderByCreatedAtDescIdDesc(1L, PageRequest.of(0, 3));
+        verify(transactionRepository, never()).findBySenderIdOrReceiverId(any(), any());
+    }
+
+    @Test
+    void getTransactionPage_WithCursor_ShouldSeekBothIndexesAndDetectLastPage() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new KeysetCursor(createdAt, 4L).encode();
+        Transaction older = Transaction.builder().id(2L).createdAt(createdAt.minusHours(2)).build();
+        when(transactionRepository.findSentBefore(eq(1L), eq(createdAt), eq(4L), any())).thenReturn(List.of(older));
+        when(transactionRepository.findReceivedBefore(eq(1L), eq(createdAt), eq(4L), any())).thenReturn(List.of());
+
+        // When
+        TransactionPageDTO page = transactionService.getTransactionPage(1L, cursor, 2);
+
+        // Then
+        assertThat(page.getTransactions()).containsExactly(older);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getTransactionPage_WithInvalidSize_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> transactionService.getTransactionPage(1L, null, TransactionService.MAX_HISTORY_PAGE_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactionViewPage_FirstPage_ShouldMergeProjectionsAndReturnCursor() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        TransactionView sentNewest = new TransactionView(5L, "bob", "Loyer", BigDecimal.TEN, now, TransferDirection.SENT);
+        TransactionView sentOldest = new TransactionView(2L, "bob", null, BigDecimal.ONE, now.minusHours(2), TransferDirection.SENT);
+        TransactionView receivedSameTime = new TransactionView(4L, "alice", "Cinéma", BigDecimal.ONE, now, TransferDirection.RECEIVED);
+        when(transactionRepository.findRecentSentViews(eq(1L), any())).thenReturn(List.of(sentNewest, sentOldest));
+        when(transactionRepository.findRecentReceivedViews(eq(1L), any())).thenReturn(List.of(receivedSameTime));
+
+        // When
+        TransactionViewPageDTO page = transactionService.getTransactionViewPage(1L, null, 2);
+
+        // Then
+        assertThat(page.getTransactions()).containsExactly(sentNewest, receivedSameTime);
+        assertThat(page.getNextCursor()).isEqualTo(new KeysetCursor(now, 4L).encode());
+        verify(transactionRepository).findRecentSentViews(1L, PageRequest.of(0, 3));
+        verify(transactionRepository, never()).findBySenderIdOrderByCreatedAtDescIdDesc(any(), any());
+    }
+
+    @Test
+    void getTransactionViewPage_WithCursor_ShouldSeekBothIndexesAndDetectLastPage() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new KeysetCursor(createdAt, 4L).encode();
+        TransactionView older = new TransactionView(2L, "bob", null, BigDecimal.ONE, createdAt.minusHours(2), TransferDirection.SENT);
+        when(transactionRepository.findSentViewsBefore(eq(1L), eq(createdAt), eq(4L), any())).thenReturn(List.of(older));
+        when(transactionRepository.findReceivedViewsBefore(eq(1L), eq(createdAt), eq(4L), any())).thenReturn(List.of());
+
+        // When
+        TransactionViewPageDTO page = transactionService.getTransactionViewPage(1L, cursor, 2);
+
+        // Then
+        assertThat(page.getTransactions()).containsExactly(older);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getTransactionViewPage_WithInvalidSize_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> transactionService.getTransactionViewPage(1L, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getRecentTransactions_ShouldMergeBothDirectionsAndKeepTopN() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        TransactionView sentNewest = new TransactionView(5L, "bob", null, BigDecimal.TEN, now, TransferDirection.SENT);
+        TransactionView sentOldest = new TransactionView(2L, "bob", null, BigDecimal.ONE, now.minusHours(2), TransferDirection.SENT);
+        TransactionView receivedSameTime = new TransactionView(4L, "alice", null, BigDecimal.ONE, now, TransferDirection.RECEIVED);
+        TransactionView receivedOlder = new TransactionView(3L, "alice", null, BigDecimal.ONE, now.minusHours(1), TransferDirection.RECEIVED);
+        when(transactionRepository.findRecentSentViews(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(sentNewest, sentOldest));
+        when(transactionRepository.findRecentReceivedViews(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(receivedSameTime, receivedOlder));
+
+        // When
+        List<TransactionView> result = transactionService.getRecentTransactions(1L, 3);
+
+        // Then
+        assertThat(result).containsExactly(sentNewest, receivedSameTime, receivedOlder);
+        verify(transactionRepository, never()).findAll();
+        verify(transactionRepository, never()).findBySenderIdOrReceiverId(any(), any());
+    }
+
+    @Test
+    void getRecentTransactions_WithInvalidLimit_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> transactionService.getRecentTransactions(1L, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(transactionRepository);
+    }
+
     @Test
     void getTransactionById_WithExistingId_ShouldReturnTransaction() {
         // Given
@@ -295,10 +890,9 @@ class TransactionServiceTest {
     void getRelations_ShouldReturnUserConnections() {
         // Given
         Long userId = 1L;
-        UserConnection connection = new UserConnection(senderUser, receiverUser);
-        List<UserConnection> connections = Arrays.asList(connection);
-        
-        when(userConnectionRepository.findByUserId(userId)).thenReturn(connections);
+        List<RelationDTO> relations = Arrays.asList(new RelationDTO(receiverUser.getId(), receiverUser.getUsername()));
+
+        when(userConnectionRepository.findRelationsByUserId(userId)).thenReturn(relations);
 
         // When
         List<RelationDTO> result = transactionService.getRelations(userId);
@@ -307,20 +901,21 @@ class TransactionServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(receiverUser.getId());
         assertThat(result.get(0).getName()).isEqualTo(receiverUser.getUsername());
-        verify(userConnectionRepository).findByUserId(userId);
+        verify(userConnectionRepository).findRelationsByUserId(userId);
+        verify(userConnectionRepository, never()).findByUserId(any());
     }
 
     @Test
     void getRelations_WithNoConnections_ShouldReturnEmptyList() {
         // Given
         Long userId = 1L;
-        when(userConnectionRepository.findByUserId(userId)).thenReturn(Arrays.asList());
+        when(userConnectionRepository.findRelationsByUserId(userId)).thenReturn(Arrays.asList());
 
         // When
         List<RelationDTO> result = transactionService.getRelations(userId);
 
         // Then
         assertThat(result).isEmpty();
-        verify(userConnectionRepository).findByUserId(userId);
+        verify(userConnectionRepository).findRelationsByUserId(userId);
     }
 }
@@ -0,0 +1,112 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import com.openclassroom.paymybuddy.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TransferDispatcher
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferDispatcherTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransferSequencer transferSequencer;
+
+    @Mock
+    private TransferGroupCommitter transferGroupCommitter;
+
+    @InjectMocks
+    private TransferDispatcher transferDispatcher;
+
+    private TransferDTO transferDTO;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        transaction = Transaction.builder()
+                .id(7L)
+                .amount(new BigDecimal("25.00"))
+                .description("Test transfer")
+                .build();
+    }
+
+    @Test
+    void dispatch_DirectMode_ShouldCallCreateTransfer() {
+        // Given
+        when(transactionService.createTransfer(transferDTO)).thenReturn(transaction);
+
+        // When
+        Transaction result = transferDispatcher.dispatch(transferDTO);
+
+        // Then
+        assertThat(result).isSameAs(transaction);
+        verifyNoInteractions(transferSequencer);
+    }
+
+    @Test
+    void dispatch_ShardedMode_ShouldSubmitToSequencer() {
+        // Given
+        ReflectionTestUtils.setField(transferDispatcher, "engineMode", TransferEngineMode.SHARDED);
+        when(transferSequencer.submit(transferDTO))
+                .thenReturn(new BatchTransferResultDTO(0, 2L, new BigDecimal("25.00"), true, 7L, null));
+        when(transactionService.getTransactionById(7L)).thenReturn(Optional.of(transaction));
+
+        // When
+        Transaction result = transferDispatcher.dispatch(transferDTO);
+
+        // Then
+        assertThat(result).isSameAs(transaction);
+        verify(transactionService, never()).createTransfer(any());
+    }
+
+    @Test
+    void dispatch_ShardedMode_WithRejectedTransfer_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(transferDispatcher, "engineMode", TransferEngineMode.SHARDED);
+        when(transferSequencer.submit(transferDTO)).thenReturn(new BatchTransferResultDTO(
+                0, 2L, new BigDecimal("25.00"), false, null, "Balance insuffisante pour effectuer la transaction"));
+
+        // When & Then
+        assertThatThrownBy(() -> transferDispatcher.dispatch(transferDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Balance insuffisante pour effectuer la transaction");
+        verify(transactionService, never()).getTransactionById(any());
+    }
+
+    @Test
+    void dispatch_GroupCommitMode_ShouldSubmitToGroupCommitter() {
+        // Given
+        ReflectionTestUtils.setField(transferDispatcher, "engineMode", TransferEngineMode.GROUP_COMMIT);
+        when(transferGroupCommitter.submit(transferDTO))
+                .thenReturn(new BatchTransferResultDTO(0, 2L, new BigDecimal("25.00"), true, 7L, null));
+        when(transactionService.getTransactionById(7L)).thenReturn(Optional.of(transaction));
+
+        // When
+        Transaction result = transferDispatcher.dispatch(transferDTO);
+
+        // Then
+        assertThat(result).isSameAs(transaction);
+        verifyNoInteractions(transferSequencer);
+        verify(transactionService, never()).createTransfer(any());
+    }
+}
@@ -0,0 +1,185 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TransferGroupCommitter
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferGroupCommitterTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferGroupCommitter transferGroupCommitter;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Fenêtre volontairement large pour que les transferts concurrents soient regroupés de façon déterministe
+        transferGroupCommitter = new TransferGroupCommitter(transactionService, meterRegistry, 200_000, 3, 10, 5000);
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        transferGroupCommitter.shutdown();
+    }
+
+    private static List<BatchTransferResultDTO> successResults(List<TransferDTO> transfers) {
+        List<BatchTransferResultDTO> results = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            results.add(new BatchTransferResultDTO(i, transfers.get(i).getReceiverId(),
+                    transfers.get(i).getAmount(), true, 100L + i, null));
+        }
+        return results;
+    }
+
+    @Test
+    void submit_ConcurrentTransfers_ShouldShareSingleCommit() {
+        // Given
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> successResults(invocation.getArgument(0)));
+
+        // When - la taille maximale (3) est atteinte avant la fin de la fenêtre
+        List<CompletableFuture<BatchTransferResultDTO>> futures = new ArrayList<>();
+        for (long receiverId = 2; receiverId <= 4; receiverId++) {
+            TransferDTO transferDTO = new TransferDTO(1L, receiverId, "Test transfer", new BigDecimal("5.00"));
+            futures.add(CompletableFuture.supplyAsync(() -> transferGroupCommitter.submit(transferDTO), callers));
+        }
+        List<BatchTransferResultDTO> results = futures.stream().map(CompletableFuture::join).toList();
+
+        // Then
+        assertThat(results).allMatch(BatchTransferResultDTO::isSuccess);
+        assertThat(results).extracting(BatchTransferResultDTO::getReceiverId).containsExactlyInAnyOrder(2L, 3L, 4L);
+        verify(transactionService, times(1)).executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT));
+        assertThat(meterRegistry.get("paymybuddy.transfer.group-commit.commits").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("paymybuddy.transfer.group-commit.batch.size").summary().max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void submit_WhenWindowExpires_ShouldCommitPartialBatch() {
+        // Given
+        transferGroupCommitter.shutdown();
+        transferGroupCommitter = new TransferGroupCommitter(transactionService, meterRegistry, 1000, 50, 10, 5000);
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> successResults(invocation.getArgument(0)));
+
+        // When
+        BatchTransferResultDTO result = transferGroupCommitter.submit(transferDTO);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTransactionId()).isEqualTo(100L);
+    }
+
+    @Test
+    void submit_WhenBatchFails_ShouldReplayTransfersIndividually() {
+        // Given - le lot échoue globalement, puis chaque transfert est rejoué seul
+        TransferDTO valid = new TransferDTO(1L, 2L, "Valide", new BigDecimal("5.00"));
+        TransferDTO broken = new TransferDTO(1L, 3L, "En erreur", new BigDecimal("5.00"));
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> {
+                    List<TransferDTO> transfers = invocation.getArgument(0);
+                    if (transfers.contains(broken)) {
+                        throw new IllegalStateException("Base indisponible");
+                    }
+                    return successResults(transfers);
+                });
+
+        // When
+        CompletableFuture<BatchTransferResultDTO> validResult =
+                CompletableFuture.supplyAsync(() -> transferGroupCommitter.submit(valid), callers);
+        CompletableFuture<BatchTransferResultDTO> brokenResult =
+                CompletableFuture.supplyAsync(() -> transferGroupCommitter.submit(broken), callers);
+
+        // Then
+        assertThat(validResult.orTimeout(5, TimeUnit.SECONDS).join().isSuccess()).isTrue();
+        assertThatThrownBy(() -> brokenResult.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Base indisponible");
+        verify(transactionService, atLeastOnce()).executeTransfers(argThat(transfers -> transfers.size() == 1
+                && transfers.get(0) == valid), eq(BatchTransferMode.BEST_EFFORT));
+    }
+
+    @Test
+    void submit_WhenTimedOutWhileQueued_ShouldCancelTransferAndNeverCommitIt() throws Exception {
+        // Given - des lots d'un seul transfert, le premier bloqué pendant sa validation
+        transferGroupCommitter.shutdown();
+        transferGroupCommitter = new TransferGroupCommitter(transactionService, meterRegistry, 1000, 1, 10, 200);
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch releaseBatch = new CountDownLatch(1);
+        List<TransferDTO> committed = Collections.synchronizedList(new ArrayList<>());
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> {
+                    List<TransferDTO> transfers = invocation.getArgument(0);
+                    committed.addAll(transfers);
+                    batchStarted.countDown();
+                    releaseBatch.await();
+                    return successResults(transfers);
+                });
+        TransferDTO inProgress = new TransferDTO(1L, 2L, "En cours", new BigDecimal("10.00"));
+        TransferDTO queued = new TransferDTO(1L, 3L, "En file", new BigDecimal("20.00"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<BatchTransferResultDTO> inProgressResult = executor.submit(() -> transferGroupCommitter.submit(inProgress));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then - le transfert encore en file est annulé à l'expiration du délai
+        assertThatThrownBy(() -> transferGroupCommitter.submit(queued))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("annulé");
+
+        // When - le premier lot se termine
+        releaseBatch.countDown();
+
+        // Then - le transfert déjà en cours de validation renvoie son résultat réel malgré le délai dépassé
+        assertThat(inProgressResult.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        // Un transfert soumis ensuite passe après le transfert annulé dans la file
+        assertThat(transferGroupCommitter.submit(new TransferDTO(1L, 4L, "Après", BigDecimal.ONE)).isSuccess()).isTrue();
+        assertThat(committed).doesNotContain(queued);
+        assertThat(meterRegistry.get("paymybuddy.transfer.group-commit.cancelled").counter().count()).isEqualTo(1.0);
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_AfterShutdown_ShouldThrowException() {
+        // Given
+        transferGroupCommitter.shutdown();
+
+        // When & Then
+        assertThatThrownBy(() -> transferGroupCommitter.submit(new TransferDTO(1L, 2L, "Test", BigDecimal.ONE)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Le moteur de transferts est arrêté");
+        verifyNoInteractions(transactionService);
+    }
+}
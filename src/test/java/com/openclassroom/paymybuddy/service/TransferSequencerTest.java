@@ -0,0 +1,154 @@
+package com.openclassroom.paymybuddy.service;
+
+import com.openclassroom.paymybuddy.dto.BatchTransferResultDTO;
+import com.openclassroom.paymybuddy.dto.TransferDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TransferSequencer
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferSequencerTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferSequencer transferSequencer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transferSequencer = new TransferSequencer(transactionService, meterRegistry, 4, 10, 50, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferSequencer.shutdown();
+    }
+
+    @Test
+    void shardOf_ShouldRouteAccountsByIdentifier() {
+        assertThat(transferSequencer.shardOf(1L)).isEqualTo(1);
+        assertThat(transferSequencer.shardOf(6L)).isEqualTo(2);
+        assertThat(transferSequencer.shardOf(8L)).isEqualTo(0);
+        assertThat(transferSequencer.shardOf(null)).isEqualTo(0);
+    }
+
+    @Test
+    void submit_ShouldApplyTransferThroughBatchPath() {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> {
+                    List<TransferDTO> transfers = invocation.getArgument(0);
+                    List<BatchTransferResultDTO> results = new ArrayList<>();
+                    for (int i = 0; i < transfers.size(); i++) {
+                        results.add(new BatchTransferResultDTO(i, transfers.get(i).getReceiverId(),
+                                transfers.get(i).getAmount(), true, 100L + i, null));
+                    }
+                    return results;
+                });
+
+        // When
+        BatchTransferResultDTO result = transferSequencer.submit(transferDTO);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTransactionId()).isEqualTo(100L);
+        assertThat(meterRegistry.get("paymybuddy.transfer.sequencer.batch.size").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("paymybuddy.transfer.sequencer.queue.depth").tag("shard", "2").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void submit_WhenBatchFails_ShouldPropagateException() {
+        // Given
+        TransferDTO transferDTO = new TransferDTO(1L, 2L, "Test transfer", new BigDecimal("25.00"));
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenThrow(new IllegalStateException("Base indisponible"));
+
+        // When & Then
+        assertThatThrownBy(() -> transferSequencer.submit(transferDTO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Base indisponible");
+    }
+
+    @Test
+    void submit_WhenTimedOutWhileQueued_ShouldCancelTransferAndNeverApplyIt() throws Exception {
+        // Given - un seul shard, dont le thread écrivain est bloqué sur un premier lot
+        transferSequencer.shutdown();
+        transferSequencer = new TransferSequencer(transactionService, meterRegistry, 1, 10, 50, 200);
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch releaseBatch = new CountDownLatch(1);
+        List<TransferDTO> applied = Collections.synchronizedList(new ArrayList<>());
+        when(transactionService.executeTransfers(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+                .thenAnswer(invocation -> {
+                    List<TransferDTO> transfers = invocation.getArgument(0);
+                    applied.addAll(transfers);
+                    batchStarted.countDown();
+                    releaseBatch.await();
+                    List<BatchTransferResultDTO> results = new ArrayList<>();
+                    for (int i = 0; i < transfers.size(); i++) {
+                        results.add(new BatchTransferResultDTO(i, transfers.get(i).getReceiverId(),
+                                transfers.get(i).getAmount(), true, 100L + i, null));
+                    }
+                    return results;
+                });
+        TransferDTO inProgress = new TransferDTO(1L, 2L, "En cours", new BigDecimal("10.00"));
+        TransferDTO queued = new TransferDTO(1L, 3L, "En file", new BigDecimal("20.00"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<BatchTransferResultDTO> inProgressResult = executor.submit(() -> transferSequencer.submit(inProgress));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then - le transfert encore en file est annulé à l'expiration du délai
+        assertThatThrownBy(() -> transferSequencer.submit(queued))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("annulé");
+
+        // When - le premier lot se termine
+        releaseBatch.countDown();
+
+        // Then - le transfert déjà pris en charge renvoie son résultat réel malgré le délai dépassé
+        assertThat(inProgressResult.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+        // Un transfert soumis ensuite passe après le transfert annulé dans la file du shard
+        assertThat(transferSequencer.submit(new TransferDTO(1L, 4L, "Après", BigDecimal.ONE)).isSuccess()).isTrue();
+        assertThat(applied).doesNotContain(queued);
+        assertThat(meterRegistry.get("paymybuddy.transfer.sequencer.cancelled").counter().count()).isEqualTo(1.0);
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_AfterShutdown_ShouldThrowException() {
+        // Given
+        transferSequencer.shutdown();
+
+        // When & Then
+        assertThatThrownBy(() -> transferSequencer.submit(new TransferDTO(1L, 2L, "Test", BigDecimal.ONE)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Le moteur de transferts est arrêté");
+        verifyNoInteractions(transactionService);
+    }
+}
@@ -1,26 +1,32 @@
 package com.openclassroom.paymybuddy.service;
 
 import com.openclassroom.paymybuddy.dto.RegisterDTO;
+import com.openclassroom.paymybuddy.dto.UserSearchView;
 import com.openclassroom.paymybuddy.model.User;
 import com.openclassroom.paymybuddy.repository.UserConnectionRepository;
 import com.openclassroom.paymybuddy.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,6 +44,21 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ConnectionGraphCache connectionGraphCache;
+
+    @Mock
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Mock
+    private MonthlyStatsService monthlyStatsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -46,6 +67,10 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        // L'exécuteur applique directement l'opération, sans transaction ni reprise
+        lenient().when(optimisticRetryExecutor.execute(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
         validRegisterDTO = new RegisterDTO();
         validRegisterDTO.setUsername("testuser");
         validRegisterDTO.setEmail("test@example.com");
@@ -360,6 +385,7 @@ class UserServiceTest {
         // Given
         Long userId = 1L;
         BigDecimal newBalance = new BigDecimal("100.00");
+        BigDecimal oldBalance = existingUser.getBalance();
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(existingUser);
@@ -370,6 +396,7 @@ class UserServiceTest {
         // Then
         verify(userRepository).findById(userId);
         verify(userRepository).save(existingUser);
+        verify(ledgerService).recordAdjustment(userId, newBalance.subtract(oldBalance));
         assertThat(existingUser.getBalance()).isEqualTo(newBalance);
     }
 
@@ -418,7 +445,7 @@ class UserServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.findByEmail(targetEmail)).thenReturn(Optional.of(targetUser));
-        when(userConnectionRepository.existsByUserAndConnection(existingUser, targetUser)).thenReturn(false);
+        when(connectionGraphCache.isConnected(existingUser.getId(), targetUser.getId())).thenReturn(false);
 
         // When
         userService.addUserConnection(userId, targetEmail);
@@ -426,7 +453,7 @@ class UserServiceTest {
         // Then
         verify(userRepository).findById(userId);
         verify(userRepository).findByEmail(targetEmail);
-        verify(userConnectionRepository).existsByUserAndConnection(existingUser, targetUser);
+        verify(connectionGraphCache).isConnected(existingUser.getId(), targetUser.getId());
         verify(userConnectionRepository).save(any());
     }
 
@@ -495,7 +522,7 @@ class UserServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.findByEmail(targetEmail)).thenReturn(Optional.of(targetUser));
-        when(userConnectionRepository.existsByUserAndConnection(existingUser, targetUser)).thenReturn(true);
+        when(connectionGraphCache.isConnected(existingUser.getId(), targetUser.getId())).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> userService.addUserConnection(userId, targetEmail))
@@ -504,7 +531,7 @@ class UserServiceTest {
 
         verify(userRepository).findById(userId);
         verify(userRepository).findByEmail(targetEmail);
-        verify(userConnectionRepository).existsByUserAndConnection(existingUser, targetUser);
+        verify(connectionGraphCache).isConnected(existingUser.getId(), targetUser.getId());
         verify(userConnectionRepository, never()).save(any());
     }
 
@@ -515,15 +542,15 @@ class UserServiceTest {
         // Given
         String searchTerm = "john";
         Long currentUserId = 1L;
-        List<User> expectedUsers = List.of(
-                User.builder().id(2L).username("john_doe").email("john@example.com").build(),
-                User.builder().id(3L).username("johny").email("johny@example.com").build()
+        List<UserSearchView> expectedUsers = List.of(
+                new UserSearchView(2L, "john_doe"),
+                new UserSearchView(3L, "johny")
         );
 
         when(userRepository.searchUsersExcludingCurrent(currentUserId, searchTerm)).thenReturn(expectedUsers);
 
         // When
-        List<User> result = userService.searchUsers(searchTerm, currentUserId);
+        List<UserSearchView> result = userService.searchUsers(searchTerm, currentUserId);
 
         // Then
         assertThat(result).hasSize(2);
@@ -538,7 +565,7 @@ class UserServiceTest {
         Long currentUserId = 1L;
 
         // When
-        List<User> result = userService.searchUsers(searchTerm, currentUserId);
+        List<UserSearchView> result = userService.searchUsers(searchTerm, currentUserId);
 
         // Then
         assertThat(result).isEmpty();
@@ -552,7 +579,7 @@ class UserServiceTest {
         Long currentUserId = 1L;
 
         // When
-        List<User> result = userService.searchUsers(searchTerm, currentUserId);
+        List<UserSearchView> result = userService.searchUsers(searchTerm, currentUserId);
 
         // Then
         assertThat(result).isEmpty();
@@ -566,7 +593,7 @@ class UserServiceTest {
         Long currentUserId = 1L;
 
         // When
-        List<User> result = userService.searchUsers(searchTerm, currentUserId);
+        List<UserSearchView> result = userService.searchUsers(searchTerm, currentUserId);
 
         // Then
         assertThat(result).isEmpty();
@@ -681,8 +708,8 @@ class UserServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.findByEmail(identifier)).thenReturn(Optional.of(targetUser));
         // ✅ Connexion existe dans un sens
-        when(userConnectionRepository.existsByUserAndConnection(existingUser, targetUser)).thenReturn(false);
-        when(userConnectionRepository.existsByUserAndConnection(targetUser, existingUser)).thenReturn(true);
+        when(connectionGraphCache.isConnected(existingUser.getId(), targetUser.getId())).thenReturn(false);
+        when(connectionGraphCache.isConnected(targetUser.getId(), existingUser.getId())).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> userService.addUserConnectionByIdentifier(userId, identifier))
@@ -691,8 +718,8 @@ class UserServiceTest {
 
         verify(userRepository).findById(userId);
         verify(userRepository).findByEmail(identifier);
-        verify(userConnectionRepository).existsByUserAndConnection(existingUser, targetUser);
-        verify(userConnectionRepository).existsByUserAndConnection(targetUser, existingUser);
+        verify(connectionGraphCache).isConnected(existingUser.getId(), targetUser.getId());
+        verify(connectionGraphCache).isConnected(targetUser.getId(), existingUser.getId());
         verify(userConnectionRepository, never()).save(any());
     }
 
@@ -711,16 +738,16 @@ class UserServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.findByEmail(identifier)).thenReturn(Optional.of(targetUser));
-        when(userConnectionRepository.existsByUserAndConnection(existingUser, targetUser)).thenReturn(false);
-        when(userConnectionRepository.existsByUserAndConnection(targetUser, existingUser)).thenReturn(false);
+        when(connectionGraphCache.isConnected(existingUser.getId(), targetUser.getId())).thenReturn(false);
+        when(connectionGraphCache.isConnected(targetUser.getId(), existingUser.getId())).thenReturn(false);
 
         // When
         userService.addUserConnectionByIdentifier(userId, identifier);
 
         // Then
         verify(userRepository).findById(userId);
-        verify(userConnectionRepository).existsByUserAndConnection(existingUser, targetUser);
-        verify(userConnectionRepository).existsByUserAndConnection(targetUser, existingUser);
+        verify(connectionGraphCache).isConnected(existingUser.getId(), targetUser.getId());
+        verify(connectionGraphCache).isConnected(targetUser.getId(), existingUser.getId());
         
         verify(userConnectionRepository, times(2)).save(any());
     }
@@ -769,41 +796,64 @@ class UserServiceTest {
     // ========== TESTS POUR adjustUserBalance ==========
 
     @Test
-    void adjustUserBalance_WithAddOperation_ShouldSucceed() {
+    void adjustUserBalance_LockedMode_WithAddOperation_ShouldSucceed() {
         // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
         Long userId = 1L;
         BigDecimal amount = new BigDecimal("50.00");
         String operation = "ADD";
         existingUser.setBalance(new BigDecimal("100.00"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(existingUser);
 
         // When
         userService.adjustUserBalance(userId, amount, operation);
 
         // Then
-        verify(userRepository, times(2)).findById(userId); // Une fois dans adjustUserBalance, une fois dans updateUserBalance
+        verify(userRepository).findAllByIdForUpdate(List.of(userId));
+        verify(userRepository).save(existingUser);
+        assertThat(existingUser.getBalance()).isEqualTo(new BigDecimal("150.00"));
+    }
+
+    @Test
+    void adjustUserBalance_OptimisticMode_ShouldLoadWithoutLock() {
+        // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.OPTIMISTIC);
+        Long userId = 1L;
+        existingUser.setBalance(new BigDecimal("100.00"));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(User.class))).thenReturn(existingUser);
+
+        // When
+        userService.adjustUserBalance(userId, new BigDecimal("50.00"), "ADD");
+
+        // Then
+        verify(optimisticRetryExecutor).execute(eq("adjust-balance"), any());
+        verify(userRepository, never()).findAllByIdForUpdate(any());
         verify(userRepository).save(existingUser);
+        verify(ledgerService).recordAdjustment(userId, new BigDecimal("50.00"));
         assertThat(existingUser.getBalance()).isEqualTo(new BigDecimal("150.00"));
     }
 
     @Test
-    void adjustUserBalance_WithSubtractOperation_ShouldSucceed() {
+    void adjustUserBalance_LockedMode_WithSubtractOperation_ShouldSucceed() {
         // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
         Long userId = 1L;
         BigDecimal amount = new BigDecimal("30.00");
         String operation = "SUBTRACT";
         existingUser.setBalance(new BigDecimal("100.00"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(existingUser);
 
         // When
         userService.adjustUserBalance(userId, amount, operation);
 
         // Then
-        verify(userRepository, times(2)).findById(userId); // Une fois dans adjustUserBalance, une fois dans updateUserBalance
+        verify(userRepository).findAllByIdForUpdate(List.of(userId));
         verify(userRepository).save(existingUser);
         assertThat(existingUser.getBalance()).isEqualTo(new BigDecimal("70.00"));
     }
@@ -873,38 +923,177 @@ class UserServiceTest {
     }
 
     @Test
-    void adjustUserBalance_WithSubtractOperationResultingInNegative_ShouldThrowException() {
+    void adjustUserBalance_LockedMode_WithSubtractOperationResultingInNegative_ShouldThrowException() {
         // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
         Long userId = 1L;
         BigDecimal amount = new BigDecimal("150.00");
         String operation = "SUBTRACT";
         existingUser.setBalance(new BigDecimal("100.00"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of(existingUser));
 
         // When & Then
         assertThatThrownBy(() -> userService.adjustUserBalance(userId, amount, operation))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("La balance ne peut pas être inférieure à 0€");
 
-        verify(userRepository).findById(userId); // Une seule fois dans adjustUserBalance avant l'échec de validation
+        verify(userRepository).findAllByIdForUpdate(List.of(userId));
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void adjustUserBalance_WithAddOperationExceedingLimit_ShouldThrowException() {
+    void adjustUserBalance_LockedMode_WithAddOperationExceedingLimit_ShouldThrowException() {
         // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
         Long userId = 1L;
         BigDecimal amount = new BigDecimal("5000.00");
         String operation = "ADD";
         existingUser.setBalance(new BigDecimal("9000.00"));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of(existingUser));
 
         // When & Then
         assertThatThrownBy(() -> userService.adjustUserBalance(userId, amount, operation))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("La balance ne peut pas être supérieure à 10 000€");
 
-        verify(userRepository).findById(userId); // Une seule fois dans adjustUserBalance avant l'échec de validation
+        verify(userRepository).findAllByIdForUpdate(List.of(userId));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void adjustUserBalance_LockedMode_WithNonExistingUser_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        Long userId = 999L;
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of());
+
+        // When & Then
+        assertThatThrownBy(() -> userService.adjustUserBalance(userId, new BigDecimal("10.00"), "ADD"))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Utilisateur non trouvé");
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_WithAddOperation_ShouldUseConditionalCredit() {
+        // Given
+        Long userId = 1L;
+        BigDecimal amount = new BigDecimal("50.00");
+        when(userRepository.creditUpTo(userId, amount, BigDecimal.valueOf(10000))).thenReturn(1);
+
+        // When
+        userService.adjustUserBalance(userId, amount, "ADD");
+
+        // Then
+        verify(userRepository).creditUpTo(userId, amount, BigDecimal.valueOf(10000));
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(User.class));
+        verify(ledgerService).recordAdjustment(userId, amount);
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_WithSubtractOperation_ShouldUseConditionalDebit() {
+        // Given
+        Long userId = 1L;
+        BigDecimal amount = new BigDecimal("30.00");
+        when(userRepository.debitIfSufficient(userId, amount)).thenReturn(1);
+
+        // When
+        userService.adjustUserBalance(userId, amount, "SUBTRACT");
+
+        // Then
+        verify(userRepository).debitIfSufficient(userId, amount);
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(User.class));
+        verify(ledgerService).recordAdjustment(userId, amount.negate());
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_WithInsufficientBalance_ShouldThrowException() {
+        // Given
+        Long userId = 1L;
+        BigDecimal amount = new BigDecimal("150.00");
+        when(userRepository.debitIfSufficient(userId, amount)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> userService.adjustUserBalance(userId, amount, "SUBTRACT"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La balance ne peut pas être inférieure à 0€");
+        verify(ledgerService, never()).recordAdjustment(any(), any());
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_WithAddOperationExceedingLimit_ShouldThrowException() {
+        // Given
+        Long userId = 1L;
+        BigDecimal amount = new BigDecimal("5000.00");
+        when(userRepository.creditUpTo(userId, amount, BigDecimal.valueOf(10000))).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> userService.adjustUserBalance(userId, amount, "ADD"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La balance ne peut pas être supérieure à 10 000€");
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_WithNonExistingUser_ShouldThrowException() {
+        // Given
+        Long userId = 999L;
+        BigDecimal amount = new BigDecimal("10.00");
+        when(userRepository.creditUpTo(userId, amount, BigDecimal.valueOf(10000))).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> userService.adjustUserBalance(userId, amount, "ADD"))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Utilisateur non trouvé");
+    }
+
+    @Test
+    void adjustUserBalance_AtomicMode_ShouldSweepBalanceSlotsBeforeUpdate() {
+        // Given
+        Long userId = 1L;
+        BigDecimal amount = new BigDecimal("30.00");
+        when(userRepository.debitIfSufficient(userId, amount)).thenReturn(1);
+
+        // When
+        userService.adjustUserBalance(userId, amount, "SUBTRACT");
+
+        // Then
+        InOrder inOrder = inOrder(balanceSlotService, userRepository);
+        inOrder.verify(balanceSlotService).sweep(userId);
+        inOrder.verify(userRepository).debitIfSufficient(userId, amount);
+    }
+
+    @Test
+    void adjustUserBalance_LockedMode_ShouldSweepBalanceSlotsBeforeLoadingUser() {
+        // Given
+        ReflectionTestUtils.setField(userService, "balanceWriteMode", BalanceWriteMode.LOCKED);
+        Long userId = 1L;
+        existingUser.setBalance(new BigDecimal("100.00"));
+        when(userRepository.findAllByIdForUpdate(List.of(userId))).thenReturn(List.of(existingUser));
+
+        // When
+        userService.adjustUserBalance(userId, new BigDecimal("30.00"), "SUBTRACT");
+
+        // Then
+        InOrder inOrder = inOrder(balanceSlotService, userRepository);
+        inOrder.verify(balanceSlotService).sweep(userId);
+        inOrder.verify(userRepository).findAllByIdForUpdate(List.of(userId));
+    }
+
+    @Test
+    void getTotalBalance_ShouldIncludeBalanceSlots() {
+        // Given
+        when(balanceSlotService.getTotalBalance(existingUser)).thenReturn(new BigDecimal("142.00"));
+
+        // When
+        BigDecimal total = userService.getTotalBalance(existingUser);
+
+        // Then
+        assertThat(total).isEqualByComparingTo("142.00");
     }
 }
@@ -0,0 +1,112 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour HierarchicalTimerWheel.
+ */
+class HierarchicalTimerWheelTest {
+
+    @Test
+    void testItemsAreReturnedAtTheirTick() {
+        // 3 niveaux de 4 cases : horizon de 64 ticks de 10 ms
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 2, 3, 0);
+        wheel.schedule(50, "niveau 1");
+        wheel.schedule(170, "niveau 2");
+        wheel.schedule(630, "niveau 3");
+        assertEquals(3, wheel.size());
+
+        for (long now = 0; now <= 640; now += 10) {
+            List<String> due = wheel.advance(now);
+            if (now == 50) {
+                assertEquals(List.of("niveau 1"), due);
+            } else if (now == 170) {
+                assertEquals(List.of("niveau 2"), due);
+            } else if (now == 630) {
+                assertEquals(List.of("niveau 3"), due);
+            } else {
+                assertTrue(due.isEmpty(), "Aucun élément attendu à " + now);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testItemIsNeverReturnedBeforeItsDeadline() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 2, 3, 0);
+        wheel.schedule(55, "a");
+
+        assertTrue(wheel.advance(50).isEmpty());
+        assertTrue(wheel.advance(59).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(60));
+    }
+
+    @Test
+    void testPastDeadlineIsReturnedOnNextAdvance() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 2, 3, 1000);
+        wheel.schedule(200, "en retard");
+
+        assertEquals(List.of("en retard"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDeadlineBeyondHorizonIsRejected() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 2, 3, 0);
+        assertEquals(630, wheel.getHorizonMillis());
+
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(640, "trop loin"));
+    }
+
+    @Test
+    void testLargeJumpReturnsAllDueItemsInTickOrder() {
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(10, 2, 3, 0);
+        wheel.schedule(300, 3);
+        wheel.schedule(20, 1);
+        wheel.schedule(150, 2);
+
+        assertEquals(List.of(1, 2, 3), wheel.advance(10_000));
+        wheel.schedule(10_050, 4);
+        assertEquals(List.of(4), wheel.advance(10_050));
+    }
+
+    @Test
+    void testRandomDeadlinesAreReturnedOnTime() {
+        Random random = new Random(42);
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(1, 4, 3, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        List<Integer> returned = new ArrayList<>();
+        long now = 0;
+        int next = 0;
+
+        while (now < 20_000) {
+            for (int i = 0; i < 5; i++) {
+                long deadline = now + random.nextInt(4000);
+                deadlines.put(next, deadline);
+                wheel.schedule(deadline, next++);
+            }
+            now += 1 + random.nextInt(50);
+            for (Integer item : wheel.advance(now)) {
+                assertTrue(deadlines.get(item) <= now, "Élément " + item + " rendu avant son échéance");
+                returned.add(item);
+            }
+            // Tout élément échu doit avoir été rendu
+            for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+                if (entry.getValue() <= now) {
+                    assertTrue(returned.contains(entry.getKey()), "Élément " + entry.getKey() + " non rendu à échéance");
+                }
+            }
+            deadlines.keySet().removeAll(returned);
+            returned.clear();
+        }
+        assertEquals(deadlines.size(), wheel.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour IdRange.
+ */
+class IdRangeTest {
+
+    @Test
+    void testSplitCoversIntervalWithoutOverlap() {
+        List<IdRange> ranges = IdRange.split(1, 25, 10);
+
+        assertEquals(List.of(new IdRange(1, 10), new IdRange(11, 20), new IdRange(21, 25)), ranges);
+        assertEquals(25, ranges.stream().mapToLong(IdRange::size).sum());
+    }
+
+    @Test
+    void testSplitWithExactMultiple() {
+        assertEquals(List.of(new IdRange(1, 5), new IdRange(6, 10)), IdRange.split(1, 10, 5));
+    }
+
+    @Test
+    void testSplitSingleId() {
+        assertEquals(List.of(new IdRange(7, 7)), IdRange.split(7, 7, 100));
+    }
+
+    @Test
+    void testSplitEmptyInterval() {
+        assertTrue(IdRange.split(10, 9, 5).isEmpty());
+    }
+
+    @Test
+    void testSplitReachingLongMaxValue() {
+        List<IdRange> ranges = IdRange.split(Long.MAX_VALUE - 4, Long.MAX_VALUE, 3);
+
+        assertEquals(2, ranges.size());
+        assertEquals(Long.MAX_VALUE, ranges.get(1).getEnd());
+    }
+
+    @Test
+    void testContains() {
+        IdRange range = new IdRange(5, 10);
+
+        assertTrue(range.contains(5));
+        assertTrue(range.contains(10));
+        assertFalse(range.contains(11));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new IdRange(10, 5));
+        assertThrows(IllegalArgumentException.class, () -> IdRange.split(1, 10, 0));
+    }
+}
@@ -0,0 +1,34 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour KeysetCursor.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000), 42L);
+
+        String encoded = cursor.encode();
+        KeysetCursor decoded = KeysetCursor.decode(encoded);
+
+        assertEquals(cursor, decoded);
+        assertEquals(42L, decoded.getId());
+        assertFalse(encoded.contains("="));
+        assertFalse(encoded.contains("/"));
+    }
+
+    @Test
+    void testDecodeRejectsInvalidCursor() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> KeysetCursor.decode("pas-un-curseur"));
+        assertEquals("Curseur de pagination invalide", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("???"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LongHashSet.
+ */
+class LongHashSetTest {
+
+    @Test
+    void testAddAndContains() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertTrue(set.add(-7L));
+
+        assertTrue(set.contains(42L));
+        assertTrue(set.contains(-7L));
+        assertFalse(set.contains(0L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        LongHashSet set = new LongHashSet(2);
+        for (long value = 1; value <= 10_000; value++) {
+            set.add(value);
+        }
+
+        assertEquals(10_000, set.size());
+        for (long value = 1; value <= 10_000; value++) {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(10_001L));
+    }
+
+    @Test
+    void testFactories() {
+        LongHashSet fromValues = LongHashSet.of(1L, 2L, 2L);
+        LongHashSet fromCollection = LongHashSet.copyOf(Arrays.asList(3L, null, 4L));
+
+        assertEquals(2, fromValues.size());
+        assertTrue(fromValues.contains(2L));
+        assertEquals(2, fromCollection.size());
+        assertTrue(fromCollection.contains(4L));
+        assertTrue(LongHashSet.empty().isEmpty());
+    }
+
+    @Test
+    void testNegativeExpectedSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+    }
+}
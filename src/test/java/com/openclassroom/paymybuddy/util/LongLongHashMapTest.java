@@ -0,0 +1,89 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LongLongHashMap.
+ */
+class LongLongHashMapTest {
+
+    @Test
+    void testAddToAndGet() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.addTo(7L, 150L);
+        map.addTo(7L, -50L);
+        map.addTo(0L, 10L);
+
+        assertEquals(100L, map.getOrDefault(7L, -1L));
+        assertEquals(10L, map.getOrDefault(0L, -1L));
+        assertEquals(-1L, map.getOrDefault(8L, -1L));
+        assertTrue(map.containsKey(0L));
+        assertFalse(map.containsKey(8L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testPutReplacesValue() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 5L);
+        map.put(1L, 9L);
+
+        assertEquals(9L, map.getOrDefault(1L, 0L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testGrowsAndMatchesHashMap() {
+        LongLongHashMap map = new LongLongHashMap(1);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(20_000) - 10_000L;
+            long delta = random.nextInt(1000) - 500L;
+            map.addTo(key, delta);
+            reference.merge(key, delta, Long::sum);
+        }
+
+        assertEquals(reference.size(), map.size());
+        reference.forEach((key, value) -> assertEquals(value.longValue(), map.getOrDefault(key, Long.MIN_VALUE)));
+    }
+
+    @Test
+    void testForEachVisitsEveryEntry() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, key * 2);
+        }
+
+        long[] sums = new long[2];
+        map.forEach((key, value) -> {
+            sums[0] += key;
+            sums[1] += value;
+        });
+
+        assertEquals(5050L, sums[0]);
+        assertEquals(10100L, sums[1]);
+    }
+
+    @Test
+    void testClear() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 1L);
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(1L));
+    }
+
+    @Test
+    void testNegativeExpectedSizeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashMap(-1));
+    }
+}
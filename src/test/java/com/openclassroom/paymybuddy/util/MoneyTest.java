@@ -0,0 +1,69 @@
+package com.openclassroom.paymybuddy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour Money.
+ */
+class MoneyTest {
+
+    @Test
+    void testToCentsAcceptsScalesUpToTwo() {
+        assertEquals(2550L, Money.toCents(new BigDecimal("25.50")));
+        assertEquals(2550L, Money.toCents(new BigDecimal("25.5")));
+        assertEquals(2500L, Money.toCents(new BigDecimal("25")));
+        assertEquals(-1L, Money.toCents(new BigDecimal("-0.01")));
+        assertEquals(100000L, Money.toCents(new BigDecimal("1E+3")));
+        assertEquals(1234L, Money.toCents(new BigDecimal("12.3400")));
+    }
+
+    @Test
+    void testToCentsRejectsFractionalCents() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Money.toCents(new BigDecimal("0.005")));
+        assertEquals("Le montant ne peut pas comporter plus de deux décimales", exception.getMessage());
+    }
+
+    @Test
+    void testToCentsRejectsOverflowAndNull() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(new BigDecimal("1E+20")));
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(null));
+    }
+
+    @Test
+    void testToBigDecimalHasTwoDecimals() {
+        assertEquals(new BigDecimal("25.50"), Money.toBigDecimal(2550L));
+        assertEquals(new BigDecimal("0.00"), Money.ZERO.toBigDecimal());
+        assertEquals("12.05", Money.ofCents(1205L).toString());
+    }
+
+    @Test
+    void testArithmeticAndComparisons() {
+        Money ten = Money.of(new BigDecimal("10.00"));
+        Money three = Money.ofCents(300L);
+
+        assertEquals(Money.ofCents(1300L), ten.plus(three));
+        assertEquals(Money.ofCents(700L), ten.minus(three));
+        assertEquals(Money.ofCents(900L), three.times(3));
+        assertEquals(Money.ofCents(-300L), three.negate());
+        assertTrue(ten.isGreaterThan(three));
+        assertTrue(three.isLessThan(ten));
+        assertTrue(three.negate().isNegative());
+        assertFalse(Money.ZERO.isPositive());
+        assertSame(Money.ZERO, ten.minus(ten));
+    }
+
+    @Test
+    void testArithmeticDetectsOverflow() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1L)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1L)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+    }
+}